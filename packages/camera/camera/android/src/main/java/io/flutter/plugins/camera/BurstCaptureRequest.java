@@ -0,0 +1,168 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.MethodChannel;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks a burst of still captures, from the moment the burst is submitted until every picture has
+ * been written to a file.
+ *
+ * <p>Every saved picture is reported to Dart with its capture latency, measured from the start of
+ * the frame's exposure until its file was written. The method call completes with the paths of all
+ * pictures once the last one has been saved.
+ *
+ * <p>Capture callbacks arrive on the camera's background thread while pictures are saved on the
+ * I/O executor, so all methods are synchronized.
+ */
+class BurstCaptureRequest {
+  private static final double NANOS_PER_MILLISECOND = 1000000.0;
+
+  private final Runnable timeoutCallback =
+      new Runnable() {
+        @Override
+        public void run() {
+          error("captureTimeout", "Burst capture request timed out");
+        }
+      };
+
+  private final MethodChannel.Result result;
+  private final DartMessenger dartMessenger;
+  private final PictureCaptureRequest.TimeoutHandler timeoutHandler;
+  private final List<File> files;
+  private final long submittedTimeNanos;
+  private final String[] paths;
+  private final long[] captureStartTimesNanos;
+  private final Map<Long, Long> startTimesBySensorTimestamp = new HashMap<>();
+  private int capturedCount;
+  private int savedCount;
+  private boolean finished;
+
+  /**
+   * Creates a new burst request and starts its timeout.
+   *
+   * @param result The result completed once every picture has been saved.
+   * @param dartMessenger Messenger used to report saved pictures and complete the result.
+   * @param files The files the pictures are written to, one per picture of the burst.
+   * @param timeoutHandler Handler running the timeout, which is reset whenever a picture arrives.
+   * @param submittedTimeNanos Time the burst was submitted, in {@link
+   *     android.os.SystemClock#elapsedRealtimeNanos()} time.
+   */
+  BurstCaptureRequest(
+      @NonNull MethodChannel.Result result,
+      @NonNull DartMessenger dartMessenger,
+      @NonNull List<File> files,
+      @NonNull PictureCaptureRequest.TimeoutHandler timeoutHandler,
+      long submittedTimeNanos) {
+    if (files.isEmpty()) {
+      throw new IllegalArgumentException("A burst needs at least one picture");
+    }
+    this.result = result;
+    this.dartMessenger = dartMessenger;
+    this.files = files;
+    this.timeoutHandler = timeoutHandler;
+    this.submittedTimeNanos = submittedTimeNanos;
+    this.paths = new String[files.size()];
+    this.captureStartTimesNanos = new long[files.size()];
+    timeoutHandler.resetTimeout(timeoutCallback);
+  }
+
+  /** Returns the number of pictures in the burst. */
+  int getCount() {
+    return files.size();
+  }
+
+  synchronized boolean isFinished() {
+    return finished;
+  }
+
+  /**
+   * Records the time the exposure of a frame started.
+   *
+   * @param sensorTimestamp The sensor timestamp of the frame, as reported by the capture callback.
+   * @param nowNanos The current {@link android.os.SystemClock#elapsedRealtimeNanos()} time.
+   */
+  synchronized void onCaptureStarted(long sensorTimestamp, long nowNanos) {
+    if (!finished) {
+      startTimesBySensorTimestamp.put(sensorTimestamp, nowNanos);
+    }
+  }
+
+  /**
+   * Assigns the next picture of the burst to a captured image.
+   *
+   * @param sensorTimestamp The timestamp of the captured image.
+   * @return The file the image should be written to, or null if the burst is already finished or
+   *     complete.
+   */
+  @Nullable
+  synchronized File onImageCaptured(long sensorTimestamp) {
+    if (finished || capturedCount == files.size()) {
+      return null;
+    }
+    Long startTimeNanos = startTimesBySensorTimestamp.remove(sensorTimestamp);
+    captureStartTimesNanos[capturedCount] =
+        startTimeNanos == null ? submittedTimeNanos : startTimeNanos;
+    timeoutHandler.resetTimeout(timeoutCallback);
+    return files.get(capturedCount++);
+  }
+
+  /**
+   * Reports a saved picture to Dart, and completes the request once all pictures have been saved.
+   *
+   * @param file The file the picture was written to.
+   * @param nowNanos The current {@link android.os.SystemClock#elapsedRealtimeNanos()} time.
+   */
+  synchronized void onImageSaved(@NonNull File file, long nowNanos) {
+    if (finished) {
+      // The burst failed while this picture was being written, so it is never reported.
+      file.delete();
+      return;
+    }
+    int index = files.indexOf(file);
+    String path = file.getAbsolutePath();
+    paths[index] = path;
+    savedCount++;
+    dartMessenger.sendBurstPictureSavedEvent(
+        index,
+        files.size(),
+        path,
+        (nowNanos - captureStartTimesNanos[index]) / NANOS_PER_MILLISECOND);
+
+    if (savedCount == files.size()) {
+      finished = true;
+      timeoutHandler.clearTimeout(timeoutCallback);
+      dartMessenger.finish(result, new ArrayList<>(Arrays.asList(paths)));
+    } else {
+      timeoutHandler.resetTimeout(timeoutCallback);
+    }
+  }
+
+  /**
+   * Fails the request, unless it has already finished. Pictures that were already reported are
+   * kept, and the files of the others are deleted.
+   */
+  synchronized void error(@NonNull String errorCode, @Nullable String errorMessage) {
+    if (finished) {
+      return;
+    }
+    finished = true;
+    timeoutHandler.clearTimeout(timeoutCallback);
+    for (int i = 0; i < files.size(); i++) {
+      if (paths[i] == null) {
+        files.get(i).delete();
+      }
+    }
+    dartMessenger.error(result, errorCode, errorMessage, null);
+  }
+}
@@ -11,7 +11,6 @@ import android.annotation.TargetApi;
 import android.app.Activity;
 import android.content.Context;
 import android.graphics.ImageFormat;
-import android.graphics.Rect;
 import android.graphics.SurfaceTexture;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCaptureSession;
@@ -24,17 +23,22 @@ import android.hardware.camera2.CaptureFailure;
 import android.hardware.camera2.CaptureRequest;
 import android.hardware.camera2.CaptureResult;
 import android.hardware.camera2.TotalCaptureResult;
+import android.hardware.camera2.params.InputConfiguration;
 import android.hardware.camera2.params.MeteringRectangle;
 import android.hardware.camera2.params.OutputConfiguration;
 import android.hardware.camera2.params.SessionConfiguration;
+import android.hardware.camera2.params.StreamConfigurationMap;
 import android.media.CamcorderProfile;
 import android.media.Image;
 import android.media.ImageReader;
+import android.media.ImageWriter;
+import android.media.MediaCodec;
 import android.media.MediaRecorder;
 import android.os.Build;
 import android.os.Build.VERSION;
 import android.os.Build.VERSION_CODES;
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.Looper;
 import android.os.SystemClock;
 import android.util.Log;
@@ -47,23 +51,33 @@ import androidx.annotation.Nullable;
 import io.flutter.embedding.engine.systemchannels.PlatformChannel;
 import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.MethodChannel.Result;
+import io.flutter.plugins.camera.CameraLatencyTracker.Milestone;
 import io.flutter.plugins.camera.PictureCaptureRequest.State;
+import io.flutter.plugins.camera.features.CameraFeatures;
+import io.flutter.plugins.camera.features.autofocus.AutoFocusFeature;
+import io.flutter.plugins.camera.features.flash.FlashFeature;
+import io.flutter.plugins.camera.media.ImageFrameConverter;
+import io.flutter.plugins.camera.media.ImageStreamFramePool;
+import io.flutter.plugins.camera.media.ImageStreamThrottler;
+import io.flutter.plugins.camera.media.MediaCodecRecorder;
 import io.flutter.plugins.camera.media.MediaRecorderBuilder;
 import io.flutter.plugins.camera.types.ExposureMode;
 import io.flutter.plugins.camera.types.FlashMode;
 import io.flutter.plugins.camera.types.FocusMode;
 import io.flutter.plugins.camera.types.ResolutionPreset;
+import io.flutter.plugins.camera.types.VideoBitrateMode;
+import io.flutter.plugins.camera.types.VideoCodec;
 import io.flutter.view.TextureRegistry.SurfaceTextureEntry;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 @FunctionalInterface
@@ -77,6 +91,22 @@ public class Camera {
   /** Timeout for the pre-capture sequence. */
   private static final long PRECAPTURE_TIMEOUT_MS = 1000;
 
+  /**
+   * Maximum number of pictures the picture reader can hold at once. Pictures are released as soon
+   * as their bytes are copied, so this only needs to absorb the frames of a burst arriving while
+   * the previous one is being copied.
+   */
+  private static final int PICTURE_MAX_IMAGES = 4;
+
+  /** Maximum number of images the image stream reader can hold at once. */
+  private static final int IMAGE_STREAM_MAX_IMAGES = 2;
+
+  /** Number of recent full-resolution frames kept for zero-shutter-lag capture. */
+  private static final int ZSL_RING_SIZE = 3;
+
+  /** One more image than the ring holds is being added, and one more is being reprocessed. */
+  private static final int ZSL_MAX_IMAGES = ZSL_RING_SIZE + 2;
+
   private final SurfaceTextureEntry flutterTexture;
   private final CameraManager cameraManager;
   private final DeviceOrientationManager deviceOrientationListener;
@@ -89,21 +119,93 @@ public class Camera {
   private final Context applicationContext;
   private final CamcorderProfile recordingProfile;
   private final DartMessenger dartMessenger;
-  private final CameraZoom cameraZoom;
-  private final CameraCharacteristics cameraCharacteristics;
+  private final CameraProperties cameraProperties;
+
+  /** Settings applied to the repeating request whenever it is submitted. */
+  private final CameraFeatures cameraFeatures;
+  private final CameraCharacteristicsCache.Entry cameraCharacteristics;
+
+  /** Writes captured pictures to storage without blocking the camera threads. */
+  private final ExecutorService imageSaverExecutor = Executors.newSingleThreadExecutor();
+
+  private final ImageSaver imageSaver = new ImageSaver(imageSaverExecutor);
+
+  private final CameraLatencyTracker latencyTracker;
+
+  /** Whether the first preview frame after opening the camera is yet to be reported. */
+  private volatile boolean awaitingFirstPreviewFrame;
+
+  /** Limits the repeating request to one submission per preview frame. */
+  private RepeatingRequestCoalescer repeatingRequestCoalescer;
+
+  /**
+   * Thread running all Camera2 device, session and capture callbacks. It owns the capture state,
+   * so method calls changing it are run on it too, see {@link #runOnCameraThread}.
+   */
+  private volatile HandlerThread backgroundHandlerThread;
+
+  private volatile Handler backgroundHandler;
+
+  /** Thread copying image stream frames, so they never hold up capture callbacks. */
+  private volatile HandlerThread imageProcessingHandlerThread;
+
+  private volatile Handler imageProcessingHandler;
+
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
 
   private CameraDevice cameraDevice;
   private CameraCaptureSession cameraCaptureSession;
   private ImageReader pictureImageReader;
   private ImageReader imageStreamReader;
+  private ImageStreamFramePool imageStreamFramePool;
+  private volatile ImageStreamThrottler imageStreamThrottler = ImageStreamThrottler.unlimited();
+  private EventChannel.EventSink imageStreamSink;
+  private ImageStreamFramePool.Frame heldImageStreamFrame;
   private CaptureRequest.Builder captureRequestBuilder;
   private MediaRecorder mediaRecorder;
+
+  /** Recorder used instead of {@link #mediaRecorder} when a video codec was requested. */
+  private MediaCodecRecorder mediaCodecRecorder;
   private boolean recordingVideo;
+  private boolean imageStreamActive;
+
+  /** Whether to configure a single capture session with every surface the camera may use. */
+  private boolean useSingleCaptureSession;
+
+  /** Whether the current capture session is the single session holding every surface. */
+  private boolean singleCaptureSessionCreated;
+
+  /** Persistent surface the media recorder records from when using a single capture session. */
+  private Surface recorderSurface;
+
+  /** Surface of the Flutter texture the current capture session renders the preview to. */
+  private Surface previewSurface;
+
+  /** Whether the current capture session can deliver pictures to {@link #pictureImageReader}. */
+  private boolean pictureOutputConfigured;
+
+  /** Whether to keep recent frames in {@link #zslRingBuffer} to capture pictures from. */
+  private boolean useZeroShutterLag;
+
+  /** Receives the full-resolution preview frames kept for zero-shutter-lag capture. */
+  private ImageReader zslImageReader;
+
+  /** Queues the frame closest to the capture request into the reprocessable session. */
+  private ImageWriter zslImageWriter;
+
+  private ZslRingBuffer zslRingBuffer;
+
+  /** The AE state of the last preview frame, used to skip the precapture sequence. */
+  private volatile Integer lastPreviewAeState;
+
+  /** The AF state of the last preview frame, used to skip locking the focus. */
+  private volatile Integer lastPreviewAfState;
   private File videoRecordingFile;
   private FlashMode flashMode;
   private ExposureMode exposureMode;
   private FocusMode focusMode;
   private PictureCaptureRequest pictureCaptureRequest;
+  private BurstCaptureRequest burstCaptureRequest;
   private CameraRegions cameraRegions;
   private int exposureOffset;
   private boolean useAutoFocus = true;
@@ -140,8 +242,9 @@ public class Camera {
     this.exposureMode = ExposureMode.auto;
     this.focusMode = FocusMode.auto;
     this.exposureOffset = 0;
+    this.latencyTracker = new CameraLatencyTracker(dartMessenger);
 
-    cameraCharacteristics = cameraManager.getCameraCharacteristics(cameraName);
+    cameraCharacteristics = CameraCharacteristicsCache.get(cameraManager, cameraName);
     initFps(cameraCharacteristics);
     sensorOrientation = cameraCharacteristics.get(CameraCharacteristics.SENSOR_ORIENTATION);
     isFrontFacing =
@@ -152,17 +255,15 @@ public class Camera {
         CameraUtils.getBestAvailableCamcorderProfileForResolutionPreset(cameraName, preset);
     captureSize = new Size(recordingProfile.videoFrameWidth, recordingProfile.videoFrameHeight);
     previewSize = computeBestPreviewSize(cameraName, preset);
-    cameraZoom =
-        new CameraZoom(
-            cameraCharacteristics.get(CameraCharacteristics.SENSOR_INFO_ACTIVE_ARRAY_SIZE),
-            cameraCharacteristics.get(CameraCharacteristics.SCALER_AVAILABLE_MAX_DIGITAL_ZOOM));
+    cameraProperties = new CameraPropertiesImpl(cameraName, cameraManager);
+    cameraFeatures = CameraFeatures.init(cameraProperties, false);
 
     deviceOrientationListener =
         new DeviceOrientationManager(activity, dartMessenger, isFrontFacing, sensorOrientation);
     deviceOrientationListener.start();
   }
 
-  private void initFps(CameraCharacteristics cameraCharacteristics) {
+  private void initFps(CameraCharacteristicsCache.Entry cameraCharacteristics) {
     try {
       Range<Integer>[] ranges =
           cameraCharacteristics.get(CameraCharacteristics.CONTROL_AE_AVAILABLE_TARGET_FPS_RANGES);
@@ -191,6 +292,7 @@ public class Camera {
     mediaRecorder =
         new MediaRecorderBuilder(recordingProfile, outputFilePath)
             .setEnableAudio(enableAudio)
+            .setInputSurface(recorderSurface)
             .setMediaOrientation(
                 lockedCaptureOrientation == null
                     ? deviceOrientationListener.getMediaOrientation()
@@ -198,11 +300,92 @@ public class Camera {
             .build();
   }
 
-  @SuppressLint("MissingPermission")
+  private void prepareMediaCodecRecorder(
+      String outputFilePath,
+      @NonNull VideoCodec videoCodec,
+      @Nullable VideoBitrateMode bitrateMode,
+      int bitrate,
+      int keyFrameIntervalSeconds)
+      throws IOException {
+    if (enableAudio) {
+      Log.w(TAG, "Audio is not recorded when a video codec is specified.");
+    }
+
+    mediaCodecRecorder =
+        new MediaCodecRecorder(recordingProfile, outputFilePath)
+            .setVideoCodec(videoCodec)
+            .setBitrateMode(bitrateMode == null ? VideoBitrateMode.vbr : bitrateMode)
+            .setBitrate(bitrate)
+            .setKeyFrameInterval(keyFrameIntervalSeconds)
+            .setMediaOrientation(
+                lockedCaptureOrientation == null
+                    ? deviceOrientationListener.getMediaOrientation()
+                    : deviceOrientationListener.getMediaOrientation(lockedCaptureOrientation));
+    mediaCodecRecorder.prepare(recorderSurface);
+  }
+
   public void open(String imageFormatGroup) throws CameraAccessException {
+    open(imageFormatGroup, false, false);
+  }
+
+  public void open(String imageFormatGroup, boolean useSingleCaptureSession)
+      throws CameraAccessException {
+    open(imageFormatGroup, useSingleCaptureSession, false);
+  }
+
+  /**
+   * Opens the camera and starts the preview.
+   *
+   * @param imageFormatGroup Format of the image stream frames.
+   * @param useSingleCaptureSession Whether to configure a single capture session with the preview,
+   *     picture, image stream and recorder surfaces up front. Starting or stopping the image stream
+   *     or a recording then only changes the targets of the repeating request, instead of
+   *     rebuilding the session and freezing the preview. Requires Android M; the camera falls back
+   *     to separate sessions when it is not available or the device rejects the configuration.
+   * @param useZeroShutterLag Whether to keep a ring of recent full-resolution frames while
+   *     previewing, and take pictures by reprocessing the frame closest to the request instead of
+   *     running the focus and precapture sequences. Requires Android M and a camera supporting
+   *     private reprocessing; ignored otherwise, and when using a single capture session.
+   */
+  @SuppressLint("MissingPermission")
+  public void open(
+      String imageFormatGroup, boolean useSingleCaptureSession, boolean useZeroShutterLag)
+      throws CameraAccessException {
+    startBackgroundThreads();
+    repeatingRequestCoalescer =
+        new RepeatingRequestCoalescer(this::submitRepeatingRequest, backgroundHandler);
+
+    this.useSingleCaptureSession =
+        useSingleCaptureSession && VERSION.SDK_INT >= VERSION_CODES.M;
+    this.useZeroShutterLag =
+        useZeroShutterLag && !this.useSingleCaptureSession && isZeroShutterLagSupported();
+    if (this.useZeroShutterLag) {
+      zslImageReader =
+          ImageReader.newInstance(
+              captureSize.getWidth(),
+              captureSize.getHeight(),
+              ImageFormat.PRIVATE,
+              ZSL_MAX_IMAGES);
+      zslRingBuffer = new ZslRingBuffer(ZSL_RING_SIZE);
+      zslImageReader.setOnImageAvailableListener(
+          reader -> {
+            Image image = reader.acquireNextImage();
+            if (image == null) {
+              return;
+            }
+            if (zslRingBuffer != null) {
+              zslRingBuffer.addImage(image);
+            } else {
+              // Zero shutter lag was disabled after this frame was queued.
+              image.close();
+            }
+          },
+          backgroundHandler);
+    }
+
     pictureImageReader =
         ImageReader.newInstance(
-            captureSize.getWidth(), captureSize.getHeight(), ImageFormat.JPEG, 2);
+            captureSize.getWidth(), captureSize.getHeight(), ImageFormat.JPEG, PICTURE_MAX_IMAGES);
 
     Integer imageFormat = supportedImageFormats.get(imageFormatGroup);
     if (imageFormat == null) {
@@ -212,13 +395,24 @@ public class Camera {
 
     // Used to steam image byte data to dart side.
     imageStreamReader =
-        ImageReader.newInstance(previewSize.getWidth(), previewSize.getHeight(), imageFormat, 2);
+        ImageReader.newInstance(
+            previewSize.getWidth(), previewSize.getHeight(), imageFormat, IMAGE_STREAM_MAX_IMAGES);
+    // One more frame than the reader can hold, so a frame that is still being sent never blocks
+    // copying the next one.
+    imageStreamFramePool = new ImageStreamFramePool(IMAGE_STREAM_MAX_IMAGES + 1);
 
+    // Stopped once the device is closed, so its last callbacks still run.
+    final HandlerThread cameraThread = backgroundHandlerThread;
+    final HandlerThread imageThread = imageProcessingHandlerThread;
+
+    awaitingFirstPreviewFrame = true;
+    markLatency(Milestone.openCameraRequested);
     cameraManager.openCamera(
         cameraName,
         new CameraDevice.StateCallback() {
           @Override
           public void onOpened(@NonNull CameraDevice device) {
+            markLatency(Milestone.cameraOpened);
             cameraDevice = device;
             try {
               startPreview();
@@ -239,6 +433,7 @@ public class Camera {
           public void onClosed(@NonNull CameraDevice camera) {
             dartMessenger.sendCameraClosingEvent();
             super.onClosed(camera);
+            stopBackgroundThreads(cameraThread, imageThread);
           }
 
           @Override
@@ -273,7 +468,69 @@ public class Camera {
             dartMessenger.sendCameraErrorEvent(errorDescription);
           }
         },
-        null);
+        backgroundHandler);
+  }
+
+  /**
+   * Enables sending optional camera events, which are only handled by Dart code that knows them.
+   *
+   * @see DartMessenger#enableOptionalEvents
+   */
+  public void enableOptionalEvents(@Nullable List<String> eventNames) {
+    dartMessenger.enableOptionalEvents(eventNames);
+  }
+
+  /** Starts the threads Camera2 callbacks and image stream frames are handled on. */
+  private void startBackgroundThreads() {
+    if (backgroundHandlerThread == null) {
+      backgroundHandlerThread = new HandlerThread("CameraBackground");
+      backgroundHandlerThread.start();
+      backgroundHandler = new Handler(backgroundHandlerThread.getLooper());
+    }
+    if (imageProcessingHandlerThread == null) {
+      imageProcessingHandlerThread = new HandlerThread("CameraImageProcessing");
+      imageProcessingHandlerThread.start();
+      imageProcessingHandler = new Handler(imageProcessingHandlerThread.getLooper());
+    }
+  }
+
+  /** Stops the background threads, after letting them finish the work already posted to them. */
+  private void stopBackgroundThreads() {
+    stopBackgroundThreads(backgroundHandlerThread, imageProcessingHandlerThread);
+  }
+
+  /**
+   * Stops the given background threads, after letting them finish the work already posted to
+   * them, and forgets them unless the camera was opened again with new threads in the meantime.
+   */
+  private void stopBackgroundThreads(
+      @Nullable HandlerThread cameraThread, @Nullable HandlerThread imageThread) {
+    if (cameraThread != null) {
+      cameraThread.quitSafely();
+      if (backgroundHandlerThread == cameraThread) {
+        backgroundHandlerThread = null;
+        backgroundHandler = null;
+      }
+    }
+    if (imageThread != null) {
+      imageThread.quitSafely();
+      if (imageProcessingHandlerThread == imageThread) {
+        imageProcessingHandlerThread = null;
+        imageProcessingHandler = null;
+      }
+    }
+  }
+
+  /**
+   * Runs {@code runnable} on the camera thread, which runs every Camera2 callback and owns the
+   * capture state, such as the capture session and the repeating request. Runs it right away when
+   * already on that thread, or when the camera is not open.
+   */
+  void runOnCameraThread(@NonNull Runnable runnable) {
+    final Handler handler = backgroundHandler;
+    if (handler == null || handler.getLooper() == Looper.myLooper() || !handler.post(runnable)) {
+      runnable.run();
+    }
   }
 
   private void createCaptureSession(int templateType, Surface... surfaces)
@@ -284,6 +541,46 @@ public class Camera {
   private void createCaptureSession(
       int templateType, Runnable onSuccessCallback, Surface... surfaces)
       throws CameraAccessException {
+    List<Surface> outputSurfaces = Arrays.asList(surfaces);
+    // If it is not preview mode, add all surfaces as targets.
+    createCaptureSession(
+        templateType,
+        onSuccessCallback,
+        templateType != CameraDevice.TEMPLATE_PREVIEW
+            ? outputSurfaces
+            : Collections.<Surface>emptyList(),
+        outputSurfaces);
+  }
+
+  /**
+   * Creates a capture session rendering to the Flutter texture and {@code outputSurfaces}.
+   *
+   * @param targetSurfaces The output surfaces the repeating request initially renders to, next to
+   *     the Flutter texture.
+   */
+  private void createCaptureSession(
+      int templateType,
+      @Nullable Runnable onSuccessCallback,
+      List<Surface> targetSurfaces,
+      List<Surface> outputSurfaces)
+      throws CameraAccessException {
+    createCaptureSession(templateType, onSuccessCallback, targetSurfaces, outputSurfaces, null);
+  }
+
+  /**
+   * Creates a capture session rendering to the Flutter texture and {@code outputSurfaces}.
+   *
+   * @param targetSurfaces The output surfaces the repeating request initially renders to, next to
+   *     the Flutter texture.
+   * @param inputConfiguration The input of a reprocessable session, or null for a regular session.
+   */
+  private void createCaptureSession(
+      int templateType,
+      @Nullable Runnable onSuccessCallback,
+      List<Surface> targetSurfaces,
+      List<Surface> outputSurfaces,
+      @Nullable InputConfiguration inputConfiguration)
+      throws CameraAccessException {
     // Close any existing capture session.
     closeCaptureSession();
 
@@ -295,13 +592,10 @@ public class Camera {
     surfaceTexture.setDefaultBufferSize(previewSize.getWidth(), previewSize.getHeight());
     Surface flutterSurface = new Surface(surfaceTexture);
     captureRequestBuilder.addTarget(flutterSurface);
+    previewSurface = flutterSurface;
 
-    List<Surface> remainingSurfaces = Arrays.asList(surfaces);
-    if (templateType != CameraDevice.TEMPLATE_PREVIEW) {
-      // If it is not preview mode, add all surfaces as targets.
-      for (Surface surface : remainingSurfaces) {
-        captureRequestBuilder.addTarget(surface);
-      }
+    for (Surface surface : targetSurfaces) {
+      captureRequestBuilder.addTarget(surface);
     }
 
     cameraRegions = new CameraRegions(getRegionBoundaries());
@@ -316,28 +610,66 @@ public class Camera {
               return;
             }
             cameraCaptureSession = session;
+            markLatency(Milestone.sessionConfigured);
+            if (inputConfiguration != null) {
+              startZeroShutterLag(session);
+            }
 
             updateFpsRange();
             updateFocus(focusMode);
             updateFlash(flashMode);
             updateExposure(exposureMode);
+            cameraFeatures.updateBuilder(captureRequestBuilder);
 
             refreshPreviewCaptureSession(
-                onSuccessCallback, (code, message) -> dartMessenger.sendCameraErrorEvent(message));
+                () -> {
+                  // The new repeating request includes every pending setting.
+                  repeatingRequestCoalescer.onRepeatingRequestReplaced();
+                  if (onSuccessCallback != null) {
+                    onSuccessCallback.run();
+                  }
+                },
+                (code, message) -> dartMessenger.sendCameraErrorEvent(message));
           }
 
           @Override
           public void onConfigureFailed(@NonNull CameraCaptureSession cameraCaptureSession) {
+            if (singleCaptureSessionCreated) {
+              Log.w(TAG, "Single capture session is not supported, using separate sessions.");
+              disableSingleCaptureSession();
+              try {
+                startPreview();
+              } catch (CameraAccessException e) {
+                dartMessenger.sendCameraErrorEvent(e.getMessage());
+              }
+              return;
+            }
+            if (inputConfiguration != null) {
+              Log.w(TAG, "Reprocessable session is not supported, disabling zero shutter lag.");
+              disableZeroShutterLag();
+              try {
+                startPreview();
+              } catch (CameraAccessException e) {
+                dartMessenger.sendCameraErrorEvent(e.getMessage());
+              }
+              return;
+            }
             dartMessenger.sendCameraErrorEvent("Failed to configure camera session.");
           }
         };
 
     // Start the session
-    if (VERSION.SDK_INT >= VERSION_CODES.P) {
+    markLatency(Milestone.sessionRequested);
+    if (inputConfiguration != null) {
+      List<Surface> surfaceList = new ArrayList<>();
+      surfaceList.add(flutterSurface);
+      surfaceList.addAll(outputSurfaces);
+      createReprocessableCaptureSession(inputConfiguration, surfaceList, callback);
+    } else if (VERSION.SDK_INT >= VERSION_CODES.P) {
       // Collect all surfaces we want to render to.
       List<OutputConfiguration> configs = new ArrayList<>();
       configs.add(new OutputConfiguration(flutterSurface));
-      for (Surface surface : remainingSurfaces) {
+      for (Surface surface : outputSurfaces) {
         configs.add(new OutputConfiguration(surface));
       }
       createCaptureSessionWithSessionConfig(configs, callback);
@@ -345,7 +677,7 @@ public class Camera {
       // Collect all surfaces we want to render to.
       List<Surface> surfaceList = new ArrayList<>();
       surfaceList.add(flutterSurface);
-      surfaceList.addAll(remainingSurfaces);
+      surfaceList.addAll(outputSurfaces);
       createCaptureSession(surfaceList, callback);
     }
   }
@@ -358,7 +690,7 @@ public class Camera {
         new SessionConfiguration(
             SessionConfiguration.SESSION_REGULAR,
             outputConfigs,
-            Executors.newSingleThreadExecutor(),
+            command -> backgroundHandler.post(command),
             callback));
   }
 
@@ -367,7 +699,272 @@ public class Camera {
   private void createCaptureSession(
       List<Surface> surfaces, CameraCaptureSession.StateCallback callback)
       throws CameraAccessException {
-    cameraDevice.createCaptureSession(surfaces, callback, null);
+    cameraDevice.createCaptureSession(surfaces, callback, backgroundHandler);
+  }
+
+  @TargetApi(VERSION_CODES.M)
+  @SuppressWarnings("deprecation")
+  private void createReprocessableCaptureSession(
+      InputConfiguration inputConfiguration,
+      List<Surface> surfaces,
+      CameraCaptureSession.StateCallback callback)
+      throws CameraAccessException {
+    cameraDevice.createReprocessableCaptureSession(
+        inputConfiguration, surfaces, callback, backgroundHandler);
+  }
+
+  /**
+   * Returns whether the camera can reprocess its own full-resolution frames into JPEG pictures,
+   * which zero-shutter-lag capture relies on.
+   */
+  private boolean isZeroShutterLagSupported() {
+    if (VERSION.SDK_INT < VERSION_CODES.M) {
+      return false;
+    }
+
+    int[] capabilities =
+        cameraCharacteristics.get(CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES);
+    boolean privateReprocessing = false;
+    if (capabilities != null) {
+      for (int capability : capabilities) {
+        if (capability == CameraMetadata.REQUEST_AVAILABLE_CAPABILITIES_PRIVATE_REPROCESSING) {
+          privateReprocessing = true;
+        }
+      }
+    }
+    if (!privateReprocessing) {
+      return false;
+    }
+
+    StreamConfigurationMap map =
+        cameraCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+    if (map == null) {
+      return false;
+    }
+    boolean reprocessesToJpeg = false;
+    for (int format : map.getValidOutputFormatsForInput(ImageFormat.PRIVATE)) {
+      if (format == ImageFormat.JPEG) {
+        reprocessesToJpeg = true;
+      }
+    }
+    if (!reprocessesToJpeg) {
+      return false;
+    }
+    Size[] inputSizes = map.getInputSizes(ImageFormat.PRIVATE);
+    return inputSizes != null && Arrays.asList(inputSizes).contains(captureSize);
+  }
+
+  /** Starts the preview on a reprocessable session that also fills the zero-shutter-lag ring. */
+  @TargetApi(VERSION_CODES.M)
+  private void startZeroShutterLagPreview() throws CameraAccessException {
+    createCaptureSession(
+        CameraDevice.TEMPLATE_ZERO_SHUTTER_LAG,
+        null,
+        Collections.singletonList(zslImageReader.getSurface()),
+        Arrays.asList(pictureImageReader.getSurface(), zslImageReader.getSurface()),
+        new InputConfiguration(
+            captureSize.getWidth(), captureSize.getHeight(), ImageFormat.PRIVATE));
+  }
+
+  /** Falls back to regular still captures, after the reprocessable session was rejected. */
+  private void disableZeroShutterLag() {
+    useZeroShutterLag = false;
+    stopZeroShutterLag();
+    if (zslImageReader != null) {
+      zslImageReader.close();
+      zslImageReader = null;
+    }
+    zslRingBuffer = null;
+  }
+
+  @TargetApi(VERSION_CODES.M)
+  private void startZeroShutterLag(CameraCaptureSession session) {
+    zslImageWriter = ImageWriter.newInstance(session.getInputSurface(), ZSL_MAX_IMAGES);
+  }
+
+  /** Stops reprocessing frames, and closes the frames kept for it. */
+  private void stopZeroShutterLag() {
+    if (zslImageWriter != null) {
+      zslImageWriter.close();
+      zslImageWriter = null;
+    }
+    if (zslRingBuffer != null) {
+      zslRingBuffer.clear();
+    }
+  }
+
+  /**
+   * Captures the current picture request by reprocessing the kept frame closest to the time the
+   * picture was requested.
+   *
+   * @param requestedTimeNanos The time the picture was requested, in {@link
+   *     SystemClock#elapsedRealtimeNanos()} time.
+   * @return Whether the reprocess request was submitted. If not, the picture needs to be captured
+   *     with a regular still capture.
+   */
+  @TargetApi(VERSION_CODES.M)
+  private boolean runZeroShutterLagCapture(long requestedTimeNanos) {
+    if (zslImageWriter == null) {
+      return false;
+    }
+
+    // Sensor timestamps can only be compared to the request time if they share its time base.
+    Integer timestampSource =
+        cameraCharacteristics.get(CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE);
+    boolean realtimeTimestamps =
+        timestampSource != null
+            && timestampSource == CameraMetadata.SENSOR_INFO_TIMESTAMP_SOURCE_REALTIME;
+    ZslRingBuffer.Frame frame =
+        zslRingBuffer.take(realtimeTimestamps ? requestedTimeNanos : Long.MAX_VALUE);
+    if (frame == null) {
+      return false;
+    }
+
+    try {
+      CaptureRequest.Builder reprocessBuilder =
+          cameraDevice.createReprocessCaptureRequest(frame.result);
+      reprocessBuilder.addTarget(pictureImageReader.getSurface());
+      reprocessBuilder.set(
+          CaptureRequest.JPEG_ORIENTATION,
+          lockedCaptureOrientation == null
+              ? deviceOrientationListener.getMediaOrientation()
+              : deviceOrientationListener.getMediaOrientation(lockedCaptureOrientation));
+      pictureCaptureRequest.setState(State.capturing);
+      // The writer takes ownership of the image and closes it once it has been reprocessed.
+      zslImageWriter.queueInputImage(frame.image);
+      cameraCaptureSession.capture(reprocessBuilder.build(), null, backgroundHandler);
+      return true;
+    } catch (CameraAccessException | IllegalStateException | IllegalArgumentException e) {
+      Log.w(TAG, "Zero-shutter-lag capture failed, using a regular capture.", e);
+      frame.image.close();
+      return false;
+    }
+  }
+
+  /**
+   * Returns whether the last preview frame was already focused and correctly exposed without
+   * needing the flash, in which case a picture can be captured right away.
+   */
+  private boolean isPreviewReadyForCapture() {
+    Integer aeState = lastPreviewAeState;
+    boolean exposureReady =
+        aeState != null
+            && (aeState == CaptureResult.CONTROL_AE_STATE_CONVERGED
+                || aeState == CaptureResult.CONTROL_AE_STATE_LOCKED);
+    if (!exposureReady || flashMode == FlashMode.always || flashMode == FlashMode.torch) {
+      return false;
+    }
+    if (!useAutoFocus) {
+      return true;
+    }
+    Integer afState = lastPreviewAfState;
+    return afState != null
+        && (afState == CaptureResult.CONTROL_AF_STATE_PASSIVE_FOCUSED
+            || afState == CaptureResult.CONTROL_AF_STATE_FOCUSED_LOCKED);
+  }
+
+  /**
+   * Starts the preview on the single capture session, creating the session if needed. The
+   * repeating request renders to the image stream and recorder surfaces only while they are in
+   * use.
+   */
+  @TargetApi(VERSION_CODES.M)
+  private void startSingleCaptureSession() throws CameraAccessException {
+    if (singleCaptureSessionCreated) {
+      updateSingleCaptureSessionTargets();
+      return;
+    }
+
+    if (recorderSurface == null) {
+      try {
+        recorderSurface = createRecorderSurface();
+      } catch (IOException | IllegalStateException e) {
+        Log.w(TAG, "Could not create a persistent recorder surface, using separate sessions.", e);
+        disableSingleCaptureSession();
+        startPreview();
+        return;
+      }
+    }
+
+    List<Surface> targetSurfaces = new ArrayList<>();
+    if (imageStreamActive) targetSurfaces.add(imageStreamReader.getSurface());
+    if (recordingVideo) targetSurfaces.add(recorderSurface);
+
+    createCaptureSession(
+        CameraDevice.TEMPLATE_RECORD,
+        null,
+        targetSurfaces,
+        Arrays.asList(
+            pictureImageReader.getSurface(), imageStreamReader.getSurface(), recorderSurface));
+    singleCaptureSessionCreated = true;
+  }
+
+  /** Makes the repeating request render to the surfaces that are currently in use. */
+  private void updateSingleCaptureSessionTargets() {
+    if (imageStreamActive) {
+      captureRequestBuilder.addTarget(imageStreamReader.getSurface());
+    } else {
+      captureRequestBuilder.removeTarget(imageStreamReader.getSurface());
+    }
+    if (recordingVideo) {
+      captureRequestBuilder.addTarget(recorderSurface);
+    } else {
+      captureRequestBuilder.removeTarget(recorderSurface);
+    }
+    // The focus mode depends on whether a video is being recorded.
+    updateFocus(focusMode);
+
+    refreshPreviewCaptureSession(
+        null, (code, message) -> dartMessenger.sendCameraErrorEvent(message));
+  }
+
+  /**
+   * Creates the persistent surface recordings are made from when using a single capture session.
+   *
+   * <p>A persistent surface can only be added to a capture session once a recorder has been
+   * configured with it, so a throwaway recorder is prepared with it first.
+   */
+  @TargetApi(VERSION_CODES.M)
+  private Surface createRecorderSurface() throws IOException {
+    Surface surface = MediaCodec.createPersistentInputSurface();
+    File file = File.createTempFile("REC", ".mp4", applicationContext.getCacheDir());
+    try {
+      new MediaRecorderBuilder(recordingProfile, file.getAbsolutePath())
+          .setInputSurface(surface)
+          .build()
+          .release();
+    } catch (IOException | IllegalStateException e) {
+      surface.release();
+      throw e;
+    } finally {
+      file.delete();
+    }
+    return surface;
+  }
+
+  private void disableSingleCaptureSession() {
+    useSingleCaptureSession = false;
+    singleCaptureSessionCreated = false;
+    if (recorderSurface != null) {
+      recorderSurface.release();
+      recorderSurface = null;
+    }
+  }
+
+  /**
+   * Applies every camera feature to the repeating request and submits it. Only called by {@link
+   * #repeatingRequestCoalescer}; settings changes go through {@link
+   * RepeatingRequestCoalescer#requestUpdate}.
+   */
+  private void submitRepeatingRequest() throws CameraAccessException {
+    if (cameraCaptureSession == null) {
+      // The settings are applied once the next capture session is configured.
+      return;
+    }
+
+    cameraFeatures.updateBuilder(captureRequestBuilder);
+    cameraCaptureSession.setRepeatingRequest(
+        captureRequestBuilder.build(), pictureCaptureCallback, backgroundHandler);
   }
 
   private void refreshPreviewCaptureSession(
@@ -380,7 +977,7 @@ public class Camera {
       cameraCaptureSession.setRepeatingRequest(
           captureRequestBuilder.build(),
           pictureCaptureCallback,
-          new Handler(Looper.getMainLooper()));
+          backgroundHandler);
 
       if (onSuccessCallback != null) {
         onSuccessCallback.run();
@@ -390,22 +987,18 @@ public class Camera {
     }
   }
 
-  private void writeToFile(ByteBuffer buffer, File file) throws IOException {
-    try (FileOutputStream outputStream = new FileOutputStream(file)) {
-      while (0 < buffer.remaining()) {
-        outputStream.getChannel().write(buffer);
-      }
-    }
-  }
-
   public void takePicture(@NonNull final Result result) {
     // Only take 1 picture at a time
-    if (pictureCaptureRequest != null && !pictureCaptureRequest.isFinished()) {
+    if (isCaptureActive()) {
       result.error("captureAlreadyActive", "Picture is currently already being captured", null);
       return;
     }
+    final long requestedTimeNanos = SystemClock.elapsedRealtimeNanos();
+    markLatency(Milestone.captureRequested);
     // Store the result
-    this.pictureCaptureRequest = new PictureCaptureRequest(result);
+    this.pictureCaptureRequest =
+        new PictureCaptureRequest(
+            result, dartMessenger, new PictureCaptureRequest.TimeoutHandler(backgroundHandler));
 
     // Create temporary file
     final File outputDir = applicationContext.getCacheDir();
@@ -417,26 +1010,198 @@ public class Camera {
       return;
     }
 
-    // Listen for picture being taken
+    // Listen for picture being taken. The image is copied and released right away, the file is
+    // written on the image saver executor.
+    final PictureCaptureRequest request = pictureCaptureRequest;
     pictureImageReader.setOnImageAvailableListener(
         reader -> {
-          try (Image image = reader.acquireLatestImage()) {
-            ByteBuffer buffer = image.getPlanes()[0].getBuffer();
-            writeToFile(buffer, file);
-            pictureCaptureRequest.finish(file.getAbsolutePath());
-          } catch (IOException e) {
-            pictureCaptureRequest.error("IOError", "Failed saving image", null);
+          Image image = reader.acquireLatestImage();
+          if (image == null || request.isFinished()) {
+            if (image != null) image.close();
+            return;
           }
+          markLatency(Milestone.jpegAvailable);
+          request.setState(State.saving);
+          imageSaver.save(
+              image,
+              file,
+              new ImageSaver.Callback() {
+                @Override
+                public void onComplete(@NonNull String absolutePath) {
+                  markLatency(Milestone.fileWritten);
+                  synchronized (request) {
+                    if (!request.isFinished()) request.finish(absolutePath);
+                  }
+                }
+
+                @Override
+                public void onError(@NonNull String errorCode, @NonNull String errorMessage) {
+                  synchronized (request) {
+                    if (!request.isFinished()) request.error(errorCode, errorMessage, null);
+                  }
+                }
+              });
         },
-        null);
+        backgroundHandler);
 
-    if (useAutoFocus) {
+    if (recordingVideo) {
+      if (singleCaptureSessionCreated || pictureOutputConfigured) {
+        runVideoSnapshotCapture();
+      } else {
+        pictureCaptureRequest.error(
+            "captureNotSupported", "This camera cannot take pictures while recording.", null);
+      }
+      return;
+    }
+    if (useZeroShutterLag && runZeroShutterLagCapture(requestedTimeNanos)) {
+      return;
+    }
+    if (isPreviewReadyForCapture()) {
+      // Focus and exposure have already converged, skip straight to the capture.
+      runPictureCapture();
+    } else if (useAutoFocus) {
       runPictureAutoFocus();
     } else {
       runPicturePreCapture();
     }
   }
 
+  /**
+   * Takes {@code count} pictures in a single burst.
+   *
+   * <p>The burst keeps the current focus and exposure rather than running the pre-capture sequence
+   * for every picture, and never fires the flash. Each picture is reported through {@link
+   * DartMessenger#sendBurstPictureSavedEvent} as soon as its file has been written, and {@code
+   * result} completes with the paths of all pictures. Bursts cannot be taken while recording, as
+   * they interrupt the repeating request.
+   */
+  public void takePictureBurst(@NonNull final Result result, int count) {
+    if (isCaptureActive()) {
+      result.error("captureAlreadyActive", "Picture is currently already being captured", null);
+      return;
+    }
+    if (recordingVideo) {
+      result.error("captureNotSupported", "Bursts cannot be taken while recording.", null);
+      return;
+    }
+
+    // Create the files up front so no file system work happens while the burst is running.
+    final File outputDir = applicationContext.getCacheDir();
+    final List<File> files = new ArrayList<>(count);
+    try {
+      for (int i = 0; i < count; i++) {
+        files.add(File.createTempFile("CAP", ".jpg", outputDir));
+      }
+    } catch (IOException | SecurityException e) {
+      for (File file : files) {
+        file.delete();
+      }
+      result.error("cannotCreateFile", e.getMessage(), null);
+      return;
+    }
+
+    final BurstCaptureRequest request =
+        new BurstCaptureRequest(
+            result,
+            dartMessenger,
+            files,
+            new PictureCaptureRequest.TimeoutHandler(backgroundHandler),
+            SystemClock.elapsedRealtimeNanos());
+    burstCaptureRequest = request;
+
+    pictureImageReader.setOnImageAvailableListener(
+        reader -> {
+          Image image = reader.acquireNextImage();
+          if (image == null) {
+            return;
+          }
+          final File file = request.onImageCaptured(image.getTimestamp());
+          if (file == null) {
+            image.close();
+            return;
+          }
+          imageSaver.save(
+              image,
+              file,
+              new ImageSaver.Callback() {
+                @Override
+                public void onComplete(@NonNull String absolutePath) {
+                  request.onImageSaved(file, SystemClock.elapsedRealtimeNanos());
+                }
+
+                @Override
+                public void onError(@NonNull String errorCode, @NonNull String errorMessage) {
+                  request.error(errorCode, errorMessage);
+                }
+              });
+        },
+        backgroundHandler);
+
+    try {
+      final CaptureRequest.Builder captureBuilder = createStillCaptureRequestBuilder();
+      captureBuilder.set(CaptureRequest.CONTROL_AE_MODE, CaptureRequest.CONTROL_AE_MODE_ON);
+      captureBuilder.set(
+          CaptureRequest.FLASH_MODE,
+          flashMode == FlashMode.torch
+              ? CaptureRequest.FLASH_MODE_TORCH
+              : CaptureRequest.FLASH_MODE_OFF);
+
+      cameraCaptureSession.stopRepeating();
+      cameraCaptureSession.captureBurst(
+          Collections.nCopies(count, captureBuilder.build()),
+          new CameraCaptureSession.CaptureCallback() {
+            @Override
+            public void onCaptureStarted(
+                @NonNull CameraCaptureSession session,
+                @NonNull CaptureRequest captureRequest,
+                long timestamp,
+                long frameNumber) {
+              request.onCaptureStarted(timestamp, SystemClock.elapsedRealtimeNanos());
+            }
+
+            @Override
+            public void onCaptureFailed(
+                @NonNull CameraCaptureSession session,
+                @NonNull CaptureRequest captureRequest,
+                @NonNull CaptureFailure failure) {
+              // The picture of a failed capture never arrives, so the burst cannot complete.
+              request.error("captureFailure", "Capture of a burst picture failed");
+            }
+
+            @Override
+            public void onCaptureSequenceCompleted(
+                @NonNull CameraCaptureSession session, int sequenceId, long frameNumber) {
+              refreshPreviewCaptureSession(null, request::error);
+            }
+
+            @Override
+            public void onCaptureSequenceAborted(
+                @NonNull CameraCaptureSession session, int sequenceId) {
+              request.error("captureFailure", "The burst capture was aborted");
+              restartPreviewAfterBurst();
+            }
+          },
+          backgroundHandler);
+    } catch (CameraAccessException | IllegalStateException | IllegalArgumentException e) {
+      request.error("cameraAccess", e.getMessage());
+      restartPreviewAfterBurst();
+    }
+  }
+
+  /** Resumes the repeating request a burst stopped, after the burst failed. */
+  private void restartPreviewAfterBurst() {
+    refreshPreviewCaptureSession(
+        null, (code, message) -> dartMessenger.sendCameraErrorEvent(message));
+  }
+
+  /** Returns whether a picture or burst is still being captured. Saving does not count. */
+  private boolean isCaptureActive() {
+    return (pictureCaptureRequest != null
+            && !pictureCaptureRequest.isFinished()
+            && pictureCaptureRequest.getState() != State.saving)
+        || (burstCaptureRequest != null && !burstCaptureRequest.isFinished());
+  }
+
   private final CameraCaptureSession.CaptureCallback pictureCaptureCallback =
       new CameraCaptureSession.CaptureCallback() {
         @Override
@@ -444,6 +1209,16 @@ public class Camera {
             @NonNull CameraCaptureSession session,
             @NonNull CaptureRequest request,
             @NonNull TotalCaptureResult result) {
+          if (awaitingFirstPreviewFrame) {
+            awaitingFirstPreviewFrame = false;
+            markLatency(Milestone.firstPreviewFrame);
+          }
+          repeatingRequestCoalescer.onPreviewFrame();
+          lastPreviewAeState = result.get(CaptureResult.CONTROL_AE_STATE);
+          lastPreviewAfState = result.get(CaptureResult.CONTROL_AF_STATE);
+          if (zslImageWriter != null) {
+            zslRingBuffer.addResult(result);
+          }
           processCapture(result);
         }
 
@@ -513,6 +1288,7 @@ public class Camera {
               break;
             case waitingPreCaptureReady:
               if (aeState == null || aeState != CaptureRequest.CONTROL_AE_STATE_PRECAPTURE) {
+                markLatency(Milestone.precaptureConverged);
                 runPictureCapture();
               } else {
                 if (hitPreCaptureTimeout()) {
@@ -533,6 +1309,7 @@ public class Camera {
   private void runPicturePreCapture() {
     assert (pictureCaptureRequest != null);
     pictureCaptureRequest.setState(PictureCaptureRequest.State.preCapture);
+    markLatency(Milestone.precaptureStarted);
 
     captureRequestBuilder.set(
         CaptureRequest.CONTROL_AE_PRECAPTURE_TRIGGER,
@@ -550,17 +1327,7 @@ public class Camera {
     assert (pictureCaptureRequest != null);
     pictureCaptureRequest.setState(PictureCaptureRequest.State.capturing);
     try {
-      final CaptureRequest.Builder captureBuilder =
-          cameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_STILL_CAPTURE);
-      captureBuilder.addTarget(pictureImageReader.getSurface());
-      captureBuilder.set(
-          CaptureRequest.SCALER_CROP_REGION,
-          captureRequestBuilder.get(CaptureRequest.SCALER_CROP_REGION));
-      captureBuilder.set(
-          CaptureRequest.JPEG_ORIENTATION,
-          lockedCaptureOrientation == null
-              ? deviceOrientationListener.getMediaOrientation()
-              : deviceOrientationListener.getMediaOrientation(lockedCaptureOrientation));
+      final CaptureRequest.Builder captureBuilder = createStillCaptureRequestBuilder();
 
       switch (flashMode) {
         case off:
@@ -589,12 +1356,32 @@ public class Camera {
               unlockAutoFocus();
             }
           },
-          null);
+          backgroundHandler);
     } catch (CameraAccessException e) {
       pictureCaptureRequest.error("cameraAccess", e.getMessage(), null);
     }
   }
 
+  private CaptureRequest.Builder createStillCaptureRequestBuilder() throws CameraAccessException {
+    return createStillCaptureRequestBuilder(CameraDevice.TEMPLATE_STILL_CAPTURE);
+  }
+
+  /** Creates a still capture request targeting the picture reader, with the current zoom. */
+  private CaptureRequest.Builder createStillCaptureRequestBuilder(int templateType)
+      throws CameraAccessException {
+    final CaptureRequest.Builder captureBuilder = cameraDevice.createCaptureRequest(templateType);
+    captureBuilder.addTarget(pictureImageReader.getSurface());
+    captureBuilder.set(
+        CaptureRequest.SCALER_CROP_REGION,
+        captureRequestBuilder.get(CaptureRequest.SCALER_CROP_REGION));
+    captureBuilder.set(
+        CaptureRequest.JPEG_ORIENTATION,
+        lockedCaptureOrientation == null
+            ? deviceOrientationListener.getMediaOrientation()
+            : deviceOrientationListener.getMediaOrientation(lockedCaptureOrientation));
+    return captureBuilder;
+  }
+
   private void lockAutoFocus(CaptureCallback callback) {
     captureRequestBuilder.set(
         CaptureRequest.CONTROL_AF_TRIGGER, CaptureRequest.CONTROL_AF_TRIGGER_START);
@@ -608,7 +1395,7 @@ public class Camera {
         CaptureRequest.CONTROL_AF_TRIGGER, CameraMetadata.CONTROL_AF_TRIGGER_CANCEL);
     updateFocus(focusMode);
     try {
-      cameraCaptureSession.capture(captureRequestBuilder.build(), null, null);
+      cameraCaptureSession.capture(captureRequestBuilder.build(), null, backgroundHandler);
     } catch (CameraAccessException ignored) {
     }
     captureRequestBuilder.set(
@@ -620,6 +1407,28 @@ public class Camera {
   }
 
   public void startVideoRecording(Result result) {
+    startVideoRecording(result, null, null, 0, 1);
+  }
+
+  /**
+   * Starts recording a video.
+   *
+   * @param result The result completed once the recording has started.
+   * @param videoCodec The codec to encode the video with, or null to record with {@link
+   *     MediaRecorder} using the defaults of the recording profile.
+   * @param bitrateMode The bitrate mode of the encoder, or null for variable bitrate. Only used
+   *     when a codec is specified.
+   * @param bitrate The initial bitrate in bits per second, or 0 to use the bitrate of the recording
+   *     profile. Only used when a codec is specified.
+   * @param keyFrameIntervalSeconds The number of seconds between two keyframes. Only used when a
+   *     codec is specified.
+   */
+  public void startVideoRecording(
+      Result result,
+      @Nullable VideoCodec videoCodec,
+      @Nullable VideoBitrateMode bitrateMode,
+      int bitrate,
+      int keyFrameIntervalSeconds) {
     final File outputDir = applicationContext.getCacheDir();
     try {
       videoRecordingFile = File.createTempFile("REC", ".mp4", outputDir);
@@ -629,36 +1438,180 @@ public class Camera {
     }
 
     try {
-      prepareMediaRecorder(videoRecordingFile.getAbsolutePath());
-      recordingVideo = true;
-      createCaptureSession(
-          CameraDevice.TEMPLATE_RECORD, () -> mediaRecorder.start(), mediaRecorder.getSurface());
+      final Runnable startRecorder;
+      final Surface recordingSurface;
+      if (videoCodec == null) {
+        prepareMediaRecorder(videoRecordingFile.getAbsolutePath());
+        startRecorder = mediaRecorder::start;
+        recordingSurface = mediaRecorder.getSurface();
+      } else {
+        prepareMediaCodecRecorder(
+            videoRecordingFile.getAbsolutePath(),
+            videoCodec,
+            bitrateMode,
+            bitrate,
+            keyFrameIntervalSeconds);
+        startRecorder = mediaCodecRecorder::start;
+        recordingSurface = mediaCodecRecorder.getSurface();
+      }
+      setRecordingVideo(true);
+      if (singleCaptureSessionCreated) {
+        startRecorder.run();
+        updateSingleCaptureSessionTargets();
+      } else {
+        createRecordingCaptureSession(startRecorder, recordingSurface);
+      }
       result.success(null);
     } catch (CameraAccessException | IOException e) {
-      recordingVideo = false;
+      setRecordingVideo(false);
       videoRecordingFile = null;
+      releaseMediaCodecRecorder();
       result.error("videoRecordingFailed", e.getMessage(), null);
     }
   }
 
-  public void stopVideoRecording(@NonNull final Result result) {
+  /**
+   * Creates the capture session used while recording. Unless the camera is a legacy device, which
+   * does not guarantee a JPEG output next to the recording, the picture reader is added as an
+   * output so pictures can be taken as video snapshots without reconfiguring the session.
+   */
+  private void createRecordingCaptureSession(Runnable startRecorder, Surface recordingSurface)
+      throws CameraAccessException {
+    boolean videoSnapshotSupported =
+        cameraProperties.getHardwareLevel()
+            != CameraMetadata.INFO_SUPPORTED_HARDWARE_LEVEL_LEGACY;
+    List<Surface> outputSurfaces = new ArrayList<>();
+    outputSurfaces.add(recordingSurface);
+    if (videoSnapshotSupported) {
+      outputSurfaces.add(pictureImageReader.getSurface());
+    }
+
+    createCaptureSession(
+        CameraDevice.TEMPLATE_RECORD,
+        startRecorder,
+        Collections.singletonList(recordingSurface),
+        outputSurfaces);
+    pictureOutputConfigured = videoSnapshotSupported;
+  }
+
+  /**
+   * Captures the current picture request as a video snapshot, without interrupting the repeating
+   * recording request or running the focus and precapture sequences.
+   *
+   * <p>The snapshot also renders to the preview and the recorder, so neither misses the frame.
+   */
+  private void runVideoSnapshotCapture() {
+    assert (pictureCaptureRequest != null);
+    pictureCaptureRequest.setState(PictureCaptureRequest.State.capturing);
+    try {
+      final CaptureRequest.Builder captureBuilder =
+          createStillCaptureRequestBuilder(CameraDevice.TEMPLATE_VIDEO_SNAPSHOT);
+      if (previewSurface != null) {
+        captureBuilder.addTarget(previewSurface);
+      }
+      Surface recordingSurface = getRecordingSurface();
+      if (recordingSurface != null) {
+        captureBuilder.addTarget(recordingSurface);
+      }
+      cameraCaptureSession.capture(captureBuilder.build(), null, backgroundHandler);
+    } catch (CameraAccessException | IllegalStateException e) {
+      pictureCaptureRequest.error("cameraAccess", e.getMessage(), null);
+    }
+  }
+
+  /** Returns the surface the active recording renders to, or null when not recording. */
+  @Nullable
+  private Surface getRecordingSurface() {
     if (!recordingVideo) {
-      result.success(null);
+      return null;
+    }
+    if (singleCaptureSessionCreated) {
+      return recorderSurface;
+    }
+    if (mediaCodecRecorder != null) {
+      return mediaCodecRecorder.getSurface();
+    }
+    return mediaRecorder != null ? mediaRecorder.getSurface() : null;
+  }
+
+  /**
+   * Changes the bitrate of the video being recorded.
+   *
+   * <p>Only supported while recording with a video codec.
+   *
+   * @param result The result completed once the bitrate has been changed.
+   * @param bitrate The new bitrate in bits per second.
+   */
+  public void setVideoBitrate(@NonNull final Result result, int bitrate) {
+    if (!recordingVideo || mediaCodecRecorder == null) {
+      result.error(
+          "setVideoBitrateFailed",
+          "The bitrate can only be changed while recording with a video codec.",
+          null);
       return;
     }
 
     try {
-      recordingVideo = false;
+      mediaCodecRecorder.updateBitrate(bitrate);
+    } catch (IllegalStateException e) {
+      result.error("setVideoBitrateFailed", e.getMessage(), null);
+      return;
+    }
 
+    result.success(null);
+  }
+
+  /** Stops the active recorder, ignoring recordings that did not receive any frame. */
+  private void stopRecorder() {
+    if (mediaCodecRecorder != null) {
       try {
-        cameraCaptureSession.abortCaptures();
-        mediaRecorder.stop();
-      } catch (CameraAccessException | IllegalStateException e) {
-        // Ignore exceptions and try to continue (changes are camera session already aborted capture)
+        mediaCodecRecorder.stop();
+      } catch (IllegalStateException e) {
+        // Ignore exceptions and try to continue (the recording may not have received any frame)
       }
+      mediaCodecRecorder = null;
+      return;
+    }
 
-      mediaRecorder.reset();
-      startPreview();
+    try {
+      mediaRecorder.stop();
+    } catch (IllegalStateException e) {
+      // Ignore exceptions and try to continue (the recording may not have received any frame)
+    }
+    mediaRecorder.reset();
+  }
+
+  private void releaseMediaCodecRecorder() {
+    if (mediaCodecRecorder != null) {
+      mediaCodecRecorder.release();
+      mediaCodecRecorder = null;
+    }
+  }
+
+  public void stopVideoRecording(@NonNull final Result result) {
+    if (!recordingVideo) {
+      result.success(null);
+      return;
+    }
+
+    try {
+      setRecordingVideo(false);
+
+      if (singleCaptureSessionCreated) {
+        // Stop rendering to the recorder without interrupting the preview.
+        updateSingleCaptureSessionTargets();
+        stopRecorder();
+      } else {
+        try {
+          cameraCaptureSession.abortCaptures();
+        } catch (CameraAccessException | IllegalStateException e) {
+          // Ignore exceptions and try to continue (changes are camera session already aborted
+          // capture)
+        }
+
+        stopRecorder();
+        startPreview();
+      }
       result.success(videoRecordingFile.getAbsolutePath());
       videoRecordingFile = null;
     } catch (CameraAccessException | IllegalStateException e) {
@@ -673,7 +1626,9 @@ public class Camera {
     }
 
     try {
-      if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+      if (mediaCodecRecorder != null) {
+        mediaCodecRecorder.pause();
+      } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
         mediaRecorder.pause();
       } else {
         result.error("videoRecordingFailed", "pauseVideoRecording requires Android API +24.", null);
@@ -694,7 +1649,9 @@ public class Camera {
     }
 
     try {
-      if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+      if (mediaCodecRecorder != null) {
+        mediaCodecRecorder.resume();
+      } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
         mediaRecorder.resume();
       } else {
         result.error(
@@ -712,10 +1669,7 @@ public class Camera {
   public void setFlashMode(@NonNull final Result result, FlashMode mode)
       throws CameraAccessException {
     // Get the flash availability
-    Boolean flashAvailable =
-        cameraManager
-            .getCameraCharacteristics(cameraDevice.getId())
-            .get(CameraCharacteristics.FLASH_INFO_AVAILABLE);
+    Boolean flashAvailable = cameraCharacteristics.get(CameraCharacteristics.FLASH_INFO_AVAILABLE);
 
     // Check if flash is available.
     if (flashAvailable == null || !flashAvailable) {
@@ -744,11 +1698,12 @@ public class Camera {
               updateFlash(mode);
               refreshPreviewCaptureSession(
                   () -> {
-                    result.success(null);
+                    dartMessenger.finish(result, null);
                     isFinished = true;
                   },
                   (code, message) ->
-                      result.error("setFlashModeFailed", "Could not set flash mode.", null));
+                      dartMessenger.error(
+                          result, "setFlashModeFailed", "Could not set flash mode.", null));
             }
 
             @Override
@@ -760,25 +1715,27 @@ public class Camera {
                 return;
               }
 
-              result.error("setFlashModeFailed", "Could not set flash mode.", null);
+              dartMessenger.error(result, "setFlashModeFailed", "Could not set flash mode.", null);
               isFinished = true;
             }
           },
-          null);
+          backgroundHandler);
     } else {
       updateFlash(mode);
 
-      refreshPreviewCaptureSession(
-          () -> result.success(null),
-          (code, message) -> result.error("setFlashModeFailed", "Could not set flash mode.", null));
+      repeatingRequestCoalescer.requestUpdate(
+          () -> dartMessenger.finish(result, null),
+          (code, message) ->
+              dartMessenger.error(result, "setFlashModeFailed", "Could not set flash mode.", null));
     }
   }
 
   public void setExposureMode(@NonNull final Result result, ExposureMode mode)
       throws CameraAccessException {
     updateExposure(mode);
-    cameraCaptureSession.setRepeatingRequest(captureRequestBuilder.build(), null, null);
-    result.success(null);
+    repeatingRequestCoalescer.requestUpdate(
+        () -> dartMessenger.finish(result, null),
+        (code, message) -> dartMessenger.error(result, "setExposureModeFailed", message, null));
   }
 
   public void setExposurePoint(@NonNull final Result result, Double x, Double y)
@@ -799,8 +1756,9 @@ public class Camera {
     else cameraRegions.setAutoExposureMeteringRectangleFromPoint(y, 1 - x);
     // Apply it
     updateExposure(exposureMode);
-    refreshPreviewCaptureSession(
-        () -> result.success(null), (code, message) -> result.error("CameraAccess", message, null));
+    repeatingRequestCoalescer.requestUpdate(
+        () -> dartMessenger.finish(result, null),
+        (code, message) -> dartMessenger.error(result, "CameraAccess", message, null));
   }
 
   public void setFocusMode(@NonNull final Result result, FocusMode mode)
@@ -811,8 +1769,8 @@ public class Camera {
 
     switch (mode) {
       case auto:
-        refreshPreviewCaptureSession(
-            null, (code, message) -> result.error("setFocusMode", message, null));
+        repeatingRequestCoalescer.requestUpdate(
+            null, (code, message) -> dartMessenger.error(result, "setFocusMode", message, null));
         break;
       case locked:
         lockAutoFocus(
@@ -858,9 +1816,7 @@ public class Camera {
   @TargetApi(VERSION_CODES.P)
   private boolean supportsDistortionCorrection() throws CameraAccessException {
     int[] availableDistortionCorrectionModes =
-        cameraManager
-            .getCameraCharacteristics(cameraDevice.getId())
-            .get(CameraCharacteristics.DISTORTION_CORRECTION_AVAILABLE_MODES);
+        cameraCharacteristics.get(CameraCharacteristics.DISTORTION_CORRECTION_AVAILABLE_MODES);
     if (availableDistortionCorrectionModes == null) availableDistortionCorrectionModes = new int[0];
     long nonOffModesSupported =
         Arrays.stream(availableDistortionCorrectionModes)
@@ -872,9 +1828,7 @@ public class Camera {
   private Size getRegionBoundaries() throws CameraAccessException {
     // No distortion correction support
     if (android.os.Build.VERSION.SDK_INT < VERSION_CODES.P || !supportsDistortionCorrection()) {
-      return cameraManager
-          .getCameraCharacteristics(cameraDevice.getId())
-          .get(CameraCharacteristics.SENSOR_INFO_PIXEL_ARRAY_SIZE);
+      return cameraCharacteristics.get(CameraCharacteristics.SENSOR_INFO_PIXEL_ARRAY_SIZE);
     }
     // Get the current distortion correction mode
     Integer distortionCorrectionMode =
@@ -884,39 +1838,29 @@ public class Camera {
     if (distortionCorrectionMode == null
         || distortionCorrectionMode == CaptureRequest.DISTORTION_CORRECTION_MODE_OFF) {
       rect =
-          cameraManager
-              .getCameraCharacteristics(cameraDevice.getId())
-              .get(CameraCharacteristics.SENSOR_INFO_PRE_CORRECTION_ACTIVE_ARRAY_SIZE);
+          cameraCharacteristics.get(
+              CameraCharacteristics.SENSOR_INFO_PRE_CORRECTION_ACTIVE_ARRAY_SIZE);
     } else {
-      rect =
-          cameraManager
-              .getCameraCharacteristics(cameraDevice.getId())
-              .get(CameraCharacteristics.SENSOR_INFO_ACTIVE_ARRAY_SIZE);
+      rect = cameraCharacteristics.get(CameraCharacteristics.SENSOR_INFO_ACTIVE_ARRAY_SIZE);
     }
     return rect == null ? null : new Size(rect.width(), rect.height());
   }
 
   private boolean isExposurePointSupported() throws CameraAccessException {
     Integer supportedRegions =
-        cameraManager
-            .getCameraCharacteristics(cameraDevice.getId())
-            .get(CameraCharacteristics.CONTROL_MAX_REGIONS_AE);
+        cameraCharacteristics.get(CameraCharacteristics.CONTROL_MAX_REGIONS_AE);
     return supportedRegions != null && supportedRegions > 0;
   }
 
   private boolean isFocusPointSupported() throws CameraAccessException {
     Integer supportedRegions =
-        cameraManager
-            .getCameraCharacteristics(cameraDevice.getId())
-            .get(CameraCharacteristics.CONTROL_MAX_REGIONS_AF);
+        cameraCharacteristics.get(CameraCharacteristics.CONTROL_MAX_REGIONS_AF);
     return supportedRegions != null && supportedRegions > 0;
   }
 
   public double getMinExposureOffset() throws CameraAccessException {
     Range<Integer> range =
-        cameraManager
-            .getCameraCharacteristics(cameraDevice.getId())
-            .get(CameraCharacteristics.CONTROL_AE_COMPENSATION_RANGE);
+        cameraCharacteristics.get(CameraCharacteristics.CONTROL_AE_COMPENSATION_RANGE);
     double minStepped = range == null ? 0 : range.getLower();
     double stepSize = getExposureOffsetStepSize();
     return minStepped * stepSize;
@@ -924,9 +1868,7 @@ public class Camera {
 
   public double getMaxExposureOffset() throws CameraAccessException {
     Range<Integer> range =
-        cameraManager
-            .getCameraCharacteristics(cameraDevice.getId())
-            .get(CameraCharacteristics.CONTROL_AE_COMPENSATION_RANGE);
+        cameraCharacteristics.get(CameraCharacteristics.CONTROL_AE_COMPENSATION_RANGE);
     double maxStepped = range == null ? 0 : range.getUpper();
     double stepSize = getExposureOffsetStepSize();
     return maxStepped * stepSize;
@@ -934,9 +1876,7 @@ public class Camera {
 
   public double getExposureOffsetStepSize() throws CameraAccessException {
     Rational stepSize =
-        cameraManager
-            .getCameraCharacteristics(cameraDevice.getId())
-            .get(CameraCharacteristics.CONTROL_AE_COMPENSATION_STEP);
+        cameraCharacteristics.get(CameraCharacteristics.CONTROL_AE_COMPENSATION_STEP);
     return stepSize == null ? 0.0 : stepSize.doubleValue();
   }
 
@@ -947,21 +1887,22 @@ public class Camera {
     exposureOffset = (int) (offset / stepSize);
     // Apply it
     updateExposure(exposureMode);
-    this.cameraCaptureSession.setRepeatingRequest(captureRequestBuilder.build(), null, null);
-    result.success(offset);
+    repeatingRequestCoalescer.requestUpdate(
+        () -> dartMessenger.finish(result, offset),
+        (code, message) -> dartMessenger.error(result, "setExposureOffsetFailed", message, null));
   }
 
   public float getMaxZoomLevel() {
-    return cameraZoom.maxZoom;
+    return cameraFeatures.getZoomLevel().getMaximumZoomLevel();
   }
 
   public float getMinZoomLevel() {
-    return CameraZoom.DEFAULT_ZOOM_FACTOR;
+    return cameraFeatures.getZoomLevel().getMinimumZoomLevel();
   }
 
   public void setZoomLevel(@NonNull final Result result, float zoom) throws CameraAccessException {
-    float maxZoom = cameraZoom.maxZoom;
-    float minZoom = CameraZoom.DEFAULT_ZOOM_FACTOR;
+    float maxZoom = getMaxZoomLevel();
+    float minZoom = getMinZoomLevel();
 
     if (zoom > maxZoom || zoom < minZoom) {
       String errorMessage =
@@ -974,14 +1915,12 @@ public class Camera {
       return;
     }
 
-    //Zoom area is calculated relative to sensor area (activeRect)
-    if (captureRequestBuilder != null) {
-      final Rect computedZoom = cameraZoom.computeZoom(zoom);
-      captureRequestBuilder.set(CaptureRequest.SCALER_CROP_REGION, computedZoom);
-      cameraCaptureSession.setRepeatingRequest(captureRequestBuilder.build(), null, null);
-    }
-
-    result.success(null);
+    // Zoom changes arrive at a high rate during a pinch gesture, and are coalesced into one
+    // repeating request per preview frame.
+    cameraFeatures.getZoomLevel().setValue(zoom);
+    repeatingRequestCoalescer.requestUpdate(
+        () -> dartMessenger.finish(result, null),
+        (code, message) -> dartMessenger.error(result, "ZOOM_ERROR", message, null));
   }
 
   public void lockCaptureOrientation(PlatformChannel.DeviceOrientation orientation) {
@@ -1012,20 +1951,11 @@ public class Camera {
             CaptureRequest.CONTROL_AF_MODE, CaptureRequest.CONTROL_AF_MODE_OFF);
       } else {
         // Applying auto focus
-        switch (mode) {
-          case locked:
-            captureRequestBuilder.set(
-                CaptureRequest.CONTROL_AF_MODE, CaptureRequest.CONTROL_AF_MODE_AUTO);
-            break;
-          case auto:
-            captureRequestBuilder.set(
-                CaptureRequest.CONTROL_AF_MODE,
-                recordingVideo
-                    ? CaptureRequest.CONTROL_AF_MODE_CONTINUOUS_VIDEO
-                    : CaptureRequest.CONTROL_AF_MODE_CONTINUOUS_PICTURE);
-          default:
-            break;
-        }
+        AutoFocusFeature autoFocus = cameraFeatures.getAutoFocus();
+        autoFocus.setValue(
+            io.flutter.plugins.camera.features.autofocus.FocusMode.getValueForString(
+                mode.toString()));
+        autoFocus.updateBuilder(captureRequestBuilder);
         MeteringRectangle afRect = cameraRegions.getAFMeteringRectangle();
         captureRequestBuilder.set(
             CaptureRequest.CONTROL_AF_REGIONS,
@@ -1063,95 +1993,267 @@ public class Camera {
     flashMode = mode;
 
     // Applying flash modes
-    switch (flashMode) {
-      case off:
-        captureRequestBuilder.set(
-            CaptureRequest.CONTROL_AE_MODE, CaptureRequest.CONTROL_AE_MODE_ON);
-        captureRequestBuilder.set(CaptureRequest.FLASH_MODE, CaptureRequest.FLASH_MODE_OFF);
-        break;
-      case auto:
-        captureRequestBuilder.set(
-            CaptureRequest.CONTROL_AE_MODE, CaptureRequest.CONTROL_AE_MODE_ON_AUTO_FLASH);
-        captureRequestBuilder.set(CaptureRequest.FLASH_MODE, CaptureRequest.FLASH_MODE_OFF);
-        break;
-      case always:
-        captureRequestBuilder.set(
-            CaptureRequest.CONTROL_AE_MODE, CaptureRequest.CONTROL_AE_MODE_ON_ALWAYS_FLASH);
-        captureRequestBuilder.set(CaptureRequest.FLASH_MODE, CaptureRequest.FLASH_MODE_OFF);
-        break;
-      case torch:
-      default:
-        captureRequestBuilder.set(
-            CaptureRequest.CONTROL_AE_MODE, CaptureRequest.CONTROL_AE_MODE_ON);
-        captureRequestBuilder.set(CaptureRequest.FLASH_MODE, CaptureRequest.FLASH_MODE_TORCH);
-        break;
-    }
+    FlashFeature flash = cameraFeatures.getFlash();
+    flash.setValue(
+        io.flutter.plugins.camera.features.flash.FlashMode.getValueForString(mode.toString()));
+    flash.updateBuilder(captureRequestBuilder);
+  }
+
+  /**
+   * Updates whether a video is being recorded, re-creating the auto focus feature so it picks the
+   * matching continuous focus mode.
+   */
+  private void setRecordingVideo(boolean recordingVideo) {
+    this.recordingVideo = recordingVideo;
+    AutoFocusFeature autoFocus = new AutoFocusFeature(cameraProperties, recordingVideo);
+    autoFocus.setValue(cameraFeatures.getAutoFocus().getValue());
+    cameraFeatures.setAutoFocus(autoFocus);
   }
 
   public void startPreview() throws CameraAccessException {
     if (pictureImageReader == null || pictureImageReader.getSurface() == null) return;
 
+    if (useSingleCaptureSession) {
+      startSingleCaptureSession();
+      return;
+    }
+    if (useZeroShutterLag) {
+      startZeroShutterLagPreview();
+      return;
+    }
     createCaptureSession(CameraDevice.TEMPLATE_PREVIEW, pictureImageReader.getSurface());
   }
 
-  public void startPreviewWithImageStream(EventChannel imageStreamChannel)
+  /**
+   * Starts the preview together with the image stream.
+   *
+   * @param imageStreamChannel Channel the frames are sent on.
+   * @param throttler Decides which frames are sent to Dart.
+   * @param converter Crops, scales and converts the frames on the image processing thread before
+   *     they are sent.
+   */
+  public void startPreviewWithImageStream(
+      EventChannel imageStreamChannel,
+      @NonNull ImageStreamThrottler throttler,
+      @NonNull ImageFrameConverter converter)
       throws CameraAccessException {
-    createCaptureSession(CameraDevice.TEMPLATE_RECORD, imageStreamReader.getSurface());
+    startPreviewWithImageStream(imageStreamChannel, throttler, converter, true);
+  }
 
-    imageStreamChannel.setStreamHandler(
-        new EventChannel.StreamHandler() {
-          @Override
-          public void onListen(Object o, EventChannel.EventSink imageStreamSink) {
-            setImageStreamImageAvailableListener(imageStreamSink);
-          }
+  /**
+   * Starts the preview together with the image stream.
+   *
+   * <p>Every frame is passed to the {@link FrameProcessor} instances registered for this camera
+   * first, whether or not frames are sent to Dart.
+   *
+   * @param imageStreamChannel Channel the frames are sent on.
+   * @param throttler Decides which frames are sent to Dart.
+   * @param converter Crops, scales and converts the frames on the image processing thread before
+   *     they are sent.
+   * @param sendFrames Whether to send the frames to Dart, or only run the frame processors.
+   */
+  public void startPreviewWithImageStream(
+      EventChannel imageStreamChannel,
+      @NonNull ImageStreamThrottler throttler,
+      @NonNull ImageFrameConverter converter,
+      boolean sendFrames)
+      throws CameraAccessException {
+    imageStreamActive = true;
+    if (useSingleCaptureSession) {
+      startSingleCaptureSession();
+    } else {
+      createCaptureSession(CameraDevice.TEMPLATE_RECORD, imageStreamReader.getSurface());
+    }
 
-          @Override
-          public void onCancel(Object o) {
-            imageStreamReader.setOnImageAvailableListener(null, null);
-          }
-        });
+    // Stream handlers are set and called on the platform thread. This is posted before the reply
+    // to the method call, so the handler is in place once Dart listens.
+    mainHandler.post(
+        () ->
+            imageStreamChannel.setStreamHandler(
+                new EventChannel.StreamHandler() {
+                  @Override
+                  public void onListen(Object o, EventChannel.EventSink imageStreamSink) {
+                    setImageStreamImageAvailableListener(
+                        imageStreamSink, throttler, converter, sendFrames);
+                  }
+
+                  @Override
+                  public void onCancel(Object o) {
+                    clearImageStreamImageAvailableListener();
+                  }
+                }));
   }
 
-  private void setImageStreamImageAvailableListener(final EventChannel.EventSink imageStreamSink) {
+  private void setImageStreamImageAvailableListener(
+      final EventChannel.EventSink imageStreamSink,
+      final ImageStreamThrottler throttler,
+      final ImageFrameConverter converter,
+      final boolean sendFrames) {
+    final Handler imageProcessingHandler = this.imageProcessingHandler;
+    if (imageProcessingHandler == null) {
+      // The camera was closed before Dart listened.
+      return;
+    }
+    this.imageStreamThrottler = throttler;
+    final long cameraId = flutterTexture.id();
+    final ImageStreamFramePool framePool = imageStreamFramePool;
+
+    // Runs before the first frame callback, as both are delivered through the same handler.
+    imageProcessingHandler.post(
+        () -> {
+          releaseHeldImageStreamFrame();
+          this.imageStreamSink = imageStreamSink;
+        });
+
     imageStreamReader.setOnImageAvailableListener(
         reader -> {
           Image img = reader.acquireLatestImage();
           if (img == null) return;
 
-          List<Map<String, Object>> planes = new ArrayList<>();
-          for (Image.Plane plane : img.getPlanes()) {
-            ByteBuffer buffer = plane.getBuffer();
-
-            byte[] bytes = new byte[buffer.remaining()];
-            buffer.get(bytes, 0, bytes.length);
-
-            Map<String, Object> planeBuffer = new HashMap<>();
-            planeBuffer.put("bytesPerRow", plane.getRowStride());
-            planeBuffer.put("bytesPerPixel", plane.getPixelStride());
-            planeBuffer.put("bytes", bytes);
-
-            planes.add(planeBuffer);
+          runFrameProcessors(cameraId, img);
+          if (!sendFrames) {
+            img.close();
+            return;
           }
 
-          Map<String, Object> imageBuffer = new HashMap<>();
-          imageBuffer.put("width", img.getWidth());
-          imageBuffer.put("height", img.getHeight());
-          imageBuffer.put("format", img.getFormat());
-          imageBuffer.put("planes", planes);
+          ImageStreamFramePool.Frame frame = framePool.acquire();
+          if (frame == null) {
+            // Every pooled frame is still in use, drop this one rather than allocating.
+            throttler.onBufferExhausted();
+            img.close();
+            return;
+          }
 
-          imageStreamSink.success(imageBuffer);
+          switch (throttler.onFrameAvailable(img.getTimestamp())) {
+            case drop:
+              framePool.release(frame);
+              break;
+            case hold:
+              converter.convert(img, frame);
+              releaseHeldImageStreamFrame();
+              heldImageStreamFrame = frame;
+              break;
+            case emit:
+              converter.convert(img, frame);
+              sendImageStreamFrame(frame);
+              break;
+          }
           img.close();
         },
-        null);
+        imageProcessingHandler);
   }
 
-  public void stopImageStream() throws CameraAccessException {
+  private void clearImageStreamImageAvailableListener() {
     if (imageStreamReader != null) {
       imageStreamReader.setOnImageAvailableListener(null, null);
     }
+    final Handler imageProcessingHandler = this.imageProcessingHandler;
+    if (imageProcessingHandler != null) {
+      imageProcessingHandler.post(
+          () -> {
+            releaseHeldImageStreamFrame();
+            imageStreamSink = null;
+          });
+    }
+  }
+
+  // Must be called on the image processing thread.
+  private void runFrameProcessors(long cameraId, Image image) {
+    Map<String, FrameProcessor> processors = FrameProcessorRegistry.get(cameraId);
+    if (processors.isEmpty()) {
+      return;
+    }
+
+    for (Map.Entry<String, FrameProcessor> entry : processors.entrySet()) {
+      Map<String, Object> processed;
+      try {
+        processed = entry.getValue().process(image, sensorOrientation);
+      } catch (RuntimeException e) {
+        Log.w(TAG, "Frame processor " + entry.getKey() + " failed", e);
+        continue;
+      }
+      if (processed != null) {
+        dartMessenger.sendFrameProcessedEvent(entry.getKey(), image.getTimestamp(), processed);
+      }
+    }
+  }
+
+  // Must be called on the image processing thread.
+  private void sendImageStreamFrame(ImageStreamFramePool.Frame frame) {
+    if (imageStreamSink == null) {
+      frame.release();
+      // Otherwise a backpressure policy would wait forever for this frame to be acknowledged.
+      imageStreamThrottler.onFrameNotSent();
+      return;
+    }
+
+    // The frame is returned to the pool once it has been encoded on the platform thread.
+    frame.setSink(imageStreamSink);
+    dartMessenger.sendImageStreamFrame(frame);
+  }
+
+  // Must be called on the image processing thread.
+  private void releaseHeldImageStreamFrame() {
+    if (heldImageStreamFrame != null) {
+      heldImageStreamFrame.release();
+      heldImageStreamFrame = null;
+    }
+  }
+
+  /**
+   * Acknowledges that Dart finished processing the last image stream frame.
+   *
+   * <p>Only relevant when the image stream was started with a backpressure policy other than
+   * {@link io.flutter.plugins.camera.types.ImageStreamBackpressure#none}. When a newer frame was
+   * held back in the meantime, it is sent right away.
+   */
+  public void acknowledgeImageStreamFrame() {
+    final Handler imageProcessingHandler = this.imageProcessingHandler;
+    if (imageProcessingHandler == null) {
+      return;
+    }
+
+    final ImageStreamThrottler throttler = imageStreamThrottler;
+    imageProcessingHandler.post(
+        () -> {
+          if (throttler.onFrameAcknowledged() && heldImageStreamFrame != null) {
+            ImageStreamFramePool.Frame frame = heldImageStreamFrame;
+            heldImageStreamFrame = null;
+            sendImageStreamFrame(frame);
+          }
+        });
+  }
+
+  /** Returns the frame counters of the current or last image stream. */
+  public Map<String, Object> getImageStreamStats() {
+    Map<String, Object> stats = new HashMap<>();
+    stats.put("emittedFrames", imageStreamThrottler.getEmittedFrameCount());
+    stats.put("droppedFrames", imageStreamThrottler.getDroppedFrameCount());
+    stats.put("rateLimitedFrames", imageStreamThrottler.getRateLimitedFrameCount());
+    stats.put("backpressureDroppedFrames", imageStreamThrottler.getBackpressureDroppedFrameCount());
+    stats.put("bufferExhaustedFrames", imageStreamThrottler.getBufferExhaustedFrameCount());
+    return stats;
+  }
+
+  public void stopImageStream() throws CameraAccessException {
+    imageStreamActive = false;
+    clearImageStreamImageAvailableListener();
     startPreview();
   }
 
+  /**
+   * Returns the duration statistics of the camera's operations.
+   *
+   * @see CameraLatencyTracker#getStatistics()
+   */
+  public Map<String, Object> getLatencyStats() {
+    return latencyTracker.getStatistics();
+  }
+
+  private void markLatency(Milestone milestone) {
+    latencyTracker.mark(milestone, SystemClock.elapsedRealtimeNanos());
+  }
+
   /** Sets the time the pre-capture sequence started. */
   private void setPreCaptureStartTime() {
     preCaptureStartTime = SystemClock.elapsedRealtime();
@@ -1167,16 +2269,26 @@ public class Camera {
   }
 
   private void closeCaptureSession() {
+    singleCaptureSessionCreated = false;
+    pictureOutputConfigured = false;
+    previewSurface = null;
+    stopZeroShutterLag();
     if (cameraCaptureSession != null) {
       cameraCaptureSession.close();
       cameraCaptureSession = null;
     }
   }
 
+  /** Closes the camera on the camera thread. */
   public void close() {
+    runOnCameraThread(this::closeOnCameraThread);
+  }
+
+  private void closeOnCameraThread() {
     closeCaptureSession();
 
-    if (cameraDevice != null) {
+    final boolean deviceOpen = cameraDevice != null;
+    if (deviceOpen) {
       cameraDevice.close();
       cameraDevice = null;
     }
@@ -1188,16 +2300,44 @@ public class Camera {
       imageStreamReader.close();
       imageStreamReader = null;
     }
+    if (zslImageReader != null) {
+      zslImageReader.close();
+      zslImageReader = null;
+    }
+    zslRingBuffer = null;
+    clearImageStreamImageAvailableListener();
     if (mediaRecorder != null) {
       mediaRecorder.reset();
       mediaRecorder.release();
       mediaRecorder = null;
     }
+    releaseMediaCodecRecorder();
+    if (recorderSurface != null) {
+      recorderSurface.release();
+      recorderSurface = null;
+    }
+    if (repeatingRequestCoalescer != null) {
+      repeatingRequestCoalescer.cancel(
+          "cameraClosed", "The camera was closed before the settings were applied.");
+    }
+
+    // Otherwise the threads are stopped once the device reports it closed, so the closing event it
+    // sends from the camera thread still reaches Dart.
+    if (!deviceOpen) {
+      stopBackgroundThreads();
+    }
   }
 
   public void dispose() {
-    close();
-    flutterTexture.release();
+    FrameProcessorRegistry.unregisterAll(flutterTexture.id());
     deviceOrientationListener.stop();
+    runOnCameraThread(
+        () -> {
+          closeOnCameraThread();
+          // Lets pictures that are still being written finish, without accepting new ones.
+          imageSaverExecutor.shutdown();
+          // Nothing renders to the texture once the camera is closed.
+          mainHandler.post(flutterTexture::release);
+        });
   }
 }
@@ -0,0 +1,123 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.CameraManager;
+import android.hardware.camera2.CameraMetadata;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A process-wide cache of {@link CameraCharacteristics}, keyed by camera id.
+ *
+ * <p>Querying the characteristics of a camera is a binder call into the camera service, and
+ * reading a value from them unmarshals it from the underlying metadata every time. Both are done
+ * once per camera and value, and shared by every camera instance of the process.
+ *
+ * <p>The characteristics of built-in cameras never change. An external camera may be unplugged
+ * and its id reused by a different device, so its entry is dropped whenever the camera service
+ * reports it as unavailable.
+ */
+final class CameraCharacteristicsCache {
+  private static final Map<String, Entry> entries = new HashMap<>();
+  private static boolean availabilityCallbackRegistered;
+
+  @VisibleForTesting
+  static final CameraManager.AvailabilityCallback availabilityCallback =
+      new CameraManager.AvailabilityCallback() {
+        @Override
+        public void onCameraUnavailable(@NonNull String cameraId) {
+          synchronized (CameraCharacteristicsCache.class) {
+            Entry entry = entries.get(cameraId);
+            if (entry != null && entry.isExternal()) {
+              entries.remove(cameraId);
+            }
+          }
+        }
+      };
+
+  private CameraCharacteristicsCache() {}
+
+  /**
+   * Returns the cached characteristics of a camera, querying them on first use.
+   *
+   * @param cameraManager The camera manager used to query characteristics that are not cached yet.
+   * @param cameraId The id of the camera.
+   * @return The cached characteristics.
+   * @throws CameraAccessException if the characteristics could not be queried.
+   */
+  @NonNull
+  static synchronized Entry get(@NonNull CameraManager cameraManager, @NonNull String cameraId)
+      throws CameraAccessException {
+    if (!availabilityCallbackRegistered) {
+      cameraManager.registerAvailabilityCallback(
+          availabilityCallback, new Handler(Looper.getMainLooper()));
+      availabilityCallbackRegistered = true;
+    }
+
+    Entry entry = entries.get(cameraId);
+    if (entry == null) {
+      entry = new Entry(cameraManager.getCameraCharacteristics(cameraId));
+      entries.put(cameraId, entry);
+    }
+    return entry;
+  }
+
+  /** Drops every cached entry. */
+  @VisibleForTesting
+  static synchronized void clear() {
+    entries.clear();
+  }
+
+  /**
+   * The characteristics of a single camera.
+   *
+   * <p>Values are read from the characteristics on first access and cached afterwards, including
+   * values that are not supported by the camera.
+   */
+  static final class Entry {
+    private final CameraCharacteristics characteristics;
+    private final Map<CameraCharacteristics.Key<?>, Object> values = new HashMap<>();
+
+    Entry(@NonNull CameraCharacteristics characteristics) {
+      this.characteristics = characteristics;
+    }
+
+    /** Returns the underlying characteristics. */
+    @NonNull
+    CameraCharacteristics getCharacteristics() {
+      return characteristics;
+    }
+
+    /**
+     * Returns the value of a characteristic, reading it on first access.
+     *
+     * @param key The characteristic to read.
+     * @return The value of the characteristic, or null if the camera does not report it.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    synchronized <T> T get(@NonNull CameraCharacteristics.Key<T> key) {
+      if (values.containsKey(key)) {
+        return (T) values.get(key);
+      }
+      T value = characteristics.get(key);
+      values.put(key, value);
+      return value;
+    }
+
+    private boolean isExternal() {
+      Integer lensFacing = get(CameraCharacteristics.LENS_FACING);
+      return lensFacing != null && lensFacing == CameraMetadata.LENS_FACING_EXTERNAL;
+    }
+  }
+}
@@ -0,0 +1,189 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Timestamps the milestones of opening the camera and taking pictures, reports them to Dart and
+ * keeps statistics about the duration of each operation.
+ *
+ * <p>Milestones are reached on the platform thread, the camera's background thread and the I/O
+ * executor, so all methods are synchronized. Times are in {@link
+ * android.os.SystemClock#elapsedRealtimeNanos()} time.
+ */
+class CameraLatencyTracker {
+  /** Number of recent durations kept per operation. */
+  static final int MAX_RECENT_DURATIONS = 100;
+
+  private static final double NANOS_PER_MILLISECOND = 1000000.0;
+
+  /** A point in time reported to Dart. */
+  enum Milestone {
+    openCameraRequested("openCameraRequested"),
+    cameraOpened("cameraOpened"),
+    sessionRequested("sessionRequested"),
+    sessionConfigured("sessionConfigured"),
+    firstPreviewFrame("firstPreviewFrame"),
+    captureRequested("captureRequested"),
+    precaptureStarted("precaptureStarted"),
+    precaptureConverged("precaptureConverged"),
+    jpegAvailable("jpegAvailable"),
+    fileWritten("fileWritten");
+
+    private final String strValue;
+
+    Milestone(String strValue) {
+      this.strValue = strValue;
+    }
+
+    @Override
+    public String toString() {
+      return strValue;
+    }
+  }
+
+  /** The time between two milestones. */
+  enum Operation {
+    open("open", Milestone.openCameraRequested, Milestone.cameraOpened),
+    startup("startup", Milestone.openCameraRequested, Milestone.firstPreviewFrame),
+    sessionConfiguration(
+        "sessionConfiguration", Milestone.sessionRequested, Milestone.sessionConfigured),
+    precapture("precapture", Milestone.precaptureStarted, Milestone.precaptureConverged),
+    capture("capture", Milestone.captureRequested, Milestone.jpegAvailable),
+    save("save", Milestone.jpegAvailable, Milestone.fileWritten);
+
+    private final String strValue;
+    private final Milestone start;
+    private final Milestone end;
+
+    Operation(String strValue, Milestone start, Milestone end) {
+      this.strValue = strValue;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Nullable
+    static Operation endingAt(Milestone milestone) {
+      for (Operation operation : values()) {
+        if (operation.end == milestone) {
+          return operation;
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public String toString() {
+      return strValue;
+    }
+  }
+
+  private final DartMessenger dartMessenger;
+  private final Map<Milestone, Long> milestoneTimes = new EnumMap<>(Milestone.class);
+  private final Map<Operation, Statistics> statistics = new EnumMap<>(Operation.class);
+
+  CameraLatencyTracker(@NonNull DartMessenger dartMessenger) {
+    this.dartMessenger = dartMessenger;
+  }
+
+  /**
+   * Records that a milestone has been reached and reports it to Dart, if the {@code
+   * latency_milestone} event was enabled with {@link DartMessenger#enableOptionalEvents}.
+   *
+   * <p>If the milestone ends an operation whose start has been recorded, the duration of the
+   * operation is reported with it and added to the operation's statistics. Each start is only
+   * used once, so repeated milestones such as the end of a capture without a new request are not
+   * counted twice.
+   *
+   * @param milestone The milestone that was reached.
+   * @param timeNanos The time it was reached.
+   */
+  synchronized void mark(@NonNull Milestone milestone, long timeNanos) {
+    milestoneTimes.put(milestone, timeNanos);
+
+    Operation operation = Operation.endingAt(milestone);
+    Long startNanos = null;
+    if (operation == Operation.open) {
+      // The open request also starts the startup operation, which consumes it.
+      startNanos = milestoneTimes.get(operation.start);
+    } else if (operation != null) {
+      startNanos = milestoneTimes.remove(operation.start);
+    }
+
+    Double durationMs = null;
+    if (startNanos != null) {
+      durationMs = (timeNanos - startNanos) / NANOS_PER_MILLISECOND;
+      Statistics operationStatistics = statistics.get(operation);
+      if (operationStatistics == null) {
+        operationStatistics = new Statistics();
+        statistics.put(operation, operationStatistics);
+      }
+      operationStatistics.add(durationMs);
+    }
+
+    dartMessenger.sendLatencyMilestoneEvent(
+        milestone.toString(),
+        timeNanos / NANOS_PER_MILLISECOND,
+        durationMs == null ? null : operation.toString(),
+        durationMs);
+  }
+
+  /**
+   * Returns the statistics of every operation that completed at least once, keyed by operation
+   * name.
+   *
+   * <p>Each entry contains the number of samples ({@code count}), the last, minimum, maximum and
+   * mean duration in milliseconds ({@code lastMs}, {@code minMs}, {@code maxMs}, {@code meanMs})
+   * and up to {@link #MAX_RECENT_DURATIONS} of the most recent durations ({@code recentMs}).
+   */
+  synchronized Map<String, Object> getStatistics() {
+    Map<String, Object> result = new HashMap<>();
+    for (Map.Entry<Operation, Statistics> entry : statistics.entrySet()) {
+      result.put(entry.getKey().toString(), entry.getValue().toMap());
+    }
+    return result;
+  }
+
+  private static class Statistics {
+    private final double[] recentDurations = new double[MAX_RECENT_DURATIONS];
+    private int count;
+    private double last;
+    private double min = Double.MAX_VALUE;
+    private double max;
+    private double total;
+
+    void add(double durationMs) {
+      recentDurations[count % MAX_RECENT_DURATIONS] = durationMs;
+      count++;
+      last = durationMs;
+      min = Math.min(min, durationMs);
+      max = Math.max(max, durationMs);
+      total += durationMs;
+    }
+
+    Map<String, Object> toMap() {
+      List<Double> recent = new ArrayList<>();
+      for (int i = Math.max(0, count - MAX_RECENT_DURATIONS); i < count; i++) {
+        recent.add(recentDurations[i % MAX_RECENT_DURATIONS]);
+      }
+
+      Map<String, Object> map = new HashMap<>();
+      map.put("count", count);
+      map.put("lastMs", last);
+      map.put("minMs", min);
+      map.put("maxMs", max);
+      map.put("meanMs", total / count);
+      map.put("recentMs", recent);
+      return map;
+    }
+  }
+}
@@ -242,13 +242,13 @@ public interface CameraProperties {
  * android.hardware.camera2.CameraCharacteristics class to access the different characteristics.
  */
 class CameraPropertiesImpl implements CameraProperties {
-  private final CameraCharacteristics cameraCharacteristics;
+  private final CameraCharacteristicsCache.Entry cameraCharacteristics;
   private final String cameraName;
 
   public CameraPropertiesImpl(String cameraName, CameraManager cameraManager)
       throws CameraAccessException {
     this.cameraName = cameraName;
-    this.cameraCharacteristics = cameraManager.getCameraCharacteristics(cameraName);
+    this.cameraCharacteristics = CameraCharacteristicsCache.get(cameraManager, cameraName);
   }
 
   @Override
@@ -11,10 +11,15 @@ import androidx.annotation.Nullable;
 import io.flutter.embedding.engine.systemchannels.PlatformChannel;
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.MethodChannel;
+import io.flutter.plugins.camera.media.ImageStreamFramePool;
 import io.flutter.plugins.camera.types.ExposureMode;
 import io.flutter.plugins.camera.types.FocusMode;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 class DartMessenger {
   @NonNull private final Handler handler;
@@ -31,23 +36,53 @@ class DartMessenger {
   }
 
   enum CameraEventType {
-    ERROR("error"),
-    CLOSING("camera_closing"),
-    INITIALIZED("initialized");
+    ERROR("error", false),
+    CLOSING("camera_closing", false),
+    INITIALIZED("initialized", false),
+    BURST_PICTURE_SAVED("burst_picture_saved", true),
+    LATENCY_MILESTONE("latency_milestone", true),
+    FRAME_PROCESSED("frame_processed", true);
 
     private final String method;
 
-    CameraEventType(String method) {
+    /**
+     * Whether the event is only sent once enabled with {@link #enableOptionalEvents}. The Dart
+     * side throws on camera events it does not know.
+     */
+    private final boolean optional;
+
+    CameraEventType(String method, boolean optional) {
       this.method = method;
+      this.optional = optional;
     }
   }
 
+  private final Set<CameraEventType> enabledOptionalEvents =
+      Collections.synchronizedSet(EnumSet.noneOf(CameraEventType.class));
+
   DartMessenger(BinaryMessenger messenger, long cameraId, @NonNull Handler handler) {
     cameraChannel = new MethodChannel(messenger, "flutter.io/cameraPlugin/camera" + cameraId);
     deviceChannel = new MethodChannel(messenger, "flutter.io/cameraPlugin/device");
     this.handler = handler;
   }
 
+  /**
+   * Enables sending optional camera events to Dart.
+   *
+   * @param eventNames Names of the events to send, among {@code burst_picture_saved}, {@code
+   *     latency_milestone} and {@code frame_processed}. Other names are ignored.
+   */
+  void enableOptionalEvents(@Nullable List<String> eventNames) {
+    if (eventNames == null) {
+      return;
+    }
+    for (CameraEventType eventType : CameraEventType.values()) {
+      if (eventType.optional && eventNames.contains(eventType.method)) {
+        enabledOptionalEvents.add(eventType);
+      }
+    }
+  }
+
   void sendDeviceOrientationChangeEvent(PlatformChannel.DeviceOrientation orientation) {
     assert (orientation != null);
     this.send(
@@ -100,12 +135,114 @@ class DartMessenger {
         });
   }
 
+  /**
+   * Notifies Dart that a picture of a burst has been written to a file.
+   *
+   * @param index Position of the picture within the burst.
+   * @param count Total number of pictures in the burst.
+   * @param path Absolute path of the file the picture was written to.
+   * @param captureLatencyMs Time between the start of the picture's exposure and its file being
+   *     written, in milliseconds.
+   */
+  void sendBurstPictureSavedEvent(int index, int count, String path, double captureLatencyMs) {
+    this.send(
+        CameraEventType.BURST_PICTURE_SAVED,
+        new HashMap<String, Object>() {
+          {
+            put("index", index);
+            put("count", count);
+            put("path", path);
+            put("captureLatencyMs", captureLatencyMs);
+          }
+        });
+  }
+
+  /**
+   * Notifies Dart that a latency milestone has been reached.
+   *
+   * @param milestone Name of the milestone.
+   * @param timestampMs Time the milestone was reached, in milliseconds since boot.
+   * @param operation Name of the operation the milestone ends, or null.
+   * @param durationMs Duration of the operation in milliseconds, or null.
+   */
+  void sendLatencyMilestoneEvent(
+      String milestone,
+      double timestampMs,
+      @Nullable String operation,
+      @Nullable Double durationMs) {
+    this.send(
+        CameraEventType.LATENCY_MILESTONE,
+        new HashMap<String, Object>() {
+          {
+            put("milestone", milestone);
+            put("timestampMs", timestampMs);
+            if (operation != null) put("operation", operation);
+            if (durationMs != null) put("durationMs", durationMs);
+          }
+        });
+  }
+
+  /**
+   * Sends the result of a {@link FrameProcessor} to Dart.
+   *
+   * @param processor Name the processor was registered under.
+   * @param timestamp Timestamp of the processed frame, in nanoseconds.
+   * @param result The result returned by the processor.
+   */
+  void sendFrameProcessedEvent(String processor, long timestamp, Map<String, Object> result) {
+    this.send(
+        CameraEventType.FRAME_PROCESSED,
+        new HashMap<String, Object>() {
+          {
+            put("processor", processor);
+            put("timestamp", timestamp);
+            put("result", result);
+          }
+        });
+  }
+
+  /**
+   * Sends an image stream frame to its sink on the platform thread.
+   *
+   * @param frame A frame whose sink has been set. It is returned to its pool once sent.
+   */
+  void sendImageStreamFrame(ImageStreamFramePool.Frame frame) {
+    handler.post(frame);
+  }
+
+  /**
+   * Completes a method call with a successful result on the platform thread.
+   *
+   * @param result The result to complete.
+   * @param payload The payload to send back to Dart.
+   */
+  void finish(MethodChannel.Result result, @Nullable Object payload) {
+    handler.post(() -> result.success(payload));
+  }
+
+  /**
+   * Completes a method call with an error on the platform thread.
+   *
+   * @param result The result to complete.
+   * @param errorCode An error code string.
+   * @param errorMessage A human-readable error message string, possibly null.
+   * @param errorDetails Error details, possibly null.
+   */
+  void error(
+      MethodChannel.Result result,
+      String errorCode,
+      @Nullable String errorMessage,
+      @Nullable Object errorDetails) {
+    handler.post(() -> result.error(errorCode, errorMessage, errorDetails));
+  }
+
   void send(CameraEventType eventType) {
     send(eventType, new HashMap<>());
   }
 
   void send(CameraEventType eventType, Map<String, Object> args) {
-    if (cameraChannel == null) {
+    if (cameraChannel == null
+        || (eventType.optional && !enabledOptionalEvents.contains(eventType))) {
       return;
     }
 
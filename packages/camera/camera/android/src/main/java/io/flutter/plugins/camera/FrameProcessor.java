@@ -0,0 +1,37 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.media.Image;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Map;
+
+/**
+ * Processes camera frames on the Java side, for example to run a barcode or face detector without
+ * sending every frame to Dart.
+ *
+ * <p>Processors are registered against a camera id with {@link FrameProcessorRegistry} and receive
+ * every frame of the camera's image stream while it is running. Only their results are sent to
+ * Dart, as {@code frame_processed} events on the camera's method channel.
+ */
+public interface FrameProcessor {
+  /**
+   * Processes a single frame.
+   *
+   * <p>Called on the camera's image processing thread, before the frame is throttled, converted or
+   * sent over the image stream. The image is closed as soon as the processors have returned and the
+   * frame has been copied for the image stream, so it must neither be closed nor retained. Slow
+   * processors hold up the stream, and frames that arrive in the meantime are dropped.
+   *
+   * @param image The frame, in the format the image stream was started with.
+   * @param sensorOrientation Clockwise angle in degrees the image needs to be rotated by to be
+   *     upright in the native orientation of the device.
+   * @return A small result to send to Dart, or null to send nothing. Values must be supported by
+   *     {@link io.flutter.plugin.common.StandardMessageCodec}.
+   */
+  @Nullable
+  Map<String, Object> process(@NonNull Image image, int sensorOrientation);
+}
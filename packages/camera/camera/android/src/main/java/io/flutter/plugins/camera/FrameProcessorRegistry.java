@@ -0,0 +1,72 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import androidx.annotation.NonNull;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@link FrameProcessor} instances registered by other plugins, keyed by camera id.
+ *
+ * <p>The camera id is the id returned to Dart when the camera is created. Processors may be
+ * registered before or after the camera is initialized, and are dropped when the camera is
+ * disposed.
+ *
+ * <p>The processors of a camera are looked up for every frame, so registering replaces an
+ * immutable snapshot instead of changing the map a frame may be iterating.
+ */
+public final class FrameProcessorRegistry {
+  private static final Map<Long, Map<String, FrameProcessor>> processors = new HashMap<>();
+
+  private FrameProcessorRegistry() {}
+
+  /**
+   * Registers a processor for the frames of a camera, replacing any processor registered under the
+   * same name.
+   *
+   * @param cameraId The id of the camera.
+   * @param name Name identifying the processor in the results sent to Dart.
+   * @param processor The processor.
+   */
+  public static synchronized void register(
+      long cameraId, @NonNull String name, @NonNull FrameProcessor processor) {
+    Map<String, FrameProcessor> cameraProcessors = new LinkedHashMap<>(get(cameraId));
+    cameraProcessors.put(name, processor);
+    processors.put(cameraId, Collections.unmodifiableMap(cameraProcessors));
+  }
+
+  /**
+   * Unregisters the processor registered under a name, if any.
+   *
+   * @param cameraId The id of the camera.
+   * @param name The name the processor was registered under.
+   */
+  public static synchronized void unregister(long cameraId, @NonNull String name) {
+    Map<String, FrameProcessor> cameraProcessors = new LinkedHashMap<>(get(cameraId));
+    cameraProcessors.remove(name);
+    if (cameraProcessors.isEmpty()) {
+      processors.remove(cameraId);
+    } else {
+      processors.put(cameraId, Collections.unmodifiableMap(cameraProcessors));
+    }
+  }
+
+  /** Unregisters every processor of a camera. */
+  static synchronized void unregisterAll(long cameraId) {
+    processors.remove(cameraId);
+  }
+
+  /** Returns the processors of a camera, keyed by name, in the order they were registered. */
+  @NonNull
+  static synchronized Map<String, FrameProcessor> get(long cameraId) {
+    Map<String, FrameProcessor> cameraProcessors = processors.get(cameraId);
+    return cameraProcessors == null
+        ? Collections.<String, FrameProcessor>emptyMap()
+        : cameraProcessors;
+  }
+}
@@ -0,0 +1,74 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.media.Image;
+import androidx.annotation.NonNull;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Executor;
+
+/**
+ * Persists captured JPEG images on an I/O executor.
+ *
+ * <p>The encoded bytes are copied out of the {@link Image} and the image is closed before the file
+ * is written, so the {@link android.media.ImageReader} can deliver the next capture while the
+ * previous one is still being written to storage.
+ */
+class ImageSaver {
+  /** Receives the outcome of saving an image. Invoked on the I/O executor. */
+  interface Callback {
+    void onComplete(@NonNull String absolutePath);
+
+    void onError(@NonNull String errorCode, @NonNull String errorMessage);
+  }
+
+  private final Executor executor;
+
+  /**
+   * Creates a new image saver.
+   *
+   * @param executor Executor the files are written on.
+   */
+  ImageSaver(@NonNull Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Copies the JPEG data out of {@code image}, closes it and writes the data to {@code file}.
+   *
+   * @param image A JPEG image. It is closed before this method returns.
+   * @param file The file to write the image to.
+   * @param callback Notified once the file has been written, or writing failed.
+   */
+  void save(@NonNull Image image, @NonNull File file, @NonNull Callback callback) {
+    final ByteBuffer bytes;
+    try {
+      ByteBuffer buffer = image.getPlanes()[0].getBuffer();
+      bytes = ByteBuffer.allocate(buffer.remaining());
+      bytes.put(buffer);
+      bytes.flip();
+    } finally {
+      image.close();
+    }
+
+    executor.execute(() -> write(bytes, file, callback));
+  }
+
+  static void write(@NonNull ByteBuffer buffer, @NonNull File file, @NonNull Callback callback) {
+    try (FileChannel channel = new FileOutputStream(file).getChannel()) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } catch (IOException e) {
+      callback.onError("IOError", "Failed saving image");
+      return;
+    }
+    callback.onComplete(file.getAbsolutePath());
+  }
+}
@@ -17,9 +17,15 @@ import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodChannel.Result;
 import io.flutter.plugins.camera.CameraPermissions.PermissionsRegistry;
+import io.flutter.plugins.camera.media.ImageFrameConverter;
+import io.flutter.plugins.camera.media.ImageStreamThrottler;
 import io.flutter.plugins.camera.types.ExposureMode;
 import io.flutter.plugins.camera.types.FlashMode;
 import io.flutter.plugins.camera.types.FocusMode;
+import io.flutter.plugins.camera.types.ImageStreamBackpressure;
+import io.flutter.plugins.camera.types.ImageStreamOutputFormat;
+import io.flutter.plugins.camera.types.VideoBitrateMode;
+import io.flutter.plugins.camera.types.VideoCodec;
 import io.flutter.view.TextureRegistry;
 import java.util.HashMap;
 import java.util.Map;
@@ -88,7 +94,13 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
         {
           if (camera != null) {
             try {
-              camera.open(call.argument("imageFormatGroup"));
+              Boolean singleCaptureSession = call.argument("singleCaptureSession");
+              Boolean zeroShutterLag = call.argument("zeroShutterLag");
+              camera.enableOptionalEvents(call.argument("optionalEvents"));
+              camera.open(
+                  call.argument("imageFormatGroup"),
+                  singleCaptureSession != null && singleCaptureSession,
+                  zeroShutterLag != null && zeroShutterLag);
               result.success(null);
             } catch (Exception e) {
               handleException(e, result);
@@ -103,7 +115,17 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
         }
       case "takePicture":
         {
-          camera.takePicture(result);
+          runOnCameraThread(result, (camera, reply) -> camera.takePicture(reply));
+          break;
+        }
+      case "takePictureBurst":
+        {
+          Integer count = call.argument("count");
+          if (count == null || count < 1) {
+            result.error("takePictureBurstFailed", "count must be at least 1", null);
+            return;
+          }
+          runOnCameraThread(result, (camera, reply) -> camera.takePictureBurst(reply, count));
           break;
         }
       case "prepareForVideoRecording":
@@ -114,22 +136,61 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
         }
       case "startVideoRecording":
         {
-          camera.startVideoRecording(result);
+          String codecStr = call.argument("codec");
+          VideoCodec codec = codecStr == null ? null : VideoCodec.getValueForString(codecStr);
+          if (codecStr != null && codec == null) {
+            result.error("videoRecordingFailed", "Unknown video codec " + codecStr, null);
+            return;
+          }
+          String bitrateModeStr = call.argument("bitrateMode");
+          VideoBitrateMode bitrateMode =
+              bitrateModeStr == null ? null : VideoBitrateMode.getValueForString(bitrateModeStr);
+          if (bitrateModeStr != null && bitrateMode == null) {
+            result.error("videoRecordingFailed", "Unknown bitrate mode " + bitrateModeStr, null);
+            return;
+          }
+          Integer bitrate = call.argument("bitrate");
+          Integer keyFrameInterval = call.argument("keyFrameInterval");
+          if ((bitrate != null && bitrate < 0)
+              || (keyFrameInterval != null && keyFrameInterval < 0)) {
+            result.error(
+                "videoRecordingFailed", "bitrate and keyFrameInterval must not be negative", null);
+            return;
+          }
+          runOnCameraThread(
+              result,
+              (camera, reply) ->
+                  camera.startVideoRecording(
+                      reply,
+                      codec,
+                      bitrateMode,
+                      bitrate == null ? 0 : bitrate,
+                      keyFrameInterval == null ? 1 : keyFrameInterval));
+          break;
+        }
+      case "setVideoBitrate":
+        {
+          Integer bitrate = call.argument("bitrate");
+          if (bitrate == null || bitrate <= 0) {
+            result.error("setVideoBitrateFailed", "bitrate must be positive", null);
+            return;
+          }
+          runOnCameraThread(result, (camera, reply) -> camera.setVideoBitrate(reply, bitrate));
           break;
         }
       case "stopVideoRecording":
         {
-          camera.stopVideoRecording(result);
+          runOnCameraThread(result, (camera, reply) -> camera.stopVideoRecording(reply));
           break;
         }
       case "pauseVideoRecording":
         {
-          camera.pauseVideoRecording(result);
+          runOnCameraThread(result, (camera, reply) -> camera.pauseVideoRecording(reply));
           break;
         }
       case "resumeVideoRecording":
         {
-          camera.resumeVideoRecording(result);
+          runOnCameraThread(result, (camera, reply) -> camera.resumeVideoRecording(reply));
           break;
         }
       case "setFlashMode":
@@ -140,11 +201,7 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
             result.error("setFlashModeFailed", "Unknown flash mode " + modeStr, null);
             return;
           }
-          try {
-            camera.setFlashMode(result, mode);
-          } catch (Exception e) {
-            handleException(e, result);
-          }
+          runOnCameraThread(result, (camera, reply) -> camera.setFlashMode(reply, mode));
           break;
         }
       case "setExposureMode":
@@ -155,27 +212,15 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
             result.error("setExposureModeFailed", "Unknown exposure mode " + modeStr, null);
             return;
           }
-          try {
-            camera.setExposureMode(result, mode);
-          } catch (Exception e) {
-            handleException(e, result);
-          }
+          runOnCameraThread(result, (camera, reply) -> camera.setExposureMode(reply, mode));
           break;
         }
       case "setExposurePoint":
         {
           Boolean reset = call.argument("reset");
-          Double x = null;
-          Double y = null;
-          if (reset == null || !reset) {
-            x = call.argument("x");
-            y = call.argument("y");
-          }
-          try {
-            camera.setExposurePoint(result, x, y);
-          } catch (Exception e) {
-            handleException(e, result);
-          }
+          final Double x = reset == null || !reset ? call.argument("x") : null;
+          final Double y = reset == null || !reset ? call.argument("y") : null;
+          runOnCameraThread(result, (camera, reply) -> camera.setExposurePoint(reply, x, y));
           break;
         }
       case "getMinExposureOffset":
@@ -207,11 +252,8 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
         }
       case "setExposureOffset":
         {
-          try {
-            camera.setExposureOffset(result, call.argument("offset"));
-          } catch (Exception e) {
-            handleException(e, result);
-          }
+          final double offset = call.argument("offset");
+          runOnCameraThread(result, (camera, reply) -> camera.setExposureOffset(reply, offset));
           break;
         }
       case "setFocusMode":
@@ -222,47 +264,98 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
             result.error("setFocusModeFailed", "Unknown focus mode " + modeStr, null);
             return;
           }
-          try {
-            camera.setFocusMode(result, mode);
-          } catch (Exception e) {
-            handleException(e, result);
-          }
+          runOnCameraThread(result, (camera, reply) -> camera.setFocusMode(reply, mode));
           break;
         }
       case "setFocusPoint":
         {
           Boolean reset = call.argument("reset");
-          Double x = null;
-          Double y = null;
-          if (reset == null || !reset) {
-            x = call.argument("x");
-            y = call.argument("y");
-          }
-          try {
-            camera.setFocusPoint(result, x, y);
-          } catch (Exception e) {
-            handleException(e, result);
-          }
+          final Double x = reset == null || !reset ? call.argument("x") : null;
+          final Double y = reset == null || !reset ? call.argument("y") : null;
+          runOnCameraThread(result, (camera, reply) -> camera.setFocusPoint(reply, x, y));
           break;
         }
       case "startImageStream":
         {
+          Double maxFrameRate = call.argument("maxFrameRate");
+          String backpressureStr = call.argument("backpressure");
+          ImageStreamBackpressure backpressure =
+              backpressureStr == null
+                  ? ImageStreamBackpressure.none
+                  : ImageStreamBackpressure.getValueForString(backpressureStr);
+          if (backpressure == null) {
+            result.error(
+                "startImageStreamFailed", "Unknown backpressure policy " + backpressureStr, null);
+            return;
+          }
+          if (maxFrameRate != null && maxFrameRate < 0) {
+            result.error("startImageStreamFailed", "maxFrameRate must not be negative", null);
+            return;
+          }
+          String outputFormatStr = call.argument("outputFormat");
+          ImageStreamOutputFormat outputFormat =
+              outputFormatStr == null
+                  ? ImageStreamOutputFormat.yuv420
+                  : ImageStreamOutputFormat.getValueForString(outputFormatStr);
+          if (outputFormat == null) {
+            result.error(
+                "startImageStreamFailed", "Unknown output format " + outputFormatStr, null);
+            return;
+          }
+          Map<String, Integer> regionOfInterest = call.argument("regionOfInterest");
+          Boolean stripPadding = call.argument("stripPadding");
+          final ImageFrameConverter converter;
           try {
-            camera.startPreviewWithImageStream(imageStreamChannel);
-            result.success(null);
-          } catch (Exception e) {
-            handleException(e, result);
+            converter =
+                new ImageFrameConverter(
+                    outputFormat,
+                    getIntOrZero(regionOfInterest, "left"),
+                    getIntOrZero(regionOfInterest, "top"),
+                    getIntOrZero(regionOfInterest, "width"),
+                    getIntOrZero(regionOfInterest, "height"),
+                    getIntOrZero(call.arguments(), "targetWidth"),
+                    getIntOrZero(call.arguments(), "targetHeight"),
+                    stripPadding != null && stripPadding);
+          } catch (IllegalArgumentException e) {
+            result.error("startImageStreamFailed", e.getMessage(), null);
+            return;
           }
+          Boolean sendFrames = call.argument("sendFrames");
+          final ImageStreamThrottler throttler =
+              new ImageStreamThrottler(maxFrameRate == null ? 0 : maxFrameRate, backpressure);
+          runOnCameraThread(
+              result,
+              (camera, reply) -> {
+                camera.startPreviewWithImageStream(
+                    imageStreamChannel, throttler, converter, sendFrames == null || sendFrames);
+                reply.success(null);
+              });
+          break;
+        }
+      case "acknowledgeImageStreamFrame":
+        {
+          camera.acknowledgeImageStreamFrame();
+          result.success(null);
+          break;
+        }
+      case "getImageStreamStats":
+        {
+          result.success(camera.getImageStreamStats());
+          break;
+        }
+      case "getLatencyStats":
+        {
+          result.success(camera.getLatencyStats());
           break;
         }
       case "stopImageStream":
         {
-          try {
-            camera.startPreview();
-            result.success(null);
-          } catch (Exception e) {
-            handleException(e, result);
-          }
+          runOnCameraThread(
+              result,
+              (camera, reply) -> {
+                camera.stopImageStream();
+                reply.success(null);
+              });
           break;
         }
       case "getMaxZoomLevel":
@@ -301,11 +394,8 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
             return;
           }
 
-          try {
-            camera.setZoomLevel(result, zoom.floatValue());
-          } catch (Exception e) {
-            handleException(e, result);
-          }
+          final float zoomLevel = zoom.floatValue();
+          runOnCameraThread(result, (camera, reply) -> camera.setZoomLevel(reply, zoomLevel));
           break;
         }
       case "lockCaptureOrientation":
@@ -313,22 +403,22 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
           PlatformChannel.DeviceOrientation orientation =
               CameraUtils.deserializeDeviceOrientation(call.argument("orientation"));
 
-          try {
-            camera.lockCaptureOrientation(orientation);
-            result.success(null);
-          } catch (Exception e) {
-            handleException(e, result);
-          }
+          runOnCameraThread(
+              result,
+              (camera, reply) -> {
+                camera.lockCaptureOrientation(orientation);
+                reply.success(null);
+              });
           break;
         }
       case "unlockCaptureOrientation":
         {
-          try {
-            camera.unlockCaptureOrientation();
-            result.success(null);
-          } catch (Exception e) {
-            handleException(e, result);
-          }
+          runOnCameraThread(
+              result,
+              (camera, reply) -> {
+                camera.unlockCaptureOrientation();
+                reply.success(null);
+              });
           break;
         }
       case "dispose":
@@ -372,6 +462,68 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
     result.success(reply);
   }
 
+  /** A method call that changes the camera's capture state. */
+  private interface CameraCall {
+    void run(Camera camera, Result reply) throws Exception;
+  }
+
+  /**
+   * Runs {@code cameraCall} on the camera thread, which owns the camera's capture state, replying
+   * to {@code result} on the platform thread.
+   */
+  private void runOnCameraThread(Result result, CameraCall cameraCall) {
+    final Camera camera = this.camera;
+    final Result reply = new PlatformThreadResult(result);
+    camera.runOnCameraThread(
+        () -> {
+          try {
+            cameraCall.run(camera, reply);
+          } catch (Exception e) {
+            // Nothing catches exceptions thrown on the camera thread, so every exception is sent
+            // as an error, the way the platform channel replies to exceptions of onMethodCall.
+            if (e instanceof CameraAccessException) {
+              reply.error("CameraAccess", e.getMessage(), null);
+            } else {
+              reply.error("error", e.getMessage(), null);
+            }
+          }
+        });
+  }
+
+  /** Forwards the reply to a method call to the platform thread. */
+  private static class PlatformThreadResult implements Result {
+    private final Result result;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    PlatformThreadResult(Result result) {
+      this.result = result;
+    }
+
+    @Override
+    public void success(@Nullable Object payload) {
+      handler.post(() -> result.success(payload));
+    }
+
+    @Override
+    public void error(
+        String errorCode, @Nullable String errorMessage, @Nullable Object errorDetails) {
+      handler.post(() -> result.error(errorCode, errorMessage, errorDetails));
+    }
+
+    @Override
+    public void notImplemented() {
+      handler.post(result::notImplemented);
+    }
+  }
+
+  private static int getIntOrZero(@Nullable Map<String, ?> arguments, String key) {
+    if (arguments == null) {
+      return 0;
+    }
+    Object value = arguments.get(key);
+    return value instanceof Number ? ((Number) value).intValue() : 0;
+  }
+
   // We move catching CameraAccessException out of onMethodCall because it causes a crash
   // on plugin registration for sdks incompatible with Camera2 (< 21). We want this plugin to
   // to be able to compile with <21 sdks for apps that want the camera and support earlier version.
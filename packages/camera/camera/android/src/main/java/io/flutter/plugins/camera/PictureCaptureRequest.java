@@ -17,6 +17,8 @@ class PictureCaptureRequest {
     preCapture,
     waitingPreCaptureReady,
     capturing,
+    /** The picture has been captured and is being written to a file. */
+    saving,
     finished,
     error,
   }
@@ -30,6 +32,7 @@ class PictureCaptureRequest {
       };
 
   private final MethodChannel.Result result;
+  @Nullable private final DartMessenger dartMessenger;
   private final TimeoutHandler timeoutHandler;
   private State state;
 
@@ -38,12 +41,24 @@ class PictureCaptureRequest {
   }
 
   public PictureCaptureRequest(MethodChannel.Result result, TimeoutHandler timeoutHandler) {
+    this(result, null, timeoutHandler);
+  }
+
+  /**
+   * Creates a request that completes its result through the given {@link DartMessenger}, so it can
+   * safely be finished from the camera's background thread.
+   */
+  public PictureCaptureRequest(
+      MethodChannel.Result result,
+      @Nullable DartMessenger dartMessenger,
+      TimeoutHandler timeoutHandler) {
     this.result = result;
+    this.dartMessenger = dartMessenger;
     this.state = State.idle;
     this.timeoutHandler = timeoutHandler;
   }
 
-  public void setState(State state) {
+  public synchronized void setState(State state) {
     if (isFinished()) throw new IllegalStateException("Request has already been finished");
     this.state = state;
     if (state != State.idle && state != State.finished && state != State.error) {
@@ -53,26 +68,34 @@ class PictureCaptureRequest {
     }
   }
 
-  public State getState() {
+  public synchronized State getState() {
     return state;
   }
 
-  public boolean isFinished() {
+  public synchronized boolean isFinished() {
     return state == State.finished || state == State.error;
   }
 
-  public void finish(String absolutePath) {
+  public synchronized void finish(String absolutePath) {
     if (isFinished()) throw new IllegalStateException("Request has already been finished");
     this.timeoutHandler.clearTimeout(timeoutCallback);
-    result.success(absolutePath);
+    if (dartMessenger != null) {
+      dartMessenger.finish(result, absolutePath);
+    } else {
+      result.success(absolutePath);
+    }
     state = State.finished;
   }
 
-  public void error(
+  public synchronized void error(
       String errorCode, @Nullable String errorMessage, @Nullable Object errorDetails) {
     if (isFinished()) throw new IllegalStateException("Request has already been finished");
     this.timeoutHandler.clearTimeout(timeoutCallback);
-    result.error(errorCode, errorMessage, errorDetails);
+    if (dartMessenger != null) {
+      dartMessenger.error(result, errorCode, errorMessage, errorDetails);
+    } else {
+      result.error(errorCode, errorMessage, errorDetails);
+    }
     state = State.error;
   }
 
@@ -81,7 +104,12 @@ class PictureCaptureRequest {
     private final Handler handler;
 
     TimeoutHandler() {
-      this.handler = new Handler(Looper.getMainLooper());
+      this(new Handler(Looper.getMainLooper()));
+    }
+
+    /** Creates a handler that runs the timeout on the thread of the given {@link Handler}. */
+    TimeoutHandler(Handler handler) {
+      this.handler = handler;
     }
 
     public void resetTimeout(Runnable runnable) {
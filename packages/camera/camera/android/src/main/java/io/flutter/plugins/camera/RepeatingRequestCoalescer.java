@@ -0,0 +1,147 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.hardware.camera2.CameraAccessException;
+import android.os.Handler;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Submits the repeating request at most once per preview frame.
+ *
+ * <p>The first update after a preview frame is submitted right away. Updates that arrive before
+ * the next preview frame are coalesced and submitted together once it completes, so a burst of
+ * setting changes such as a pinch-zoom gesture replaces the repeating request once per frame
+ * instead of once per change. If no preview frame completes, for example because a different
+ * callback is attached to the repeating request, pending updates are submitted after {@link
+ * #MAX_FRAME_INTERVAL_MS}.
+ *
+ * <p>Updates are requested by method calls running on the camera's background thread, which is
+ * also where preview frames complete and the frame timeout runs. The methods are synchronized
+ * because the camera may run them on the calling thread once its background thread has stopped.
+ */
+class RepeatingRequestCoalescer {
+  /** The longest time an update waits for the next preview frame. */
+  static final long MAX_FRAME_INTERVAL_MS = 100;
+
+  /** Applies the current settings to the repeating request and submits it. */
+  interface Submitter {
+    void submit() throws CameraAccessException;
+  }
+
+  private final Runnable frameTimeoutCallback =
+      new Runnable() {
+        @Override
+        public void run() {
+          onPreviewFrame();
+        }
+      };
+
+  private final Submitter submitter;
+  private final Handler handler;
+  private final List<Runnable> pendingSuccessCallbacks = new ArrayList<>();
+  private final List<ErrorCallback> pendingErrorCallbacks = new ArrayList<>();
+  private boolean submittedSinceLastFrame;
+  private boolean updatePending;
+
+  /**
+   * @param submitter Applies the current settings to the repeating request and submits it.
+   * @param handler Handler of the thread pending updates are submitted on when no preview frame
+   *     completes in time.
+   */
+  RepeatingRequestCoalescer(@NonNull Submitter submitter, @NonNull Handler handler) {
+    this.submitter = submitter;
+    this.handler = handler;
+  }
+
+  /**
+   * Requests the repeating request to be submitted with the current settings.
+   *
+   * @param onSuccessCallback Called once the settings have been submitted, possibly on the
+   *     background thread.
+   * @param onErrorCallback Called if submitting the settings failed, possibly on the background
+   *     thread.
+   */
+  synchronized void requestUpdate(
+      @Nullable Runnable onSuccessCallback, @NonNull ErrorCallback onErrorCallback) {
+    if (onSuccessCallback != null) {
+      pendingSuccessCallbacks.add(onSuccessCallback);
+    }
+    pendingErrorCallbacks.add(onErrorCallback);
+
+    if (!submittedSinceLastFrame) {
+      submit();
+    } else if (!updatePending) {
+      updatePending = true;
+      handler.postDelayed(frameTimeoutCallback, MAX_FRAME_INTERVAL_MS);
+    }
+  }
+
+  /** Submits the pending updates, if any, now that a preview frame has completed. */
+  synchronized void onPreviewFrame() {
+    submittedSinceLastFrame = false;
+    if (updatePending) {
+      submit();
+    }
+  }
+
+  /**
+   * Completes pending updates, because a new repeating request including every setting has been
+   * submitted by other means, such as configuring a new capture session.
+   */
+  synchronized void onRepeatingRequestReplaced() {
+    submittedSinceLastFrame = true;
+    clearPendingUpdate();
+    List<Runnable> successCallbacks = new ArrayList<>(pendingSuccessCallbacks);
+    pendingSuccessCallbacks.clear();
+    pendingErrorCallbacks.clear();
+    for (Runnable callback : successCallbacks) {
+      callback.run();
+    }
+  }
+
+  /** Fails pending updates, because the camera was closed before they could be submitted. */
+  synchronized void cancel(@NonNull String errorCode, @NonNull String errorMessage) {
+    submittedSinceLastFrame = false;
+    clearPendingUpdate();
+    List<ErrorCallback> errorCallbacks = new ArrayList<>(pendingErrorCallbacks);
+    pendingSuccessCallbacks.clear();
+    pendingErrorCallbacks.clear();
+    for (ErrorCallback callback : errorCallbacks) {
+      callback.onError(errorCode, errorMessage);
+    }
+  }
+
+  private void submit() {
+    submittedSinceLastFrame = true;
+    clearPendingUpdate();
+    List<Runnable> successCallbacks = new ArrayList<>(pendingSuccessCallbacks);
+    List<ErrorCallback> errorCallbacks = new ArrayList<>(pendingErrorCallbacks);
+    pendingSuccessCallbacks.clear();
+    pendingErrorCallbacks.clear();
+
+    try {
+      submitter.submit();
+    } catch (CameraAccessException | IllegalStateException | IllegalArgumentException e) {
+      for (ErrorCallback callback : errorCallbacks) {
+        callback.onError("cameraAccess", e.getMessage());
+      }
+      return;
+    }
+    for (Runnable callback : successCallbacks) {
+      callback.run();
+    }
+  }
+
+  private void clearPendingUpdate() {
+    if (updatePending) {
+      updatePending = false;
+      handler.removeCallbacks(frameTimeoutCallback);
+    }
+  }
+}
@@ -0,0 +1,116 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.hardware.camera2.CaptureResult;
+import android.hardware.camera2.TotalCaptureResult;
+import android.media.Image;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the most recent full-resolution preview frames for zero-shutter-lag capture, together with
+ * the capture results they need to be reprocessed.
+ *
+ * <p>Images arrive on the image reader's listener while capture results arrive on the capture
+ * callback, in no particular order, so both are matched by their sensor timestamp. Once the ring is
+ * full the oldest image is closed to make room for the next one, so the reader it was acquired from
+ * never runs out of images.
+ */
+class ZslRingBuffer {
+  /** A frame that can be reprocessed into a still capture. */
+  static class Frame {
+    final Image image;
+    final TotalCaptureResult result;
+
+    Frame(@NonNull Image image, @NonNull TotalCaptureResult result) {
+      this.image = image;
+      this.result = result;
+    }
+  }
+
+  private final int capacity;
+  private final ArrayDeque<Image> images;
+  private final Map<Long, TotalCaptureResult> results = new LinkedHashMap<>();
+
+  /**
+   * @param capacity Number of frames kept. The image reader the frames are acquired from must be
+   *     able to hold at least two more images, one being added and one being reprocessed.
+   */
+  ZslRingBuffer(int capacity) {
+    this.capacity = capacity;
+    this.images = new ArrayDeque<>(capacity);
+  }
+
+  /** Adds an image, taking ownership of it and closing the oldest image when the ring is full. */
+  synchronized void addImage(@NonNull Image image) {
+    if (images.size() == capacity) {
+      Image oldest = images.removeFirst();
+      results.remove(oldest.getTimestamp());
+      oldest.close();
+    }
+    images.addLast(image);
+  }
+
+  /** Adds the capture result of a frame whose image has been or will be added. */
+  synchronized void addResult(@NonNull TotalCaptureResult result) {
+    Long timestamp = result.get(CaptureResult.SENSOR_TIMESTAMP);
+    if (timestamp == null) {
+      return;
+    }
+    results.put(timestamp, result);
+
+    // Drop results whose image never arrived, oldest first.
+    Iterator<Long> iterator = results.keySet().iterator();
+    while (results.size() > capacity * 2 && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Removes the frame whose sensor timestamp is closest to a point in time.
+   *
+   * @param targetTimestamp The point in time, in the time base of the sensor timestamps. Use
+   *     {@link Long#MAX_VALUE} to take the most recent frame.
+   * @return The frame, which is now owned by the caller, or null if no image has a matching capture
+   *     result yet.
+   */
+  @Nullable
+  synchronized Frame take(long targetTimestamp) {
+    Image best = null;
+    long bestDistance = Long.MAX_VALUE;
+    for (Image image : images) {
+      long timestamp = image.getTimestamp();
+      if (!results.containsKey(timestamp)) {
+        continue;
+      }
+      long distance = Math.abs(targetTimestamp - timestamp);
+      if (best == null || distance < bestDistance) {
+        best = image;
+        bestDistance = distance;
+      }
+    }
+
+    if (best == null) {
+      return null;
+    }
+    images.remove(best);
+    return new Frame(best, results.remove(best.getTimestamp()));
+  }
+
+  /** Closes every image and drops every capture result. */
+  synchronized void clear() {
+    for (Image image : images) {
+      image.close();
+    }
+    images.clear();
+    results.clear();
+  }
+}
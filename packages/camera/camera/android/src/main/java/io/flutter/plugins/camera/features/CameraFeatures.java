@@ -0,0 +1,93 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.features;
+
+import android.hardware.camera2.CaptureRequest;
+import androidx.annotation.NonNull;
+import io.flutter.plugins.camera.CameraProperties;
+import io.flutter.plugins.camera.features.autofocus.AutoFocusFeature;
+import io.flutter.plugins.camera.features.flash.FlashFeature;
+import io.flutter.plugins.camera.features.zoomlevel.ZoomLevelFeature;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The collection of {@link CameraFeature} instances of a camera.
+ *
+ * <p>Features only hold their setting. The camera applies all of them to its repeating request
+ * with {@link #updateBuilder(CaptureRequest.Builder)}, so several settings that change in quick
+ * succession end up in a single request.
+ */
+public class CameraFeatures {
+  private static final String AUTO_FOCUS = "AUTO_FOCUS";
+  private static final String FLASH = "FLASH";
+  private static final String ZOOM_LEVEL = "ZOOM_LEVEL";
+
+  private final Map<String, CameraFeature<?>> featureMap = new LinkedHashMap<>();
+
+  /**
+   * Creates the features of a camera with their default settings.
+   *
+   * @param cameraProperties Collection of characteristics for the current camera device.
+   * @param recordingVideo Indicates whether the camera is currently recording video.
+   * @return The features of the camera.
+   */
+  @NonNull
+  public static CameraFeatures init(
+      @NonNull CameraProperties cameraProperties, boolean recordingVideo) {
+    CameraFeatures cameraFeatures = new CameraFeatures();
+    cameraFeatures.setAutoFocus(new AutoFocusFeature(cameraProperties, recordingVideo));
+    cameraFeatures.setFlash(new FlashFeature(cameraProperties));
+    cameraFeatures.setZoomLevel(new ZoomLevelFeature(cameraProperties));
+    return cameraFeatures;
+  }
+
+  /** Returns all registered features, in the order they are applied. */
+  @NonNull
+  public Collection<CameraFeature<?>> getAllFeatures() {
+    return Collections.unmodifiableCollection(featureMap.values());
+  }
+
+  /**
+   * Applies the current setting of every feature to a capture request builder.
+   *
+   * @param requestBuilder The builder of the request the settings are applied to.
+   */
+  public void updateBuilder(@NonNull CaptureRequest.Builder requestBuilder) {
+    for (CameraFeature<?> feature : featureMap.values()) {
+      feature.updateBuilder(requestBuilder);
+    }
+  }
+
+  public AutoFocusFeature getAutoFocus() {
+    return (AutoFocusFeature) featureMap.get(AUTO_FOCUS);
+  }
+
+  /**
+   * Replaces the auto focus feature, which is re-created whenever the camera starts or stops
+   * recording video.
+   */
+  public void setAutoFocus(@NonNull AutoFocusFeature autoFocus) {
+    featureMap.put(AUTO_FOCUS, autoFocus);
+  }
+
+  public FlashFeature getFlash() {
+    return (FlashFeature) featureMap.get(FLASH);
+  }
+
+  public void setFlash(@NonNull FlashFeature flash) {
+    featureMap.put(FLASH, flash);
+  }
+
+  public ZoomLevelFeature getZoomLevel() {
+    return (ZoomLevelFeature) featureMap.get(ZOOM_LEVEL);
+  }
+
+  public void setZoomLevel(@NonNull ZoomLevelFeature zoomLevel) {
+    featureMap.put(ZOOM_LEVEL, zoomLevel);
+  }
+}
@@ -0,0 +1,279 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.graphics.ImageFormat;
+import android.media.Image;
+import androidx.annotation.NonNull;
+import io.flutter.plugins.camera.types.ImageStreamOutputFormat;
+import java.nio.ByteBuffer;
+
+/**
+ * Crops, downscales and converts YUV_420_888 camera images before they are sent over the image
+ * stream.
+ *
+ * <p>Scaling uses nearest-neighbour sampling. The sampling tables are only rebuilt when the size of
+ * the source image changes, so converting a stream of equally sized images does not allocate.
+ * Images in any other format are copied unchanged.
+ */
+public class ImageFrameConverter {
+  private final ImageStreamOutputFormat outputFormat;
+  private final int cropLeft;
+  private final int cropTop;
+  private final int cropWidth;
+  private final int cropHeight;
+  private final int targetWidth;
+  private final int targetHeight;
+  private final boolean stripPadding;
+
+  private int sourceWidth = -1;
+  private int sourceHeight = -1;
+  private int outputWidth;
+  private int outputHeight;
+  private boolean contiguousColumns;
+  private int[] lumaColumns;
+  private int[] lumaRows;
+  private int[] chromaColumns;
+  private int[] chromaRows;
+
+  /**
+   * Creates a new converter.
+   *
+   * @param outputFormat Pixel layout of the converted frames.
+   * @param cropLeft Left edge of the region of interest, in source pixels.
+   * @param cropTop Top edge of the region of interest, in source pixels.
+   * @param cropWidth Width of the region of interest, or 0 to extend it to the right edge.
+   * @param cropHeight Height of the region of interest, or 0 to extend it to the bottom edge.
+   * @param targetWidth Width of the converted frames, or 0 to keep the width of the region. Frames
+   *     are never upscaled.
+   * @param targetHeight Height of the converted frames, or 0 to keep the height of the region.
+   * @param stripPadding Whether to remove the row padding of YUV frames that are otherwise sent
+   *     unchanged. Converted frames never contain padding.
+   */
+  public ImageFrameConverter(
+      @NonNull ImageStreamOutputFormat outputFormat,
+      int cropLeft,
+      int cropTop,
+      int cropWidth,
+      int cropHeight,
+      int targetWidth,
+      int targetHeight,
+      boolean stripPadding) {
+    if (cropLeft < 0
+        || cropTop < 0
+        || cropWidth < 0
+        || cropHeight < 0
+        || targetWidth < 0
+        || targetHeight < 0) {
+      throw new IllegalArgumentException("Crop and target dimensions must not be negative");
+    }
+
+    this.outputFormat = outputFormat;
+    // Keep the region aligned to the 2x2 blocks sharing chroma samples.
+    this.cropLeft = cropLeft & ~1;
+    this.cropTop = cropTop & ~1;
+    this.cropWidth = cropWidth;
+    this.cropHeight = cropHeight;
+    this.targetWidth = targetWidth;
+    this.targetHeight = targetHeight;
+    this.stripPadding = stripPadding;
+  }
+
+  /** Creates a converter that sends frames exactly as delivered by the camera. */
+  public static ImageFrameConverter passthrough() {
+    return new ImageFrameConverter(ImageStreamOutputFormat.yuv420, 0, 0, 0, 0, 0, 0, false);
+  }
+
+  /** Returns whether frames are copied without any conversion. */
+  public boolean isPassthrough() {
+    return outputFormat == ImageStreamOutputFormat.yuv420
+        && cropLeft == 0
+        && cropTop == 0
+        && cropWidth == 0
+        && cropHeight == 0
+        && targetWidth == 0
+        && targetHeight == 0
+        && !stripPadding;
+  }
+
+  /**
+   * Converts {@code image} into {@code frame}.
+   *
+   * @param image The image to convert. The caller remains responsible for closing it.
+   * @param frame The frame receiving the converted planes.
+   */
+  public void convert(@NonNull Image image, @NonNull ImageStreamFramePool.Frame frame) {
+    if (isPassthrough() || image.getFormat() != ImageFormat.YUV_420_888) {
+      frame.copyFrom(image);
+      return;
+    }
+
+    Image.Plane[] planes = image.getPlanes();
+    convert(
+        image.getWidth(),
+        image.getHeight(),
+        planes[0].getBuffer(),
+        planes[0].getRowStride(),
+        planes[1].getBuffer(),
+        planes[2].getBuffer(),
+        planes[1].getRowStride(),
+        planes[1].getPixelStride(),
+        frame);
+  }
+
+  void convert(
+      int width,
+      int height,
+      ByteBuffer yBuffer,
+      int yRowStride,
+      ByteBuffer uBuffer,
+      ByteBuffer vBuffer,
+      int uvRowStride,
+      int uvPixelStride,
+      ImageStreamFramePool.Frame frame) {
+    updateSamplingTables(width, height);
+
+    final int lumaSize = outputWidth * outputHeight;
+    final int chromaWidth = chromaColumns.length;
+    final int chromaSize = chromaWidth * chromaRows.length;
+    final int format = outputFormat.getImageFormat();
+    byte[] bytes;
+
+    switch (outputFormat) {
+      case y8:
+        frame.setImageInfo(outputWidth, outputHeight, format, 1);
+        bytes = frame.preparePlane(0, lumaSize, outputWidth, 1);
+        copyLuma(yBuffer, yRowStride, bytes);
+        break;
+      case nv21:
+        frame.setImageInfo(outputWidth, outputHeight, format, 1);
+        bytes = frame.preparePlane(0, lumaSize + 2 * chromaSize, outputWidth, 1);
+        copyLuma(yBuffer, yRowStride, bytes);
+        copyChroma(vBuffer, uvRowStride, uvPixelStride, bytes, lumaSize, 2);
+        copyChroma(uBuffer, uvRowStride, uvPixelStride, bytes, lumaSize + 1, 2);
+        break;
+      case rgba8888:
+        frame.setImageInfo(outputWidth, outputHeight, format, 1);
+        bytes = frame.preparePlane(0, lumaSize * 4, outputWidth * 4, 4);
+        convertToRgba(yBuffer, yRowStride, uBuffer, vBuffer, uvRowStride, uvPixelStride, bytes);
+        break;
+      case yuv420:
+      default:
+        frame.setImageInfo(outputWidth, outputHeight, format, 3);
+        copyLuma(yBuffer, yRowStride, frame.preparePlane(0, lumaSize, outputWidth, 1));
+        copyChroma(
+            uBuffer,
+            uvRowStride,
+            uvPixelStride,
+            frame.preparePlane(1, chromaSize, chromaWidth, 1),
+            0,
+            1);
+        copyChroma(
+            vBuffer,
+            uvRowStride,
+            uvPixelStride,
+            frame.preparePlane(2, chromaSize, chromaWidth, 1),
+            0,
+            1);
+        break;
+    }
+  }
+
+  private void updateSamplingTables(int width, int height) {
+    if (width == sourceWidth && height == sourceHeight) {
+      return;
+    }
+    sourceWidth = width;
+    sourceHeight = height;
+
+    int left = Math.min(cropLeft, (width - 1) & ~1);
+    int top = Math.min(cropTop, (height - 1) & ~1);
+    int regionWidth = cropWidth == 0 ? width - left : Math.min(cropWidth, width - left);
+    int regionHeight = cropHeight == 0 ? height - top : Math.min(cropHeight, height - top);
+    outputWidth = targetWidth == 0 ? regionWidth : Math.min(targetWidth, regionWidth);
+    outputHeight = targetHeight == 0 ? regionHeight : Math.min(targetHeight, regionHeight);
+    contiguousColumns = outputWidth == regionWidth;
+
+    lumaColumns = sample(left, regionWidth, outputWidth, 1);
+    lumaRows = sample(top, regionHeight, outputHeight, 1);
+    chromaColumns = sample(left, regionWidth, outputWidth, 2);
+    chromaRows = sample(top, regionHeight, outputHeight, 2);
+  }
+
+  // Maps every step-th output coordinate to the source coordinate it samples. Chroma tables (step
+  // 2) are expressed in chroma coordinates, which are half the luma coordinates.
+  private static int[] sample(int offset, int regionSize, int outputSize, int step) {
+    int[] table = new int[(outputSize + step - 1) / step];
+    for (int i = 0; i < table.length; i++) {
+      int source = offset + (int) ((long) i * step * regionSize / outputSize);
+      table[i] = source / step;
+    }
+    return table;
+  }
+
+  private void copyLuma(ByteBuffer yBuffer, int yRowStride, byte[] out) {
+    int offset = 0;
+    for (int row : lumaRows) {
+      int rowStart = row * yRowStride;
+      if (contiguousColumns) {
+        yBuffer.position(rowStart + lumaColumns[0]);
+        yBuffer.get(out, offset, outputWidth);
+        offset += outputWidth;
+      } else {
+        for (int column : lumaColumns) {
+          out[offset++] = yBuffer.get(rowStart + column);
+        }
+      }
+    }
+  }
+
+  private void copyChroma(
+      ByteBuffer buffer,
+      int rowStride,
+      int pixelStride,
+      byte[] out,
+      int offset,
+      int outPixelStride) {
+    for (int row : chromaRows) {
+      int rowStart = row * rowStride;
+      for (int column : chromaColumns) {
+        out[offset] = buffer.get(rowStart + column * pixelStride);
+        offset += outPixelStride;
+      }
+    }
+  }
+
+  // Converts using the full-range BT.601 matrix used by the JFIF YUV output of camera devices, with
+  // 16.16 fixed-point coefficients.
+  private void convertToRgba(
+      ByteBuffer yBuffer,
+      int yRowStride,
+      ByteBuffer uBuffer,
+      ByteBuffer vBuffer,
+      int uvRowStride,
+      int uvPixelStride,
+      byte[] out) {
+    int offset = 0;
+    for (int row : lumaRows) {
+      int lumaRowStart = row * yRowStride;
+      int chromaRowStart = (row >> 1) * uvRowStride;
+      for (int column : lumaColumns) {
+        int chromaIndex = chromaRowStart + (column >> 1) * uvPixelStride;
+        int y = yBuffer.get(lumaRowStart + column) & 0xff;
+        int u = (uBuffer.get(chromaIndex) & 0xff) - 128;
+        int v = (vBuffer.get(chromaIndex) & 0xff) - 128;
+
+        out[offset++] = clamp(y + ((91881 * v) >> 16));
+        out[offset++] = clamp(y - ((22554 * u + 46802 * v) >> 16));
+        out[offset++] = clamp(y + ((116130 * u) >> 16));
+        out[offset++] = (byte) 0xff;
+      }
+    }
+  }
+
+  private static byte clamp(int value) {
+    return (byte) (value < 0 ? 0 : (value > 255 ? 255 : value));
+  }
+}
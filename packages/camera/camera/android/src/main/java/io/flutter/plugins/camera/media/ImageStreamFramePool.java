@@ -0,0 +1,201 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.media.Image;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.EventChannel;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A fixed-size pool of {@link Frame} instances used to stream camera images to Dart.
+ *
+ * <p>Each frame owns the byte arrays and metadata maps that are handed to the image stream's
+ * {@link io.flutter.plugin.common.EventChannel.EventSink}. Frames are recycled once the sink has
+ * encoded them, so steady-state streaming does not allocate on the Java heap.
+ */
+public class ImageStreamFramePool {
+  private final ArrayBlockingQueue<Frame> freeFrames;
+
+  /**
+   * Creates a new pool holding {@code capacity} frames.
+   *
+   * @param capacity Maximum number of frames that can be in use at the same time.
+   */
+  public ImageStreamFramePool(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be at least 1");
+    }
+
+    freeFrames = new ArrayBlockingQueue<>(capacity);
+    for (int i = 0; i < capacity; i++) {
+      freeFrames.add(new Frame(this));
+    }
+  }
+
+  /**
+   * Takes a frame out of the pool.
+   *
+   * @return A free frame, or null when every frame is still in use.
+   */
+  @Nullable
+  public Frame acquire() {
+    return freeFrames.poll();
+  }
+
+  /**
+   * Returns a frame to the pool so its buffers can be reused.
+   *
+   * @param frame A frame previously obtained through {@link #acquire()}.
+   */
+  public void release(@NonNull Frame frame) {
+    freeFrames.offer(frame);
+  }
+
+  /** Returns the number of frames that are currently available. */
+  public int getAvailableCount() {
+    return freeFrames.size();
+  }
+
+  /**
+   * A reusable container for a single image stream frame.
+   *
+   * <p>The map returned by {@link #getImageBuffer()} has the same layout as the one historically
+   * sent over the image stream channel, so the Dart side does not need to change.
+   *
+   * <p>Frames are filled on the image processing thread and sent by posting them, as a {@link
+   * Runnable}, to the platform thread. This avoids allocating a new task for every frame.
+   */
+  public static class Frame implements Runnable {
+    private final ImageStreamFramePool pool;
+    private final Map<String, Object> imageBuffer = new HashMap<>();
+    private final List<Map<String, Object>> planes = new ArrayList<>();
+    private final List<byte[]> planeBytes = new ArrayList<>();
+    @Nullable private EventChannel.EventSink sink;
+
+    Frame(@NonNull ImageStreamFramePool pool) {
+      this.pool = pool;
+      imageBuffer.put("planes", planes);
+    }
+
+    /**
+     * Copies the planes and metadata of the given image into this frame.
+     *
+     * @param image The image to copy. The caller remains responsible for closing it.
+     */
+    public void copyFrom(@NonNull Image image) {
+      Image.Plane[] imagePlanes = image.getPlanes();
+      setImageInfo(image.getWidth(), image.getHeight(), image.getFormat(), imagePlanes.length);
+      for (int i = 0; i < imagePlanes.length; i++) {
+        Image.Plane plane = imagePlanes[i];
+        setPlane(i, plane.getBuffer(), plane.getRowStride(), plane.getPixelStride());
+      }
+    }
+
+    /**
+     * Updates the image dimensions and format, and resizes the plane list to {@code planeCount}.
+     */
+    void setImageInfo(int width, int height, int format, int planeCount) {
+      putInt(imageBuffer, "width", width);
+      putInt(imageBuffer, "height", height);
+      putInt(imageBuffer, "format", format);
+
+      while (planes.size() > planeCount) {
+        planes.remove(planes.size() - 1);
+      }
+      while (planes.size() < planeCount) {
+        planes.add(new HashMap<>());
+      }
+      while (planeBytes.size() < planeCount) {
+        planeBytes.add(null);
+      }
+    }
+
+    /**
+     * Copies the remaining bytes of {@code buffer} into the plane at {@code index}.
+     *
+     * <p>The backing byte array is only reallocated when the plane size changes.
+     */
+    void setPlane(int index, @NonNull ByteBuffer buffer, int rowStride, int pixelStride) {
+      int length = buffer.remaining();
+      byte[] bytes = preparePlane(index, length, rowStride, pixelStride);
+      buffer.get(bytes, 0, length);
+    }
+
+    /**
+     * Returns the byte array backing the plane at {@code index}, to be filled by the caller.
+     *
+     * <p>The array is reused between frames and only reallocated when {@code length} changes, so
+     * its previous contents must be fully overwritten.
+     *
+     * @param index Index of the plane, which must be smaller than the plane count last passed to
+     *     {@link #setImageInfo(int, int, int, int)}.
+     * @param length Exact number of bytes of the plane.
+     * @param rowStride Number of bytes between the start of two consecutive rows.
+     * @param pixelStride Number of bytes between two consecutive pixels in a row.
+     * @return The array to write the plane's bytes to.
+     */
+    byte[] preparePlane(int index, int length, int rowStride, int pixelStride) {
+      byte[] bytes = planeBytes.get(index);
+      if (bytes == null || bytes.length != length) {
+        bytes = new byte[length];
+        planeBytes.set(index, bytes);
+      }
+
+      Map<String, Object> planeBuffer = planes.get(index);
+      putInt(planeBuffer, "bytesPerRow", rowStride);
+      putInt(planeBuffer, "bytesPerPixel", pixelStride);
+      planeBuffer.put("bytes", bytes);
+      return bytes;
+    }
+
+    /** Returns the map that should be sent over the image stream channel. */
+    @NonNull
+    public Map<String, Object> getImageBuffer() {
+      return imageBuffer;
+    }
+
+    /** Sets the sink this frame is sent to when {@link #run()} is invoked. */
+    public void setSink(@Nullable EventChannel.EventSink sink) {
+      this.sink = sink;
+    }
+
+    /** Returns this frame to the pool it was acquired from. */
+    public void release() {
+      sink = null;
+      pool.release(this);
+    }
+
+    /**
+     * Sends this frame to its sink and returns it to the pool.
+     *
+     * <p>Must be invoked on the platform thread. The sink encodes the frame synchronously, so its
+     * buffers can safely be reused afterwards.
+     */
+    @Override
+    public void run() {
+      if (sink != null) {
+        sink.success(imageBuffer);
+      }
+      release();
+    }
+
+    // Only boxes a new Integer when the value actually changed, as values above 127 are not cached
+    // by Integer.valueOf.
+    private static void putInt(Map<String, Object> map, String key, int value) {
+      Object current = map.get(key);
+      if (current instanceof Integer && (Integer) current == value) {
+        return;
+      }
+      map.put(key, value);
+    }
+  }
+}
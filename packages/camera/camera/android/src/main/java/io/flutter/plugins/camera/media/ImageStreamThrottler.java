@@ -0,0 +1,186 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import androidx.annotation.NonNull;
+import io.flutter.plugins.camera.types.ImageStreamBackpressure;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which image stream frames are forwarded to Dart.
+ *
+ * <p>Frames are limited to a maximum frame rate and, depending on the {@link
+ * ImageStreamBackpressure} policy, held back while Dart has not yet acknowledged the previous
+ * frame. All methods are synchronized, as frames and acknowledgements may arrive on different
+ * threads.
+ */
+public class ImageStreamThrottler {
+  /** What should happen with a newly available frame. */
+  public enum Decision {
+    /** Send the frame to Dart right away. */
+    emit,
+    /** Drop the frame. */
+    drop,
+    /** Keep the frame, replacing any previously held frame, until the in-flight frame is acked. */
+    hold,
+  }
+
+  private final long minFrameIntervalNanos;
+  private final ImageStreamBackpressure backpressure;
+
+  private boolean frameInFlight;
+  private boolean hasHeldFrame;
+  private long heldFrameTimestampNanos;
+  private boolean hasEmittedFrame;
+  private long nextFrameTimestampNanos;
+
+  private long emittedFrameCount;
+  private long rateLimitedFrameCount;
+  private long backpressureDroppedFrameCount;
+  private long bufferExhaustedFrameCount;
+
+  /**
+   * Creates a new throttler.
+   *
+   * @param maxFrameRate Maximum number of frames per second to emit, or 0 for no limit.
+   * @param backpressure Policy applied while a frame is awaiting acknowledgement from Dart.
+   */
+  public ImageStreamThrottler(double maxFrameRate, @NonNull ImageStreamBackpressure backpressure) {
+    if (maxFrameRate < 0) {
+      throw new IllegalArgumentException("maxFrameRate must not be negative");
+    }
+
+    this.minFrameIntervalNanos =
+        maxFrameRate == 0 ? 0 : (long) (TimeUnit.SECONDS.toNanos(1) / maxFrameRate);
+    this.backpressure = backpressure;
+  }
+
+  /** Creates a throttler that forwards every frame, matching the historical stream behavior. */
+  public static ImageStreamThrottler unlimited() {
+    return new ImageStreamThrottler(0, ImageStreamBackpressure.none);
+  }
+
+  /**
+   * Decides what to do with a new frame.
+   *
+   * @param timestampNanos Timestamp of the frame, as reported by {@link
+   *     android.media.Image#getTimestamp()}.
+   * @return The action the caller should take for this frame.
+   */
+  public synchronized Decision onFrameAvailable(long timestampNanos) {
+    if (isRateLimited(timestampNanos)) {
+      rateLimitedFrameCount++;
+      return Decision.drop;
+    }
+
+    if (frameInFlight) {
+      switch (backpressure) {
+        case dropWhileInFlight:
+          backpressureDroppedFrameCount++;
+          return Decision.drop;
+        case keepLatest:
+          if (hasHeldFrame) {
+            // The previously held frame is replaced and will never be sent.
+            backpressureDroppedFrameCount++;
+          }
+          hasHeldFrame = true;
+          heldFrameTimestampNanos = timestampNanos;
+          return Decision.hold;
+        case none:
+        default:
+          break;
+      }
+    }
+
+    markEmitted(timestampNanos);
+    return Decision.emit;
+  }
+
+  /**
+   * Records that Dart finished processing the in-flight frame.
+   *
+   * @return true when a held frame should now be emitted by the caller.
+   */
+  public synchronized boolean onFrameAcknowledged() {
+    frameInFlight = false;
+    if (!hasHeldFrame) {
+      return false;
+    }
+
+    hasHeldFrame = false;
+    markEmitted(heldFrameTimestampNanos);
+    return true;
+  }
+
+  /**
+   * Records that an emitted frame could not be sent, because the stream had no listener. No
+   * acknowledgement will arrive for it, so it no longer counts as in flight or emitted.
+   */
+  public synchronized void onFrameNotSent() {
+    frameInFlight = false;
+    emittedFrameCount--;
+  }
+
+  /** Records a frame that was dropped because no pooled buffer was available. */
+  public synchronized void onBufferExhausted() {
+    bufferExhaustedFrameCount++;
+  }
+
+  /** Returns the number of frames sent to Dart. */
+  public synchronized long getEmittedFrameCount() {
+    return emittedFrameCount;
+  }
+
+  /** Returns the number of frames dropped to respect the maximum frame rate. */
+  public synchronized long getRateLimitedFrameCount() {
+    return rateLimitedFrameCount;
+  }
+
+  /** Returns the number of frames dropped because Dart had not yet acknowledged a frame. */
+  public synchronized long getBackpressureDroppedFrameCount() {
+    return backpressureDroppedFrameCount;
+  }
+
+  /** Returns the number of frames dropped because all pooled frame buffers were in use. */
+  public synchronized long getBufferExhaustedFrameCount() {
+    return bufferExhaustedFrameCount;
+  }
+
+  /** Returns the total number of frames that were not sent to Dart. */
+  public synchronized long getDroppedFrameCount() {
+    return rateLimitedFrameCount + backpressureDroppedFrameCount + bufferExhaustedFrameCount;
+  }
+
+  private boolean isRateLimited(long timestampNanos) {
+    if (minFrameIntervalNanos == 0 || !hasEmittedFrame) {
+      return false;
+    }
+
+    // Allow some jitter, otherwise a camera running at exactly a multiple of the maximum frame rate
+    // would regularly miss the deadline by a fraction of a millisecond.
+    return timestampNanos < nextFrameTimestampNanos - minFrameIntervalNanos / 10;
+  }
+
+  private void markEmitted(long timestampNanos) {
+    emittedFrameCount++;
+    frameInFlight = backpressure != ImageStreamBackpressure.none;
+
+    if (minFrameIntervalNanos == 0) {
+      return;
+    }
+
+    if (!hasEmittedFrame) {
+      hasEmittedFrame = true;
+      nextFrameTimestampNanos = timestampNanos + minFrameIntervalNanos;
+      return;
+    }
+
+    // Stay on the regular schedule, but do not allow bursts after the camera stalled.
+    nextFrameTimestampNanos =
+        Math.max(
+            nextFrameTimestampNanos + minFrameIntervalNanos,
+            timestampNanos + minFrameIntervalNanos / 2);
+  }
+}
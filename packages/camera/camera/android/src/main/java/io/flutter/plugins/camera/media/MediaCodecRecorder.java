@@ -0,0 +1,318 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.media.CamcorderProfile;
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.os.Build;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.Surface;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.flutter.plugins.camera.types.VideoBitrateMode;
+import io.flutter.plugins.camera.types.VideoCodec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Records video from an input surface with {@link MediaCodec} and writes it to an MP4 file with
+ * {@link MediaMuxer}.
+ *
+ * <p>Unlike {@link android.media.MediaRecorder}, the codec, bitrate mode and keyframe interval
+ * can be chosen freely and the bitrate can be changed while recording. Only video is recorded.
+ *
+ * <p>Encoded frames are drained on a dedicated thread, which is started by {@link #start()} and
+ * finishes once {@link #stop()} has flushed the encoder, or once {@link #release()} is called.
+ */
+public class MediaCodecRecorder {
+  private static final String TAG = "MediaCodecRecorder";
+  private static final long DEQUEUE_TIMEOUT_US = 10000;
+  // How long the encoder may stay idle before a persistent surface recording is considered flushed.
+  private static final long FLUSH_TIMEOUT_US = 100000;
+
+  static class MediaCodecFactory {
+    MediaCodec makeEncoder(String mimeType) throws IOException {
+      return MediaCodec.createEncoderByType(mimeType);
+    }
+
+    MediaMuxer makeMuxer(String outputFilePath) throws IOException {
+      return new MediaMuxer(outputFilePath, MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+    }
+  }
+
+  private final CamcorderProfile recordingProfile;
+  private final String outputFilePath;
+  private final MediaCodecFactory codecFactory;
+
+  private VideoCodec videoCodec = VideoCodec.h264;
+  private VideoBitrateMode bitrateMode = VideoBitrateMode.vbr;
+  private int bitrate;
+  private int keyFrameIntervalSeconds = 1;
+  private int mediaOrientation;
+
+  private MediaCodec encoder;
+  private MediaMuxer muxer;
+  private Surface inputSurface;
+  private Thread drainThread;
+  private long frameIntervalUs;
+
+  // Accessed by the drain thread.
+  private volatile boolean resumed;
+  private volatile boolean flushing;
+  private int trackIndex = -1;
+  private long lastPresentationTimeUs = -1;
+  private long pausedDurationUs;
+
+  public MediaCodecRecorder(
+      @NonNull CamcorderProfile recordingProfile, @NonNull String outputFilePath) {
+    this(recordingProfile, outputFilePath, new MediaCodecFactory());
+  }
+
+  MediaCodecRecorder(
+      @NonNull CamcorderProfile recordingProfile,
+      @NonNull String outputFilePath,
+      @NonNull MediaCodecFactory codecFactory) {
+    this.recordingProfile = recordingProfile;
+    this.outputFilePath = outputFilePath;
+    this.codecFactory = codecFactory;
+  }
+
+  public MediaCodecRecorder setVideoCodec(@NonNull VideoCodec videoCodec) {
+    this.videoCodec = videoCodec;
+    return this;
+  }
+
+  public MediaCodecRecorder setBitrateMode(@NonNull VideoBitrateMode bitrateMode) {
+    this.bitrateMode = bitrateMode;
+    return this;
+  }
+
+  /** Sets the initial bitrate in bits per second, or 0 to use the bitrate of the profile. */
+  public MediaCodecRecorder setBitrate(int bitrate) {
+    this.bitrate = bitrate;
+    return this;
+  }
+
+  /** Sets the number of seconds between two keyframes. */
+  public MediaCodecRecorder setKeyFrameInterval(int keyFrameIntervalSeconds) {
+    this.keyFrameIntervalSeconds = keyFrameIntervalSeconds;
+    return this;
+  }
+
+  public MediaCodecRecorder setMediaOrientation(int orientation) {
+    this.mediaOrientation = orientation;
+    return this;
+  }
+
+  /**
+   * Configures the encoder and the muxer.
+   *
+   * @param persistentInputSurface A persistent surface the encoder should encode from, or null to
+   *     create a new input surface. Only used on Android M and above.
+   * @throws IOException if the encoder or the output file could not be created.
+   */
+  public void prepare(@Nullable Surface persistentInputSurface) throws IOException {
+    MediaFormat format = new MediaFormat();
+    format.setString(MediaFormat.KEY_MIME, videoCodec.getMimeType());
+    format.setInteger(MediaFormat.KEY_WIDTH, recordingProfile.videoFrameWidth);
+    format.setInteger(MediaFormat.KEY_HEIGHT, recordingProfile.videoFrameHeight);
+    format.setInteger(
+        MediaFormat.KEY_COLOR_FORMAT, MediaCodecInfo.CodecCapabilities.COLOR_FormatSurface);
+    format.setInteger(
+        MediaFormat.KEY_BIT_RATE, bitrate > 0 ? bitrate : recordingProfile.videoBitRate);
+    format.setInteger(MediaFormat.KEY_BITRATE_MODE, bitrateMode.getEncoderMode());
+    format.setInteger(MediaFormat.KEY_FRAME_RATE, recordingProfile.videoFrameRate);
+    format.setInteger(MediaFormat.KEY_I_FRAME_INTERVAL, keyFrameIntervalSeconds);
+    frameIntervalUs = 1000000L / Math.max(1, recordingProfile.videoFrameRate);
+
+    encoder = codecFactory.makeEncoder(videoCodec.getMimeType());
+    try {
+      encoder.configure(format, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+      if (persistentInputSurface != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+        encoder.setInputSurface(persistentInputSurface);
+      } else {
+        inputSurface = encoder.createInputSurface();
+      }
+
+      muxer = codecFactory.makeMuxer(outputFilePath);
+      muxer.setOrientationHint(mediaOrientation);
+    } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+      release();
+      throw e instanceof IOException ? (IOException) e : new IOException(e);
+    }
+  }
+
+  /**
+   * Returns the surface the camera should render to, or null when encoding from a persistent
+   * surface.
+   */
+  @Nullable
+  public Surface getSurface() {
+    return inputSurface;
+  }
+
+  /** Starts encoding the frames rendered to the input surface. */
+  public void start() {
+    encoder.start();
+    drainThread = new Thread(this::drainEncoder, "CameraVideoEncoder");
+    drainThread.start();
+  }
+
+  /** Changes the bitrate of the encoder, in bits per second, while recording. */
+  public void updateBitrate(int bitrate) {
+    Bundle parameters = new Bundle();
+    parameters.putInt(MediaCodec.PARAMETER_KEY_VIDEO_BITRATE, bitrate);
+    encoder.setParameters(parameters);
+  }
+
+  /** Stops encoding new frames, without ending the recording. */
+  public void pause() {
+    setSuspended(true);
+  }
+
+  /** Resumes encoding after {@link #pause()}, leaving no gap in the recording. */
+  public void resume() {
+    resumed = true;
+    setSuspended(false);
+  }
+
+  /**
+   * Flushes the frames that are still being encoded, finishes the file and releases all
+   * resources.
+   *
+   * <p>When encoding from a persistent surface, the camera must have stopped rendering to it
+   * before this is called: the frames are then drained until the encoder has no output left.
+   *
+   * @throws IllegalStateException if the recording could not be finished, for example because no
+   *     frame was ever encoded.
+   */
+  public void stop() {
+    try {
+      if (inputSurface != null) {
+        encoder.signalEndOfInputStream();
+      } else {
+        // A persistent surface cannot signal the end of the stream, so drain until it is idle.
+        flushing = true;
+      }
+      drainThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      boolean muxerStarted = trackIndex >= 0;
+      release();
+      if (!muxerStarted) {
+        throw new IllegalStateException("No video frame was recorded");
+      }
+    }
+  }
+
+  /**
+   * Releases the encoder and the muxer, keeping whatever was written to the file so far.
+   *
+   * <p>Frames that are still being encoded are dropped. Use {@link #stop()} to keep them.
+   */
+  public void release() {
+    stopDrainThread();
+    if (encoder != null) {
+      try {
+        encoder.stop();
+      } catch (IllegalStateException ignored) {
+        // The encoder was never started.
+      }
+      encoder.release();
+      encoder = null;
+    }
+    if (inputSurface != null) {
+      inputSurface.release();
+      inputSurface = null;
+    }
+    if (muxer != null) {
+      try {
+        if (trackIndex >= 0) {
+          muxer.stop();
+        }
+      } catch (IllegalStateException e) {
+        Log.w(TAG, "Failed to finish the recording", e);
+      }
+      muxer.release();
+      muxer = null;
+    }
+  }
+
+  private void stopDrainThread() {
+    if (drainThread == null) {
+      return;
+    }
+    drainThread.interrupt();
+    boolean interrupted = false;
+    while (drainThread.isAlive()) {
+      try {
+        drainThread.join();
+      } catch (InterruptedException e) {
+        // The codec must not be released while the drain thread still uses it.
+        interrupted = true;
+      }
+    }
+    drainThread = null;
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void setSuspended(boolean suspended) {
+    Bundle parameters = new Bundle();
+    parameters.putInt(MediaCodec.PARAMETER_KEY_SUSPEND, suspended ? 1 : 0);
+    encoder.setParameters(parameters);
+  }
+
+  private void drainEncoder() {
+    MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+    while (!Thread.currentThread().isInterrupted()) {
+      boolean flush = flushing;
+      int index = encoder.dequeueOutputBuffer(info, flush ? FLUSH_TIMEOUT_US : DEQUEUE_TIMEOUT_US);
+      if (index == MediaCodec.INFO_TRY_AGAIN_LATER && flush) {
+        return;
+      }
+      if (index == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+        trackIndex = muxer.addTrack(encoder.getOutputFormat());
+        muxer.start();
+        continue;
+      }
+      if (index < 0) {
+        continue;
+      }
+
+      ByteBuffer data = encoder.getOutputBuffer(index);
+      boolean isConfig = (info.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) != 0;
+      if (data != null && !isConfig && info.size > 0 && trackIndex >= 0) {
+        writeSample(data, info);
+      }
+      encoder.releaseOutputBuffer(index, false);
+
+      if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+        return;
+      }
+    }
+  }
+
+  private void writeSample(ByteBuffer data, MediaCodec.BufferInfo info) {
+    if (resumed && lastPresentationTimeUs >= 0) {
+      // Close the gap left by the pause, so playback continues right after the last frame.
+      resumed = false;
+      pausedDurationUs += info.presentationTimeUs - lastPresentationTimeUs - frameIntervalUs;
+    }
+    long presentationTimeUs = info.presentationTimeUs - pausedDurationUs;
+    lastPresentationTimeUs = info.presentationTimeUs;
+
+    info.presentationTimeUs = presentationTimeUs;
+    data.position(info.offset);
+    data.limit(info.offset + info.size);
+    muxer.writeSampleData(trackIndex, data, info);
+  }
+}
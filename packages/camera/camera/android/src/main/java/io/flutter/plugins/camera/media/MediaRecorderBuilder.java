@@ -6,7 +6,10 @@ package io.flutter.plugins.camera.media;
 
 import android.media.CamcorderProfile;
 import android.media.MediaRecorder;
+import android.os.Build;
+import android.view.Surface;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import java.io.IOException;
 
 public class MediaRecorderBuilder {
@@ -22,6 +25,7 @@ public class MediaRecorderBuilder {
 
   private boolean enableAudio;
   private int mediaOrientation;
+  @Nullable private Surface inputSurface;
 
   public MediaRecorderBuilder(
       @NonNull CamcorderProfile recordingProfile, @NonNull String outputFilePath) {
@@ -47,6 +51,15 @@ public class MediaRecorderBuilder {
     return this;
   }
 
+  /**
+   * Sets a persistent input surface the recorder should record from, instead of creating its own.
+   * Only used on Android M and above.
+   */
+  public MediaRecorderBuilder setInputSurface(@Nullable Surface inputSurface) {
+    this.inputSurface = inputSurface;
+    return this;
+  }
+
   public MediaRecorder build() throws IOException {
     MediaRecorder mediaRecorder = recorderFactory.makeMediaRecorder();
 
@@ -66,6 +79,9 @@ public class MediaRecorderBuilder {
     mediaRecorder.setVideoSize(recordingProfile.videoFrameWidth, recordingProfile.videoFrameHeight);
     mediaRecorder.setOutputFile(outputFilePath);
     mediaRecorder.setOrientationHint(this.mediaOrientation);
+    if (inputSurface != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+      mediaRecorder.setInputSurface(inputSurface);
+    }
 
     mediaRecorder.prepare();
 
@@ -0,0 +1,33 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.types;
+
+/** Describes what the image stream does with new frames while Dart is busy with a previous one. */
+public enum ImageStreamBackpressure {
+  /** Every frame is sent, regardless of whether Dart acknowledged the previous one. */
+  none("none"),
+  /** Frames arriving while a frame is awaiting acknowledgement are dropped. */
+  dropWhileInFlight("dropWhileInFlight"),
+  /** Only the most recent frame arriving while a frame is in flight is kept and sent on ack. */
+  keepLatest("keepLatest");
+
+  private final String strValue;
+
+  ImageStreamBackpressure(String strValue) {
+    this.strValue = strValue;
+  }
+
+  public static ImageStreamBackpressure getValueForString(String modeStr) {
+    for (ImageStreamBackpressure value : values()) {
+      if (value.strValue.equals(modeStr)) return value;
+    }
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return strValue;
+  }
+}
@@ -0,0 +1,45 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.types;
+
+import android.graphics.ImageFormat;
+import android.graphics.PixelFormat;
+
+/** Pixel layout of the frames sent over the image stream. */
+public enum ImageStreamOutputFormat {
+  /** YUV 4:2:0 as delivered by the camera, or as three tightly packed planes once converted. */
+  yuv420("yuv420", ImageFormat.YUV_420_888),
+  /** Only the luminance plane. */
+  y8("y8", ImageFormat.Y8),
+  /** A single plane holding the luminance followed by interleaved V and U samples. */
+  nv21("nv21", ImageFormat.NV21),
+  /** A single plane of packed 8-bit red, green, blue and alpha samples. */
+  rgba8888("rgba8888", PixelFormat.RGBA_8888);
+
+  private final String strValue;
+  private final int imageFormat;
+
+  ImageStreamOutputFormat(String strValue, int imageFormat) {
+    this.strValue = strValue;
+    this.imageFormat = imageFormat;
+  }
+
+  public static ImageStreamOutputFormat getValueForString(String formatStr) {
+    for (ImageStreamOutputFormat value : values()) {
+      if (value.strValue.equals(formatStr)) return value;
+    }
+    return null;
+  }
+
+  /** Returns the Android image or pixel format constant reported to Dart for this format. */
+  public int getImageFormat() {
+    return imageFormat;
+  }
+
+  @Override
+  public String toString() {
+    return strValue;
+  }
+}
@@ -0,0 +1,40 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.types;
+
+import android.media.MediaCodecInfo;
+
+/** How the MediaCodec recorder distributes its bitrate over time. */
+public enum VideoBitrateMode {
+  /** Constant bitrate, for predictable file sizes and streaming. */
+  cbr("cbr", MediaCodecInfo.EncoderCapabilities.BITRATE_MODE_CBR),
+  /** Variable bitrate, spending more bits on complex scenes. */
+  vbr("vbr", MediaCodecInfo.EncoderCapabilities.BITRATE_MODE_VBR);
+
+  private final String strValue;
+  private final int encoderMode;
+
+  VideoBitrateMode(String strValue, int encoderMode) {
+    this.strValue = strValue;
+    this.encoderMode = encoderMode;
+  }
+
+  public static VideoBitrateMode getValueForString(String modeStr) {
+    for (VideoBitrateMode value : values()) {
+      if (value.strValue.equals(modeStr)) return value;
+    }
+    return null;
+  }
+
+  /** Returns the matching {@link MediaCodecInfo.EncoderCapabilities} bitrate mode. */
+  public int getEncoderMode() {
+    return encoderMode;
+  }
+
+  @Override
+  public String toString() {
+    return strValue;
+  }
+}
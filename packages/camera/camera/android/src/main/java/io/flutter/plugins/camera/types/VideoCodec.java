@@ -0,0 +1,38 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.types;
+
+import android.media.MediaFormat;
+
+/** The video codec used when recording with the MediaCodec recorder. */
+public enum VideoCodec {
+  h264("h264", MediaFormat.MIMETYPE_VIDEO_AVC),
+  hevc("hevc", MediaFormat.MIMETYPE_VIDEO_HEVC);
+
+  private final String strValue;
+  private final String mimeType;
+
+  VideoCodec(String strValue, String mimeType) {
+    this.strValue = strValue;
+    this.mimeType = mimeType;
+  }
+
+  public static VideoCodec getValueForString(String modeStr) {
+    for (VideoCodec value : values()) {
+      if (value.strValue.equals(modeStr)) return value;
+    }
+    return null;
+  }
+
+  /** Returns the MIME type of the codec, as used by {@link android.media.MediaCodec}. */
+  public String getMimeType() {
+    return mimeType;
+  }
+
+  @Override
+  public String toString() {
+    return strValue;
+  }
+}
@@ -0,0 +1,162 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import io.flutter.plugin.common.MethodChannel;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BurstCaptureRequestTest {
+  private static final long MS = 1000000L;
+
+  private final File first = new File("/test/first.jpg");
+  private final File second = new File("/test/second.jpg");
+  private MethodChannel.Result mockResult;
+  private DartMessenger mockDartMessenger;
+  private PictureCaptureRequest.TimeoutHandler mockTimeoutHandler;
+  private BurstCaptureRequest request;
+
+  @Before
+  public void before() {
+    mockResult = mock(MethodChannel.Result.class);
+    mockDartMessenger = mock(DartMessenger.class);
+    mockTimeoutHandler = mock(PictureCaptureRequest.TimeoutHandler.class);
+    request =
+        new BurstCaptureRequest(
+            mockResult, mockDartMessenger, Arrays.asList(first, second), mockTimeoutHandler, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void ctor_throws_for_empty_burst() {
+    new BurstCaptureRequest(
+        mockResult, mockDartMessenger, Collections.emptyList(), mockTimeoutHandler, 0);
+  }
+
+  @Test
+  public void ctor_starts_timeout() {
+    verify(mockTimeoutHandler).resetTimeout(any());
+  }
+
+  @Test
+  public void onImageCaptured_assigns_files_in_order() {
+    assertEquals(first, request.onImageCaptured(1));
+    assertEquals(second, request.onImageCaptured(2));
+    assertNull(request.onImageCaptured(3));
+  }
+
+  @Test
+  public void onImageSaved_reports_latency_from_capture_start() {
+    request.onCaptureStarted(100, 10 * MS);
+    request.onImageCaptured(100);
+
+    request.onImageSaved(first, 35 * MS);
+
+    verify(mockDartMessenger).sendBurstPictureSavedEvent(0, 2, first.getAbsolutePath(), 25.0);
+  }
+
+  @Test
+  public void onImageSaved_falls_back_to_submission_time_without_capture_start() {
+    request.onImageCaptured(100);
+
+    request.onImageSaved(first, 40 * MS);
+
+    verify(mockDartMessenger).sendBurstPictureSavedEvent(0, 2, first.getAbsolutePath(), 40.0);
+  }
+
+  @Test
+  public void finishes_with_all_paths_once_every_picture_is_saved() {
+    request.onImageCaptured(1);
+    request.onImageCaptured(2);
+
+    request.onImageSaved(second, MS);
+    assertFalse(request.isFinished());
+    request.onImageSaved(first, 2 * MS);
+
+    assertTrue(request.isFinished());
+    verify(mockDartMessenger)
+        .finish(mockResult, Arrays.asList(first.getAbsolutePath(), second.getAbsolutePath()));
+    verify(mockTimeoutHandler).clearTimeout(any());
+  }
+
+  @Test
+  public void error_completes_result_once() {
+    request.error("captureFailure", "failed");
+    request.error("captureFailure", "failed again");
+
+    assertTrue(request.isFinished());
+    verify(mockDartMessenger).error(mockResult, "captureFailure", "failed", null);
+    verify(mockDartMessenger, never()).error(any(), anyString(), eq("failed again"), any());
+  }
+
+  @Test
+  public void error_deletes_files_of_pictures_not_reported() throws IOException {
+    File saved = File.createTempFile("CAP", ".jpg");
+    File capturing = File.createTempFile("CAP", ".jpg");
+    File pending = File.createTempFile("CAP", ".jpg");
+    BurstCaptureRequest burst =
+        new BurstCaptureRequest(
+            mockResult,
+            mockDartMessenger,
+            Arrays.asList(saved, capturing, pending),
+            mockTimeoutHandler,
+            0);
+    burst.onImageCaptured(1);
+    burst.onImageCaptured(2);
+    burst.onImageSaved(saved, MS);
+
+    burst.error("captureFailure", "failed");
+
+    assertTrue(saved.exists());
+    assertFalse(capturing.exists());
+    assertFalse(pending.exists());
+    saved.delete();
+  }
+
+  @Test
+  public void error_deletes_files_saved_after_it() throws IOException {
+    File file = File.createTempFile("CAP", ".jpg");
+    BurstCaptureRequest burst =
+        new BurstCaptureRequest(
+            mockResult, mockDartMessenger, Collections.singletonList(file), mockTimeoutHandler, 0);
+    burst.onImageCaptured(1);
+    burst.error("captureFailure", "failed");
+    // The image saver recreates the file after the error.
+    assertTrue(file.createNewFile());
+
+    burst.onImageSaved(file, MS);
+
+    assertFalse(file.exists());
+  }
+
+  @Test
+  public void pictures_saved_after_error_are_not_reported() {
+    request.onImageCaptured(1);
+    request.error("captureFailure", "failed");
+
+    request.onImageSaved(first, MS);
+
+    verify(mockDartMessenger, never())
+        .sendBurstPictureSavedEvent(anyInt(), anyInt(), anyString(), anyDouble());
+    verify(mockDartMessenger, never()).finish(any(), any(List.class));
+  }
+}
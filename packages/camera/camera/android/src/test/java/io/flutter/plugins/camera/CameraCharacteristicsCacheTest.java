@@ -0,0 +1,94 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.CameraManager;
+import android.hardware.camera2.CameraMetadata;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CameraCharacteristicsCacheTest {
+  private static final String CAMERA_NAME = "test_camera";
+
+  private final CameraCharacteristics mockCharacteristics = mock(CameraCharacteristics.class);
+  private final CameraManager mockCameraManager = mock(CameraManager.class);
+
+  @Before
+  public void before() throws CameraAccessException {
+    CameraCharacteristicsCache.clear();
+    when(mockCameraManager.getCameraCharacteristics(CAMERA_NAME)).thenReturn(mockCharacteristics);
+  }
+
+  @Test
+  public void get_queries_characteristics_only_once() throws CameraAccessException {
+    CameraCharacteristicsCache.Entry first =
+        CameraCharacteristicsCache.get(mockCameraManager, CAMERA_NAME);
+    CameraCharacteristicsCache.Entry second =
+        CameraCharacteristicsCache.get(mockCameraManager, CAMERA_NAME);
+
+    assertSame(first, second);
+    assertSame(mockCharacteristics, first.getCharacteristics());
+    verify(mockCameraManager, times(1)).getCameraCharacteristics(CAMERA_NAME);
+  }
+
+  @Test
+  public void entry_reads_each_value_only_once() throws CameraAccessException {
+    when(mockCharacteristics.get(CameraCharacteristics.SENSOR_ORIENTATION)).thenReturn(90);
+    CameraCharacteristicsCache.Entry entry =
+        CameraCharacteristicsCache.get(mockCameraManager, CAMERA_NAME);
+
+    assertEquals(90, (int) entry.get(CameraCharacteristics.SENSOR_ORIENTATION));
+    assertEquals(90, (int) entry.get(CameraCharacteristics.SENSOR_ORIENTATION));
+
+    verify(mockCharacteristics, times(1)).get(CameraCharacteristics.SENSOR_ORIENTATION);
+  }
+
+  @Test
+  public void entry_caches_unsupported_values() throws CameraAccessException {
+    CameraCharacteristicsCache.Entry entry =
+        CameraCharacteristicsCache.get(mockCameraManager, CAMERA_NAME);
+
+    assertNull(entry.get(CameraCharacteristics.FLASH_INFO_AVAILABLE));
+    assertNull(entry.get(CameraCharacteristics.FLASH_INFO_AVAILABLE));
+
+    verify(mockCharacteristics, times(1)).get(CameraCharacteristics.FLASH_INFO_AVAILABLE);
+  }
+
+  @Test
+  public void unavailable_external_camera_is_invalidated() throws CameraAccessException {
+    when(mockCharacteristics.get(CameraCharacteristics.LENS_FACING))
+        .thenReturn(CameraMetadata.LENS_FACING_EXTERNAL);
+    CameraCharacteristicsCache.Entry entry =
+        CameraCharacteristicsCache.get(mockCameraManager, CAMERA_NAME);
+
+    CameraCharacteristicsCache.availabilityCallback.onCameraUnavailable(CAMERA_NAME);
+
+    assertNotSame(entry, CameraCharacteristicsCache.get(mockCameraManager, CAMERA_NAME));
+    verify(mockCameraManager, times(2)).getCameraCharacteristics(CAMERA_NAME);
+  }
+
+  @Test
+  public void unavailable_built_in_camera_stays_cached() throws CameraAccessException {
+    when(mockCharacteristics.get(CameraCharacteristics.LENS_FACING))
+        .thenReturn(CameraMetadata.LENS_FACING_BACK);
+    CameraCharacteristicsCache.Entry entry =
+        CameraCharacteristicsCache.get(mockCameraManager, CAMERA_NAME);
+
+    CameraCharacteristicsCache.availabilityCallback.onCameraUnavailable(CAMERA_NAME);
+
+    assertSame(entry, CameraCharacteristicsCache.get(mockCameraManager, CAMERA_NAME));
+  }
+}
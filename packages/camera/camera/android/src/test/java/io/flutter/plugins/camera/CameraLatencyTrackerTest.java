@@ -0,0 +1,103 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import io.flutter.plugins.camera.CameraLatencyTracker.Milestone;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CameraLatencyTrackerTest {
+  private static final long MS = 1000000L;
+
+  private DartMessenger mockDartMessenger;
+  private CameraLatencyTracker tracker;
+
+  @Before
+  public void before() {
+    mockDartMessenger = mock(DartMessenger.class);
+    tracker = new CameraLatencyTracker(mockDartMessenger);
+  }
+
+  @Test
+  public void mark_reports_milestone_without_duration_when_it_starts_an_operation() {
+    tracker.mark(Milestone.captureRequested, 5 * MS);
+
+    verify(mockDartMessenger)
+        .sendLatencyMilestoneEvent(eq("captureRequested"), eq(5.0), isNull(), isNull());
+  }
+
+  @Test
+  public void mark_reports_duration_of_the_operation_it_ends() {
+    tracker.mark(Milestone.captureRequested, 5 * MS);
+    tracker.mark(Milestone.jpegAvailable, 45 * MS);
+
+    verify(mockDartMessenger).sendLatencyMilestoneEvent("jpegAvailable", 45.0, "capture", 40.0);
+  }
+
+  @Test
+  public void open_request_starts_both_open_and_startup() {
+    tracker.mark(Milestone.openCameraRequested, 0);
+    tracker.mark(Milestone.cameraOpened, 100 * MS);
+    tracker.mark(Milestone.firstPreviewFrame, 400 * MS);
+
+    assertEquals(100.0, getStatistics("open").get("lastMs"));
+    assertEquals(400.0, getStatistics("startup").get("lastMs"));
+    assertEquals(2, tracker.getStatistics().size());
+  }
+
+  @Test
+  public void operation_start_is_only_used_once() {
+    tracker.mark(Milestone.captureRequested, 0);
+    tracker.mark(Milestone.jpegAvailable, 10 * MS);
+    tracker.mark(Milestone.jpegAvailable, 20 * MS);
+
+    assertEquals(1, getStatistics("capture").get("count"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void getStatistics_aggregates_durations() {
+    for (long duration : new long[] {30, 10, 20}) {
+      tracker.mark(Milestone.jpegAvailable, 0);
+      tracker.mark(Milestone.fileWritten, duration * MS);
+    }
+
+    Map<String, Object> save = getStatistics("save");
+    assertEquals(3, save.get("count"));
+    assertEquals(20.0, save.get("lastMs"));
+    assertEquals(10.0, save.get("minMs"));
+    assertEquals(30.0, save.get("maxMs"));
+    assertEquals(20.0, save.get("meanMs"));
+    assertEquals(3, ((List<Double>) save.get("recentMs")).size());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void getStatistics_keeps_only_recent_durations() {
+    for (int i = 0; i < CameraLatencyTracker.MAX_RECENT_DURATIONS + 5; i++) {
+      tracker.mark(Milestone.precaptureStarted, 0);
+      tracker.mark(Milestone.precaptureConverged, i * MS);
+    }
+
+    List<Double> recent = (List<Double>) getStatistics("precapture").get("recentMs");
+    assertEquals(CameraLatencyTracker.MAX_RECENT_DURATIONS, recent.size());
+    assertEquals(5.0, recent.get(0), 0);
+    assertFalse(tracker.getStatistics().containsKey("capture"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> getStatistics(String operation) {
+    return (Map<String, Object>) tracker.getStatistics().get(operation);
+  }
+}
@@ -32,6 +32,7 @@ public class CameraPropertiesImplTest {
 
   @Before
   public void before() {
+    CameraCharacteristicsCache.clear();
     try {
       when(mockCameraManager.getCameraCharacteristics(CAMERA_NAME)).thenReturn(mockCharacteristics);
       cameraProperties = new CameraPropertiesImpl(CAMERA_NAME, mockCameraManager);
@@ -9,18 +9,23 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 import android.os.Handler;
 import androidx.annotation.NonNull;
 import io.flutter.embedding.engine.systemchannels.PlatformChannel;
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.StandardMethodCodec;
 import io.flutter.plugins.camera.types.ExposureMode;
 import io.flutter.plugins.camera.types.FocusMode;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
@@ -114,6 +119,103 @@ public class DartMessengerTest {
     assertEquals(call.argument("orientation"), "portraitUp");
   }
 
+  @Test
+  public void sendBurstPictureSavedEvent_includesPathAndLatency() {
+    doAnswer(createPostHandlerAnswer()).when(mockHandler).post(any(Runnable.class));
+    dartMessenger.enableOptionalEvents(Arrays.asList("burst_picture_saved"));
+    dartMessenger.sendBurstPictureSavedEvent(1, 5, "/test/path", 42.5);
+
+    List<ByteBuffer> sentMessages = fakeBinaryMessenger.getMessages();
+    assertEquals(1, sentMessages.size());
+    MethodCall call = decodeSentMessage(sentMessages.get(0));
+    assertEquals("burst_picture_saved", call.method);
+    assertEquals(1, (int) call.argument("index"));
+    assertEquals(5, (int) call.argument("count"));
+    assertEquals("/test/path", call.argument("path"));
+    assertEquals(42.5, (double) call.argument("captureLatencyMs"), 0);
+  }
+
+  @Test
+  public void sendLatencyMilestoneEvent_includesOperationDuration() {
+    doAnswer(createPostHandlerAnswer()).when(mockHandler).post(any(Runnable.class));
+    dartMessenger.enableOptionalEvents(Arrays.asList("latency_milestone"));
+    dartMessenger.sendLatencyMilestoneEvent("jpegAvailable", 1000.0, "capture", 250.0);
+
+    List<ByteBuffer> sentMessages = fakeBinaryMessenger.getMessages();
+    assertEquals(1, sentMessages.size());
+    MethodCall call = decodeSentMessage(sentMessages.get(0));
+    assertEquals("latency_milestone", call.method);
+    assertEquals("jpegAvailable", call.argument("milestone"));
+    assertEquals(1000.0, (double) call.argument("timestampMs"), 0);
+    assertEquals("capture", call.argument("operation"));
+    assertEquals(250.0, (double) call.argument("durationMs"), 0);
+  }
+
+  @Test
+  public void sendLatencyMilestoneEvent_omitsMissingDuration() {
+    doAnswer(createPostHandlerAnswer()).when(mockHandler).post(any(Runnable.class));
+    dartMessenger.enableOptionalEvents(Arrays.asList("latency_milestone"));
+    dartMessenger.sendLatencyMilestoneEvent("openCameraRequested", 1000.0, null, null);
+
+    MethodCall call = decodeSentMessage(fakeBinaryMessenger.getMessages().get(0));
+    assertNull(call.argument("operation"));
+    assertNull(call.argument("durationMs"));
+  }
+
+  @Test
+  public void sendFrameProcessedEvent_includesProcessorResult() {
+    doAnswer(createPostHandlerAnswer()).when(mockHandler).post(any(Runnable.class));
+    dartMessenger.enableOptionalEvents(Arrays.asList("frame_processed"));
+    Map<String, Object> result = new HashMap<>();
+    result.put("barcode", "12345");
+    dartMessenger.sendFrameProcessedEvent("barcodes", 1000L, result);
+
+    MethodCall call = decodeSentMessage(fakeBinaryMessenger.getMessages().get(0));
+    assertEquals("frame_processed", call.method);
+    assertEquals("barcodes", call.argument("processor"));
+    assertEquals(1000L, ((Number) call.argument("timestamp")).longValue());
+    assertEquals(result, call.argument("result"));
+  }
+
+  @Test
+  public void optionalEvents_areOnlySentOnceEnabled() {
+    doAnswer(createPostHandlerAnswer()).when(mockHandler).post(any(Runnable.class));
+    dartMessenger.sendLatencyMilestoneEvent("openCameraRequested", 1000.0, null, null);
+    dartMessenger.sendBurstPictureSavedEvent(1, 5, "/test/path", 42.5);
+    dartMessenger.sendFrameProcessedEvent("barcodes", 1000L, new HashMap<>());
+    assertEquals(0, fakeBinaryMessenger.getMessages().size());
+
+    dartMessenger.enableOptionalEvents(Arrays.asList("latency_milestone", "error", "unknown"));
+    dartMessenger.sendLatencyMilestoneEvent("openCameraRequested", 1000.0, null, null);
+    dartMessenger.sendBurstPictureSavedEvent(1, 5, "/test/path", 42.5);
+
+    List<ByteBuffer> sentMessages = fakeBinaryMessenger.getMessages();
+    assertEquals(1, sentMessages.size());
+    assertEquals("latency_milestone", decodeSentMessage(sentMessages.get(0)).method);
+  }
+
+  @Test
+  public void finish_completes_result_through_handler() {
+    doAnswer(createPostHandlerAnswer()).when(mockHandler).post(any(Runnable.class));
+    MethodChannel.Result mockResult = mock(MethodChannel.Result.class);
+
+    dartMessenger.finish(mockResult, "/test/path");
+
+    verify(mockHandler).post(any(Runnable.class));
+    verify(mockResult).success("/test/path");
+  }
+
+  @Test
+  public void error_completes_result_through_handler() {
+    doAnswer(createPostHandlerAnswer()).when(mockHandler).post(any(Runnable.class));
+    MethodChannel.Result mockResult = mock(MethodChannel.Result.class);
+
+    dartMessenger.error(mockResult, "errorCode", "error message", null);
+
+    verify(mockHandler).post(any(Runnable.class));
+    verify(mockResult).error("errorCode", "error message", null);
+  }
+
   private static Answer<Boolean> createPostHandlerAnswer() {
     return new Answer<Boolean>() {
       @Override
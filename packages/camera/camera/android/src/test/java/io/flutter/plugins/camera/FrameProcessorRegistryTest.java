@@ -0,0 +1,73 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Test;
+
+public class FrameProcessorRegistryTest {
+  private static final long CAMERA_ID = 1;
+  private static final long OTHER_CAMERA_ID = 2;
+
+  @After
+  public void after() {
+    FrameProcessorRegistry.unregisterAll(CAMERA_ID);
+    FrameProcessorRegistry.unregisterAll(OTHER_CAMERA_ID);
+  }
+
+  @Test
+  public void get_returns_empty_map_without_processors() {
+    assertTrue(FrameProcessorRegistry.get(CAMERA_ID).isEmpty());
+  }
+
+  @Test
+  public void register_keeps_registration_order_per_camera() {
+    FrameProcessor barcodes = mock(FrameProcessor.class);
+    FrameProcessor faces = mock(FrameProcessor.class);
+    FrameProcessor other = mock(FrameProcessor.class);
+
+    FrameProcessorRegistry.register(CAMERA_ID, "barcodes", barcodes);
+    FrameProcessorRegistry.register(CAMERA_ID, "faces", faces);
+    FrameProcessorRegistry.register(OTHER_CAMERA_ID, "barcodes", other);
+
+    Map<String, FrameProcessor> processors = FrameProcessorRegistry.get(CAMERA_ID);
+    assertEquals(Arrays.asList("barcodes", "faces"), new ArrayList<>(processors.keySet()));
+    assertEquals(barcodes, processors.get("barcodes"));
+    assertEquals(other, FrameProcessorRegistry.get(OTHER_CAMERA_ID).get("barcodes"));
+  }
+
+  @Test
+  public void register_does_not_change_previously_returned_snapshot() {
+    FrameProcessorRegistry.register(CAMERA_ID, "barcodes", mock(FrameProcessor.class));
+    Map<String, FrameProcessor> snapshot = FrameProcessorRegistry.get(CAMERA_ID);
+
+    FrameProcessorRegistry.register(CAMERA_ID, "faces", mock(FrameProcessor.class));
+
+    assertEquals(1, snapshot.size());
+    assertEquals(2, FrameProcessorRegistry.get(CAMERA_ID).size());
+  }
+
+  @Test
+  public void unregister_removes_processor() {
+    FrameProcessorRegistry.register(CAMERA_ID, "barcodes", mock(FrameProcessor.class));
+    FrameProcessorRegistry.register(CAMERA_ID, "faces", mock(FrameProcessor.class));
+
+    FrameProcessorRegistry.unregister(CAMERA_ID, "barcodes");
+
+    assertEquals(
+        Arrays.asList("faces"), new ArrayList<>(FrameProcessorRegistry.get(CAMERA_ID).keySet()));
+
+    FrameProcessorRegistry.unregister(CAMERA_ID, "faces");
+
+    assertTrue(FrameProcessorRegistry.get(CAMERA_ID).isEmpty());
+  }
+}
@@ -0,0 +1,74 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import android.media.Image;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ImageSaverTest {
+  private final List<Runnable> queuedTasks = new ArrayList<>();
+  private ImageSaver imageSaver;
+  private ImageSaver.Callback mockCallback;
+  private File file;
+
+  @Before
+  public void before() throws IOException {
+    imageSaver = new ImageSaver(queuedTasks::add);
+    mockCallback = mock(ImageSaver.Callback.class);
+    file = File.createTempFile("CAP", ".jpg");
+    file.deleteOnExit();
+  }
+
+  @Test
+  public void save_closes_image_before_writing() {
+    Image mockImage = mockJpegImage(new byte[] {1, 2, 3});
+
+    imageSaver.save(mockImage, file, mockCallback);
+
+    verify(mockImage).close();
+    verifyNoInteractions(mockCallback);
+  }
+
+  @Test
+  public void save_writes_image_bytes_on_executor() throws IOException {
+    Image mockImage = mockJpegImage(new byte[] {1, 2, 3});
+
+    imageSaver.save(mockImage, file, mockCallback);
+    queuedTasks.get(0).run();
+
+    assertArrayEquals(new byte[] {1, 2, 3}, Files.readAllBytes(file.toPath()));
+    verify(mockCallback).onComplete(file.getAbsolutePath());
+  }
+
+  @Test
+  public void write_reports_error_when_file_cannot_be_written() {
+    File directory = file.getParentFile();
+
+    ImageSaver.write(ByteBuffer.wrap(new byte[] {1}), directory, mockCallback);
+
+    verify(mockCallback).onError("IOError", "Failed saving image");
+  }
+
+  private static Image mockJpegImage(byte[] bytes) {
+    Image mockImage = mock(Image.class);
+    Image.Plane mockPlane = mock(Image.Plane.class);
+    when(mockPlane.getBuffer()).thenReturn(ByteBuffer.wrap(bytes));
+    when(mockImage.getPlanes()).thenReturn(new Image.Plane[] {mockPlane});
+    return mockImage;
+  }
+}
@@ -39,6 +39,8 @@ public class PictureCaptureRequestTest {
     req.setState(PictureCaptureRequest.State.capturing);
     assertEquals(
         "State is awaitingPreCapture", req.getState(), PictureCaptureRequest.State.capturing);
+    req.setState(PictureCaptureRequest.State.saving);
+    assertEquals("State is saving", req.getState(), PictureCaptureRequest.State.saving);
   }
 
   @Test
@@ -0,0 +1,119 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.hardware.camera2.CameraAccessException;
+import android.os.Handler;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RepeatingRequestCoalescerTest {
+  private RepeatingRequestCoalescer.Submitter mockSubmitter;
+  private Handler mockHandler;
+  private RepeatingRequestCoalescer coalescer;
+
+  @Before
+  public void before() {
+    mockSubmitter = mock(RepeatingRequestCoalescer.Submitter.class);
+    mockHandler = mock(Handler.class);
+    coalescer = new RepeatingRequestCoalescer(mockSubmitter, mockHandler);
+  }
+
+  @Test
+  public void requestUpdate_submits_first_update_right_away() throws CameraAccessException {
+    Runnable mockSuccess = mock(Runnable.class);
+    ErrorCallback mockError = mock(ErrorCallback.class);
+
+    coalescer.requestUpdate(mockSuccess, mockError);
+
+    verify(mockSubmitter).submit();
+    verify(mockSuccess).run();
+    verify(mockError, never()).onError(anyString(), anyString());
+  }
+
+  @Test
+  public void requestUpdate_coalesces_updates_until_next_preview_frame()
+      throws CameraAccessException {
+    Runnable mockSecondSuccess = mock(Runnable.class);
+    Runnable mockThirdSuccess = mock(Runnable.class);
+    coalescer.requestUpdate(null, mock(ErrorCallback.class));
+
+    coalescer.requestUpdate(mockSecondSuccess, mock(ErrorCallback.class));
+    coalescer.requestUpdate(mockThirdSuccess, mock(ErrorCallback.class));
+
+    verify(mockSubmitter, times(1)).submit();
+    verify(mockSecondSuccess, never()).run();
+    verify(mockHandler, times(1))
+        .postDelayed(any(Runnable.class), eq(RepeatingRequestCoalescer.MAX_FRAME_INTERVAL_MS));
+
+    coalescer.onPreviewFrame();
+
+    verify(mockSubmitter, times(2)).submit();
+    verify(mockSecondSuccess).run();
+    verify(mockThirdSuccess).run();
+    verify(mockHandler).removeCallbacks(any(Runnable.class));
+  }
+
+  @Test
+  public void onPreviewFrame_does_not_submit_without_pending_update()
+      throws CameraAccessException {
+    coalescer.onPreviewFrame();
+
+    verify(mockSubmitter, never()).submit();
+  }
+
+  @Test
+  public void requestUpdate_reports_submit_failure_to_every_coalesced_update()
+      throws CameraAccessException {
+    ErrorCallback mockFirstError = mock(ErrorCallback.class);
+    ErrorCallback mockSecondError = mock(ErrorCallback.class);
+    coalescer.requestUpdate(null, mock(ErrorCallback.class));
+    coalescer.requestUpdate(null, mockFirstError);
+    coalescer.requestUpdate(null, mockSecondError);
+    doThrow(new IllegalStateException("Session closed")).when(mockSubmitter).submit();
+
+    coalescer.onPreviewFrame();
+
+    verify(mockFirstError).onError("cameraAccess", "Session closed");
+    verify(mockSecondError).onError("cameraAccess", "Session closed");
+  }
+
+  @Test
+  public void onRepeatingRequestReplaced_completes_pending_updates()
+      throws CameraAccessException {
+    Runnable mockSuccess = mock(Runnable.class);
+    coalescer.requestUpdate(null, mock(ErrorCallback.class));
+    coalescer.requestUpdate(mockSuccess, mock(ErrorCallback.class));
+
+    coalescer.onRepeatingRequestReplaced();
+    coalescer.onPreviewFrame();
+
+    verify(mockSuccess).run();
+    verify(mockSubmitter, times(1)).submit();
+  }
+
+  @Test
+  public void cancel_fails_pending_updates() {
+    Runnable mockSuccess = mock(Runnable.class);
+    ErrorCallback mockError = mock(ErrorCallback.class);
+    coalescer.requestUpdate(null, mock(ErrorCallback.class));
+    coalescer.requestUpdate(mockSuccess, mockError);
+
+    coalescer.cancel("cameraClosed", "Closed");
+
+    verify(mockError).onError("cameraClosed", "Closed");
+    verify(mockSuccess, never()).run();
+    verify(mockHandler).removeCallbacks(any(Runnable.class));
+  }
+}
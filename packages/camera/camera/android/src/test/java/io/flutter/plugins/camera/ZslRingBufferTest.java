@@ -0,0 +1,108 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.hardware.camera2.CaptureResult;
+import android.hardware.camera2.TotalCaptureResult;
+import android.media.Image;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ZslRingBufferTest {
+  private ZslRingBuffer ringBuffer;
+
+  @Before
+  public void before() {
+    ringBuffer = new ZslRingBuffer(3);
+  }
+
+  @Test
+  public void take_returns_null_when_empty() {
+    assertNull(ringBuffer.take(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void take_skips_images_without_capture_result() {
+    ringBuffer.addImage(mockImage(100));
+
+    assertNull(ringBuffer.take(100));
+  }
+
+  @Test
+  public void take_returns_frame_closest_to_target() {
+    Image first = mockImage(100);
+    Image second = mockImage(200);
+    Image third = mockImage(300);
+    TotalCaptureResult secondResult = addFrame(second);
+    addFrame(first);
+    addFrame(third);
+
+    ZslRingBuffer.Frame frame = ringBuffer.take(180);
+
+    assertEquals(second, frame.image);
+    assertEquals(secondResult, frame.result);
+    verify(second, never()).close();
+  }
+
+  @Test
+  public void take_removes_returned_frame() {
+    Image image = mockImage(100);
+    addFrame(image);
+
+    ringBuffer.take(Long.MAX_VALUE);
+
+    assertNull(ringBuffer.take(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void addImage_closes_oldest_image_when_full() {
+    Image oldest = mockImage(100);
+    addFrame(oldest);
+    addFrame(mockImage(200));
+    addFrame(mockImage(300));
+
+    Image newest = mockImage(400);
+    addFrame(newest);
+
+    verify(oldest).close();
+    assertEquals(newest, ringBuffer.take(Long.MAX_VALUE).image);
+  }
+
+  @Test
+  public void clear_closes_every_image() {
+    Image first = mockImage(100);
+    Image second = mockImage(200);
+    addFrame(first);
+    addFrame(second);
+
+    ringBuffer.clear();
+
+    verify(first).close();
+    verify(second).close();
+    assertNull(ringBuffer.take(Long.MAX_VALUE));
+  }
+
+  private static Image mockImage(long timestamp) {
+    Image image = mock(Image.class);
+    when(image.getTimestamp()).thenReturn(timestamp);
+    return image;
+  }
+
+  private TotalCaptureResult addFrame(Image image) {
+    long timestamp = image.getTimestamp();
+    TotalCaptureResult result = mock(TotalCaptureResult.class);
+    when(result.get(CaptureResult.SENSOR_TIMESTAMP)).thenReturn(timestamp);
+    ringBuffer.addImage(image);
+    ringBuffer.addResult(result);
+    return result;
+  }
+}
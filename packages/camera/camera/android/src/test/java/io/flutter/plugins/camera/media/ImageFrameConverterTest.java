@@ -0,0 +1,206 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.ImageFormat;
+import io.flutter.plugins.camera.types.ImageStreamOutputFormat;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ImageFrameConverterTest {
+  // A 4x4 image with two bytes of row padding on every luma row.
+  private static final byte[] Y = {
+    0, 1, 2, 3, 99, 99, //
+    4, 5, 6, 7, 99, 99, //
+    8, 9, 10, 11, 99, 99, //
+    12, 13, 14, 15, 99, 99,
+  };
+  // 2x2 chroma samples, interleaved with a pixel stride of 2 and padded to a row stride of 6.
+  private static final byte[] U = {
+    20, 0, 21, 0, 99, 99, //
+    22, 0, 23, 0, 99, 99,
+  };
+  private static final byte[] V = {
+    30, 0, 31, 0, 99, 99, //
+    32, 0, 33, 0, 99, 99,
+  };
+
+  private ImageStreamFramePool.Frame frame;
+
+  @Before
+  public void before() {
+    frame = new ImageStreamFramePool(1).acquire();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void ctor_throws_for_negative_dimensions() {
+    new ImageFrameConverter(ImageStreamOutputFormat.y8, 0, 0, -1, 0, 0, 0, false);
+  }
+
+  @Test
+  public void isPassthrough_only_without_conversion() {
+    assertTrue(ImageFrameConverter.passthrough().isPassthrough());
+    assertFalse(
+        new ImageFrameConverter(ImageStreamOutputFormat.yuv420, 0, 0, 0, 0, 0, 0, true)
+            .isPassthrough());
+    assertFalse(
+        new ImageFrameConverter(ImageStreamOutputFormat.y8, 0, 0, 0, 0, 0, 0, false)
+            .isPassthrough());
+    assertFalse(
+        new ImageFrameConverter(ImageStreamOutputFormat.yuv420, 0, 0, 0, 0, 2, 2, false)
+            .isPassthrough());
+  }
+
+  @Test
+  public void yuv420_strips_row_padding() {
+    convert(new ImageFrameConverter(ImageStreamOutputFormat.yuv420, 0, 0, 0, 0, 0, 0, true));
+
+    assertImageInfo(4, 4, ImageFormat.YUV_420_888, 3);
+    assertPlane(0, 4, 1, new byte[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15});
+    assertPlane(1, 2, 1, new byte[] {20, 21, 22, 23});
+    assertPlane(2, 2, 1, new byte[] {30, 31, 32, 33});
+  }
+
+  @Test
+  public void y8_downscales_luminance() {
+    convert(new ImageFrameConverter(ImageStreamOutputFormat.y8, 0, 0, 0, 0, 2, 2, false));
+
+    assertImageInfo(2, 2, ImageFormat.Y8, 1);
+    assertPlane(0, 2, 1, new byte[] {0, 2, 8, 10});
+  }
+
+  @Test
+  public void y8_crops_region_of_interest() {
+    convert(new ImageFrameConverter(ImageStreamOutputFormat.y8, 2, 2, 2, 2, 0, 0, false));
+
+    assertImageInfo(2, 2, ImageFormat.Y8, 1);
+    assertPlane(0, 2, 1, new byte[] {10, 11, 14, 15});
+  }
+
+  @Test
+  public void crop_is_clamped_to_image_bounds_and_never_upscaled() {
+    convert(new ImageFrameConverter(ImageStreamOutputFormat.y8, 2, 0, 10, 10, 8, 8, false));
+
+    assertImageInfo(2, 4, ImageFormat.Y8, 1);
+    assertPlane(0, 2, 1, new byte[] {2, 3, 6, 7, 10, 11, 14, 15});
+  }
+
+  @Test
+  public void nv21_interleaves_v_and_u() {
+    convert(new ImageFrameConverter(ImageStreamOutputFormat.nv21, 0, 0, 0, 0, 0, 0, false));
+
+    assertImageInfo(4, 4, ImageFormat.NV21, 1);
+    assertPlane(
+        0,
+        4,
+        1,
+        new byte[] {
+          0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 30, 20, 31, 21, 32, 22, 33, 23
+        });
+  }
+
+  @Test
+  public void rgba8888_converts_grey_and_sets_opaque_alpha() {
+    byte[] y = new byte[] {(byte) 200, (byte) 200, (byte) 200, (byte) 200};
+    byte[] chroma = new byte[] {(byte) 128};
+    ImageFrameConverter converter =
+        new ImageFrameConverter(ImageStreamOutputFormat.rgba8888, 0, 0, 0, 0, 0, 0, false);
+
+    converter.convert(
+        2,
+        2,
+        ByteBuffer.wrap(y),
+        2,
+        ByteBuffer.wrap(chroma),
+        ByteBuffer.wrap(chroma),
+        1,
+        1,
+        frame);
+
+    assertImageInfo(2, 2, 1, 1);
+    byte[] expected = new byte[16];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = (i % 4 == 3) ? (byte) 0xff : (byte) 200;
+    }
+    assertPlane(0, 8, 4, expected);
+  }
+
+  @Test
+  public void rgba8888_clamps_saturated_colors() {
+    ImageFrameConverter converter =
+        new ImageFrameConverter(ImageStreamOutputFormat.rgba8888, 0, 0, 0, 0, 0, 0, false);
+
+    convertSinglePixel(converter, 255, 255, 255);
+    assertEquals(255, planeBytes(0)[0] & 0xff);
+    assertEquals(255, planeBytes(0)[2] & 0xff);
+
+    convertSinglePixel(converter, 0, 0, 0);
+    assertEquals(0, planeBytes(0)[0] & 0xff);
+    assertEquals(0, planeBytes(0)[2] & 0xff);
+  }
+
+  @Test
+  public void convert_reuses_output_buffer_for_equally_sized_images() {
+    ImageFrameConverter converter =
+        new ImageFrameConverter(ImageStreamOutputFormat.y8, 0, 0, 0, 0, 2, 2, false);
+
+    convert(converter);
+    byte[] first = planeBytes(0);
+    convert(converter);
+
+    assertSame(first, planeBytes(0));
+  }
+
+  private void convert(ImageFrameConverter converter) {
+    converter.convert(
+        4, 4, ByteBuffer.wrap(Y), 6, ByteBuffer.wrap(U), ByteBuffer.wrap(V), 6, 2, frame);
+  }
+
+  private void convertSinglePixel(ImageFrameConverter converter, int y, int u, int v) {
+    converter.convert(
+        1,
+        1,
+        ByteBuffer.wrap(new byte[] {(byte) y}),
+        1,
+        ByteBuffer.wrap(new byte[] {(byte) u}),
+        ByteBuffer.wrap(new byte[] {(byte) v}),
+        1,
+        1,
+        frame);
+  }
+
+  private void assertImageInfo(int width, int height, int format, int planeCount) {
+    Map<String, Object> imageBuffer = frame.getImageBuffer();
+    assertEquals(width, imageBuffer.get("width"));
+    assertEquals(height, imageBuffer.get("height"));
+    assertEquals(format, imageBuffer.get("format"));
+    assertEquals(planeCount, planes().size());
+  }
+
+  private void assertPlane(int index, int bytesPerRow, int bytesPerPixel, byte[] bytes) {
+    Map<String, Object> plane = planes().get(index);
+    assertEquals(bytesPerRow, plane.get("bytesPerRow"));
+    assertEquals(bytesPerPixel, plane.get("bytesPerPixel"));
+    assertArrayEquals(bytes, (byte[]) plane.get("bytes"));
+  }
+
+  private byte[] planeBytes(int index) {
+    return (byte[]) planes().get(index).get("bytes");
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Map<String, Object>> planes() {
+    return (List<Map<String, Object>>) frame.getImageBuffer().get("planes");
+  }
+}
@@ -0,0 +1,353 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import android.graphics.ImageFormat;
+import io.flutter.plugin.common.EventChannel;
+import io.flutter.plugin.common.StandardMessageCodec;
+import io.flutter.plugin.common.StandardMethodCodec;
+import io.flutter.plugins.camera.types.ImageStreamOutputFormat;
+import io.flutter.plugins.camera.types.ResolutionPreset;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Measures the cost of sending camera frames over the image stream.
+ *
+ * <p>For a synthetic YUV_420_888 frame at the nominal size of every {@link ResolutionPreset}, this
+ * measures the time and heap allocations of encoding the frame map with {@link
+ * StandardMessageCodec}, and of the whole per-frame path: copying or converting the planes into a
+ * pooled frame and sending it to a sink that encodes it the way {@link EventChannel} does. The
+ * results are written as JSON so runs on different versions can be compared.
+ *
+ * <p>The benchmark is skipped unless the {@code camera.benchmark} property is set:
+ *
+ * <pre>
+ * ./gradlew testDebugUnitTest --tests '*ImageStreamBenchmark' -Pcamera.benchmark=true
+ * </pre>
+ *
+ * <p>{@code camera.benchmark.iterations} changes the number of measured frames and {@code
+ * camera.benchmark.report} the path of the report, which defaults to {@code
+ * build/reports/camera-benchmark.json}.
+ */
+public class ImageStreamBenchmark {
+  private static final int SCHEMA_VERSION = 1;
+  private static final int WARMUP_ITERATIONS = 50;
+  private static final int DEFAULT_ITERATIONS = 200;
+  private static final String DEFAULT_REPORT_PATH = "build/reports/camera-benchmark.json";
+
+  /** Fills a pooled frame from a synthetic camera frame. */
+  private interface FrameWriter {
+    void write(SyntheticFrame source, ImageStreamFramePool.Frame frame);
+  }
+
+  /** Encodes every event like the sink of an {@link EventChannel}. */
+  private static class EncodingSink implements EventChannel.EventSink {
+    int encodedBytes;
+
+    @Override
+    public void success(Object event) {
+      encodedBytes = StandardMethodCodec.INSTANCE.encodeSuccessEnvelope(event).capacity();
+    }
+
+    @Override
+    public void error(String errorCode, String errorMessage, Object errorDetails) {}
+
+    @Override
+    public void endOfStream() {}
+  }
+
+  /**
+   * The planes of a YUV_420_888 frame as delivered by most devices: rows padded to 64 bytes and
+   * interleaved chroma samples, with the U and V planes sharing a single direct buffer.
+   */
+  private static class SyntheticFrame {
+    final int width;
+    final int height;
+    final int rowStride;
+    final ByteBuffer y;
+    final ByteBuffer u;
+    final ByteBuffer v;
+
+    SyntheticFrame(int width, int height) {
+      this.width = width;
+      this.height = height;
+      this.rowStride = (width + 63) & ~63;
+
+      y = filledBuffer(rowStride * (height - 1) + width);
+      int chromaLength = rowStride * (height / 2 - 1) + width - 1;
+      ByteBuffer chroma = filledBuffer(chromaLength + 1);
+      chroma.limit(chromaLength);
+      u = chroma.slice();
+      chroma.limit(chromaLength + 1);
+      chroma.position(1);
+      v = chroma.slice();
+    }
+
+    void rewind() {
+      y.rewind();
+      u.rewind();
+      v.rewind();
+    }
+
+    private static ByteBuffer filledBuffer(int length) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+      for (int i = 0; i < length; i++) {
+        buffer.put((byte) i);
+      }
+      buffer.rewind();
+      return buffer;
+    }
+  }
+
+  /** Per-frame time and allocations of one measured operation. */
+  private static class Stats {
+    final long meanNanos;
+    final long p50Nanos;
+    final long p95Nanos;
+    final long allocatedBytesPerFrame;
+
+    Stats(long[] nanos, long allocatedBytes) {
+      long[] sorted = Arrays.copyOf(nanos, nanos.length);
+      Arrays.sort(sorted);
+      long total = 0;
+      for (long value : sorted) {
+        total += value;
+      }
+      meanNanos = total / sorted.length;
+      p50Nanos = sorted[sorted.length / 2];
+      p95Nanos = sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+      allocatedBytesPerFrame = allocatedBytes < 0 ? -1 : allocatedBytes / nanos.length;
+    }
+  }
+
+  private int iterations;
+  private Method allocatedBytesMethod;
+  private Object threadBean;
+
+  @Before
+  public void before() {
+    assumeTrue(
+        "Set -Pcamera.benchmark=true to run the image stream benchmark",
+        Boolean.getBoolean("camera.benchmark"));
+    iterations = Integer.getInteger("camera.benchmark.iterations", DEFAULT_ITERATIONS);
+    initAllocationTracking();
+  }
+
+  @Test
+  public void benchmark_image_stream_frames() throws IOException {
+    Map<String, FrameWriter> scenarios = new LinkedHashMap<>();
+    scenarios.put(
+        "passthrough",
+        (source, frame) -> {
+          // Mirrors ImageStreamFramePool.Frame#copyFrom.
+          frame.setImageInfo(source.width, source.height, ImageFormat.YUV_420_888, 3);
+          frame.setPlane(0, source.y, source.rowStride, 1);
+          frame.setPlane(1, source.u, source.rowStride, 2);
+          frame.setPlane(2, source.v, source.rowStride, 2);
+        });
+    ImageFrameConverter nv21Converter =
+        new ImageFrameConverter(ImageStreamOutputFormat.nv21, 0, 0, 0, 0, 0, 0, false);
+    scenarios.put(
+        "nv21",
+        (source, frame) ->
+            nv21Converter.convert(
+                source.width,
+                source.height,
+                source.y,
+                source.rowStride,
+                source.u,
+                source.v,
+                source.rowStride,
+                2,
+                frame));
+
+    StringBuilder results = new StringBuilder();
+    for (ResolutionPreset preset : ResolutionPreset.values()) {
+      int[] size = getNominalSize(preset);
+      SyntheticFrame source = new SyntheticFrame(size[0], size[1]);
+      for (Map.Entry<String, FrameWriter> scenario : scenarios.entrySet()) {
+        if (results.length() > 0) {
+          results.append(",\n");
+        }
+        results.append(measure(preset, scenario.getKey(), source, scenario.getValue()));
+      }
+    }
+
+    File report = new File(System.getProperty("camera.benchmark.report", DEFAULT_REPORT_PATH));
+    writeReport(report, results);
+    assertTrue("No benchmark report at " + report.getAbsolutePath(), report.isFile());
+  }
+
+  private String measure(
+      ResolutionPreset preset, String scenario, SyntheticFrame source, FrameWriter writer) {
+    ImageStreamFramePool pool = new ImageStreamFramePool(1);
+    EncodingSink sink = new EncodingSink();
+    long[] encodeNanos = new long[iterations];
+    long[] endToEndNanos = new long[iterations];
+
+    // Encoding alone, of a frame that is only filled once.
+    ImageStreamFramePool.Frame filledFrame = pool.acquire();
+    source.rewind();
+    writer.write(source, filledFrame);
+    Map<String, Object> message = filledFrame.getImageBuffer();
+    int encodedBytes = 0;
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      encodedBytes = StandardMessageCodec.INSTANCE.encodeMessage(message).capacity();
+    }
+    long allocatedBefore = getAllocatedBytes();
+    for (int i = 0; i < iterations; i++) {
+      long start = System.nanoTime();
+      encodedBytes = StandardMessageCodec.INSTANCE.encodeMessage(message).capacity();
+      encodeNanos[i] = System.nanoTime() - start;
+    }
+    Stats encode = new Stats(encodeNanos, getAllocatedSince(allocatedBefore));
+    filledFrame.release();
+
+    // Filling a pooled frame, sending it to the sink and recycling it.
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      sendFrame(pool, source, writer, sink);
+    }
+    allocatedBefore = getAllocatedBytes();
+    for (int i = 0; i < iterations; i++) {
+      long start = System.nanoTime();
+      sendFrame(pool, source, writer, sink);
+      endToEndNanos[i] = System.nanoTime() - start;
+    }
+    Stats endToEnd = new Stats(endToEndNanos, getAllocatedSince(allocatedBefore));
+    assertTrue(sink.encodedBytes >= encodedBytes);
+
+    return "    {\"preset\": \""
+        + preset
+        + "\", \"scenario\": \""
+        + scenario
+        + "\", \"width\": "
+        + source.width
+        + ", \"height\": "
+        + source.height
+        + ", \"encodedBytes\": "
+        + encodedBytes
+        + ",\n      \"encode\": "
+        + toJson(encode)
+        + ",\n      \"endToEnd\": "
+        + toJson(endToEnd)
+        + "}";
+  }
+
+  private static void sendFrame(
+      ImageStreamFramePool pool,
+      SyntheticFrame source,
+      FrameWriter writer,
+      EventChannel.EventSink sink) {
+    ImageStreamFramePool.Frame frame = pool.acquire();
+    source.rewind();
+    writer.write(source, frame);
+    frame.setSink(sink);
+    frame.run();
+  }
+
+  private void writeReport(File report, CharSequence results) throws IOException {
+    File directory = report.getAbsoluteFile().getParentFile();
+    if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Could not create " + directory);
+    }
+    try (Writer out = new OutputStreamWriter(new FileOutputStream(report), "UTF-8")) {
+      out.write("{\n");
+      out.write("  \"schemaVersion\": " + SCHEMA_VERSION + ",\n");
+      out.write("  \"javaVersion\": \"" + System.getProperty("java.version") + "\",\n");
+      out.write("  \"vmName\": \"" + System.getProperty("java.vm.name") + "\",\n");
+      out.write("  \"iterations\": " + iterations + ",\n");
+      out.write("  \"allocationTracking\": " + (allocatedBytesMethod != null) + ",\n");
+      out.write("  \"results\": [\n");
+      out.write(results.toString());
+      out.write("\n  ]\n}\n");
+    }
+  }
+
+  private static String toJson(Stats stats) {
+    return "{\"meanNanos\": "
+        + stats.meanNanos
+        + ", \"p50Nanos\": "
+        + stats.p50Nanos
+        + ", \"p95Nanos\": "
+        + stats.p95Nanos
+        + ", \"allocatedBytesPerFrame\": "
+        + stats.allocatedBytesPerFrame
+        + "}";
+  }
+
+  /**
+   * Returns the size of the frames captured with a preset, matching the camcorder profiles the
+   * presets map to. The last preset uses the sensor size of a common 12 megapixel camera.
+   */
+  private static int[] getNominalSize(ResolutionPreset preset) {
+    switch (preset) {
+      case low:
+        return new int[] {320, 240};
+      case medium:
+        return new int[] {720, 480};
+      case high:
+        return new int[] {1280, 720};
+      case veryHigh:
+        return new int[] {1920, 1080};
+      case ultraHigh:
+        return new int[] {3840, 2160};
+      case max:
+      default:
+        return new int[] {4032, 3024};
+    }
+  }
+
+  // Unit tests are compiled against android.jar, which lacks java.lang.management, so the
+  // allocation counter of the JVM running the tests is looked up reflectively.
+  private void initAllocationTracking() {
+    try {
+      threadBean =
+          Class.forName("java.lang.management.ManagementFactory")
+              .getMethod("getThreadMXBean")
+              .invoke(null);
+      Class<?> beanClass = Class.forName("com.sun.management.ThreadMXBean");
+      if (beanClass.isInstance(threadBean)
+          && (Boolean) beanClass.getMethod("isThreadAllocatedMemoryEnabled").invoke(threadBean)) {
+        allocatedBytesMethod = beanClass.getMethod("getThreadAllocatedBytes", long.class);
+      }
+    } catch (ReflectiveOperationException e) {
+      allocatedBytesMethod = null;
+    }
+  }
+
+  /** Returns the bytes allocated by the current thread so far, or -1 if unknown. */
+  private long getAllocatedBytes() {
+    if (allocatedBytesMethod == null) {
+      return -1;
+    }
+    try {
+      return (Long) allocatedBytesMethod.invoke(threadBean, Thread.currentThread().getId());
+    } catch (ReflectiveOperationException e) {
+      return -1;
+    }
+  }
+
+  private long getAllocatedSince(long allocatedBefore) {
+    long allocatedAfter = getAllocatedBytes();
+    if (allocatedBefore < 0 || allocatedAfter < 0) {
+      return -1;
+    }
+    return allocatedAfter - allocatedBefore;
+  }
+}
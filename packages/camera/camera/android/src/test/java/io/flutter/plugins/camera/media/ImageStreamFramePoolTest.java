@@ -0,0 +1,162 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import io.flutter.plugin.common.EventChannel;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class ImageStreamFramePoolTest {
+  @Test(expected = IllegalArgumentException.class)
+  public void ctor_throws_for_empty_pool() {
+    new ImageStreamFramePool(0);
+  }
+
+  @Test
+  public void acquire_returns_null_when_pool_is_exhausted() {
+    ImageStreamFramePool pool = new ImageStreamFramePool(2);
+
+    ImageStreamFramePool.Frame first = pool.acquire();
+    ImageStreamFramePool.Frame second = pool.acquire();
+
+    assertNotNull(first);
+    assertNotNull(second);
+    assertNotSame(first, second);
+    assertNull(pool.acquire());
+    assertEquals(0, pool.getAvailableCount());
+  }
+
+  @Test
+  public void release_makes_frame_available_again() {
+    ImageStreamFramePool pool = new ImageStreamFramePool(1);
+    ImageStreamFramePool.Frame frame = pool.acquire();
+
+    pool.release(frame);
+
+    assertEquals(1, pool.getAvailableCount());
+    assertSame(frame, pool.acquire());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void setPlane_copies_bytes_and_metadata() {
+    ImageStreamFramePool.Frame frame = new ImageStreamFramePool(1).acquire();
+
+    frame.setImageInfo(640, 480, 35, 1);
+    frame.setPlane(0, ByteBuffer.wrap(new byte[] {1, 2, 3}), 640, 1);
+
+    Map<String, Object> imageBuffer = frame.getImageBuffer();
+    assertEquals(640, imageBuffer.get("width"));
+    assertEquals(480, imageBuffer.get("height"));
+    assertEquals(35, imageBuffer.get("format"));
+    List<Map<String, Object>> planes = (List<Map<String, Object>>) imageBuffer.get("planes");
+    assertEquals(1, planes.size());
+    assertEquals(640, planes.get(0).get("bytesPerRow"));
+    assertEquals(1, planes.get(0).get("bytesPerPixel"));
+    assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) planes.get(0).get("bytes"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void frame_reuses_containers_and_buffers_between_images() {
+    ImageStreamFramePool.Frame frame = new ImageStreamFramePool(1).acquire();
+
+    frame.setImageInfo(1920, 1080, 35, 1);
+    frame.setPlane(0, ByteBuffer.wrap(new byte[] {1, 2, 3}), 1920, 1);
+    Map<String, Object> imageBuffer = frame.getImageBuffer();
+    Object planes = imageBuffer.get("planes");
+    Object width = imageBuffer.get("width");
+    Map<String, Object> plane = ((List<Map<String, Object>>) planes).get(0);
+    Object bytes = plane.get("bytes");
+
+    frame.setImageInfo(1920, 1080, 35, 1);
+    frame.setPlane(0, ByteBuffer.wrap(new byte[] {4, 5, 6}), 1920, 1);
+
+    assertSame(imageBuffer, frame.getImageBuffer());
+    assertSame(planes, frame.getImageBuffer().get("planes"));
+    assertSame(width, frame.getImageBuffer().get("width"));
+    assertSame(plane, ((List<Map<String, Object>>) planes).get(0));
+    assertSame(bytes, plane.get("bytes"));
+    assertArrayEquals(new byte[] {4, 5, 6}, (byte[]) plane.get("bytes"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void setImageInfo_resizes_plane_list() {
+    ImageStreamFramePool.Frame frame = new ImageStreamFramePool(1).acquire();
+
+    frame.setImageInfo(640, 480, 35, 3);
+    assertEquals(3, ((List<Object>) frame.getImageBuffer().get("planes")).size());
+
+    frame.setImageInfo(640, 480, 256, 1);
+    assertEquals(1, ((List<Object>) frame.getImageBuffer().get("planes")).size());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void setPlane_reallocates_when_plane_size_changes() {
+    ImageStreamFramePool.Frame frame = new ImageStreamFramePool(1).acquire();
+
+    frame.setImageInfo(640, 480, 256, 1);
+    frame.setPlane(0, ByteBuffer.wrap(new byte[] {1, 2, 3}), 0, 0);
+    frame.setPlane(0, ByteBuffer.wrap(new byte[] {1, 2}), 0, 0);
+
+    Map<String, Object> plane =
+        ((List<Map<String, Object>>) frame.getImageBuffer().get("planes")).get(0);
+    assertArrayEquals(new byte[] {1, 2}, (byte[]) plane.get("bytes"));
+  }
+
+  @Test
+  public void run_sends_frame_to_sink_and_returns_it_to_the_pool() {
+    ImageStreamFramePool pool = new ImageStreamFramePool(1);
+    ImageStreamFramePool.Frame frame = pool.acquire();
+    RecordingEventSink sink = new RecordingEventSink();
+
+    frame.setSink(sink);
+    frame.run();
+
+    assertEquals(1, sink.events.size());
+    assertSame(frame.getImageBuffer(), sink.events.get(0));
+    assertEquals(1, pool.getAvailableCount());
+  }
+
+  @Test
+  public void release_clears_sink() {
+    ImageStreamFramePool pool = new ImageStreamFramePool(1);
+    ImageStreamFramePool.Frame frame = pool.acquire();
+    RecordingEventSink sink = new RecordingEventSink();
+
+    frame.setSink(sink);
+    frame.release();
+    pool.acquire().run();
+
+    assertEquals(0, sink.events.size());
+  }
+
+  private static class RecordingEventSink implements EventChannel.EventSink {
+    final List<Object> events = new ArrayList<>();
+
+    @Override
+    public void success(Object event) {
+      events.add(event);
+    }
+
+    @Override
+    public void error(String errorCode, String errorMessage, Object errorDetails) {}
+
+    @Override
+    public void endOfStream() {}
+  }
+}
@@ -0,0 +1,115 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import io.flutter.plugins.camera.media.ImageStreamThrottler.Decision;
+import io.flutter.plugins.camera.types.ImageStreamBackpressure;
+import org.junit.Test;
+
+public class ImageStreamThrottlerTest {
+  private static final long MS = 1000000L;
+
+  @Test(expected = IllegalArgumentException.class)
+  public void ctor_throws_for_negative_frame_rate() {
+    new ImageStreamThrottler(-1, ImageStreamBackpressure.none);
+  }
+
+  @Test
+  public void unlimited_emits_every_frame() {
+    ImageStreamThrottler throttler = ImageStreamThrottler.unlimited();
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals(Decision.emit, throttler.onFrameAvailable(i * MS));
+    }
+
+    assertEquals(10, throttler.getEmittedFrameCount());
+    assertEquals(0, throttler.getDroppedFrameCount());
+  }
+
+  @Test
+  public void maxFrameRate_halves_a_camera_running_at_twice_the_rate() {
+    ImageStreamThrottler throttler = new ImageStreamThrottler(15, ImageStreamBackpressure.none);
+
+    // 30 fps camera, with a timestamp slightly early every other frame.
+    for (int i = 0; i < 30; i++) {
+      long jitter = i % 2 == 0 ? -100000L : 0;
+      throttler.onFrameAvailable(i * 33333333L + jitter);
+    }
+
+    assertEquals(15, throttler.getEmittedFrameCount());
+    assertEquals(15, throttler.getRateLimitedFrameCount());
+  }
+
+  @Test
+  public void maxFrameRate_does_not_burst_after_a_stall() {
+    ImageStreamThrottler throttler = new ImageStreamThrottler(10, ImageStreamBackpressure.none);
+
+    assertEquals(Decision.emit, throttler.onFrameAvailable(0));
+    assertEquals(Decision.emit, throttler.onFrameAvailable(1000 * MS));
+    assertEquals(Decision.drop, throttler.onFrameAvailable(1010 * MS));
+    assertEquals(Decision.drop, throttler.onFrameAvailable(1030 * MS));
+  }
+
+  @Test
+  public void dropWhileInFlight_drops_until_acknowledged() {
+    ImageStreamThrottler throttler =
+        new ImageStreamThrottler(0, ImageStreamBackpressure.dropWhileInFlight);
+
+    assertEquals(Decision.emit, throttler.onFrameAvailable(0));
+    assertEquals(Decision.drop, throttler.onFrameAvailable(MS));
+    assertEquals(Decision.drop, throttler.onFrameAvailable(2 * MS));
+    assertFalse(throttler.onFrameAcknowledged());
+    assertEquals(Decision.emit, throttler.onFrameAvailable(3 * MS));
+
+    assertEquals(2, throttler.getBackpressureDroppedFrameCount());
+    assertEquals(2, throttler.getEmittedFrameCount());
+  }
+
+  @Test
+  public void keepLatest_holds_newest_frame_and_emits_it_on_ack() {
+    ImageStreamThrottler throttler =
+        new ImageStreamThrottler(0, ImageStreamBackpressure.keepLatest);
+
+    assertEquals(Decision.emit, throttler.onFrameAvailable(0));
+    assertEquals(Decision.hold, throttler.onFrameAvailable(MS));
+    assertEquals(Decision.hold, throttler.onFrameAvailable(2 * MS));
+
+    assertTrue(throttler.onFrameAcknowledged());
+    // The held frame is now in flight.
+    assertEquals(Decision.hold, throttler.onFrameAvailable(3 * MS));
+    assertTrue(throttler.onFrameAcknowledged());
+    assertFalse(throttler.onFrameAcknowledged());
+
+    assertEquals(3, throttler.getEmittedFrameCount());
+    assertEquals(1, throttler.getBackpressureDroppedFrameCount());
+  }
+
+  @Test
+  public void onFrameNotSent_releases_the_in_flight_frame() {
+    ImageStreamThrottler throttler =
+        new ImageStreamThrottler(0, ImageStreamBackpressure.dropWhileInFlight);
+
+    assertEquals(Decision.emit, throttler.onFrameAvailable(0));
+    throttler.onFrameNotSent();
+    assertEquals(Decision.emit, throttler.onFrameAvailable(MS));
+
+    assertEquals(1, throttler.getEmittedFrameCount());
+    assertEquals(0, throttler.getDroppedFrameCount());
+  }
+
+  @Test
+  public void onBufferExhausted_is_counted_as_dropped() {
+    ImageStreamThrottler throttler = ImageStreamThrottler.unlimited();
+
+    throttler.onBufferExhausted();
+
+    assertEquals(1, throttler.getBufferExhaustedFrameCount());
+    assertEquals(1, throttler.getDroppedFrameCount());
+  }
+}
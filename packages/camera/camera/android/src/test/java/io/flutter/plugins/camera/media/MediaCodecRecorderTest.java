@@ -0,0 +1,140 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.*;
+
+import android.media.CamcorderProfile;
+import android.media.MediaCodec;
+import android.media.MediaMuxer;
+import android.view.Surface;
+import io.flutter.plugins.camera.types.VideoCodec;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MediaCodecRecorderTest {
+  private MediaCodecRecorder.MediaCodecFactory mockFactory;
+  private MediaCodec mockEncoder;
+  private MediaMuxer mockMuxer;
+  private Surface mockSurface;
+
+  @Before
+  public void before() throws IOException {
+    mockFactory = mock(MediaCodecRecorder.MediaCodecFactory.class);
+    mockEncoder = mock(MediaCodec.class);
+    mockMuxer = mock(MediaMuxer.class);
+    mockSurface = mock(Surface.class);
+    when(mockFactory.makeEncoder(anyString())).thenReturn(mockEncoder);
+    when(mockFactory.makeMuxer(anyString())).thenReturn(mockMuxer);
+    when(mockEncoder.createInputSurface()).thenReturn(mockSurface);
+  }
+
+  @Test
+  public void prepare_Should_configure_encoder_and_muxer() throws IOException {
+    MediaCodecRecorder recorder =
+        new MediaCodecRecorder(getEmptyCamcorderProfile(), "mock_video_file_path", mockFactory)
+            .setVideoCodec(VideoCodec.hevc)
+            .setMediaOrientation(90);
+
+    recorder.prepare(null);
+
+    verify(mockFactory).makeEncoder(VideoCodec.hevc.getMimeType());
+    verify(mockEncoder).configure(any(), isNull(), isNull(), eq(MediaCodec.CONFIGURE_FLAG_ENCODE));
+    verify(mockFactory).makeMuxer("mock_video_file_path");
+    verify(mockMuxer).setOrientationHint(90);
+    assertEquals(mockSurface, recorder.getSurface());
+  }
+
+  @Test
+  public void prepare_Should_release_encoder_When_muxer_cannot_be_created() throws IOException {
+    when(mockFactory.makeMuxer(anyString())).thenThrow(new IOException("No space left"));
+    MediaCodecRecorder recorder =
+        new MediaCodecRecorder(getEmptyCamcorderProfile(), "mock_video_file_path", mockFactory);
+
+    try {
+      recorder.prepare(null);
+    } catch (IOException ignored) {
+    }
+
+    verify(mockEncoder).release();
+    verify(mockSurface).release();
+    assertNull(recorder.getSurface());
+  }
+
+  @Test
+  public void updateBitrate_Should_set_encoder_parameters() throws IOException {
+    MediaCodecRecorder recorder =
+        new MediaCodecRecorder(getEmptyCamcorderProfile(), "mock_video_file_path", mockFactory);
+    recorder.prepare(null);
+
+    recorder.updateBitrate(2000000);
+
+    verify(mockEncoder).setParameters(any());
+  }
+
+  @Test
+  public void release_Should_not_stop_muxer_When_it_was_never_started() throws IOException {
+    MediaCodecRecorder recorder =
+        new MediaCodecRecorder(getEmptyCamcorderProfile(), "mock_video_file_path", mockFactory);
+    recorder.prepare(null);
+
+    recorder.release();
+
+    verify(mockEncoder).release();
+    verify(mockMuxer, never()).stop();
+    verify(mockMuxer).release();
+  }
+
+  @Test
+  public void release_Should_stop_draining_before_releasing_encoder() throws IOException {
+    AtomicBoolean encoderReleased = new AtomicBoolean();
+    AtomicBoolean dequeuedAfterRelease = new AtomicBoolean();
+    doAnswer(
+            invocation -> {
+              encoderReleased.set(true);
+              return null;
+            })
+        .when(mockEncoder)
+        .release();
+    when(mockEncoder.dequeueOutputBuffer(any(), anyLong()))
+        .thenAnswer(
+            invocation -> {
+              if (encoderReleased.get()) {
+                dequeuedAfterRelease.set(true);
+              }
+              return MediaCodec.INFO_TRY_AGAIN_LATER;
+            });
+    MediaCodecRecorder recorder =
+        new MediaCodecRecorder(getEmptyCamcorderProfile(), "mock_video_file_path", mockFactory);
+    recorder.prepare(null);
+    recorder.start();
+
+    recorder.release();
+
+    verify(mockEncoder).release();
+    assertFalse(dequeuedAfterRelease.get());
+  }
+
+  private CamcorderProfile getEmptyCamcorderProfile() {
+    try {
+      Constructor<CamcorderProfile> constructor =
+          CamcorderProfile.class.getDeclaredConstructor(
+              int.class, int.class, int.class, int.class, int.class, int.class, int.class,
+              int.class, int.class, int.class, int.class, int.class);
+
+      constructor.setAccessible(true);
+      return constructor.newInstance(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+    } catch (Exception ignored) {
+    }
+
+    return null;
+  }
+}
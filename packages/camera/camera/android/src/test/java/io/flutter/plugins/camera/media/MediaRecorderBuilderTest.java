@@ -89,6 +89,21 @@ public class MediaRecorderBuilderTest {
     inOrder.verify(recorder).prepare();
   }
 
+  @Test
+  public void build_Should_not_set_input_surface_When_none_is_given() throws IOException {
+    MediaRecorderBuilder.MediaRecorderFactory mockFactory =
+        mock(MediaRecorderBuilder.MediaRecorderFactory.class);
+    MediaRecorder mockMediaRecorder = mock(MediaRecorder.class);
+    MediaRecorderBuilder builder =
+        new MediaRecorderBuilder(getEmptyCamcorderProfile(), "mock_video_file_path", mockFactory);
+
+    when(mockFactory.makeMediaRecorder()).thenReturn(mockMediaRecorder);
+
+    MediaRecorder recorder = builder.build();
+
+    verify(recorder, never()).setInputSurface(any());
+  }
+
   private CamcorderProfile getEmptyCamcorderProfile() {
     try {
       Constructor<CamcorderProfile> constructor =
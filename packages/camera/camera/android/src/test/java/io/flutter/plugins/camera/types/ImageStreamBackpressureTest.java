@@ -0,0 +1,36 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.types;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ImageStreamBackpressureTest {
+
+  @Test
+  public void getValueForString_returns_correct_values() {
+    assertEquals(
+        "Returns ImageStreamBackpressure.none for 'none'",
+        ImageStreamBackpressure.getValueForString("none"),
+        ImageStreamBackpressure.none);
+    assertEquals(
+        "Returns ImageStreamBackpressure.dropWhileInFlight for 'dropWhileInFlight'",
+        ImageStreamBackpressure.getValueForString("dropWhileInFlight"),
+        ImageStreamBackpressure.dropWhileInFlight);
+    assertEquals(
+        "Returns ImageStreamBackpressure.keepLatest for 'keepLatest'",
+        ImageStreamBackpressure.getValueForString("keepLatest"),
+        ImageStreamBackpressure.keepLatest);
+  }
+
+  @Test
+  public void getValueForString_returns_null_for_nonexistant_value() {
+    assertEquals(
+        "Returns null for 'nonexistant'",
+        ImageStreamBackpressure.getValueForString("nonexistant"),
+        null);
+  }
+}
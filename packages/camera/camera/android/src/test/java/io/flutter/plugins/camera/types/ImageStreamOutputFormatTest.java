@@ -0,0 +1,48 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.types;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ImageStreamOutputFormatTest {
+
+  @Test
+  public void getValueForString_returns_correct_values() {
+    assertEquals(
+        "Returns ImageStreamOutputFormat.yuv420 for 'yuv420'",
+        ImageStreamOutputFormat.getValueForString("yuv420"),
+        ImageStreamOutputFormat.yuv420);
+    assertEquals(
+        "Returns ImageStreamOutputFormat.y8 for 'y8'",
+        ImageStreamOutputFormat.getValueForString("y8"),
+        ImageStreamOutputFormat.y8);
+    assertEquals(
+        "Returns ImageStreamOutputFormat.nv21 for 'nv21'",
+        ImageStreamOutputFormat.getValueForString("nv21"),
+        ImageStreamOutputFormat.nv21);
+    assertEquals(
+        "Returns ImageStreamOutputFormat.rgba8888 for 'rgba8888'",
+        ImageStreamOutputFormat.getValueForString("rgba8888"),
+        ImageStreamOutputFormat.rgba8888);
+  }
+
+  @Test
+  public void getValueForString_returns_null_for_nonexistant_value() {
+    assertEquals(
+        "Returns null for 'nonexistant'",
+        ImageStreamOutputFormat.getValueForString("nonexistant"),
+        null);
+  }
+
+  @Test
+  public void toString_returns_correct_value() {
+    assertEquals("yuv420", ImageStreamOutputFormat.yuv420.toString());
+    assertEquals("y8", ImageStreamOutputFormat.y8.toString());
+    assertEquals("nv21", ImageStreamOutputFormat.nv21.toString());
+    assertEquals("rgba8888", ImageStreamOutputFormat.rgba8888.toString());
+  }
+}
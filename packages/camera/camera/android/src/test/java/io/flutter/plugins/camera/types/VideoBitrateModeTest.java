@@ -0,0 +1,30 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.types;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class VideoBitrateModeTest {
+
+  @Test
+  public void getValueForString_returns_correct_values() {
+    assertEquals(
+        "Returns VideoBitrateMode.cbr for 'cbr'",
+        VideoBitrateMode.getValueForString("cbr"),
+        VideoBitrateMode.cbr);
+    assertEquals(
+        "Returns VideoBitrateMode.vbr for 'vbr'",
+        VideoBitrateMode.getValueForString("vbr"),
+        VideoBitrateMode.vbr);
+  }
+
+  @Test
+  public void getValueForString_returns_null_for_nonexistant_value() {
+    assertEquals(
+        "Returns null for 'nonexistant'", VideoBitrateMode.getValueForString("nonexistant"), null);
+  }
+}
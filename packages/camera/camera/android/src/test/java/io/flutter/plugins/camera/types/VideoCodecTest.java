@@ -0,0 +1,30 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.types;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class VideoCodecTest {
+
+  @Test
+  public void getValueForString_returns_correct_values() {
+    assertEquals(
+        "Returns VideoCodec.h264 for 'h264'",
+        VideoCodec.getValueForString("h264"),
+        VideoCodec.h264);
+    assertEquals(
+        "Returns VideoCodec.hevc for 'hevc'",
+        VideoCodec.getValueForString("hevc"),
+        VideoCodec.hevc);
+  }
+
+  @Test
+  public void getValueForString_returns_null_for_nonexistant_value() {
+    assertEquals(
+        "Returns null for 'nonexistant'", VideoCodec.getValueForString("nonexistant"), null);
+  }
+}
@@ -0,0 +1,95 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A least-recently-used cache whose entries are weighed in bytes.
+ *
+ * <p>Once the total size of the entries exceeds the budget, the least recently used entries are
+ * evicted. All methods are synchronized, so the cache may be shared between threads.
+ */
+class BoundedLruCache<K, V> {
+  private static class Entry<V> {
+    final V value;
+    final long size;
+
+    Entry(V value, long size) {
+      this.value = value;
+      this.size = size;
+    }
+  }
+
+  private final Map<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final long maxSize;
+  private long size;
+
+  /** @param maxSize The budget, in bytes, of all entries together. */
+  BoundedLruCache(long maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be positive");
+    }
+    this.maxSize = maxSize;
+  }
+
+  /** Returns the value cached for {@code key}, marking it as most recently used, or null. */
+  synchronized V get(K key) {
+    final Entry<V> entry = entries.get(key);
+    return entry == null ? null : entry.value;
+  }
+
+  /**
+   * Caches {@code value} for {@code key}, replacing any previous value.
+   *
+   * <p>A value larger than the whole budget is not cached.
+   *
+   * @param size The number of bytes the value keeps in memory.
+   */
+  synchronized void put(K key, V value, long size) {
+    remove(key);
+    if (size > maxSize) {
+      return;
+    }
+    entries.put(key, new Entry<>(value, size));
+    this.size += size;
+    trimToSize();
+  }
+
+  /** Removes the value cached for {@code key}, if any. */
+  synchronized void remove(K key) {
+    final Entry<V> entry = entries.remove(key);
+    if (entry != null) {
+      size -= entry.size;
+    }
+  }
+
+  synchronized void clear() {
+    entries.clear();
+    size = 0;
+  }
+
+  /** Returns a copy of the cached keys, from least to most recently used. */
+  synchronized List<K> getKeys() {
+    return new ArrayList<>(entries.keySet());
+  }
+
+  /** Returns the total size, in bytes, of the cached values. */
+  synchronized long size() {
+    return size;
+  }
+
+  private void trimToSize() {
+    final Iterator<Entry<V>> iterator = entries.values().iterator();
+    while (size > maxSize && iterator.hasNext()) {
+      size -= iterator.next().size;
+      iterator.remove();
+    }
+  }
+}
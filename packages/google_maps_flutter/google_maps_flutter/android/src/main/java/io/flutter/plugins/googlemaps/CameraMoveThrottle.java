@@ -0,0 +1,92 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.CameraPosition;
+
+/**
+ * Decides which camera moves are sent to Dart while the camera position is tracked.
+ *
+ * <p>A move is sent when enough time passed since the last one sent, and the camera changed by at
+ * least one of the thresholds that are set. Thresholds of 0 are ignored, and every move passes
+ * when none is set. The last move skipped in between is sent by {@link
+ * #flush(CameraPosition)} when the camera stops, so Dart always ends up with the final position.
+ */
+class CameraMoveThrottle {
+  private final long minIntervalMillis;
+  private final double minTargetChange;
+  private final double minZoomChange;
+  private final double minBearingChange;
+  private CameraPosition lastSentPosition;
+  private long lastSentMillis;
+  private boolean skippedMove;
+
+  /**
+   * @param maxRate The maximum number of moves sent per second, or 0 for no limit.
+   * @param minTargetChange The minimum distance, in logical pixels, the target must move by.
+   * @param minZoomChange The minimum change of zoom level.
+   * @param minBearingChange The minimum change, in degrees, of the bearing or tilt.
+   */
+  CameraMoveThrottle(
+      double maxRate, double minTargetChange, double minZoomChange, double minBearingChange) {
+    this.minIntervalMillis = maxRate > 0 ? Math.round(1000 / maxRate) : 0;
+    this.minTargetChange = minTargetChange;
+    this.minZoomChange = minZoomChange;
+    this.minBearingChange = minBearingChange;
+  }
+
+  /** Returns whether the move to {@code position} should be sent, remembering it if so. */
+  boolean onMove(CameraPosition position, long nowMillis) {
+    if (lastSentPosition != null
+        && (nowMillis - lastSentMillis < minIntervalMillis || !hasChanged(position))) {
+      skippedMove = true;
+      return false;
+    }
+    lastSentPosition = position;
+    lastSentMillis = nowMillis;
+    skippedMove = false;
+    return true;
+  }
+
+  /**
+   * Returns whether the final {@code position} of the camera should still be sent, because the
+   * last move was skipped, and starts over for the next camera move.
+   */
+  boolean flush(CameraPosition position) {
+    final boolean send = skippedMove && !position.equals(lastSentPosition);
+    lastSentPosition = null;
+    skippedMove = false;
+    return send;
+  }
+
+  private boolean hasChanged(CameraPosition position) {
+    if (minZoomChange <= 0 && minBearingChange <= 0 && minTargetChange <= 0) {
+      return true;
+    }
+    return (minZoomChange > 0
+            && Math.abs(position.zoom - lastSentPosition.zoom) >= minZoomChange)
+        || (minBearingChange > 0
+            && (getAngle(position.bearing, lastSentPosition.bearing) >= minBearingChange
+                || Math.abs(position.tilt - lastSentPosition.tilt) >= minBearingChange))
+        || (minTargetChange > 0
+            && getTargetDistance(position, lastSentPosition) >= minTargetChange);
+  }
+
+  private static double getAngle(float bearing, float otherBearing) {
+    final double angle = Math.abs(bearing - otherBearing) % 360;
+    return Math.min(angle, 360 - angle);
+  }
+
+  /** Returns the distance between the targets, in logical pixels at the zoom of the camera. */
+  private static double getTargetDistance(CameraPosition position, CameraPosition other) {
+    final double worldSize = WebMercator.TILE_SIZE * Math.pow(2, position.zoom);
+    double dx = Math.abs(position.target.longitude - other.target.longitude) / 360;
+    dx = Math.min(dx, 1 - dx);
+    final double dy =
+        WebMercator.toWorldY(position.target.latitude)
+            - WebMercator.toWorldY(other.target.latitude);
+    return Math.hypot(dx, dy) * worldSize;
+  }
+}
@@ -5,6 +5,7 @@
 package io.flutter.plugins.googlemaps;
 
 import com.google.android.gms.maps.model.Circle;
+import com.google.android.gms.maps.model.CircleOptions;
 import com.google.android.gms.maps.model.LatLng;
 
 /** Controller of a single Circle on the map. */
@@ -25,6 +26,20 @@ class CircleController implements CircleOptionsSink {
     circle.remove();
   }
 
+  /** Replaces every option of the circle with those of {@code circleBuilder}. */
+  void update(CircleBuilder circleBuilder) {
+    final CircleOptions options = circleBuilder.build();
+    setConsumeTapEvents(circleBuilder.consumeTapEvents());
+    circle.setStrokeColor(options.getStrokeColor());
+    circle.setFillColor(options.getFillColor());
+    circle.setCenter(options.getCenter());
+    circle.setRadius(options.getRadius());
+    circle.setVisible(options.isVisible());
+    // The stroke width of the options is already scaled by the density.
+    circle.setStrokeWidth(options.getStrokeWidth());
+    circle.setZIndex(options.getZIndex());
+  }
+
   @Override
   public void setConsumeTapEvents(boolean consumeTapEvents) {
     this.consumeTapEvents = consumeTapEvents;
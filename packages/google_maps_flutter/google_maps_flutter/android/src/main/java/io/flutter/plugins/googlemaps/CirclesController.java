@@ -12,17 +12,20 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-class CirclesController {
+class CirclesController implements ViewportCuller.Listener {
 
   private final Map<String, CircleController> circleIdToController;
   private final Map<String, String> googleMapsCircleIdToDartCircleId;
+  private final Map<String, CircleBuilder> circleIdToBuilder;
   private final MethodChannel methodChannel;
   private final float density;
   private GoogleMap googleMap;
+  private ViewportCuller viewportCuller;
 
   CirclesController(MethodChannel methodChannel, float density) {
     this.circleIdToController = new HashMap<>();
     this.googleMapsCircleIdToDartCircleId = new HashMap<>();
+    this.circleIdToBuilder = new HashMap<>();
     this.methodChannel = methodChannel;
     this.density = density;
   }
@@ -31,6 +34,39 @@ class CirclesController {
     this.googleMap = googleMap;
   }
 
+  /**
+   * Enables or disables viewport culling, which only keeps the circles within the culling region
+   * on the map. Circles added while culling is disabled are never culled.
+   */
+  void setCullingEnabled(boolean cullingEnabled) {
+    if (cullingEnabled == (viewportCuller != null)) {
+      return;
+    }
+    if (cullingEnabled) {
+      viewportCuller = new ViewportCuller(this);
+    } else {
+      viewportCuller.showAll();
+      viewportCuller = null;
+      circleIdToBuilder.clear();
+    }
+  }
+
+  void setCullingRegion(List<SpatialIndex.Bounds> region) {
+    if (viewportCuller != null) {
+      viewportCuller.setRegion(region);
+    }
+  }
+
+  @Override
+  public void onEnterRegion(String circleId) {
+    showCircle(circleId, circleIdToBuilder.get(circleId));
+  }
+
+  @Override
+  public void onLeaveRegion(String circleId) {
+    removeCircle(circleId);
+  }
+
   void addCircles(List<Object> circlesToAdd) {
     if (circlesToAdd != null) {
       for (Object circleToAdd : circlesToAdd) {
@@ -39,15 +75,45 @@ class CirclesController {
     }
   }
 
-  void changeCircles(List<Object> circlesToChange) {
-    if (circlesToChange != null) {
-      for (Object circleToChange : circlesToChange) {
-        changeCircle(circleToChange);
+  /**
+   * Parses the circles to add, on a background thread, into {@code operations} that add
+   * them on the main thread.
+   */
+  void prepareAddCircles(List<Object> circlesToAdd, List<Runnable> operations) {
+    if (circlesToAdd == null) {
+      return;
+    }
+    for (Object circleToAdd : circlesToAdd) {
+      if (circleToAdd == null) {
+        continue;
       }
+      final CircleBuilder circleBuilder = new CircleBuilder(density);
+      final String circleId = Convert.interpretCircleOptions(circleToAdd, circleBuilder);
+      operations.add(() -> addCircle(circleId, circleBuilder));
     }
   }
 
-  void removeCircles(List<Object> circleIdsToRemove) {
+  /**
+   * Parses the changed circles, on a background thread, into {@code operations} that
+   * change them on the main thread.
+   */
+  void prepareChangeCircles(List<Object> circlesToChange, List<Runnable> operations) {
+    if (circlesToChange == null) {
+      return;
+    }
+    for (Object circleToChange : circlesToChange) {
+      if (circleToChange == null) {
+        continue;
+      }
+      // Changes hold every option of the circle, so they replace all of its options.
+      final CircleBuilder circleBuilder = new CircleBuilder(density);
+      final String circleId = Convert.interpretCircleOptions(circleToChange, circleBuilder);
+      operations.add(() -> changeCircle(circleId, circleBuilder));
+    }
+  }
+
+  /** Adds {@code operations} that remove circles on the main thread. */
+  void prepareRemoveCircles(List<Object> circleIdsToRemove, List<Runnable> operations) {
     if (circleIdsToRemove == null) {
       return;
     }
@@ -55,12 +121,25 @@ class CirclesController {
       if (rawCircleId == null) {
         continue;
       }
-      String circleId = (String) rawCircleId;
-      final CircleController circleController = circleIdToController.remove(circleId);
-      if (circleController != null) {
-        circleController.remove();
-        googleMapsCircleIdToDartCircleId.remove(circleController.getGoogleMapsCircleId());
-      }
+      final String circleId = (String) rawCircleId;
+      operations.add(() -> deleteCircle(circleId));
+    }
+  }
+
+  /** Removes a circle from the map, and forgets the options kept for it while culling. */
+  private void deleteCircle(String circleId) {
+    removeCircle(circleId);
+    circleIdToBuilder.remove(circleId);
+    if (viewportCuller != null) {
+      viewportCuller.remove(circleId);
+    }
+  }
+
+  private void removeCircle(String circleId) {
+    final CircleController circleController = circleIdToController.remove(circleId);
+    if (circleController != null) {
+      circleController.remove();
+      googleMapsCircleIdToDartCircleId.remove(circleController.getGoogleMapsCircleId());
     }
   }
 
@@ -83,31 +162,46 @@ class CirclesController {
     }
     CircleBuilder circleBuilder = new CircleBuilder(density);
     String circleId = Convert.interpretCircleOptions(circle, circleBuilder);
-    CircleOptions options = circleBuilder.build();
-    addCircle(circleId, options, circleBuilder.consumeTapEvents());
+    addCircle(circleId, circleBuilder);
   }
 
-  private void addCircle(String circleId, CircleOptions circleOptions, boolean consumeTapEvents) {
-    final Circle circle = googleMap.addCircle(circleOptions);
-    CircleController controller = new CircleController(circle, consumeTapEvents, density);
+  /**
+   * Adds a circle to the map, or to the culler, which shows it once it is in the culling
+   * region.
+   */
+  private void addCircle(String circleId, CircleBuilder circleBuilder) {
+    if (viewportCuller != null) {
+      circleIdToBuilder.put(circleId, circleBuilder);
+      viewportCuller.put(circleId, getBounds(circleBuilder));
+      return;
+    }
+    showCircle(circleId, circleBuilder);
+  }
+
+  private void showCircle(String circleId, CircleBuilder circleBuilder) {
+    final Circle circle = googleMap.addCircle(circleBuilder.build());
+    CircleController controller =
+        new CircleController(circle, circleBuilder.consumeTapEvents(), density);
     circleIdToController.put(circleId, controller);
     googleMapsCircleIdToDartCircleId.put(circle.getId(), circleId);
   }
 
-  private void changeCircle(Object circle) {
-    if (circle == null) {
-      return;
-    }
-    String circleId = getCircleId(circle);
+  private void changeCircle(String circleId, CircleBuilder circleBuilder) {
     CircleController circleController = circleIdToController.get(circleId);
     if (circleController != null) {
-      Convert.interpretCircleOptions(circle, circleController);
+      circleController.update(circleBuilder);
+    }
+    if (viewportCuller != null && circleIdToBuilder.containsKey(circleId)) {
+      circleIdToBuilder.put(circleId, circleBuilder);
+      viewportCuller.put(circleId, getBounds(circleBuilder));
     }
   }
 
-  @SuppressWarnings("unchecked")
-  private static String getCircleId(Object circle) {
-    Map<String, Object> circleMap = (Map<String, Object>) circle;
-    return (String) circleMap.get("circleId");
+  private static SpatialIndex.Bounds getBounds(CircleBuilder circleBuilder) {
+    final CircleOptions circleOptions = circleBuilder.build();
+    if (circleOptions.getCenter() == null) {
+      return null;
+    }
+    return SpatialIndex.Bounds.ofCircle(circleOptions.getCenter(), circleOptions.getRadius());
   }
 }
@@ -34,10 +34,51 @@ import java.util.Map;
 /** Conversions between JSON-like values and GoogleMaps data types. */
 class Convert {
 
+  // Asset descriptors hold no bitmap until the map draws them, so they are weighed with a nominal
+  // size that keeps the number of cached asset lookups bounded.
+  private static final int ASSET_DESCRIPTOR_SIZE = 1024;
+
+  // Decoded icons shared by every map, keyed by asset lookup key or by the bytes of the image.
+  private static final BoundedLruCache<Object, BitmapDescriptor> bitmapDescriptorCache =
+      new BoundedLruCache<>(Runtime.getRuntime().maxMemory() / 16);
+
+  /** Bytes of an encoded image, compared by content when looking up a cached icon. */
+  private static final class ImageBytesKey {
+    private final byte[] bytes;
+    private final int hashCode;
+
+    ImageBytesKey(byte[] bytes) {
+      this.bytes = bytes;
+      this.hashCode = Arrays.hashCode(bytes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof ImageBytesKey && Arrays.equals(bytes, ((ImageBytesKey) o).bytes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private static BitmapDescriptor toBitmapDescriptor(Object o) {
+    return toBitmapDescriptor(o, null);
+  }
+
+  /**
+   * Interprets a bitmap descriptor, reusing the cached descriptor of an asset or of image bytes
+   * that were interpreted before.
+   *
+   * @param registeredIcons Icons registered by id, resolving {@code ["registered", iconId]}, or
+   *     null if registered icons cannot be used.
+   */
   // TODO(hamdikahloun): FlutterMain has been deprecated and should be replaced with FlutterLoader
   //  when it's available in Stable channel: https://github.com/flutter/flutter/issues/70923.
   @SuppressWarnings("deprecation")
-  private static BitmapDescriptor toBitmapDescriptor(Object o) {
+  private static BitmapDescriptor toBitmapDescriptor(
+      Object o, Map<String, BitmapDescriptor> registeredIcons) {
     final List<?> data = toList(o);
     switch (toString(data.get(0))) {
       case "defaultMarker":
@@ -48,32 +89,54 @@ class Convert {
         }
       case "fromAsset":
         if (data.size() == 2) {
-          return BitmapDescriptorFactory.fromAsset(
-              FlutterMain.getLookupKeyForAsset(toString(data.get(1))));
+          return getBitmapFromAsset(FlutterMain.getLookupKeyForAsset(toString(data.get(1))));
         } else {
-          return BitmapDescriptorFactory.fromAsset(
+          return getBitmapFromAsset(
               FlutterMain.getLookupKeyForAsset(toString(data.get(1)), toString(data.get(2))));
         }
       case "fromAssetImage":
         if (data.size() == 3) {
-          return BitmapDescriptorFactory.fromAsset(
-              FlutterMain.getLookupKeyForAsset(toString(data.get(1))));
+          return getBitmapFromAsset(FlutterMain.getLookupKeyForAsset(toString(data.get(1))));
         } else {
           throw new IllegalArgumentException(
               "'fromAssetImage' Expected exactly 3 arguments, got: " + data.size());
         }
       case "fromBytes":
         return getBitmapFromBytes(data);
+      case "registered":
+        final BitmapDescriptor registeredIcon =
+            registeredIcons == null ? null : registeredIcons.get(toString(data.get(1)));
+        if (registeredIcon == null) {
+          throw new IllegalArgumentException("No icon registered as " + data.get(1));
+        }
+        return registeredIcon;
       default:
         throw new IllegalArgumentException("Cannot interpret " + o + " as BitmapDescriptor");
     }
   }
 
+  private static BitmapDescriptor getBitmapFromAsset(String assetKey) {
+    BitmapDescriptor descriptor = bitmapDescriptorCache.get(assetKey);
+    if (descriptor == null) {
+      descriptor = BitmapDescriptorFactory.fromAsset(assetKey);
+      bitmapDescriptorCache.put(assetKey, descriptor, ASSET_DESCRIPTOR_SIZE);
+    }
+    return descriptor;
+  }
+
   private static BitmapDescriptor getBitmapFromBytes(List<?> data) {
     if (data.size() == 2) {
+      final ImageBytesKey key = new ImageBytesKey((byte[]) data.get(1));
+      BitmapDescriptor descriptor = bitmapDescriptorCache.get(key);
+      if (descriptor != null) {
+        return descriptor;
+      }
       try {
         Bitmap bitmap = toBitmap(data.get(1));
-        return BitmapDescriptorFactory.fromBitmap(bitmap);
+        descriptor = BitmapDescriptorFactory.fromBitmap(bitmap);
+        bitmapDescriptorCache.put(
+            key, descriptor, bitmap.getByteCount() + ((byte[]) data.get(1)).length);
+        return descriptor;
       } catch (Exception e) {
         throw new IllegalArgumentException("Unable to interpret bytes as a valid image.", e);
       }
@@ -98,6 +161,19 @@ class Convert {
     return builder.build();
   }
 
+  /** Returns the throttle of camera moves, or null if there are no limits. */
+  static CameraMoveThrottle toCameraMoveThrottle(Object o) {
+    final Map<?, ?> data = toMap(o);
+    final double maxRate = toDoubleOrZero(data.get("maxRate"));
+    final double minTargetChange = toDoubleOrZero(data.get("minTargetChange"));
+    final double minZoomChange = toDoubleOrZero(data.get("minZoomChange"));
+    final double minBearingChange = toDoubleOrZero(data.get("minBearingChange"));
+    if (maxRate == 0 && minTargetChange == 0 && minZoomChange == 0 && minBearingChange == 0) {
+      return null;
+    }
+    return new CameraMoveThrottle(maxRate, minTargetChange, minZoomChange, minBearingChange);
+  }
+
   static CameraUpdate toCameraUpdate(Object o, float density) {
     final List<?> data = toList(o);
     switch (toString(data.get(0))) {
@@ -135,6 +211,10 @@ class Convert {
     return ((Number) o).doubleValue();
   }
 
+  private static double toDoubleOrZero(Object o) {
+    return o == null ? 0 : toDouble(o);
+  }
+
   private static float toFloat(Object o) {
     return ((Number) o).floatValue();
   }
@@ -344,6 +424,18 @@ class Convert {
     if (trackCameraPosition != null) {
       sink.setTrackCameraPosition(toBoolean(trackCameraPosition));
     }
+    final Object cameraMoveThrottle = data.get("cameraMoveThrottle");
+    if (cameraMoveThrottle != null) {
+      sink.setCameraMoveThrottle(toCameraMoveThrottle(cameraMoveThrottle));
+    }
+    final Object markerClusterCellSize = data.get("markerClusterCellSize");
+    if (markerClusterCellSize != null) {
+      sink.setMarkerClusterCellSize(toFloat(markerClusterCellSize));
+    }
+    final Object viewportCullingEnabled = data.get("viewportCullingEnabled");
+    if (viewportCullingEnabled != null) {
+      sink.setViewportCullingEnabled(toBoolean(viewportCullingEnabled));
+    }
     final Object zoomGesturesEnabled = data.get("zoomGesturesEnabled");
     if (zoomGesturesEnabled != null) {
       sink.setZoomGesturesEnabled(toBoolean(zoomGesturesEnabled));
@@ -378,8 +470,25 @@ class Convert {
     }
   }
 
-  /** Returns the dartMarkerId of the interpreted marker. */
-  static String interpretMarkerOptions(Object o, MarkerOptionsSink sink) {
+  /**
+   * Interprets a map of icons to register, keyed by icon id.
+   *
+   * @param registeredIcons Icons registered so far, which the new icons are added to.
+   */
+  static void interpretIcons(Object o, Map<String, BitmapDescriptor> registeredIcons) {
+    for (Map.Entry<?, ?> icon : toMap(o).entrySet()) {
+      registeredIcons.put(
+          toString(icon.getKey()), toBitmapDescriptor(icon.getValue(), registeredIcons));
+    }
+  }
+
+  /**
+   * Returns the dartMarkerId of the interpreted marker.
+   *
+   * @param registeredIcons Icons the marker's icon may refer to by id.
+   */
+  static String interpretMarkerOptions(
+      Object o, MarkerOptionsSink sink, Map<String, BitmapDescriptor> registeredIcons) {
     final Map<?, ?> data = toMap(o);
     final Object alpha = data.get("alpha");
     if (alpha != null) {
@@ -404,7 +513,7 @@ class Convert {
     }
     final Object icon = data.get("icon");
     if (icon != null) {
-      sink.setIcon(toBitmapDescriptor(icon));
+      sink.setIcon(toBitmapDescriptor(icon, registeredIcons));
     }
 
     final Object infoWindow = data.get("infoWindow");
@@ -435,6 +544,37 @@ class Convert {
     }
   }
 
+  /**
+   * Decodes a batch of markers sent as parallel typed arrays.
+   *
+   * <p>The batch is a map holding the {@code markerIds} list, the {@code positions} Float64List of
+   * latitude and longitude pairs, and optionally the {@code icons} list of bitmap descriptors with
+   * the {@code iconIndices} Int32List referring to them, and the {@code rotations} and {@code
+   * zIndices} Float64Lists.
+   *
+   * @param registeredIcons Icons the batch's icons may refer to by id.
+   */
+  static PackedMarkers toPackedMarkers(
+      Object o, Map<String, BitmapDescriptor> registeredIcons) {
+    final Map<?, ?> data = toMap(o);
+    BitmapDescriptor[] icons = null;
+    final Object iconData = data.get("icons");
+    if (iconData != null) {
+      final List<?> iconList = toList(iconData);
+      icons = new BitmapDescriptor[iconList.size()];
+      for (int i = 0; i < icons.length; i++) {
+        icons[i] = toBitmapDescriptor(iconList.get(i), registeredIcons);
+      }
+    }
+    return new PackedMarkers(
+        toList(data.get("markerIds")),
+        (double[]) data.get("positions"),
+        icons,
+        (int[]) data.get("iconIndices"),
+        (double[]) data.get("rotations"),
+        (double[]) data.get("zIndices"));
+  }
+
   private static void interpretInfoWindowOptions(
       MarkerOptionsSink sink, Map<String, Object> infoWindow) {
     String title = (String) infoWindow.get("title");
@@ -480,6 +620,11 @@ class Convert {
     if (zIndex != null) {
       sink.setZIndex(toFloat(zIndex));
     }
+    // Read before the points, since they are simplified as soon as they are set.
+    final Object simplify = data.get("simplify");
+    if (simplify != null) {
+      sink.setSimplify(toBoolean(simplify));
+    }
     final Object points = data.get("points");
     if (points != null) {
       sink.setPoints(toPoints(points));
@@ -534,6 +679,11 @@ class Convert {
     if (zIndex != null) {
       sink.setZIndex(toFloat(zIndex));
     }
+    // Read before the points, since they are simplified as soon as they are set.
+    final Object simplify = data.get("simplify");
+    if (simplify != null) {
+      sink.setSimplify(toBoolean(simplify));
+    }
     final Object points = data.get("points");
     if (points != null) {
       sink.setPoints(toPoints(points));
@@ -592,13 +742,33 @@ class Convert {
     }
   }
 
+  /**
+   * Converts points sent either as a list of {@code [latitude, longitude]} lists, or packed as a
+   * {@code Float64List} of alternating latitudes and longitudes, which avoids boxing every
+   * coordinate.
+   */
   private static List<LatLng> toPoints(Object o) {
+    if (o instanceof double[]) {
+      return toPoints((double[]) o);
+    }
     final List<?> data = toList(o);
     final List<LatLng> points = new ArrayList<>(data.size());
 
     for (Object rawPoint : data) {
       final List<?> point = toList(rawPoint);
-      points.add(new LatLng(toFloat(point.get(0)), toFloat(point.get(1))));
+      points.add(new LatLng(toDouble(point.get(0)), toDouble(point.get(1))));
+    }
+    return points;
+  }
+
+  private static List<LatLng> toPoints(double[] coordinates) {
+    if (coordinates.length % 2 != 0) {
+      throw new IllegalArgumentException(
+          "Packed points must hold pairs of coordinates, got " + coordinates.length);
+    }
+    final List<LatLng> points = new ArrayList<>(coordinates.length / 2);
+    for (int i = 0; i < coordinates.length; i += 2) {
+      points.add(new LatLng(coordinates[i], coordinates[i + 1]));
     }
     return points;
   }
@@ -16,6 +16,9 @@ import java.util.Map;
 class GoogleMapBuilder implements GoogleMapOptionsSink {
   private final GoogleMapOptions options = new GoogleMapOptions();
   private boolean trackCameraPosition = false;
+  private CameraMoveThrottle cameraMoveThrottle;
+  private float markerClusterCellSize = 0;
+  private boolean viewportCullingEnabled = false;
   private boolean myLocationEnabled = false;
   private boolean myLocationButtonEnabled = false;
   private boolean indoorEnabled = true;
@@ -42,6 +45,9 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
     controller.setTrafficEnabled(trafficEnabled);
     controller.setBuildingsEnabled(buildingsEnabled);
     controller.setTrackCameraPosition(trackCameraPosition);
+    controller.setCameraMoveThrottle(cameraMoveThrottle);
+    controller.setMarkerClusterCellSize(markerClusterCellSize);
+    controller.setViewportCullingEnabled(viewportCullingEnabled);
     controller.setInitialMarkers(initialMarkers);
     controller.setInitialPolygons(initialPolygons);
     controller.setInitialPolylines(initialPolylines);
@@ -95,6 +101,21 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
     this.trackCameraPosition = trackCameraPosition;
   }
 
+  @Override
+  public void setCameraMoveThrottle(CameraMoveThrottle cameraMoveThrottle) {
+    this.cameraMoveThrottle = cameraMoveThrottle;
+  }
+
+  @Override
+  public void setMarkerClusterCellSize(float markerClusterCellSize) {
+    this.markerClusterCellSize = markerClusterCellSize;
+  }
+
+  @Override
+  public void setViewportCullingEnabled(boolean viewportCullingEnabled) {
+    this.viewportCullingEnabled = viewportCullingEnabled;
+  }
+
   @Override
   public void setRotateGesturesEnabled(boolean rotateGesturesEnabled) {
     options.rotateGesturesEnabled(rotateGesturesEnabled);
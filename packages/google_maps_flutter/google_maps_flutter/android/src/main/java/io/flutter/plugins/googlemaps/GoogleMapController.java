@@ -11,6 +11,7 @@ import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
 import android.graphics.Point;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.View;
 import androidx.annotation.NonNull;
@@ -38,6 +39,7 @@ import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.platform.PlatformView;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -55,12 +57,16 @@ final class GoogleMapController
         PlatformView {
 
   private static final String TAG = "GoogleMapController";
+  private static final double CULLING_MARGIN = 0.5;
+  private static final String TILE_CACHE_DIRECTORY = "google_maps_flutter_tiles/";
   private final int id;
   private final MethodChannel methodChannel;
   private final GoogleMapOptions options;
   @Nullable private MapView mapView;
   private GoogleMap googleMap;
   private boolean trackCameraPosition = false;
+  @Nullable private CameraMoveThrottle cameraMoveThrottle;
+  private boolean viewportCullingEnabled = false;
   private boolean myLocationEnabled = false;
   private boolean myLocationButtonEnabled = false;
   private boolean zoomControlsEnabled = true;
@@ -77,6 +83,7 @@ final class GoogleMapController
   private final PolylinesController polylinesController;
   private final CirclesController circlesController;
   private final TileOverlaysController tileOverlaysController;
+  private final ObjectUpdateQueue objectUpdateQueue = new ObjectUpdateQueue();
   private List<Object> initialMarkers;
   private List<Object> initialPolygons;
   private List<Object> initialPolylines;
@@ -97,11 +104,14 @@ final class GoogleMapController
     methodChannel = new MethodChannel(binaryMessenger, "plugins.flutter.io/google_maps_" + id);
     methodChannel.setMethodCallHandler(this);
     this.lifecycleProvider = lifecycleProvider;
-    this.markersController = new MarkersController(methodChannel);
+    this.markersController = new MarkersController(methodChannel, density);
     this.polygonsController = new PolygonsController(methodChannel, density);
     this.polylinesController = new PolylinesController(methodChannel, density);
     this.circlesController = new CirclesController(methodChannel, density);
-    this.tileOverlaysController = new TileOverlaysController(methodChannel);
+    this.tileOverlaysController =
+        new TileOverlaysController(
+            methodChannel,
+            new TileCache(new File(context.getCacheDir(), TILE_CACHE_DIRECTORY + id)));
   }
 
   @Override
@@ -144,6 +154,8 @@ final class GoogleMapController
     polylinesController.setGoogleMap(googleMap);
     circlesController.setGoogleMap(googleMap);
     tileOverlaysController.setGoogleMap(googleMap);
+    updateCullingRegion();
+    updateZoom();
     updateInitialMarkers();
     updateInitialPolygons();
     updateInitialPolylines();
@@ -244,13 +256,25 @@ final class GoogleMapController
         }
       case "markers#update":
         {
+          List<Object> iconsToRegister = call.argument("iconsToRegister");
           List<Object> markersToAdd = call.argument("markersToAdd");
-          markersController.addMarkers(markersToAdd);
+          Object packedMarkersToAdd = call.argument("packedMarkersToAdd");
           List<Object> markersToChange = call.argument("markersToChange");
-          markersController.changeMarkers(markersToChange);
+          Object packedMarkersToChange = call.argument("packedMarkersToChange");
           List<Object> markerIdsToRemove = call.argument("markerIdsToRemove");
-          markersController.removeMarkers(markerIdsToRemove);
-          result.success(null);
+          List<Object> iconIdsToUnregister = call.argument("iconIdsToUnregister");
+          objectUpdateQueue.update(
+              operations -> {
+                markersController.registerIcons(iconsToRegister);
+                markersController.prepareAddMarkers(markersToAdd, operations);
+                markersController.prepareAddPackedMarkers(packedMarkersToAdd, operations);
+                markersController.prepareChangeMarkers(markersToChange, operations);
+                markersController.prepareChangePackedMarkers(packedMarkersToChange, operations);
+                markersController.prepareRemoveMarkers(markerIdsToRemove, operations);
+                markersController.unregisterIcons(iconIdsToUnregister);
+                operations.add(markersController::refreshClusters);
+              },
+              result);
           break;
         }
       case "markers#showInfoWindow":
@@ -274,34 +298,43 @@ final class GoogleMapController
       case "polygons#update":
         {
           List<Object> polygonsToAdd = call.argument("polygonsToAdd");
-          polygonsController.addPolygons(polygonsToAdd);
           List<Object> polygonsToChange = call.argument("polygonsToChange");
-          polygonsController.changePolygons(polygonsToChange);
           List<Object> polygonIdsToRemove = call.argument("polygonIdsToRemove");
-          polygonsController.removePolygons(polygonIdsToRemove);
-          result.success(null);
+          objectUpdateQueue.update(
+              operations -> {
+                polygonsController.prepareAddPolygons(polygonsToAdd, operations);
+                polygonsController.prepareChangePolygons(polygonsToChange, operations);
+                polygonsController.prepareRemovePolygons(polygonIdsToRemove, operations);
+              },
+              result);
           break;
         }
       case "polylines#update":
         {
           List<Object> polylinesToAdd = call.argument("polylinesToAdd");
-          polylinesController.addPolylines(polylinesToAdd);
           List<Object> polylinesToChange = call.argument("polylinesToChange");
-          polylinesController.changePolylines(polylinesToChange);
           List<Object> polylineIdsToRemove = call.argument("polylineIdsToRemove");
-          polylinesController.removePolylines(polylineIdsToRemove);
-          result.success(null);
+          objectUpdateQueue.update(
+              operations -> {
+                polylinesController.prepareAddPolylines(polylinesToAdd, operations);
+                polylinesController.prepareChangePolylines(polylinesToChange, operations);
+                polylinesController.prepareRemovePolylines(polylineIdsToRemove, operations);
+              },
+              result);
           break;
         }
       case "circles#update":
         {
           List<Object> circlesToAdd = call.argument("circlesToAdd");
-          circlesController.addCircles(circlesToAdd);
           List<Object> circlesToChange = call.argument("circlesToChange");
-          circlesController.changeCircles(circlesToChange);
           List<Object> circleIdsToRemove = call.argument("circleIdsToRemove");
-          circlesController.removeCircles(circleIdsToRemove);
-          result.success(null);
+          objectUpdateQueue.update(
+              operations -> {
+                circlesController.prepareAddCircles(circlesToAdd, operations);
+                circlesController.prepareChangeCircles(circlesToChange, operations);
+                circlesController.prepareRemoveCircles(circleIdsToRemove, operations);
+              },
+              result);
           break;
         }
       case "map#isCompassEnabled":
@@ -448,16 +481,36 @@ final class GoogleMapController
 
   @Override
   public void onCameraMove() {
+    tileOverlaysController.updateCamera();
     if (!trackCameraPosition) {
       return;
     }
+    final CameraPosition position = googleMap.getCameraPosition();
+    if (cameraMoveThrottle == null
+        || cameraMoveThrottle.onMove(position, SystemClock.uptimeMillis())) {
+      sendCameraMove(position);
+    }
+  }
+
+  private void sendCameraMove(CameraPosition position) {
     final Map<String, Object> arguments = new HashMap<>(2);
-    arguments.put("position", Convert.cameraPositionToJson(googleMap.getCameraPosition()));
+    arguments.put("position", Convert.cameraPositionToJson(position));
     methodChannel.invokeMethod("camera#onMove", arguments);
   }
 
   @Override
   public void onCameraIdle() {
+    tileOverlaysController.updateCamera();
+    updateCullingRegion();
+    updateZoom();
+    markersController.refreshClusters();
+    if (trackCameraPosition && cameraMoveThrottle != null) {
+      // Sends the final position, if the last moves were throttled.
+      final CameraPosition position = googleMap.getCameraPosition();
+      if (cameraMoveThrottle.flush(position)) {
+        sendCameraMove(position);
+      }
+    }
     methodChannel.invokeMethod("camera#onIdle", Collections.singletonMap("map", id));
   }
 
@@ -501,6 +554,8 @@ final class GoogleMapController
     methodChannel.setMethodCallHandler(null);
     setGoogleMapListener(null);
     destroyMapViewIfNecessary();
+    tileOverlaysController.dispose();
+    objectUpdateQueue.dispose();
     Lifecycle lifecycle = lifecycleProvider.getLifecycle();
     if (lifecycle != null) {
       lifecycle.removeObserver(this);
@@ -628,6 +683,56 @@ final class GoogleMapController
     this.trackCameraPosition = trackCameraPosition;
   }
 
+  @Override
+  public void setCameraMoveThrottle(CameraMoveThrottle cameraMoveThrottle) {
+    this.cameraMoveThrottle = cameraMoveThrottle;
+  }
+
+  @Override
+  public void setMarkerClusterCellSize(float markerClusterCellSize) {
+    markersController.setClusterCellSize(markerClusterCellSize);
+  }
+
+  @Override
+  public void setViewportCullingEnabled(boolean viewportCullingEnabled) {
+    if (this.viewportCullingEnabled == viewportCullingEnabled) {
+      return;
+    }
+    this.viewportCullingEnabled = viewportCullingEnabled;
+    markersController.setCullingEnabled(viewportCullingEnabled);
+    polygonsController.setCullingEnabled(viewportCullingEnabled);
+    polylinesController.setCullingEnabled(viewportCullingEnabled);
+    circlesController.setCullingEnabled(viewportCullingEnabled);
+    if (googleMap != null) {
+      updateCullingRegion();
+    }
+  }
+
+  /** Lets simplified polylines and polygons show the points for the current zoom. */
+  private void updateZoom() {
+    final float zoom = googleMap.getCameraPosition().zoom;
+    polygonsController.setZoom(zoom);
+    polylinesController.setZoom(zoom);
+  }
+
+  /**
+   * Updates the region in which objects are kept on the map while culling is enabled: the visible
+   * region grown by {@link #CULLING_MARGIN} on every side, so small camera moves don't pop objects
+   * in and out.
+   */
+  private void updateCullingRegion() {
+    if (!viewportCullingEnabled) {
+      return;
+    }
+    final List<SpatialIndex.Bounds> region =
+        SpatialIndex.Bounds.ofRegion(
+            googleMap.getProjection().getVisibleRegion().latLngBounds, CULLING_MARGIN);
+    markersController.setCullingRegion(region);
+    polygonsController.setCullingRegion(region);
+    polylinesController.setCullingRegion(region);
+    circlesController.setCullingRegion(region);
+  }
+
   @Override
   public void setRotateGesturesEnabled(boolean rotateGesturesEnabled) {
     googleMap.getUiSettings().setRotateGesturesEnabled(rotateGesturesEnabled);
@@ -720,6 +825,7 @@ final class GoogleMapController
 
   private void updateInitialMarkers() {
     markersController.addMarkers(initialMarkers);
+    markersController.refreshClusters();
   }
 
   @Override
@@ -30,6 +30,12 @@ interface GoogleMapOptionsSink {
 
   void setTrackCameraPosition(boolean trackCameraPosition);
 
+  void setCameraMoveThrottle(CameraMoveThrottle cameraMoveThrottle);
+
+  void setMarkerClusterCellSize(float markerClusterCellSize);
+
+  void setViewportCullingEnabled(boolean viewportCullingEnabled);
+
   void setZoomGesturesEnabled(boolean zoomGesturesEnabled);
 
   void setLiteModeEnabled(boolean liteModeEnabled);
@@ -0,0 +1,127 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Simplified versions of a line, one per zoom level, for lines with many more points than can be
+ * seen on screen.
+ *
+ * <p>The Douglas-Peucker algorithm runs once, recording for every point the tolerance below which
+ * it is kept. The points of a zoom level are then the ones whose tolerance is larger than {@link
+ * #TOLERANCE_PIXELS} at that zoom, so lines look the same but with far fewer points when zoomed
+ * out.
+ */
+class LevelsOfDetail {
+  /** The largest distance, in screen pixels, between a line and its simplified version. */
+  private static final double TOLERANCE_PIXELS = 0.5;
+
+  private static final int MAX_ZOOM = 22;
+
+  private final List<LatLng> points;
+  private final double[] tolerances;
+  private final List<List<LatLng>> levels = new ArrayList<>();
+
+  LevelsOfDetail(List<LatLng> points) {
+    this.points = points;
+    this.tolerances = computeTolerances(points);
+    for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+      levels.add(null);
+    }
+  }
+
+  /**
+   * Returns the points to draw at {@code zoom}.
+   *
+   * <p>The same list is returned for every zoom of a level, so callers can tell when it changes.
+   */
+  synchronized List<LatLng> getPoints(float zoom) {
+    final int level = Math.max(0, Math.min(MAX_ZOOM, (int) Math.ceil(zoom)));
+    List<LatLng> levelPoints = levels.get(level);
+    if (levelPoints == null) {
+      levelPoints = simplify(TOLERANCE_PIXELS / (WebMercator.TILE_SIZE * Math.pow(2, level)));
+      levels.set(level, levelPoints);
+    }
+    return levelPoints;
+  }
+
+  private List<LatLng> simplify(double tolerance) {
+    final List<LatLng> simplified = new ArrayList<>();
+    for (int i = 0; i < tolerances.length; i++) {
+      if (tolerances[i] > tolerance) {
+        simplified.add(points.get(i));
+      }
+    }
+    return simplified.size() == points.size()
+        ? points
+        : Collections.unmodifiableList(simplified);
+  }
+
+  /**
+   * Returns, for every point, the tolerance in world coordinates below which Douglas-Peucker keeps
+   * it. The first and last points are always kept.
+   */
+  static double[] computeTolerances(List<LatLng> points) {
+    final int count = points.size();
+    final double[] xs = new double[count];
+    final double[] ys = new double[count];
+    for (int i = 0; i < count; i++) {
+      xs[i] = WebMercator.toWorldX(points.get(i).longitude);
+      ys[i] = WebMercator.toWorldY(points.get(i).latitude);
+    }
+    final double[] tolerances = new double[count];
+    if (count == 0) {
+      return tolerances;
+    }
+    tolerances[0] = Double.POSITIVE_INFINITY;
+    tolerances[count - 1] = Double.POSITIVE_INFINITY;
+
+    // Ranges of points left to simplify, as {first, last, tolerance of the enclosing range}.
+    final Deque<double[]> ranges = new ArrayDeque<>();
+    ranges.push(new double[] {0, count - 1, Double.POSITIVE_INFINITY});
+    while (!ranges.isEmpty()) {
+      final double[] range = ranges.pop();
+      final int first = (int) range[0];
+      final int last = (int) range[1];
+      if (last - first < 2) {
+        continue;
+      }
+      int farthest = first + 1;
+      double farthestDistance = -1;
+      for (int i = first + 1; i < last; i++) {
+        final double distance =
+            getDistanceToSegment(xs[i], ys[i], xs[first], ys[first], xs[last], ys[last]);
+        if (distance > farthestDistance) {
+          farthest = i;
+          farthestDistance = distance;
+        }
+      }
+      // A point can't outlive the points that split its enclosing ranges, so levels are nested.
+      final double tolerance = Math.min(farthestDistance, range[2]);
+      tolerances[farthest] = tolerance;
+      ranges.push(new double[] {first, farthest, tolerance});
+      ranges.push(new double[] {farthest, last, tolerance});
+    }
+    return tolerances;
+  }
+
+  private static double getDistanceToSegment(
+      double x, double y, double x1, double y1, double x2, double y2) {
+    final double dx = x2 - x1;
+    final double dy = y2 - y1;
+    final double lengthSquared = dx * dx + dy * dy;
+    double t = 0;
+    if (lengthSquared > 0) {
+      t = Math.max(0, Math.min(1, ((x - x1) * dx + (y - y1) * dy) / lengthSquared));
+    }
+    return Math.hypot(x - (x1 + t * dx), y - (y1 + t * dy));
+  }
+}
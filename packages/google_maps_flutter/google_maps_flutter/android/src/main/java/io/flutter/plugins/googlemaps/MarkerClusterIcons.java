@@ -0,0 +1,73 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Draws the icons of cluster markers: a disc labeled with the number of markers in the cluster.
+ *
+ * <p>Large counts are rounded down, so only a few distinct icons are ever drawn.
+ */
+class MarkerClusterIcons {
+  private static final float ICON_SIZE = 40;
+  private static final float TEXT_SIZE = 14;
+  private static final int BACKGROUND_COLOR = 0xFF1A73E8;
+
+  private final float density;
+  private final Map<String, BitmapDescriptor> icons = new HashMap<>();
+
+  MarkerClusterIcons(float density) {
+    this.density = density;
+  }
+
+  BitmapDescriptor get(int clusterSize) {
+    final String label = getLabel(clusterSize);
+    BitmapDescriptor icon = icons.get(label);
+    if (icon == null) {
+      icon = BitmapDescriptorFactory.fromBitmap(draw(label));
+      icons.put(label, icon);
+    }
+    return icon;
+  }
+
+  /** Returns the label of a cluster, keeping the leading digit of counts of 10 and more. */
+  static String getLabel(int clusterSize) {
+    if (clusterSize < 10) {
+      return String.valueOf(clusterSize);
+    }
+    if (clusterSize >= 1000) {
+      return (clusterSize / 1000) + "k+";
+    }
+    int magnitude = clusterSize < 100 ? 10 : 100;
+    return (clusterSize / magnitude * magnitude) + "+";
+  }
+
+  private Bitmap draw(String label) {
+    final int size = Math.round(ICON_SIZE * density);
+    final float radius = size / 2f;
+    final Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+    final Canvas canvas = new Canvas(bitmap);
+    final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    paint.setColor(BACKGROUND_COLOR);
+    canvas.drawCircle(radius, radius, radius, paint);
+
+    paint.setColor(Color.WHITE);
+    paint.setTextSize(TEXT_SIZE * density);
+    paint.setTextAlign(Paint.Align.CENTER);
+    paint.setTypeface(Typeface.DEFAULT_BOLD);
+    canvas.drawText(label, radius, radius - (paint.descent() + paint.ascent()) / 2, paint);
+    return bitmap;
+  }
+}
@@ -0,0 +1,93 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups markers that are close to each other on screen into clusters.
+ *
+ * <p>Markers are indexed in a grid over the Web Mercator projection of the map, whose cells have a
+ * fixed size on screen at the integer zoom level being clustered. All markers of a cell form one
+ * cluster, so clusters only change when the integer zoom level or the markers change, not while
+ * the camera pans.
+ */
+class MarkerClusterer {
+  /** Markers that share a grid cell. */
+  static class Cluster {
+    final String key;
+    final List<String> markerIds = new ArrayList<>();
+    private double latitudeSum;
+    private double longitudeSum;
+
+    Cluster(String key) {
+      this.key = key;
+    }
+
+    /** Returns the average position of the markers in this cluster. */
+    LatLng getPosition() {
+      return new LatLng(latitudeSum / markerIds.size(), longitudeSum / markerIds.size());
+    }
+
+    int size() {
+      return markerIds.size();
+    }
+
+    private void add(String markerId, LatLng position) {
+      markerIds.add(markerId);
+      latitudeSum += position.latitude;
+      longitudeSum += position.longitude;
+    }
+  }
+
+  private final double cellSize;
+
+  /** @param cellSize Width and height of the grid cells, in logical pixels. */
+  MarkerClusterer(double cellSize) {
+    if (cellSize <= 0) {
+      throw new IllegalArgumentException("cellSize must be positive");
+    }
+    this.cellSize = cellSize;
+  }
+
+  /**
+   * Clusters the markers within the visible region.
+   *
+   * @param positions Position of every marker, keyed by marker id.
+   * @param zoom The zoom level of the camera. Markers are clustered at its integer part.
+   * @param visibleRegion The visible part of the map. Markers outside of it are skipped.
+   * @return The clusters, including those with a single marker.
+   */
+  List<Cluster> cluster(Map<String, LatLng> positions, float zoom, LatLngBounds visibleRegion) {
+    final int zoomLevel = (int) Math.floor(zoom);
+    final double cellsPerWorld = WebMercator.TILE_SIZE * Math.pow(2, zoomLevel) / cellSize;
+    final Map<Long, Cluster> cells = new HashMap<>();
+    final List<Cluster> clusters = new ArrayList<>();
+
+    for (Map.Entry<String, LatLng> entry : positions.entrySet()) {
+      final LatLng position = entry.getValue();
+      if (!visibleRegion.contains(position)) {
+        continue;
+      }
+      final long column =
+          (long) Math.floor(WebMercator.toWorldX(position.longitude) * cellsPerWorld);
+      final long row = (long) Math.floor(WebMercator.toWorldY(position.latitude) * cellsPerWorld);
+      final long cellKey = (column << 32) | (row & 0xffffffffL);
+      Cluster cluster = cells.get(cellKey);
+      if (cluster == null) {
+        cluster = new Cluster(zoomLevel + "/" + column + "/" + row);
+        cells.put(cellKey, cluster);
+        clusters.add(cluster);
+      }
+      cluster.add(entry.getKey(), position);
+    }
+    return clusters;
+  }
+}
@@ -4,105 +4,196 @@
 
 package io.flutter.plugins.googlemaps;
 
+import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.model.BitmapDescriptor;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Marker;
-
-/** Controller of a single Marker on the map. */
+import com.google.android.gms.maps.model.MarkerOptions;
+
+/**
+ * Controller of a single Marker on the map.
+ *
+ * <p>The marker's options are kept even while it is not on the map, for example because it is
+ * part of a cluster, so it can be added back with its latest options.
+ */
 class MarkerController implements MarkerOptionsSink {
 
-  private final Marker marker;
-  private final String googleMapsMarkerId;
-  private boolean consumeTapEvents;
+  private MarkerBuilder markerBuilder;
+  private Marker marker;
+
+  MarkerController(MarkerBuilder markerBuilder) {
+    this.markerBuilder = markerBuilder;
+  }
+
+  /** Adds the marker to {@code googleMap}, unless it is already on the map. */
+  void attach(GoogleMap googleMap) {
+    if (marker == null) {
+      marker = googleMap.addMarker(markerBuilder.build());
+    }
+  }
+
+  /** Removes the marker from the map, keeping its options. */
+  void detach() {
+    if (marker != null) {
+      marker.remove();
+      marker = null;
+    }
+  }
 
-  MarkerController(Marker marker, boolean consumeTapEvents) {
-    this.marker = marker;
-    this.consumeTapEvents = consumeTapEvents;
-    this.googleMapsMarkerId = marker.getId();
+  boolean isAttached() {
+    return marker != null;
   }
 
-  void remove() {
-    marker.remove();
+  /** Replaces every option of the marker with those of {@code markerBuilder}. */
+  void update(MarkerBuilder markerBuilder) {
+    this.markerBuilder = markerBuilder;
+    if (marker == null) {
+      return;
+    }
+    final MarkerOptions options = markerBuilder.build();
+    marker.setAlpha(options.getAlpha());
+    marker.setAnchor(options.getAnchorU(), options.getAnchorV());
+    marker.setDraggable(options.isDraggable());
+    marker.setFlat(options.isFlat());
+    marker.setIcon(options.getIcon());
+    marker.setInfoWindowAnchor(options.getInfoWindowAnchorU(), options.getInfoWindowAnchorV());
+    marker.setTitle(options.getTitle());
+    marker.setSnippet(options.getSnippet());
+    marker.setPosition(options.getPosition());
+    marker.setRotation(options.getRotation());
+    marker.setVisible(options.isVisible());
+    marker.setZIndex(options.getZIndex());
+  }
+
+  /** Keeps the position a marker was dragged to, for when it is added back to the map. */
+  void onDragEnd(LatLng position) {
+    markerBuilder.setPosition(position);
   }
 
   @Override
   public void setAlpha(float alpha) {
-    marker.setAlpha(alpha);
+    markerBuilder.setAlpha(alpha);
+    if (marker != null) {
+      marker.setAlpha(alpha);
+    }
   }
 
   @Override
   public void setAnchor(float u, float v) {
-    marker.setAnchor(u, v);
+    markerBuilder.setAnchor(u, v);
+    if (marker != null) {
+      marker.setAnchor(u, v);
+    }
   }
 
   @Override
   public void setConsumeTapEvents(boolean consumeTapEvents) {
-    this.consumeTapEvents = consumeTapEvents;
+    markerBuilder.setConsumeTapEvents(consumeTapEvents);
   }
 
   @Override
   public void setDraggable(boolean draggable) {
-    marker.setDraggable(draggable);
+    markerBuilder.setDraggable(draggable);
+    if (marker != null) {
+      marker.setDraggable(draggable);
+    }
   }
 
   @Override
   public void setFlat(boolean flat) {
-    marker.setFlat(flat);
+    markerBuilder.setFlat(flat);
+    if (marker != null) {
+      marker.setFlat(flat);
+    }
   }
 
   @Override
   public void setIcon(BitmapDescriptor bitmapDescriptor) {
-    marker.setIcon(bitmapDescriptor);
+    markerBuilder.setIcon(bitmapDescriptor);
+    if (marker != null) {
+      marker.setIcon(bitmapDescriptor);
+    }
   }
 
   @Override
   public void setInfoWindowAnchor(float u, float v) {
-    marker.setInfoWindowAnchor(u, v);
+    markerBuilder.setInfoWindowAnchor(u, v);
+    if (marker != null) {
+      marker.setInfoWindowAnchor(u, v);
+    }
   }
 
   @Override
   public void setInfoWindowText(String title, String snippet) {
-    marker.setTitle(title);
-    marker.setSnippet(snippet);
+    markerBuilder.setInfoWindowText(title, snippet);
+    if (marker != null) {
+      marker.setTitle(title);
+      marker.setSnippet(snippet);
+    }
   }
 
   @Override
   public void setPosition(LatLng position) {
-    marker.setPosition(position);
+    markerBuilder.setPosition(position);
+    if (marker != null) {
+      marker.setPosition(position);
+    }
   }
 
   @Override
   public void setRotation(float rotation) {
-    marker.setRotation(rotation);
+    markerBuilder.setRotation(rotation);
+    if (marker != null) {
+      marker.setRotation(rotation);
+    }
   }
 
   @Override
   public void setVisible(boolean visible) {
-    marker.setVisible(visible);
+    markerBuilder.setVisible(visible);
+    if (marker != null) {
+      marker.setVisible(visible);
+    }
   }
 
   @Override
   public void setZIndex(float zIndex) {
-    marker.setZIndex(zIndex);
+    markerBuilder.setZIndex(zIndex);
+    if (marker != null) {
+      marker.setZIndex(zIndex);
+    }
+  }
+
+  boolean isVisible() {
+    return markerBuilder.build().isVisible();
+  }
+
+  LatLng getPosition() {
+    return markerBuilder.build().getPosition();
   }
 
+  /** Returns the id of the marker on the map, or null while it is not on the map. */
   String getGoogleMapsMarkerId() {
-    return googleMapsMarkerId;
+    return marker == null ? null : marker.getId();
   }
 
   boolean consumeTapEvents() {
-    return consumeTapEvents;
+    return markerBuilder.consumeTapEvents();
   }
 
   public void showInfoWindow() {
-    marker.showInfoWindow();
+    if (marker != null) {
+      marker.showInfoWindow();
+    }
   }
 
   public void hideInfoWindow() {
-    marker.hideInfoWindow();
+    if (marker != null) {
+      marker.hideInfoWindow();
+    }
   }
 
   public boolean isInfoWindowShown() {
-    return marker.isInfoWindowShown();
+    return marker != null && marker.isInfoWindowShown();
   }
 }
@@ -5,31 +5,163 @@
 package io.flutter.plugins.googlemaps;
 
 import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.BitmapDescriptor;
 import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 import io.flutter.plugin.common.MethodChannel;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-class MarkersController {
+class MarkersController implements ViewportCuller.Listener {
+
+  /** A marker standing for a cluster of markers. */
+  private static class ClusterMarker {
+    final Marker marker;
+    List<String> markerIds;
+
+    ClusterMarker(Marker marker, List<String> markerIds) {
+      this.marker = marker;
+      this.markerIds = markerIds;
+    }
+  }
 
   private final Map<String, MarkerController> markerIdToController;
   private final Map<String, String> googleMapsMarkerIdToDartMarkerId;
+  private final Map<String, BitmapDescriptor> registeredIcons;
+  private final Map<String, ClusterMarker> clusterKeyToClusterMarker;
+  private final Map<String, String> googleMapsMarkerIdToClusterKey;
   private final MethodChannel methodChannel;
+  private final MarkerClusterIcons clusterIcons;
+  private MarkerClusterer markerClusterer;
+  private ViewportCuller viewportCuller;
+  private float clusterCellSize;
   private GoogleMap googleMap;
 
-  MarkersController(MethodChannel methodChannel) {
+  MarkersController(MethodChannel methodChannel, float density) {
     this.markerIdToController = new HashMap<>();
     this.googleMapsMarkerIdToDartMarkerId = new HashMap<>();
+    // Icons are registered while parsing updates in the background, and read by the initial
+    // markers on the main thread.
+    this.registeredIcons = new ConcurrentHashMap<>();
+    this.clusterKeyToClusterMarker = new HashMap<>();
+    this.googleMapsMarkerIdToClusterKey = new HashMap<>();
     this.methodChannel = methodChannel;
+    this.clusterIcons = new MarkerClusterIcons(density);
   }
 
   void setGoogleMap(GoogleMap googleMap) {
     this.googleMap = googleMap;
   }
 
+  /**
+   * Enables or disables marker clustering.
+   *
+   * <p>While clustering, only the markers and clusters within the visible region are on the map.
+   * Clusters are recomputed whenever the camera stops moving and after markers are updated.
+   *
+   * @param cellSize Size, in logical pixels, of the screen area whose markers form a cluster, or 0
+   *     to show every marker individually.
+   */
+  void setClusterCellSize(float cellSize) {
+    if (cellSize == clusterCellSize) {
+      return;
+    }
+    clusterCellSize = cellSize;
+    markerClusterer = cellSize > 0 ? new MarkerClusterer(cellSize) : null;
+    if (googleMap == null) {
+      return;
+    }
+    if (markerClusterer != null) {
+      updateClusters();
+    } else {
+      removeClusterMarkers(null);
+      for (Map.Entry<String, MarkerController> entry : markerIdToController.entrySet()) {
+        if (viewportCuller == null || viewportCuller.isShown(entry.getKey())) {
+          attachMarker(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+  }
+
+  /**
+   * Enables or disables viewport culling, which only keeps the markers within the culling region
+   * on the map. While clustering, clusters decide which markers are on the map instead.
+   */
+  void setCullingEnabled(boolean cullingEnabled) {
+    if (cullingEnabled == (viewportCuller != null)) {
+      return;
+    }
+    viewportCuller = cullingEnabled ? new ViewportCuller(this) : null;
+    for (Map.Entry<String, MarkerController> entry : markerIdToController.entrySet()) {
+      if (viewportCuller != null) {
+        // Markers are added back once the culling region is known.
+        viewportCuller.put(entry.getKey(), getBounds(entry.getValue()));
+        if (markerClusterer == null) {
+          detachMarker(entry.getValue());
+        }
+      } else if (markerClusterer == null) {
+        attachMarker(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  void setCullingRegion(List<SpatialIndex.Bounds> region) {
+    if (viewportCuller != null) {
+      viewportCuller.setRegion(region);
+    }
+  }
+
+  @Override
+  public void onEnterRegion(String markerId) {
+    if (markerClusterer == null) {
+      attachMarker(markerId, markerIdToController.get(markerId));
+    }
+  }
+
+  @Override
+  public void onLeaveRegion(String markerId) {
+    if (markerClusterer == null) {
+      detachMarker(markerIdToController.get(markerId));
+    }
+  }
+
+  /** Recomputes the clusters, if clustering is enabled, for the current camera position. */
+  void refreshClusters() {
+    if (markerClusterer != null && googleMap != null) {
+      updateClusters();
+    }
+  }
+
+  /**
+   * Registers icons that markers can then refer to as {@code ["registered", iconId]}, so each
+   * icon is decoded once no matter how many markers use it.
+   *
+   * <p>Called while parsing an update, on a background thread.
+   */
+  void registerIcons(Object iconsToRegister) {
+    if (iconsToRegister != null) {
+      Convert.interpretIcons(iconsToRegister, registeredIcons);
+    }
+  }
+
+  /**
+   * Unregisters icons. Markers already using them keep their icon.
+   *
+   * <p>Called while parsing an update, on a background thread.
+   */
+  void unregisterIcons(List<Object> iconIdsToUnregister) {
+    if (iconIdsToUnregister != null) {
+      registeredIcons.keySet().removeAll(iconIdsToUnregister);
+    }
+  }
+
   void addMarkers(List<Object> markersToAdd) {
     if (markersToAdd != null) {
       for (Object markerToAdd : markersToAdd) {
@@ -38,15 +170,77 @@ class MarkersController {
     }
   }
 
-  void changeMarkers(List<Object> markersToChange) {
-    if (markersToChange != null) {
-      for (Object markerToChange : markersToChange) {
-        changeMarker(markerToChange);
+  /**
+   * Parses the markers to add, on a background thread, into {@code operations} that add them on
+   * the main thread.
+   */
+  void prepareAddMarkers(List<Object> markersToAdd, List<Runnable> operations) {
+    if (markersToAdd == null) {
+      return;
+    }
+    for (Object markerToAdd : markersToAdd) {
+      if (markerToAdd == null) {
+        continue;
+      }
+      final MarkerBuilder markerBuilder = new MarkerBuilder();
+      final String markerId =
+          Convert.interpretMarkerOptions(markerToAdd, markerBuilder, registeredIcons);
+      operations.add(() -> addMarker(markerId, markerBuilder));
+    }
+  }
+
+  /**
+   * Parses the changed markers, on a background thread, into {@code operations} that change them
+   * on the main thread.
+   */
+  void prepareChangeMarkers(List<Object> markersToChange, List<Runnable> operations) {
+    if (markersToChange == null) {
+      return;
+    }
+    for (Object markerToChange : markersToChange) {
+      if (markerToChange == null) {
+        continue;
       }
+      // Changes hold every option of the marker, so they replace all of its options.
+      final MarkerBuilder markerBuilder = new MarkerBuilder();
+      final String markerId =
+          Convert.interpretMarkerOptions(markerToChange, markerBuilder, registeredIcons);
+      operations.add(() -> changeMarker(markerId, markerBuilder));
+    }
+  }
+
+  /** Like {@link #prepareAddMarkers}, for markers packed into {@link PackedMarkers}. */
+  void prepareAddPackedMarkers(Object packedMarkersToAdd, List<Runnable> operations) {
+    if (packedMarkersToAdd == null) {
+      return;
+    }
+    PackedMarkers packedMarkers = Convert.toPackedMarkers(packedMarkersToAdd, registeredIcons);
+    for (int i = 0; i < packedMarkers.size(); i++) {
+      final MarkerBuilder markerBuilder = new MarkerBuilder();
+      packedMarkers.interpretMarker(i, markerBuilder);
+      final String markerId = packedMarkers.getMarkerId(i);
+      operations.add(() -> addMarker(markerId, markerBuilder));
+    }
+  }
+
+  /**
+   * Like {@link #prepareChangeMarkers}, for markers packed into {@link PackedMarkers}. Packed
+   * changes only hold some options, so they are applied to the markers as they are.
+   */
+  void prepareChangePackedMarkers(Object packedMarkersToChange, List<Runnable> operations) {
+    if (packedMarkersToChange == null) {
+      return;
+    }
+    final PackedMarkers packedMarkers =
+        Convert.toPackedMarkers(packedMarkersToChange, registeredIcons);
+    for (int i = 0; i < packedMarkers.size(); i++) {
+      final int index = i;
+      operations.add(() -> changePackedMarker(packedMarkers, index));
     }
   }
 
-  void removeMarkers(List<Object> markerIdsToRemove) {
+  /** Adds {@code operations} that remove markers on the main thread. */
+  void prepareRemoveMarkers(List<Object> markerIdsToRemove, List<Runnable> operations) {
     if (markerIdsToRemove == null) {
       return;
     }
@@ -54,12 +248,18 @@ class MarkersController {
       if (rawMarkerId == null) {
         continue;
       }
-      String markerId = (String) rawMarkerId;
-      final MarkerController markerController = markerIdToController.remove(markerId);
-      if (markerController != null) {
-        markerController.remove();
-        googleMapsMarkerIdToDartMarkerId.remove(markerController.getGoogleMapsMarkerId());
-      }
+      final String markerId = (String) rawMarkerId;
+      operations.add(() -> removeMarker(markerId));
+    }
+  }
+
+  private void removeMarker(String markerId) {
+    final MarkerController markerController = markerIdToController.remove(markerId);
+    if (markerController != null) {
+      detachMarker(markerController);
+    }
+    if (viewportCuller != null) {
+      viewportCuller.remove(markerId);
     }
   }
 
@@ -93,6 +293,15 @@ class MarkersController {
   }
 
   boolean onMarkerTap(String googleMarkerId) {
+    String clusterKey = googleMapsMarkerIdToClusterKey.get(googleMarkerId);
+    if (clusterKey != null) {
+      ClusterMarker clusterMarker = clusterKeyToClusterMarker.get(clusterKey);
+      final Map<String, Object> data = new HashMap<>();
+      data.put("markerIds", clusterMarker.markerIds);
+      data.put("position", Convert.latLngToJson(clusterMarker.marker.getPosition()));
+      methodChannel.invokeMethod("cluster#onTap", data);
+      return true;
+    }
     String markerId = googleMapsMarkerIdToDartMarkerId.get(googleMarkerId);
     if (markerId == null) {
       return false;
@@ -110,6 +319,10 @@ class MarkersController {
     if (markerId == null) {
       return;
     }
+    MarkerController markerController = markerIdToController.get(markerId);
+    if (markerController != null) {
+      markerController.onDragEnd(latLng);
+    }
     final Map<String, Object> data = new HashMap<>();
     data.put("markerId", markerId);
     data.put("position", Convert.latLngToJson(latLng));
@@ -129,32 +342,123 @@ class MarkersController {
       return;
     }
     MarkerBuilder markerBuilder = new MarkerBuilder();
-    String markerId = Convert.interpretMarkerOptions(marker, markerBuilder);
-    MarkerOptions options = markerBuilder.build();
-    addMarker(markerId, options, markerBuilder.consumeTapEvents());
+    String markerId = Convert.interpretMarkerOptions(marker, markerBuilder, registeredIcons);
+    addMarker(markerId, markerBuilder);
   }
 
-  private void addMarker(String markerId, MarkerOptions markerOptions, boolean consumeTapEvents) {
-    final Marker marker = googleMap.addMarker(markerOptions);
-    MarkerController controller = new MarkerController(marker, consumeTapEvents);
+  private void addMarker(String markerId, MarkerBuilder markerBuilder) {
+    MarkerController controller = new MarkerController(markerBuilder);
     markerIdToController.put(markerId, controller);
-    googleMapsMarkerIdToDartMarkerId.put(marker.getId(), markerId);
+    if (viewportCuller != null) {
+      updateCulling(markerId, controller);
+    } else if (markerClusterer == null) {
+      attachMarker(markerId, controller);
+    }
   }
 
-  private void changeMarker(Object marker) {
-    if (marker == null) {
-      return;
+  private void updateCulling(String markerId, MarkerController markerController) {
+    if (viewportCuller != null) {
+      viewportCuller.put(markerId, getBounds(markerController));
+    }
+  }
+
+  private static SpatialIndex.Bounds getBounds(MarkerController markerController) {
+    final LatLng position = markerController.getPosition();
+    return position == null ? null : SpatialIndex.Bounds.ofPoint(position);
+  }
+
+  private void attachMarker(String markerId, MarkerController markerController) {
+    if (!markerController.isAttached()) {
+      markerController.attach(googleMap);
+      googleMapsMarkerIdToDartMarkerId.put(markerController.getGoogleMapsMarkerId(), markerId);
     }
-    String markerId = getMarkerId(marker);
+  }
+
+  private void detachMarker(MarkerController markerController) {
+    if (markerController.isAttached()) {
+      googleMapsMarkerIdToDartMarkerId.remove(markerController.getGoogleMapsMarkerId());
+      markerController.detach();
+    }
+  }
+
+  private void updateClusters() {
+    final Map<String, LatLng> positions = new HashMap<>(markerIdToController.size());
+    for (Map.Entry<String, MarkerController> entry : markerIdToController.entrySet()) {
+      if (entry.getValue().isVisible()) {
+        positions.put(entry.getKey(), entry.getValue().getPosition());
+      }
+    }
+    final float zoom = googleMap.getCameraPosition().zoom;
+    final LatLngBounds visibleRegion = googleMap.getProjection().getVisibleRegion().latLngBounds;
+
+    final Set<String> shownMarkerIds = new HashSet<>();
+    final Map<String, MarkerClusterer.Cluster> shownClusters = new HashMap<>();
+    final List<MarkerClusterer.Cluster> clusters =
+        markerClusterer.cluster(positions, zoom, visibleRegion);
+    for (MarkerClusterer.Cluster cluster : clusters) {
+      if (cluster.size() == 1) {
+        shownMarkerIds.add(cluster.markerIds.get(0));
+      } else {
+        // The same cell with a different number of markers needs a different icon.
+        shownClusters.put(cluster.key + "/" + cluster.size(), cluster);
+      }
+    }
+
+    for (Map.Entry<String, MarkerController> entry : markerIdToController.entrySet()) {
+      if (shownMarkerIds.contains(entry.getKey())) {
+        attachMarker(entry.getKey(), entry.getValue());
+      } else {
+        detachMarker(entry.getValue());
+      }
+    }
+    removeClusterMarkers(shownClusters.keySet());
+    for (Map.Entry<String, MarkerClusterer.Cluster> entry : shownClusters.entrySet()) {
+      final MarkerClusterer.Cluster cluster = entry.getValue();
+      final ClusterMarker clusterMarker = clusterKeyToClusterMarker.get(entry.getKey());
+      if (clusterMarker != null) {
+        clusterMarker.markerIds = cluster.markerIds;
+        clusterMarker.marker.setPosition(cluster.getPosition());
+        continue;
+      }
+      final Marker marker =
+          googleMap.addMarker(
+              new MarkerOptions()
+                  .position(cluster.getPosition())
+                  .icon(clusterIcons.get(cluster.size()))
+                  .anchor(0.5f, 0.5f));
+      clusterKeyToClusterMarker.put(entry.getKey(), new ClusterMarker(marker, cluster.markerIds));
+      googleMapsMarkerIdToClusterKey.put(marker.getId(), entry.getKey());
+    }
+  }
+
+  /** Removes the cluster markers whose key is not in {@code keysToKeep}, or all if it is null. */
+  private void removeClusterMarkers(Set<String> keysToKeep) {
+    final Iterator<Map.Entry<String, ClusterMarker>> iterator =
+        clusterKeyToClusterMarker.entrySet().iterator();
+    while (iterator.hasNext()) {
+      final Map.Entry<String, ClusterMarker> entry = iterator.next();
+      if (keysToKeep == null || !keysToKeep.contains(entry.getKey())) {
+        googleMapsMarkerIdToClusterKey.remove(entry.getValue().marker.getId());
+        entry.getValue().marker.remove();
+        iterator.remove();
+      }
+    }
+  }
+
+  private void changeMarker(String markerId, MarkerBuilder markerBuilder) {
     MarkerController markerController = markerIdToController.get(markerId);
     if (markerController != null) {
-      Convert.interpretMarkerOptions(marker, markerController);
+      markerController.update(markerBuilder);
+      updateCulling(markerId, markerController);
     }
   }
 
-  @SuppressWarnings("unchecked")
-  private static String getMarkerId(Object marker) {
-    Map<String, Object> markerMap = (Map<String, Object>) marker;
-    return (String) markerMap.get("markerId");
+  private void changePackedMarker(PackedMarkers packedMarkers, int index) {
+    final String markerId = packedMarkers.getMarkerId(index);
+    MarkerController markerController = markerIdToController.get(markerId);
+    if (markerController != null) {
+      packedMarkers.interpretMarker(index, markerController);
+      updateCulling(markerId, markerController);
+    }
   }
 }
@@ -0,0 +1,206 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.Choreographer;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Applies updates of map objects without blocking the main thread for long.
+ *
+ * <p>Each update is first parsed on a background thread, where icons are decoded and options
+ * built, into operations that change the map. The operations then run on the main thread, a few
+ * per frame so that each frame spends at most {@link #FRAME_BUDGET_NANOS} on them. Updates are
+ * applied in the order they are received, and their result is only sent once all of their
+ * operations ran. Updates still pending when the queue is disposed fail.
+ */
+class ObjectUpdateQueue {
+  private static final String TAG = "ObjectUpdateQueue";
+  private static final long FRAME_BUDGET_NANOS = 8_000_000;
+
+  /** Parses an update into the operations that apply it. */
+  interface Parser {
+    /**
+     * Called on a background thread, so it must not touch the map or the objects on it.
+     *
+     * @param operations The operations to run on the main thread, in order.
+     */
+    void parse(List<Runnable> operations);
+  }
+
+  /** The main thread the operations run on, and the frames they are spread over. */
+  interface MainThread {
+    void post(Runnable runnable);
+
+    void postFrameCallback(Choreographer.FrameCallback callback);
+
+    void removeFrameCallback(Choreographer.FrameCallback callback);
+
+    long nanoTime();
+  }
+
+  private static final class AndroidMainThread implements MainThread {
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    @Override
+    public void post(Runnable runnable) {
+      handler.post(runnable);
+    }
+
+    @Override
+    public void postFrameCallback(Choreographer.FrameCallback callback) {
+      Choreographer.getInstance().postFrameCallback(callback);
+    }
+
+    @Override
+    public void removeFrameCallback(Choreographer.FrameCallback callback) {
+      Choreographer.getInstance().removeFrameCallback(callback);
+    }
+
+    @Override
+    public long nanoTime() {
+      return System.nanoTime();
+    }
+  }
+
+  private static final class Update {
+    final MethodChannel.Result result;
+    RuntimeException error;
+
+    Update(MethodChannel.Result result) {
+      this.result = result;
+    }
+  }
+
+  /** An operation of an update, or the end of the update if {@code runnable} is null. */
+  private static final class Operation {
+    final Update update;
+    final Runnable runnable;
+
+    Operation(Update update, Runnable runnable) {
+      this.update = update;
+      this.runnable = runnable;
+    }
+  }
+
+  private final ExecutorService executor;
+  private final MainThread mainThread;
+  private final ArrayDeque<Operation> operations = new ArrayDeque<>();
+  // Updates whose result was not sent yet, only accessed on the main thread.
+  private final Set<Update> pendingUpdates = new LinkedHashSet<>();
+  private final Choreographer.FrameCallback frameCallback = frameTimeNanos -> runOperations();
+  private boolean frameCallbackPosted;
+  private boolean disposed;
+
+  ObjectUpdateQueue() {
+    this(Executors.newSingleThreadExecutor(), new AndroidMainThread());
+  }
+
+  ObjectUpdateQueue(ExecutorService executor, MainThread mainThread) {
+    this.executor = executor;
+    this.mainThread = mainThread;
+  }
+
+  /** Parses an update in the background, then applies it and sends {@code result}. */
+  void update(Parser parser, MethodChannel.Result result) {
+    final Update update = new Update(result);
+    if (disposed) {
+      failDisposed(update);
+      return;
+    }
+    pendingUpdates.add(update);
+    executor.execute(
+        () -> {
+          final List<Runnable> parsedOperations = new ArrayList<>();
+          try {
+            parser.parse(parsedOperations);
+          } catch (RuntimeException e) {
+            // Nothing of an update that can't be parsed is applied.
+            parsedOperations.clear();
+            update.error = e;
+          }
+          mainThread.post(() -> enqueue(update, parsedOperations));
+        });
+  }
+
+  /** Drops the updates not applied yet, and fails their results, once the map is disposed. */
+  void dispose() {
+    disposed = true;
+    executor.shutdownNow();
+    operations.clear();
+    if (frameCallbackPosted) {
+      mainThread.removeFrameCallback(frameCallback);
+      frameCallbackPosted = false;
+    }
+    for (Update update : pendingUpdates) {
+      failDisposed(update);
+    }
+    pendingUpdates.clear();
+  }
+
+  private void enqueue(Update update, List<Runnable> parsedOperations) {
+    if (disposed) {
+      return;
+    }
+    for (Runnable runnable : parsedOperations) {
+      operations.add(new Operation(update, runnable));
+    }
+    operations.add(new Operation(update, null));
+    if (!frameCallbackPosted) {
+      frameCallbackPosted = true;
+      mainThread.postFrameCallback(frameCallback);
+    }
+  }
+
+  private void runOperations() {
+    frameCallbackPosted = false;
+    final long startNanos = mainThread.nanoTime();
+    while (!operations.isEmpty() && mainThread.nanoTime() - startNanos < FRAME_BUDGET_NANOS) {
+      final Operation operation = operations.poll();
+      if (operation.runnable == null) {
+        finish(operation.update);
+        continue;
+      }
+      if (operation.update.error != null) {
+        continue;
+      }
+      try {
+        operation.runnable.run();
+      } catch (RuntimeException e) {
+        // Skips the rest of the update, as the method call would have stopped at the error.
+        operation.update.error = e;
+      }
+    }
+    if (!operations.isEmpty() && !disposed) {
+      frameCallbackPosted = true;
+      mainThread.postFrameCallback(frameCallback);
+    }
+  }
+
+  private void finish(Update update) {
+    pendingUpdates.remove(update);
+    if (update.error == null) {
+      update.result.success(null);
+    } else {
+      Log.e(TAG, "Can't update map objects", update.error);
+      update.result.error(
+          "Invalid update", update.error.getMessage(), Log.getStackTraceString(update.error));
+    }
+  }
+
+  private static void failDisposed(Update update) {
+    update.result.error("Map disposed", "The map was disposed before the update was applied", null);
+  }
+}
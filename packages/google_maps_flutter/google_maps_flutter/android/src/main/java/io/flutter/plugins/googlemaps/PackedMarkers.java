@@ -0,0 +1,105 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.LatLng;
+import java.util.List;
+
+/**
+ * A batch of markers sent as parallel arrays rather than as one options map per marker.
+ *
+ * <p>Positions and per-marker values arrive as typed arrays, so decoding a batch of thousands of
+ * markers neither boxes a value nor looks up a key per marker. Icons are listed once per batch and
+ * referred to by index, so each distinct icon is only decoded once.
+ */
+class PackedMarkers {
+  /** Index in {@code iconIndices} of a marker whose icon is left unchanged. */
+  static final int NO_ICON = -1;
+
+  private final List<?> markerIds;
+  private final double[] positions;
+  private final BitmapDescriptor[] icons;
+  private final int[] iconIndices;
+  private final double[] rotations;
+  private final double[] zIndices;
+
+  /**
+   * @param markerIds The Dart marker ids.
+   * @param positions Latitude and longitude of every marker, one pair after the other.
+   * @param icons The distinct icons of the batch, or null if no marker changes its icon.
+   * @param iconIndices Index in {@code icons} of the icon of every marker, or {@link #NO_ICON}.
+   *     May be null if no marker changes its icon.
+   * @param rotations Rotation of every marker, or null to leave rotations unchanged.
+   * @param zIndices Z-index of every marker, or null to leave z-indices unchanged.
+   */
+  PackedMarkers(
+      List<?> markerIds,
+      double[] positions,
+      BitmapDescriptor[] icons,
+      int[] iconIndices,
+      double[] rotations,
+      double[] zIndices) {
+    if (markerIds == null || positions == null) {
+      throw new IllegalArgumentException("markerIds and positions are required");
+    }
+    final int count = markerIds.size();
+    if (positions.length != count * 2) {
+      throw new IllegalArgumentException(
+          "Expected " + count * 2 + " position values, got: " + positions.length);
+    }
+    checkLength("iconIndices", iconIndices == null ? -1 : iconIndices.length, count);
+    checkLength("rotations", rotations == null ? -1 : rotations.length, count);
+    checkLength("zIndices", zIndices == null ? -1 : zIndices.length, count);
+    if (iconIndices != null) {
+      final int iconCount = icons == null ? 0 : icons.length;
+      for (int iconIndex : iconIndices) {
+        if (iconIndex != NO_ICON && (iconIndex < 0 || iconIndex >= iconCount)) {
+          throw new IllegalArgumentException("Icon index out of range: " + iconIndex);
+        }
+      }
+    }
+
+    this.markerIds = markerIds;
+    this.positions = positions;
+    this.icons = icons;
+    this.iconIndices = iconIndices;
+    this.rotations = rotations;
+    this.zIndices = zIndices;
+  }
+
+  int size() {
+    return markerIds.size();
+  }
+
+  String getMarkerId(int index) {
+    final String markerId = (String) markerIds.get(index);
+    if (markerId == null) {
+      throw new IllegalArgumentException("markerId was null");
+    }
+    return markerId;
+  }
+
+  /** Applies the values of the marker at {@code index} to {@code sink}. */
+  void interpretMarker(int index, MarkerOptionsSink sink) {
+    sink.setPosition(new LatLng(positions[index * 2], positions[index * 2 + 1]));
+    if (iconIndices != null && iconIndices[index] != NO_ICON) {
+      sink.setIcon(icons[iconIndices[index]]);
+    }
+    if (rotations != null) {
+      sink.setRotation((float) rotations[index]);
+    }
+    if (zIndices != null) {
+      sink.setZIndex((float) zIndices[index]);
+    }
+  }
+
+  private static void checkLength(String name, int length, int count) {
+    if (length != -1 && length != count) {
+      throw new IllegalArgumentException(
+          "Expected " + count + " " + name + " values, got: " + length);
+    }
+  }
+}
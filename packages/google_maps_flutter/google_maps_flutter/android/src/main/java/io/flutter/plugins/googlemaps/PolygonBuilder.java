@@ -6,12 +6,16 @@ package io.flutter.plugins.googlemaps;
 
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.PolygonOptions;
+import java.util.Collections;
 import java.util.List;
 
 class PolygonBuilder implements PolygonOptionsSink {
   private final PolygonOptions polygonOptions;
   private final float density;
   private boolean consumeTapEvents;
+  private boolean simplify;
+  private List<LatLng> points = Collections.emptyList();
+  private LevelsOfDetail levelsOfDetail;
 
   PolygonBuilder(float density) {
     this.polygonOptions = new PolygonOptions();
@@ -26,6 +30,18 @@ class PolygonBuilder implements PolygonOptionsSink {
     return consumeTapEvents;
   }
 
+  List<LatLng> getPoints() {
+    return points;
+  }
+
+  /**
+   * Returns the levels of detail of the points when they are simplified, or null. The points are
+   * then left out of the built options, and set on the polygon once its zoom is known.
+   */
+  LevelsOfDetail getLevelsOfDetail() {
+    return levelsOfDetail;
+  }
+
   @Override
   public void setFillColor(int color) {
     polygonOptions.fillColor(color);
@@ -36,9 +52,19 @@ class PolygonBuilder implements PolygonOptionsSink {
     polygonOptions.strokeColor(color);
   }
 
+  @Override
+  public void setSimplify(boolean simplify) {
+    this.simplify = simplify;
+  }
+
   @Override
   public void setPoints(List<LatLng> points) {
-    polygonOptions.addAll(points);
+    this.points = points;
+    if (simplify) {
+      levelsOfDetail = new LevelsOfDetail(points);
+    } else {
+      polygonOptions.addAll(points);
+    }
   }
 
   @Override
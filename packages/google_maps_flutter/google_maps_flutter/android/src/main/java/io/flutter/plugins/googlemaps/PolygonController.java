@@ -6,6 +6,7 @@ package io.flutter.plugins.googlemaps;
 
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Polygon;
+import com.google.android.gms.maps.model.PolygonOptions;
 import java.util.List;
 
 /** Controller of a single Polygon on the map. */
@@ -14,6 +15,10 @@ class PolygonController implements PolygonOptionsSink {
   private final String googleMapsPolygonId;
   private final float density;
   private boolean consumeTapEvents;
+  private boolean simplify;
+  private LevelsOfDetail levelsOfDetail;
+  private List<LatLng> shownPoints;
+  private float zoom;
 
   PolygonController(Polygon polygon, boolean consumeTapEvents, float density) {
     this.polygon = polygon;
@@ -26,6 +31,26 @@ class PolygonController implements PolygonOptionsSink {
     polygon.remove();
   }
 
+  /** Replaces every option of the polygon with those of {@code polygonBuilder}. */
+  void update(PolygonBuilder polygonBuilder) {
+    final PolygonOptions options = polygonBuilder.build();
+    setConsumeTapEvents(polygonBuilder.consumeTapEvents());
+    polygon.setFillColor(options.getFillColor());
+    polygon.setStrokeColor(options.getStrokeColor());
+    polygon.setGeodesic(options.isGeodesic());
+    polygon.setHoles(options.getHoles());
+    polygon.setVisible(options.isVisible());
+    // The stroke width of the options is already scaled by the density.
+    polygon.setStrokeWidth(options.getStrokeWidth());
+    polygon.setZIndex(options.getZIndex());
+    if (polygonBuilder.getLevelsOfDetail() != null) {
+      setLevelsOfDetail(polygonBuilder.getLevelsOfDetail(), zoom);
+    } else {
+      setLevelsOfDetail(null, zoom);
+      setPoints(polygonBuilder.getPoints());
+    }
+  }
+
   @Override
   public void setConsumeTapEvents(boolean consumeTapEvents) {
     this.consumeTapEvents = consumeTapEvents;
@@ -47,9 +72,42 @@ class PolygonController implements PolygonOptionsSink {
     polygon.setGeodesic(geodesic);
   }
 
+  @Override
+  public void setSimplify(boolean simplify) {
+    this.simplify = simplify;
+    if (!simplify) {
+      levelsOfDetail = null;
+    }
+  }
+
   @Override
   public void setPoints(List<LatLng> points) {
-    polygon.setPoints(points);
+    if (simplify) {
+      setLevelsOfDetail(new LevelsOfDetail(points), zoom);
+    } else {
+      shownPoints = points;
+      polygon.setPoints(points);
+    }
+  }
+
+  /** Shows the points of {@code levelsOfDetail} for {@code zoom}, when they are simplified. */
+  void setLevelsOfDetail(LevelsOfDetail levelsOfDetail, float zoom) {
+    this.simplify = levelsOfDetail != null;
+    this.levelsOfDetail = levelsOfDetail;
+    setZoom(zoom);
+  }
+
+  /** Swaps in the simplified points for {@code zoom}, if they differ from the shown ones. */
+  void setZoom(float zoom) {
+    this.zoom = zoom;
+    if (levelsOfDetail == null) {
+      return;
+    }
+    final List<LatLng> points = levelsOfDetail.getPoints(zoom);
+    if (points != shownPoints) {
+      shownPoints = points;
+      polygon.setPoints(points);
+    }
   }
 
   public void setHoles(List<List<LatLng>> holes) {
@@ -18,6 +18,8 @@ interface PolygonOptionsSink {
 
   void setGeodesic(boolean geodesic);
 
+  void setSimplify(boolean simplify);
+
   void setPoints(List<LatLng> points);
 
   void setHoles(List<List<LatLng>> holes);
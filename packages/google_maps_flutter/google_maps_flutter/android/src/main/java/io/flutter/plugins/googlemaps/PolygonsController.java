@@ -6,23 +6,26 @@ package io.flutter.plugins.googlemaps;
 
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.model.Polygon;
-import com.google.android.gms.maps.model.PolygonOptions;
 import io.flutter.plugin.common.MethodChannel;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-class PolygonsController {
+class PolygonsController implements ViewportCuller.Listener {
 
   private final Map<String, PolygonController> polygonIdToController;
   private final Map<String, String> googleMapsPolygonIdToDartPolygonId;
+  private final Map<String, PolygonBuilder> polygonIdToBuilder;
   private final MethodChannel methodChannel;
   private final float density;
   private GoogleMap googleMap;
+  private ViewportCuller viewportCuller;
+  private float zoom;
 
   PolygonsController(MethodChannel methodChannel, float density) {
     this.polygonIdToController = new HashMap<>();
     this.googleMapsPolygonIdToDartPolygonId = new HashMap<>();
+    this.polygonIdToBuilder = new HashMap<>();
     this.methodChannel = methodChannel;
     this.density = density;
   }
@@ -31,6 +34,47 @@ class PolygonsController {
     this.googleMap = googleMap;
   }
 
+  /**
+   * Enables or disables viewport culling, which only keeps the polygons within the culling region
+   * on the map. Polygons added while culling is disabled are never culled.
+   */
+  void setCullingEnabled(boolean cullingEnabled) {
+    if (cullingEnabled == (viewportCuller != null)) {
+      return;
+    }
+    if (cullingEnabled) {
+      viewportCuller = new ViewportCuller(this);
+    } else {
+      viewportCuller.showAll();
+      viewportCuller = null;
+      polygonIdToBuilder.clear();
+    }
+  }
+
+  /** Swaps in the simplified points of the polygons for {@code zoom}. */
+  void setZoom(float zoom) {
+    this.zoom = zoom;
+    for (PolygonController polygonController : polygonIdToController.values()) {
+      polygonController.setZoom(zoom);
+    }
+  }
+
+  void setCullingRegion(List<SpatialIndex.Bounds> region) {
+    if (viewportCuller != null) {
+      viewportCuller.setRegion(region);
+    }
+  }
+
+  @Override
+  public void onEnterRegion(String polygonId) {
+    showPolygon(polygonId, polygonIdToBuilder.get(polygonId));
+  }
+
+  @Override
+  public void onLeaveRegion(String polygonId) {
+    removePolygon(polygonId);
+  }
+
   void addPolygons(List<Object> polygonsToAdd) {
     if (polygonsToAdd != null) {
       for (Object polygonToAdd : polygonsToAdd) {
@@ -39,15 +83,45 @@ class PolygonsController {
     }
   }
 
-  void changePolygons(List<Object> polygonsToChange) {
-    if (polygonsToChange != null) {
-      for (Object polygonToChange : polygonsToChange) {
-        changePolygon(polygonToChange);
+  /**
+   * Parses the polygons to add, on a background thread, into {@code operations} that add
+   * them on the main thread.
+   */
+  void prepareAddPolygons(List<Object> polygonsToAdd, List<Runnable> operations) {
+    if (polygonsToAdd == null) {
+      return;
+    }
+    for (Object polygonToAdd : polygonsToAdd) {
+      if (polygonToAdd == null) {
+        continue;
       }
+      final PolygonBuilder polygonBuilder = new PolygonBuilder(density);
+      final String polygonId = Convert.interpretPolygonOptions(polygonToAdd, polygonBuilder);
+      operations.add(() -> addPolygon(polygonId, polygonBuilder));
     }
   }
 
-  void removePolygons(List<Object> polygonIdsToRemove) {
+  /**
+   * Parses the changed polygons, on a background thread, into {@code operations} that
+   * change them on the main thread.
+   */
+  void prepareChangePolygons(List<Object> polygonsToChange, List<Runnable> operations) {
+    if (polygonsToChange == null) {
+      return;
+    }
+    for (Object polygonToChange : polygonsToChange) {
+      if (polygonToChange == null) {
+        continue;
+      }
+      // Changes hold every option of the polygon, so they replace all of its options.
+      final PolygonBuilder polygonBuilder = new PolygonBuilder(density);
+      final String polygonId = Convert.interpretPolygonOptions(polygonToChange, polygonBuilder);
+      operations.add(() -> changePolygon(polygonId, polygonBuilder));
+    }
+  }
+
+  /** Adds {@code operations} that remove polygons on the main thread. */
+  void prepareRemovePolygons(List<Object> polygonIdsToRemove, List<Runnable> operations) {
     if (polygonIdsToRemove == null) {
       return;
     }
@@ -55,12 +129,25 @@ class PolygonsController {
       if (rawPolygonId == null) {
         continue;
       }
-      String polygonId = (String) rawPolygonId;
-      final PolygonController polygonController = polygonIdToController.remove(polygonId);
-      if (polygonController != null) {
-        polygonController.remove();
-        googleMapsPolygonIdToDartPolygonId.remove(polygonController.getGoogleMapsPolygonId());
-      }
+      final String polygonId = (String) rawPolygonId;
+      operations.add(() -> deletePolygon(polygonId));
+    }
+  }
+
+  /** Removes a polygon from the map, and forgets the options kept for it while culling. */
+  private void deletePolygon(String polygonId) {
+    removePolygon(polygonId);
+    polygonIdToBuilder.remove(polygonId);
+    if (viewportCuller != null) {
+      viewportCuller.remove(polygonId);
+    }
+  }
+
+  private void removePolygon(String polygonId) {
+    final PolygonController polygonController = polygonIdToController.remove(polygonId);
+    if (polygonController != null) {
+      polygonController.remove();
+      googleMapsPolygonIdToDartPolygonId.remove(polygonController.getGoogleMapsPolygonId());
     }
   }
 
@@ -83,32 +170,43 @@ class PolygonsController {
     }
     PolygonBuilder polygonBuilder = new PolygonBuilder(density);
     String polygonId = Convert.interpretPolygonOptions(polygon, polygonBuilder);
-    PolygonOptions options = polygonBuilder.build();
-    addPolygon(polygonId, options, polygonBuilder.consumeTapEvents());
+    addPolygon(polygonId, polygonBuilder);
+  }
+
+  /**
+   * Adds a polygon to the map, or to the culler, which shows it once it is in the culling
+   * region.
+   */
+  private void addPolygon(String polygonId, PolygonBuilder polygonBuilder) {
+    if (viewportCuller != null) {
+      polygonIdToBuilder.put(polygonId, polygonBuilder);
+      viewportCuller.put(polygonId, getBounds(polygonBuilder));
+      return;
+    }
+    showPolygon(polygonId, polygonBuilder);
   }
 
-  private void addPolygon(
-      String polygonId, PolygonOptions polygonOptions, boolean consumeTapEvents) {
-    final Polygon polygon = googleMap.addPolygon(polygonOptions);
-    PolygonController controller = new PolygonController(polygon, consumeTapEvents, density);
+  private void showPolygon(String polygonId, PolygonBuilder polygonBuilder) {
+    final Polygon polygon = googleMap.addPolygon(polygonBuilder.build());
+    PolygonController controller =
+        new PolygonController(polygon, polygonBuilder.consumeTapEvents(), density);
+    controller.setLevelsOfDetail(polygonBuilder.getLevelsOfDetail(), zoom);
     polygonIdToController.put(polygonId, controller);
     googleMapsPolygonIdToDartPolygonId.put(polygon.getId(), polygonId);
   }
 
-  private void changePolygon(Object polygon) {
-    if (polygon == null) {
-      return;
-    }
-    String polygonId = getPolygonId(polygon);
+  private void changePolygon(String polygonId, PolygonBuilder polygonBuilder) {
     PolygonController polygonController = polygonIdToController.get(polygonId);
     if (polygonController != null) {
-      Convert.interpretPolygonOptions(polygon, polygonController);
+      polygonController.update(polygonBuilder);
+    }
+    if (viewportCuller != null && polygonIdToBuilder.containsKey(polygonId)) {
+      polygonIdToBuilder.put(polygonId, polygonBuilder);
+      viewportCuller.put(polygonId, getBounds(polygonBuilder));
     }
   }
 
-  @SuppressWarnings("unchecked")
-  private static String getPolygonId(Object polygon) {
-    Map<String, Object> polygonMap = (Map<String, Object>) polygon;
-    return (String) polygonMap.get("polygonId");
+  private static SpatialIndex.Bounds getBounds(PolygonBuilder polygonBuilder) {
+    return SpatialIndex.Bounds.ofPoints(polygonBuilder.getPoints());
   }
 }
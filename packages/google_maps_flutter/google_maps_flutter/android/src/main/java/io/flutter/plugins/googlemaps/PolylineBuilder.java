@@ -8,11 +8,15 @@ import com.google.android.gms.maps.model.Cap;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.PatternItem;
 import com.google.android.gms.maps.model.PolylineOptions;
+import java.util.Collections;
 import java.util.List;
 
 class PolylineBuilder implements PolylineOptionsSink {
   private final PolylineOptions polylineOptions;
   private boolean consumeTapEvents;
+  private boolean simplify;
+  private List<LatLng> points = Collections.emptyList();
+  private LevelsOfDetail levelsOfDetail;
   private final float density;
 
   PolylineBuilder(float density) {
@@ -28,6 +32,18 @@ class PolylineBuilder implements PolylineOptionsSink {
     return consumeTapEvents;
   }
 
+  List<LatLng> getPoints() {
+    return points;
+  }
+
+  /**
+   * Returns the levels of detail of the points when they are simplified, or null. The points are
+   * then left out of the built options, and set on the polyline once its zoom is known.
+   */
+  LevelsOfDetail getLevelsOfDetail() {
+    return levelsOfDetail;
+  }
+
   @Override
   public void setColor(int color) {
     polylineOptions.color(color);
@@ -48,9 +64,19 @@ class PolylineBuilder implements PolylineOptionsSink {
     polylineOptions.pattern(pattern);
   }
 
+  @Override
+  public void setSimplify(boolean simplify) {
+    this.simplify = simplify;
+  }
+
   @Override
   public void setPoints(List<LatLng> points) {
-    polylineOptions.addAll(points);
+    this.points = points;
+    if (simplify) {
+      levelsOfDetail = new LevelsOfDetail(points);
+    } else {
+      polylineOptions.addAll(points);
+    }
   }
 
   @Override
@@ -8,6 +8,7 @@ import com.google.android.gms.maps.model.Cap;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.PatternItem;
 import com.google.android.gms.maps.model.Polyline;
+import com.google.android.gms.maps.model.PolylineOptions;
 import java.util.List;
 
 /** Controller of a single Polyline on the map. */
@@ -15,6 +16,10 @@ class PolylineController implements PolylineOptionsSink {
   private final Polyline polyline;
   private final String googleMapsPolylineId;
   private boolean consumeTapEvents;
+  private boolean simplify;
+  private LevelsOfDetail levelsOfDetail;
+  private List<LatLng> shownPoints;
+  private float zoom;
   private final float density;
 
   PolylineController(Polyline polyline, boolean consumeTapEvents, float density) {
@@ -28,6 +33,28 @@ class PolylineController implements PolylineOptionsSink {
     polyline.remove();
   }
 
+  /** Replaces every option of the polyline with those of {@code polylineBuilder}. */
+  void update(PolylineBuilder polylineBuilder) {
+    final PolylineOptions options = polylineBuilder.build();
+    setConsumeTapEvents(polylineBuilder.consumeTapEvents());
+    polyline.setColor(options.getColor());
+    polyline.setEndCap(options.getEndCap());
+    polyline.setGeodesic(options.isGeodesic());
+    polyline.setJointType(options.getJointType());
+    polyline.setPattern(options.getPattern());
+    polyline.setStartCap(options.getStartCap());
+    polyline.setVisible(options.isVisible());
+    // The width of the options is already scaled by the density.
+    polyline.setWidth(options.getWidth());
+    polyline.setZIndex(options.getZIndex());
+    if (polylineBuilder.getLevelsOfDetail() != null) {
+      setLevelsOfDetail(polylineBuilder.getLevelsOfDetail(), zoom);
+    } else {
+      setLevelsOfDetail(null, zoom);
+      setPoints(polylineBuilder.getPoints());
+    }
+  }
+
   @Override
   public void setConsumeTapEvents(boolean consumeTapEvents) {
     this.consumeTapEvents = consumeTapEvents;
@@ -59,9 +86,42 @@ class PolylineController implements PolylineOptionsSink {
     polyline.setPattern(pattern);
   }
 
+  @Override
+  public void setSimplify(boolean simplify) {
+    this.simplify = simplify;
+    if (!simplify) {
+      levelsOfDetail = null;
+    }
+  }
+
   @Override
   public void setPoints(List<LatLng> points) {
-    polyline.setPoints(points);
+    if (simplify) {
+      setLevelsOfDetail(new LevelsOfDetail(points), zoom);
+    } else {
+      shownPoints = points;
+      polyline.setPoints(points);
+    }
+  }
+
+  /** Shows the points of {@code levelsOfDetail} for {@code zoom}, when they are simplified. */
+  void setLevelsOfDetail(LevelsOfDetail levelsOfDetail, float zoom) {
+    this.simplify = levelsOfDetail != null;
+    this.levelsOfDetail = levelsOfDetail;
+    setZoom(zoom);
+  }
+
+  /** Swaps in the simplified points for {@code zoom}, if they differ from the shown ones. */
+  void setZoom(float zoom) {
+    this.zoom = zoom;
+    if (levelsOfDetail == null) {
+      return;
+    }
+    final List<LatLng> points = levelsOfDetail.getPoints(zoom);
+    if (points != shownPoints) {
+      shownPoints = points;
+      polyline.setPoints(points);
+    }
   }
 
   @Override
@@ -24,6 +24,8 @@ interface PolylineOptionsSink {
 
   void setPattern(List<PatternItem> pattern);
 
+  void setSimplify(boolean simplify);
+
   void setPoints(List<LatLng> points);
 
   void setStartCap(Cap startCap);
@@ -6,23 +6,26 @@ package io.flutter.plugins.googlemaps;
 
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.model.Polyline;
-import com.google.android.gms.maps.model.PolylineOptions;
 import io.flutter.plugin.common.MethodChannel;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-class PolylinesController {
+class PolylinesController implements ViewportCuller.Listener {
 
   private final Map<String, PolylineController> polylineIdToController;
   private final Map<String, String> googleMapsPolylineIdToDartPolylineId;
+  private final Map<String, PolylineBuilder> polylineIdToBuilder;
   private final MethodChannel methodChannel;
   private GoogleMap googleMap;
+  private ViewportCuller viewportCuller;
+  private float zoom;
   private final float density;
 
   PolylinesController(MethodChannel methodChannel, float density) {
     this.polylineIdToController = new HashMap<>();
     this.googleMapsPolylineIdToDartPolylineId = new HashMap<>();
+    this.polylineIdToBuilder = new HashMap<>();
     this.methodChannel = methodChannel;
     this.density = density;
   }
@@ -31,6 +34,47 @@ class PolylinesController {
     this.googleMap = googleMap;
   }
 
+  /**
+   * Enables or disables viewport culling, which only keeps the polylines within the culling region
+   * on the map. Polylines added while culling is disabled are never culled.
+   */
+  void setCullingEnabled(boolean cullingEnabled) {
+    if (cullingEnabled == (viewportCuller != null)) {
+      return;
+    }
+    if (cullingEnabled) {
+      viewportCuller = new ViewportCuller(this);
+    } else {
+      viewportCuller.showAll();
+      viewportCuller = null;
+      polylineIdToBuilder.clear();
+    }
+  }
+
+  /** Swaps in the simplified points of the polylines for {@code zoom}. */
+  void setZoom(float zoom) {
+    this.zoom = zoom;
+    for (PolylineController polylineController : polylineIdToController.values()) {
+      polylineController.setZoom(zoom);
+    }
+  }
+
+  void setCullingRegion(List<SpatialIndex.Bounds> region) {
+    if (viewportCuller != null) {
+      viewportCuller.setRegion(region);
+    }
+  }
+
+  @Override
+  public void onEnterRegion(String polylineId) {
+    showPolyline(polylineId, polylineIdToBuilder.get(polylineId));
+  }
+
+  @Override
+  public void onLeaveRegion(String polylineId) {
+    removePolyline(polylineId);
+  }
+
   void addPolylines(List<Object> polylinesToAdd) {
     if (polylinesToAdd != null) {
       for (Object polylineToAdd : polylinesToAdd) {
@@ -39,15 +83,45 @@ class PolylinesController {
     }
   }
 
-  void changePolylines(List<Object> polylinesToChange) {
-    if (polylinesToChange != null) {
-      for (Object polylineToChange : polylinesToChange) {
-        changePolyline(polylineToChange);
+  /**
+   * Parses the polylines to add, on a background thread, into {@code operations} that add
+   * them on the main thread.
+   */
+  void prepareAddPolylines(List<Object> polylinesToAdd, List<Runnable> operations) {
+    if (polylinesToAdd == null) {
+      return;
+    }
+    for (Object polylineToAdd : polylinesToAdd) {
+      if (polylineToAdd == null) {
+        continue;
       }
+      final PolylineBuilder polylineBuilder = new PolylineBuilder(density);
+      final String polylineId = Convert.interpretPolylineOptions(polylineToAdd, polylineBuilder);
+      operations.add(() -> addPolyline(polylineId, polylineBuilder));
     }
   }
 
-  void removePolylines(List<Object> polylineIdsToRemove) {
+  /**
+   * Parses the changed polylines, on a background thread, into {@code operations} that
+   * change them on the main thread.
+   */
+  void prepareChangePolylines(List<Object> polylinesToChange, List<Runnable> operations) {
+    if (polylinesToChange == null) {
+      return;
+    }
+    for (Object polylineToChange : polylinesToChange) {
+      if (polylineToChange == null) {
+        continue;
+      }
+      // Changes hold every option of the polyline, so they replace all of its options.
+      final PolylineBuilder polylineBuilder = new PolylineBuilder(density);
+      final String polylineId = Convert.interpretPolylineOptions(polylineToChange, polylineBuilder);
+      operations.add(() -> changePolyline(polylineId, polylineBuilder));
+    }
+  }
+
+  /** Adds {@code operations} that remove polylines on the main thread. */
+  void prepareRemovePolylines(List<Object> polylineIdsToRemove, List<Runnable> operations) {
     if (polylineIdsToRemove == null) {
       return;
     }
@@ -55,12 +129,25 @@ class PolylinesController {
       if (rawPolylineId == null) {
         continue;
       }
-      String polylineId = (String) rawPolylineId;
-      final PolylineController polylineController = polylineIdToController.remove(polylineId);
-      if (polylineController != null) {
-        polylineController.remove();
-        googleMapsPolylineIdToDartPolylineId.remove(polylineController.getGoogleMapsPolylineId());
-      }
+      final String polylineId = (String) rawPolylineId;
+      operations.add(() -> deletePolyline(polylineId));
+    }
+  }
+
+  /** Removes a polyline from the map, and forgets the options kept for it while culling. */
+  private void deletePolyline(String polylineId) {
+    removePolyline(polylineId);
+    polylineIdToBuilder.remove(polylineId);
+    if (viewportCuller != null) {
+      viewportCuller.remove(polylineId);
+    }
+  }
+
+  private void removePolyline(String polylineId) {
+    final PolylineController polylineController = polylineIdToController.remove(polylineId);
+    if (polylineController != null) {
+      polylineController.remove();
+      googleMapsPolylineIdToDartPolylineId.remove(polylineController.getGoogleMapsPolylineId());
     }
   }
 
@@ -83,32 +170,43 @@ class PolylinesController {
     }
     PolylineBuilder polylineBuilder = new PolylineBuilder(density);
     String polylineId = Convert.interpretPolylineOptions(polyline, polylineBuilder);
-    PolylineOptions options = polylineBuilder.build();
-    addPolyline(polylineId, options, polylineBuilder.consumeTapEvents());
+    addPolyline(polylineId, polylineBuilder);
+  }
+
+  /**
+   * Adds a polyline to the map, or to the culler, which shows it once it is in the culling
+   * region.
+   */
+  private void addPolyline(String polylineId, PolylineBuilder polylineBuilder) {
+    if (viewportCuller != null) {
+      polylineIdToBuilder.put(polylineId, polylineBuilder);
+      viewportCuller.put(polylineId, getBounds(polylineBuilder));
+      return;
+    }
+    showPolyline(polylineId, polylineBuilder);
   }
 
-  private void addPolyline(
-      String polylineId, PolylineOptions polylineOptions, boolean consumeTapEvents) {
-    final Polyline polyline = googleMap.addPolyline(polylineOptions);
-    PolylineController controller = new PolylineController(polyline, consumeTapEvents, density);
+  private void showPolyline(String polylineId, PolylineBuilder polylineBuilder) {
+    final Polyline polyline = googleMap.addPolyline(polylineBuilder.build());
+    PolylineController controller =
+        new PolylineController(polyline, polylineBuilder.consumeTapEvents(), density);
+    controller.setLevelsOfDetail(polylineBuilder.getLevelsOfDetail(), zoom);
     polylineIdToController.put(polylineId, controller);
     googleMapsPolylineIdToDartPolylineId.put(polyline.getId(), polylineId);
   }
 
-  private void changePolyline(Object polyline) {
-    if (polyline == null) {
-      return;
-    }
-    String polylineId = getPolylineId(polyline);
+  private void changePolyline(String polylineId, PolylineBuilder polylineBuilder) {
     PolylineController polylineController = polylineIdToController.get(polylineId);
     if (polylineController != null) {
-      Convert.interpretPolylineOptions(polyline, polylineController);
+      polylineController.update(polylineBuilder);
+    }
+    if (viewportCuller != null && polylineIdToBuilder.containsKey(polylineId)) {
+      polylineIdToBuilder.put(polylineId, polylineBuilder);
+      viewportCuller.put(polylineId, getBounds(polylineBuilder));
     }
   }
 
-  @SuppressWarnings("unchecked")
-  private static String getPolylineId(Object polyline) {
-    Map<String, Object> polylineMap = (Map<String, Object>) polyline;
-    return (String) polylineMap.get("polylineId");
+  private static SpatialIndex.Bounds getBounds(PolylineBuilder polylineBuilder) {
+    return SpatialIndex.Bounds.ofPoints(polylineBuilder.getPoints());
   }
 }
@@ -0,0 +1,231 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A quadtree of items with rectangular bounds in latitude and longitude.
+ *
+ * <p>Each item is stored in the smallest node whose area fully contains its bounds, so points and
+ * small shapes end up deep in the tree while shapes spanning large areas stay close to the root.
+ */
+class SpatialIndex<T> {
+  private static final int NODE_CAPACITY = 16;
+  private static final int MAX_DEPTH = 16;
+  private static final double METERS_PER_DEGREE = 111320;
+
+  /** A latitude and longitude rectangle that does not cross the antimeridian. */
+  static final class Bounds {
+    final double south;
+    final double west;
+    final double north;
+    final double east;
+
+    Bounds(double south, double west, double north, double east) {
+      this.south = south;
+      this.west = west;
+      this.north = north;
+      this.east = east;
+    }
+
+    static Bounds ofPoint(LatLng point) {
+      return new Bounds(point.latitude, point.longitude, point.latitude, point.longitude);
+    }
+
+    /** Returns the bounds of {@code points}, or null if there are none. */
+    static Bounds ofPoints(List<LatLng> points) {
+      if (points == null || points.isEmpty()) {
+        return null;
+      }
+      double south = 90;
+      double west = 180;
+      double north = -90;
+      double east = -180;
+      for (LatLng point : points) {
+        south = Math.min(south, point.latitude);
+        north = Math.max(north, point.latitude);
+        west = Math.min(west, point.longitude);
+        east = Math.max(east, point.longitude);
+      }
+      return new Bounds(south, west, north, east);
+    }
+
+    /** Returns bounds enclosing a circle of {@code radius} meters around {@code center}. */
+    static Bounds ofCircle(LatLng center, double radius) {
+      final double latitudeDelta = radius / METERS_PER_DEGREE;
+      final double cos = Math.cos(Math.toRadians(center.latitude));
+      final double longitudeDelta = cos > 1e-6 ? latitudeDelta / cos : 180;
+      return new Bounds(
+          Math.max(-90, center.latitude - latitudeDelta),
+          Math.max(-180, center.longitude - longitudeDelta),
+          Math.min(90, center.latitude + latitudeDelta),
+          Math.min(180, center.longitude + longitudeDelta));
+    }
+
+    /**
+     * Returns the visible region grown by {@code margin} times its size on every side, as one
+     * rectangle, or two if it crosses the antimeridian.
+     */
+    static List<Bounds> ofRegion(LatLngBounds region, double margin) {
+      final double height = region.northeast.latitude - region.southwest.latitude;
+      final double south = Math.max(-90, region.southwest.latitude - height * margin);
+      final double north = Math.min(90, region.northeast.latitude + height * margin);
+
+      double width = region.northeast.longitude - region.southwest.longitude;
+      if (width < 0) {
+        width += 360;
+      }
+      final double span = width * (1 + 2 * margin);
+      if (span >= 360) {
+        return Collections.singletonList(new Bounds(south, -180, north, 180));
+      }
+      double west = region.southwest.longitude - width * margin;
+      if (west < -180) {
+        west += 360;
+      }
+      final double east = west + span;
+      if (east <= 180) {
+        return Collections.singletonList(new Bounds(south, west, north, east));
+      }
+      final List<Bounds> bounds = new ArrayList<>(2);
+      bounds.add(new Bounds(south, west, north, 180));
+      bounds.add(new Bounds(south, -180, north, east - 360));
+      return bounds;
+    }
+
+    boolean intersects(Bounds other) {
+      return south <= other.north
+          && other.south <= north
+          && west <= other.east
+          && other.west <= east;
+    }
+
+    boolean contains(Bounds other) {
+      return south <= other.south
+          && other.north <= north
+          && west <= other.west
+          && other.east <= east;
+    }
+  }
+
+  private final class Node {
+    final Bounds bounds;
+    final int depth;
+    final Map<T, Bounds> items = new LinkedHashMap<>();
+    List<Node> children;
+
+    Node(Bounds bounds, int depth) {
+      this.bounds = bounds;
+      this.depth = depth;
+    }
+
+    void insert(T item, Bounds itemBounds) {
+      if (children != null) {
+        for (Node child : children) {
+          if (child.bounds.contains(itemBounds)) {
+            child.insert(item, itemBounds);
+            return;
+          }
+        }
+      }
+      items.put(item, itemBounds);
+      itemNodes.put(item, this);
+      if (children == null && items.size() > NODE_CAPACITY && depth < MAX_DEPTH) {
+        split();
+      }
+    }
+
+    void query(Bounds area, Collection<T> result) {
+      if (!bounds.intersects(area)) {
+        return;
+      }
+      for (Map.Entry<T, Bounds> entry : items.entrySet()) {
+        if (entry.getValue().intersects(area)) {
+          result.add(entry.getKey());
+        }
+      }
+      if (children != null) {
+        for (Node child : children) {
+          child.query(area, result);
+        }
+      }
+    }
+
+    private void split() {
+      final double midLatitude = (bounds.south + bounds.north) / 2;
+      final double midLongitude = (bounds.west + bounds.east) / 2;
+      children = new ArrayList<>(4);
+      children.add(
+          new Node(new Bounds(bounds.south, bounds.west, midLatitude, midLongitude), depth + 1));
+      children.add(
+          new Node(new Bounds(bounds.south, midLongitude, midLatitude, bounds.east), depth + 1));
+      children.add(
+          new Node(new Bounds(midLatitude, bounds.west, bounds.north, midLongitude), depth + 1));
+      children.add(
+          new Node(new Bounds(midLatitude, midLongitude, bounds.north, bounds.east), depth + 1));
+
+      final Iterator<Map.Entry<T, Bounds>> iterator = items.entrySet().iterator();
+      final Map<T, Bounds> movedItems = new LinkedHashMap<>();
+      while (iterator.hasNext()) {
+        final Map.Entry<T, Bounds> entry = iterator.next();
+        for (Node child : children) {
+          if (child.bounds.contains(entry.getValue())) {
+            movedItems.put(entry.getKey(), entry.getValue());
+            iterator.remove();
+            break;
+          }
+        }
+      }
+      for (Map.Entry<T, Bounds> entry : movedItems.entrySet()) {
+        insert(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  private final Map<T, Node> itemNodes = new HashMap<>();
+  private Node root = newRoot();
+
+  /** Adds {@code item}, or moves it if it was already added. */
+  void put(T item, Bounds bounds) {
+    remove(item);
+    root.insert(item, bounds);
+  }
+
+  void remove(T item) {
+    final Node node = itemNodes.remove(item);
+    if (node != null) {
+      node.items.remove(item);
+    }
+  }
+
+  /** Adds the items whose bounds intersect {@code area} to {@code result}. */
+  void query(Bounds area, Collection<T> result) {
+    root.query(area, result);
+  }
+
+  Set<T> getItems() {
+    return Collections.unmodifiableSet(itemNodes.keySet());
+  }
+
+  void clear() {
+    itemNodes.clear();
+    root = newRoot();
+  }
+
+  private Node newRoot() {
+    return new Node(new Bounds(-90, -180, 90, 180), 0);
+  }
+}
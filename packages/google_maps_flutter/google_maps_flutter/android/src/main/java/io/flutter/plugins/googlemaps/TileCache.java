@@ -0,0 +1,375 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.util.Log;
+import com.google.android.gms.maps.model.Tile;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the tiles returned by the Dart tile providers of a map, in memory and on disk.
+ *
+ * <p>Recently used tiles are kept in memory, and every tile is also written to a directory that
+ * is bounded in size, evicting the least recently used files first. The directory belongs to a
+ * single map: it is emptied when the cache is first used and deleted by {@link #close()}, so
+ * tiles never outlive the overlays that provided them.
+ *
+ * <p>The cache is used from the tile threads of the Maps SDK, so all methods are thread-safe. The
+ * lock only guards the bookkeeping: files are read and written outside of it, and cleared tiles
+ * are deleted on a background thread, so clearing the cache from the main thread never waits for
+ * disk I/O.
+ */
+class TileCache {
+  private static final String TAG = "TileCache";
+  private static final long DEFAULT_MAX_DISK_SIZE = 32 * 1024 * 1024;
+
+  /** Identifies a tile of an overlay. */
+  static final class TileKey {
+    final String tileOverlayId;
+    final int x;
+    final int y;
+    final int zoom;
+
+    TileKey(String tileOverlayId, int x, int y, int zoom) {
+      this.tileOverlayId = tileOverlayId;
+      this.x = x;
+      this.y = y;
+      this.zoom = zoom;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof TileKey)) {
+        return false;
+      }
+      final TileKey other = (TileKey) o;
+      return x == other.x
+          && y == other.y
+          && zoom == other.zoom
+          && tileOverlayId.equals(other.tileOverlayId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(new Object[] {tileOverlayId, x, y, zoom});
+    }
+  }
+
+  private final BoundedLruCache<TileKey, Tile> memoryCache;
+  private final File directory;
+  private final long maxDiskSize;
+  // A single thread, only kept alive while there are tiles to delete.
+  private final ExecutorService deletionExecutor =
+      new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+  private final Object directoryLock = new Object();
+  private volatile boolean directoryReady;
+  private long diskSize;
+  private boolean closed;
+  private boolean trimming;
+  private int generation;
+  private int trashCount;
+
+  TileCache(File directory) {
+    this(directory, Runtime.getRuntime().maxMemory() / 32, DEFAULT_MAX_DISK_SIZE);
+  }
+
+  TileCache(File directory, long maxMemorySize, long maxDiskSize) {
+    this.memoryCache = new BoundedLruCache<>(maxMemorySize);
+    this.directory = directory;
+    this.maxDiskSize = maxDiskSize;
+  }
+
+  /**
+   * Returns a counter that changes every time tiles are cleared.
+   *
+   * <p>Read it before requesting a tile, and pass it to {@link #put} so a tile requested before
+   * the cache was cleared is not cached.
+   */
+  synchronized int getGeneration() {
+    return generation;
+  }
+
+  /** Returns the cached tile for {@code key}, looking in memory first and then on disk, or null. */
+  Tile get(TileKey key) {
+    final Tile tile = memoryCache.get(key);
+    if (tile != null) {
+      return tile;
+    }
+    return readFromDisk(key);
+  }
+
+  /**
+   * Caches {@code tile}, unless it has no image or tiles were cleared since {@code generation}.
+   */
+  void put(TileKey key, Tile tile, int generation) {
+    if (tile == null || tile.data == null) {
+      return;
+    }
+    synchronized (this) {
+      if (closed || generation != this.generation) {
+        return;
+      }
+      memoryCache.put(key, tile, tile.data.length);
+    }
+    writeToDisk(key, tile, generation);
+  }
+
+  /** Removes the cached tiles of an overlay. */
+  void clear(String tileOverlayId) {
+    final File trash;
+    synchronized (this) {
+      generation++;
+      for (TileKey key : memoryCache.getKeys()) {
+        if (key.tileOverlayId.equals(tileOverlayId)) {
+          memoryCache.remove(key);
+        }
+      }
+      if (closed || !directoryReady) {
+        return;
+      }
+      // Only the directory is renamed while holding the lock, so no tile requested after this
+      // call can be read from it. Its files are deleted in the background.
+      trash = new File(directory, ".trash" + trashCount++);
+      if (!getOverlayDirectory(tileOverlayId).renameTo(trash)) {
+        return;
+      }
+    }
+    deletionExecutor.execute(
+        () -> {
+          final long deletedSize = delete(trash);
+          synchronized (TileCache.this) {
+            if (!closed) {
+              diskSize -= deletedSize;
+            }
+          }
+        });
+  }
+
+  /** Removes every cached tile and deletes the cache directory in the background. */
+  void close() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      generation++;
+      memoryCache.clear();
+      diskSize = 0;
+    }
+    deletionExecutor.execute(() -> delete(directory));
+    deletionExecutor.shutdown();
+  }
+
+  private Tile readFromDisk(TileKey key) {
+    final int generation;
+    synchronized (this) {
+      if (closed) {
+        return null;
+      }
+      generation = this.generation;
+    }
+    if (!prepareDirectory()) {
+      return null;
+    }
+    final File file = getFile(key);
+    if (!file.exists()) {
+      return null;
+    }
+    final Tile tile;
+    try (DataInputStream input = new DataInputStream(new FileInputStream(file))) {
+      final int width = input.readInt();
+      final int height = input.readInt();
+      final byte[] data = new byte[input.readInt()];
+      input.readFully(data);
+      // Touching the file keeps recently used tiles from being evicted.
+      file.setLastModified(System.currentTimeMillis());
+      tile = new Tile(width, height, data);
+    } catch (IOException e) {
+      Log.w(TAG, "Can't read cached tile " + file, e);
+      deleteFile(file);
+      return null;
+    }
+    synchronized (this) {
+      if (closed || generation != this.generation) {
+        // The file was read while the tiles were cleared.
+        return null;
+      }
+      memoryCache.put(key, tile, tile.data.length);
+    }
+    return tile;
+  }
+
+  private void writeToDisk(TileKey key, Tile tile, int generation) {
+    if (!prepareDirectory()) {
+      return;
+    }
+    final File file = getFile(key);
+    final File parent = file.getParentFile();
+    if (!parent.isDirectory() && !parent.mkdirs()) {
+      return;
+    }
+    // The tile is written to a temporary file first, so readers never see a partial tile.
+    final File temporaryFile =
+        new File(parent, file.getName() + ".tmp" + Thread.currentThread().getId());
+    try (DataOutputStream output =
+        new DataOutputStream(new FileOutputStream(temporaryFile))) {
+      output.writeInt(tile.width);
+      output.writeInt(tile.height);
+      output.writeInt(tile.data.length);
+      output.write(tile.data);
+    } catch (IOException e) {
+      Log.w(TAG, "Can't cache tile " + file, e);
+      temporaryFile.delete();
+      return;
+    }
+    final long replacedLength = file.length();
+    if (!temporaryFile.renameTo(file)) {
+      // The overlay directory was moved away by clear().
+      temporaryFile.delete();
+      return;
+    }
+
+    final long length = file.length();
+    final boolean cleared;
+    final boolean trim;
+    synchronized (this) {
+      cleared = closed || generation != this.generation;
+      if (!cleared) {
+        diskSize += length - replacedLength;
+      }
+      trim = !cleared && diskSize > maxDiskSize && !trimming;
+      trimming |= trim;
+    }
+    if (cleared) {
+      // The tiles were cleared while this one was written.
+      file.delete();
+    } else if (trim) {
+      trimDisk();
+    }
+  }
+
+  /** Deletes the least recently used files until the directory is back to 3/4 of its budget. */
+  private void trimDisk() {
+    try {
+      final List<File> files = new ArrayList<>();
+      listFiles(directory, files);
+      Collections.sort(
+          files,
+          new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+              return Long.compare(a.lastModified(), b.lastModified());
+            }
+          });
+      final long targetSize = maxDiskSize / 4 * 3;
+      for (File file : files) {
+        if (file.getName().contains(".tmp")) {
+          // Not accounted for until it has been written.
+          continue;
+        }
+        synchronized (this) {
+          if (closed || diskSize <= targetSize) {
+            break;
+          }
+        }
+        deleteFile(file);
+      }
+    } finally {
+      synchronized (this) {
+        trimming = false;
+      }
+    }
+  }
+
+  /** Deletes a cached tile, keeping track of the size of the directory. */
+  private void deleteFile(File file) {
+    final long length = file.length();
+    if (file.delete()) {
+      synchronized (this) {
+        diskSize -= length;
+      }
+    }
+  }
+
+  /**
+   * Empties the directory left behind by a previous map with the same id, the first time.
+   *
+   * <p>Only the first tile threads wait for this, clearing the cache does not.
+   */
+  private boolean prepareDirectory() {
+    if (directoryReady) {
+      return true;
+    }
+    synchronized (directoryLock) {
+      if (!directoryReady) {
+        delete(directory);
+        directoryReady = directory.mkdirs();
+      }
+      return directoryReady;
+    }
+  }
+
+  private File getOverlayDirectory(String tileOverlayId) {
+    // Overlay ids are arbitrary strings, so they are hex-encoded into valid file names.
+    final StringBuilder name = new StringBuilder();
+    for (byte b : tileOverlayId.getBytes(Charset.forName("UTF-8"))) {
+      name.append(String.format("%02x", b));
+    }
+    return new File(directory, name.toString());
+  }
+
+  private File getFile(TileKey key) {
+    return new File(
+        getOverlayDirectory(key.tileOverlayId), key.zoom + "_" + key.x + "_" + key.y);
+  }
+
+  private static void listFiles(File file, List<File> files) {
+    final File[] children = file.listFiles();
+    if (children == null) {
+      return;
+    }
+    for (File child : children) {
+      if (child.isDirectory()) {
+        listFiles(child, files);
+      } else {
+        files.add(child);
+      }
+    }
+  }
+
+  /** Deletes {@code file} recursively, and returns the size of the files that were deleted. */
+  private static long delete(File file) {
+    long deletedSize = 0;
+    final File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        deletedSize += delete(child);
+      }
+    }
+    final long length = file.isFile() ? file.length() : 0;
+    if (file.delete()) {
+      deletedSize += length;
+    }
+    return deletedSize;
+  }
+}
@@ -5,6 +5,7 @@
 package io.flutter.plugins.googlemaps;
 
 import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.CameraPosition;
 import com.google.android.gms.maps.model.TileOverlay;
 import com.google.android.gms.maps.model.TileOverlayOptions;
 import io.flutter.plugin.common.MethodChannel;
@@ -13,20 +14,37 @@ import java.util.List;
 import java.util.Map;
 
 class TileOverlaysController {
+  private static final int MAX_RUNNING_TILE_REQUESTS = 4;
 
   private final Map<String, TileOverlayController> tileOverlayIdToController;
   private final MethodChannel methodChannel;
+  private final TileCache tileCache;
+  private final TileRequestScheduler tileRequestScheduler =
+      new TileRequestScheduler(MAX_RUNNING_TILE_REQUESTS);
   private GoogleMap googleMap;
 
-  TileOverlaysController(MethodChannel methodChannel) {
+  TileOverlaysController(MethodChannel methodChannel, TileCache tileCache) {
     this.tileOverlayIdToController = new HashMap<>();
     this.methodChannel = methodChannel;
+    this.tileCache = tileCache;
   }
 
   void setGoogleMap(GoogleMap googleMap) {
     this.googleMap = googleMap;
   }
 
+  /** Lets queued tile requests follow the camera, as it moves. */
+  void updateCamera() {
+    if (tileOverlayIdToController.isEmpty()) {
+      return;
+    }
+    final CameraPosition cameraPosition = googleMap.getCameraPosition();
+    tileRequestScheduler.setCamera(
+        googleMap.getProjection().getVisibleRegion().latLngBounds,
+        cameraPosition.target,
+        cameraPosition.zoom);
+  }
+
   void addTileOverlays(List<Map<String, ?>> tileOverlaysToAdd) {
     if (tileOverlaysToAdd == null) {
       return;
@@ -61,12 +79,18 @@ class TileOverlaysController {
     if (tileOverlayId == null) {
       return;
     }
+    tileCache.clear(tileOverlayId);
     TileOverlayController tileOverlayController = tileOverlayIdToController.get(tileOverlayId);
     if (tileOverlayController != null) {
       tileOverlayController.clearTileCache();
     }
   }
 
+  /** Deletes the tiles cached for every overlay, once the map is disposed. */
+  void dispose() {
+    tileCache.close();
+  }
+
   Map<String, Object> getTileOverlayInfo(String tileOverlayId) {
     if (tileOverlayId == null) {
       return null;
@@ -86,12 +110,14 @@ class TileOverlaysController {
     String tileOverlayId =
         Convert.interpretTileOverlayOptions(tileOverlayOptions, tileOverlayOptionsBuilder);
     TileProviderController tileProviderController =
-        new TileProviderController(methodChannel, tileOverlayId);
+        new TileProviderController(
+            methodChannel, tileOverlayId, tileCache, tileRequestScheduler);
     tileOverlayOptionsBuilder.setTileProvider(tileProviderController);
     TileOverlayOptions options = tileOverlayOptionsBuilder.build();
     TileOverlay tileOverlay = googleMap.addTileOverlay(options);
     TileOverlayController tileOverlayController = new TileOverlayController(tileOverlay);
     tileOverlayIdToController.put(tileOverlayId, tileOverlayController);
+    updateCamera();
   }
 
   private void changeTileOverlay(Map<String, ?> tileOverlayOptions) {
@@ -111,6 +137,7 @@ class TileOverlaysController {
       tileOverlayController.remove();
       tileOverlayIdToController.remove(tileOverlayId);
     }
+    tileCache.clear(tileOverlayId);
   }
 
   @SuppressWarnings("unchecked")
@@ -7,39 +7,75 @@ package io.flutter.plugins.googlemaps;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
-import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.google.android.gms.maps.model.Tile;
 import com.google.android.gms.maps.model.TileProvider;
 import io.flutter.plugin.common.MethodChannel;
 import java.util.Map;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Provides the tiles of an overlay by asking Dart for them.
+ *
+ * <p>Tiles are cached in a {@link TileCache}, and concurrent requests for the same tile wait for a
+ * single call to Dart. Calls are sent by a {@link TileRequestScheduler}, and a request that is
+ * cancelled, or gets no answer in time once sent, returns null, so the Maps SDK asks for the tile
+ * again later.
+ */
 class TileProviderController implements TileProvider {
 
   private static final String TAG = "TileProviderController";
+  private static final long TIMEOUT_MILLISECONDS = 5000;
 
   private final String tileOverlayId;
   private final MethodChannel methodChannel;
+  private final TileCache tileCache;
+  private final TileRequestScheduler scheduler;
   private final Handler handler = new Handler(Looper.getMainLooper());
+  private final Map<TileCache.TileKey, Worker> pendingWorkers = new ConcurrentHashMap<>();
 
-  TileProviderController(MethodChannel methodChannel, String tileOverlayId) {
+  TileProviderController(
+      MethodChannel methodChannel,
+      String tileOverlayId,
+      TileCache tileCache,
+      TileRequestScheduler scheduler) {
     this.tileOverlayId = tileOverlayId;
     this.methodChannel = methodChannel;
+    this.tileCache = tileCache;
+    this.scheduler = scheduler;
   }
 
   @Override
   public Tile getTile(final int x, final int y, final int zoom) {
-    Worker worker = new Worker(x, y, zoom);
-    return worker.getTile();
+    final TileCache.TileKey key = new TileCache.TileKey(tileOverlayId, x, y, zoom);
+    final Tile cachedTile = tileCache.get(key);
+    if (cachedTile != null) {
+      return cachedTile;
+    }
+    final Worker worker = new Worker(x, y, zoom);
+    final Worker pendingWorker = pendingWorkers.putIfAbsent(key, worker);
+    if (pendingWorker != null) {
+      return pendingWorker.awaitTile();
+    }
+    final int generation = tileCache.getGeneration();
+    try {
+      final Tile tile = worker.getTile();
+      tileCache.put(key, tile, generation);
+      return tile;
+    } finally {
+      pendingWorkers.remove(key);
+    }
   }
 
-  private final class Worker implements MethodChannel.Result {
+  private final class Worker implements MethodChannel.Result, TileRequestScheduler.Request {
 
-    private final CountDownLatch countDownLatch = new CountDownLatch(1);
+    private final TileRequestScheduler.Completion completion =
+        new TileRequestScheduler.Completion();
     private final int x;
     private final int y;
     private final int zoom;
     private Map<String, ?> result;
+    private volatile boolean cancelled;
 
     Worker(int x, int y, int zoom) {
       this.x = x;
@@ -47,24 +83,73 @@ class TileProviderController implements TileProvider {
       this.zoom = zoom;
     }
 
-    @NonNull
-    Tile getTile() {
+    @Override
+    public int getX() {
+      return x;
+    }
+
+    @Override
+    public int getY() {
+      return y;
+    }
+
+    @Override
+    public int getZoom() {
+      return zoom;
+    }
+
+    @Override
+    public void send() {
+      completion.onSent();
       handler.post(
           () ->
               methodChannel.invokeMethod(
                   "tileOverlay#getTile",
                   Convert.tileOverlayArgumentsToJson(tileOverlayId, x, y, zoom),
                   this));
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      completion.onCompleted();
+    }
+
+    @Nullable
+    Tile getTile() {
+      scheduler.schedule(this);
+      try {
+        return awaitTile();
+      } finally {
+        scheduler.finish(this);
+      }
+    }
+
+    /**
+     * Waits for the tile requested by {@link #getTile()}, possibly on another thread.
+     *
+     * @return The tile, or null if the request was cancelled or timed out.
+     */
+    @Nullable
+    Tile awaitTile() {
       try {
-        // Because `methodChannel.invokeMethod` is async, we use a `countDownLatch` make it synchronized.
-        countDownLatch.await();
+        // Because `methodChannel.invokeMethod` is async, we wait for its completion.
+        if (!completion.await(TIMEOUT_MILLISECONDS)) {
+          Log.w(
+              TAG,
+              String.format("Timed out getting tile: x = %d, y = %d, zoom = %d", x, y, zoom));
+          return null;
+        }
       } catch (InterruptedException e) {
         Log.e(
             TAG,
-            String.format("countDownLatch: can't get tile: x = %d, y= %d, zoom = %d", x, y, zoom),
+            String.format("Interrupted: can't get tile: x = %d, y= %d, zoom = %d", x, y, zoom),
             e);
         return TileProvider.NO_TILE;
       }
+      if (cancelled) {
+        return null;
+      }
       try {
         return Convert.interpretTile(result);
       } catch (Exception e) {
@@ -76,7 +161,7 @@ class TileProviderController implements TileProvider {
     @Override
     public void success(Object data) {
       result = (Map<String, ?>) data;
-      countDownLatch.countDown();
+      completion.onCompleted();
     }
 
     @Override
@@ -87,14 +172,14 @@ class TileProviderController implements TileProvider {
               "Can't get tile: errorCode = %s, errorMessage = %s, date = %s",
               errorCode, errorCode, data));
       result = null;
-      countDownLatch.countDown();
+      completion.onCompleted();
     }
 
     @Override
     public void notImplemented() {
       Log.e(TAG, "Can't get tile: notImplemented");
       result = null;
-      countDownLatch.countDown();
+      completion.onCompleted();
     }
   }
 }
@@ -0,0 +1,168 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when the tile requests of a map are sent to Dart.
+ *
+ * <p>At most a fixed number of requests are sent at a time. Queued requests are sent in order of
+ * distance from the camera target, and are cancelled once their tile leaves the visible region or
+ * the camera zooms away from their zoom level.
+ */
+class TileRequestScheduler {
+  /** A request for a tile, made on a tile thread of the Maps SDK. */
+  interface Request {
+    int getX();
+
+    int getY();
+
+    int getZoom();
+
+    /** Sends the request to Dart. Called with the scheduler locked, so it must not block. */
+    void send();
+
+    /** Gives up on the request before it was sent, because its tile is no longer needed. */
+    void cancel();
+  }
+
+  /**
+   * Lets the tile thread of a request wait for its answer. The timeout only starts once the request
+   * was sent, so requests don't time out while they are queued behind slow ones.
+   */
+  static final class Completion {
+    private final CountDownLatch sentLatch = new CountDownLatch(1);
+    private final CountDownLatch completedLatch = new CountDownLatch(1);
+
+    /** Called when the request is sent, which starts its timeout. */
+    void onSent() {
+      sentLatch.countDown();
+    }
+
+    /** Called when the request was answered, or cancelled before it was sent. */
+    void onCompleted() {
+      sentLatch.countDown();
+      completedLatch.countDown();
+    }
+
+    /**
+     * Waits until the request is sent, then at most {@code timeoutMillis} for it to complete.
+     *
+     * @return Whether the request completed in time.
+     */
+    boolean await(long timeoutMillis) throws InterruptedException {
+      sentLatch.await();
+      return completedLatch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private final int maxRunningRequests;
+  private final List<Request> queuedRequests = new ArrayList<>();
+  private final Set<Request> runningRequests = new HashSet<>();
+  private LatLngBounds visibleRegion;
+  private LatLng target;
+  private float zoom;
+
+  TileRequestScheduler(int maxRunningRequests) {
+    this.maxRunningRequests = maxRunningRequests;
+  }
+
+  /** Queues {@code request}, sending it right away if fewer than the maximum are running. */
+  synchronized void schedule(Request request) {
+    queuedRequests.add(request);
+    sendQueuedRequests();
+  }
+
+  /**
+   * Releases {@code request} once it completed, timed out or was cancelled, letting the next
+   * queued request be sent.
+   */
+  synchronized void finish(Request request) {
+    if (queuedRequests.remove(request)) {
+      return;
+    }
+    if (runningRequests.remove(request)) {
+      sendQueuedRequests();
+    }
+  }
+
+  /**
+   * Updates the camera used to prioritize requests, and cancels the queued requests whose tile is
+   * no longer visible.
+   */
+  synchronized void setCamera(LatLngBounds visibleRegion, LatLng target, float zoom) {
+    this.visibleRegion = visibleRegion;
+    this.target = target;
+    this.zoom = zoom;
+    final Iterator<Request> iterator = queuedRequests.iterator();
+    while (iterator.hasNext()) {
+      final Request request = iterator.next();
+      if (!isVisible(request)) {
+        iterator.remove();
+        request.cancel();
+      }
+    }
+  }
+
+  private void sendQueuedRequests() {
+    while (runningRequests.size() < maxRunningRequests && !queuedRequests.isEmpty()) {
+      Request nextRequest = queuedRequests.get(0);
+      if (target != null) {
+        double nextDistance = Double.MAX_VALUE;
+        for (Request request : queuedRequests) {
+          final double distance = getDistance(request, target);
+          if (distance < nextDistance) {
+            nextRequest = request;
+            nextDistance = distance;
+          }
+        }
+      }
+      queuedRequests.remove(nextRequest);
+      runningRequests.add(nextRequest);
+      nextRequest.send();
+    }
+  }
+
+  private boolean isVisible(Request request) {
+    if (Math.abs(request.getZoom() - zoom) >= 1) {
+      return false;
+    }
+    final int tileCount = 1 << request.getZoom();
+    final int north = toTile(WebMercator.toWorldY(visibleRegion.northeast.latitude), tileCount);
+    final int south = toTile(WebMercator.toWorldY(visibleRegion.southwest.latitude), tileCount);
+    if (request.getY() < north || request.getY() > south) {
+      return false;
+    }
+    final int west = toTile(WebMercator.toWorldX(visibleRegion.southwest.longitude), tileCount);
+    final int east = toTile(WebMercator.toWorldX(visibleRegion.northeast.longitude), tileCount);
+    if (west <= east) {
+      return west <= request.getX() && request.getX() <= east;
+    }
+    // The visible region crosses the antimeridian.
+    return request.getX() >= west || request.getX() <= east;
+  }
+
+  /** Returns the distance, in tiles, between the center of a tile and {@code target}. */
+  static double getDistance(Request request, LatLng target) {
+    final int tileCount = 1 << request.getZoom();
+    double dx = Math.abs(request.getX() + 0.5 - WebMercator.toWorldX(target.longitude) * tileCount);
+    dx = Math.min(dx, tileCount - dx);
+    final double dy = request.getY() + 0.5 - WebMercator.toWorldY(target.latitude) * tileCount;
+    return Math.hypot(dx, dy);
+  }
+
+  private static int toTile(double world, int tileCount) {
+    return Math.max(0, Math.min(tileCount - 1, (int) Math.floor(world * tileCount)));
+  }
+}
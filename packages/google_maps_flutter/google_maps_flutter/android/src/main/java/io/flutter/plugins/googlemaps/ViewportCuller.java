@@ -0,0 +1,119 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Decides which objects of a collection are on the map, based on the region around the camera.
+ *
+ * <p>Every object is kept in a {@link SpatialIndex}. Only objects whose bounds intersect the
+ * culling region are shown, and the listener is told whenever an object enters or leaves the
+ * region, so it can add it to or remove it from the map.
+ */
+class ViewportCuller {
+  /** Adds and removes objects from the map as they enter and leave the culling region. */
+  interface Listener {
+    void onEnterRegion(String id);
+
+    void onLeaveRegion(String id);
+  }
+
+  private final SpatialIndex<String> index = new SpatialIndex<>();
+  private final Set<String> shownIds = new HashSet<>();
+  private final Listener listener;
+  private List<SpatialIndex.Bounds> region;
+
+  ViewportCuller(Listener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Adds or moves an object, showing or hiding it right away depending on the culling region.
+   *
+   * @param bounds Bounds of the object, or null if it has no extent yet and should not be shown.
+   */
+  void put(String id, SpatialIndex.Bounds bounds) {
+    if (bounds == null) {
+      index.remove(id);
+    } else {
+      index.put(id, bounds);
+    }
+    final boolean inRegion = bounds != null && isInRegion(bounds);
+    if (inRegion && shownIds.add(id)) {
+      listener.onEnterRegion(id);
+    } else if (!inRegion && shownIds.remove(id)) {
+      listener.onLeaveRegion(id);
+    }
+  }
+
+  /** Forgets an object, which the caller removes from the map itself. */
+  void remove(String id) {
+    index.remove(id);
+    shownIds.remove(id);
+  }
+
+  boolean isShown(String id) {
+    return shownIds.contains(id);
+  }
+
+  /**
+   * Changes the culling region, showing the objects that entered it and hiding those that left it.
+   *
+   * @param region The rectangles making up the region, usually the visible region and a margin.
+   */
+  void setRegion(List<SpatialIndex.Bounds> region) {
+    this.region = region;
+    final Set<String> idsInRegion = new HashSet<>();
+    for (SpatialIndex.Bounds bounds : region) {
+      index.query(bounds, idsInRegion);
+    }
+
+    final Iterator<String> iterator = shownIds.iterator();
+    final List<String> leftIds = new ArrayList<>();
+    while (iterator.hasNext()) {
+      final String id = iterator.next();
+      if (!idsInRegion.contains(id)) {
+        iterator.remove();
+        leftIds.add(id);
+      }
+    }
+    for (String id : leftIds) {
+      listener.onLeaveRegion(id);
+    }
+    for (String id : idsInRegion) {
+      if (shownIds.add(id)) {
+        listener.onEnterRegion(id);
+      }
+    }
+  }
+
+  /** Shows every object, for example before culling is disabled. */
+  void showAll() {
+    for (String id : index.getItems()) {
+      if (shownIds.add(id)) {
+        listener.onEnterRegion(id);
+      }
+    }
+  }
+
+  private boolean isInRegion(SpatialIndex.Bounds bounds) {
+    // Until the region is known, objects are not shown so the map is not flooded with objects
+    // that might be far off-screen.
+    if (region == null) {
+      return false;
+    }
+    for (SpatialIndex.Bounds regionBounds : region) {
+      if (regionBounds.intersects(bounds)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,35 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+/**
+ * The Web Mercator projection of the map, in world coordinates from 0 to 1 on both axes.
+ *
+ * <p>At zoom level z, the world is {@link #TILE_SIZE} * 2^z logical pixels wide.
+ */
+final class WebMercator {
+  /** The size of a map tile, in logical pixels. */
+  static final double TILE_SIZE = 256;
+
+  /** The latitude of the top and bottom edges of the map, which is square. */
+  static final double MAX_LATITUDE = 85.05112878;
+
+  private WebMercator() {}
+
+  /** Projects a longitude to the x axis, from 0 at -180 to 1 at 180. */
+  static double toWorldX(double longitude) {
+    return (longitude + 180) / 360;
+  }
+
+  /**
+   * Projects a latitude to the y axis, from 0 at the north to 1 at the south. Latitudes beyond
+   * {@link #MAX_LATITUDE} are clamped to the edges of the map.
+   */
+  static double toWorldY(double latitude) {
+    final double clamped = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+    final double sin = Math.sin(Math.toRadians(clamped));
+    return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+  }
+}
@@ -0,0 +1,50 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+
+import org.junit.Test;
+
+public class BoundedLruCacheTest {
+
+  @Test
+  public void put_EvictsLeastRecentlyUsedEntriesOverBudget() {
+    final BoundedLruCache<String, String> cache = new BoundedLruCache<>(10);
+    cache.put("a", "A", 4);
+    cache.put("b", "B", 4);
+    cache.get("a");
+
+    cache.put("c", "C", 4);
+
+    assertEquals("A", cache.get("a"));
+    assertNull(cache.get("b"));
+    assertEquals("C", cache.get("c"));
+    assertEquals(8, cache.size());
+  }
+
+  @Test
+  public void put_ReplacesPreviousValue() {
+    final BoundedLruCache<String, String> cache = new BoundedLruCache<>(10);
+    cache.put("a", "A", 4);
+
+    cache.put("a", "AA", 6);
+
+    assertEquals("AA", cache.get("a"));
+    assertEquals(6, cache.size());
+  }
+
+  @Test
+  public void put_SkipsValuesLargerThanBudget() {
+    final BoundedLruCache<String, String> cache = new BoundedLruCache<>(10);
+    cache.put("a", "A", 4);
+
+    cache.put("b", "B", 11);
+
+    assertNull(cache.get("b"));
+    assertEquals("A", cache.get("a"));
+  }
+}
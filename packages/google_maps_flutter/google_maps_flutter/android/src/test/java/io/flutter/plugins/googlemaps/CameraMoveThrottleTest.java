@@ -0,0 +1,70 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+import com.google.android.gms.maps.model.CameraPosition;
+import com.google.android.gms.maps.model.LatLng;
+import org.junit.Test;
+
+public class CameraMoveThrottleTest {
+
+  @Test
+  public void onMove_LimitsRate() {
+    final CameraMoveThrottle throttle = new CameraMoveThrottle(10, 0, 0, 0);
+
+    assertTrue(throttle.onMove(position(0, 0, 10, 0), 0));
+    assertFalse(throttle.onMove(position(1, 1, 10, 0), 50));
+    assertTrue(throttle.onMove(position(2, 2, 10, 0), 100));
+  }
+
+  @Test
+  public void onMove_SkipsSmallChanges() {
+    final CameraMoveThrottle throttle = new CameraMoveThrottle(0, 10, 0.1, 5);
+
+    assertTrue(throttle.onMove(position(0, 0, 10, 0), 0));
+    // At zoom 10, the world is 262144 pixels wide, so 0.001 degrees is less than a pixel.
+    assertFalse(throttle.onMove(position(0, 0.001, 10.05f, 2), 16));
+    assertTrue(throttle.onMove(position(0, 0.1, 10.05f, 2), 32));
+    // Bearings wrap around, so 2 and 358 degrees are only 4 degrees apart.
+    assertFalse(throttle.onMove(position(0, 0.1, 10.05f, 358), 48));
+  }
+
+  @Test
+  public void onMove_IgnoresThresholdsThatAreNotSet() {
+    final CameraMoveThrottle throttle = new CameraMoveThrottle(0, 10, 0, 0);
+
+    assertTrue(throttle.onMove(position(0, 0, 10, 0), 0));
+    // Zoom and bearing changes alone don't count when only the target threshold is set.
+    assertFalse(throttle.onMove(position(0, 0.001, 11, 90), 16));
+    assertTrue(throttle.onMove(position(0, 0.1, 11, 90), 32));
+  }
+
+  @Test
+  public void flush_SendsSkippedFinalPosition() {
+    final CameraMoveThrottle throttle = new CameraMoveThrottle(10, 0, 0, 0);
+    throttle.onMove(position(0, 0, 10, 0), 0);
+    throttle.onMove(position(1, 1, 10, 0), 50);
+
+    assertTrue(throttle.flush(position(1, 1, 10, 0)));
+    // The next gesture starts over, and sends its first move right away.
+    assertTrue(throttle.onMove(position(1, 2, 10, 0), 60));
+  }
+
+  @Test
+  public void flush_SkipsPositionAlreadySent() {
+    final CameraMoveThrottle throttle = new CameraMoveThrottle(10, 0, 0, 0);
+    throttle.onMove(position(0, 0, 10, 0), 0);
+
+    assertFalse(throttle.flush(position(0, 0, 10, 0)));
+  }
+
+  private static CameraPosition position(
+      double latitude, double longitude, float zoom, float bearing) {
+    return new CameraPosition(new LatLng(latitude, longitude), zoom, 0, bearing);
+  }
+}
@@ -0,0 +1,72 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static junit.framework.TestCase.assertEquals;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.PolygonOptions;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class ConvertTest {
+
+  @Test
+  public void interpretPolylineOptions_DecodesPackedPoints() {
+    final Map<String, Object> data = new HashMap<>();
+    data.put("polylineId", "track");
+    data.put("points", new double[] {48.858370123456, 2.294481987654, -33.8688, 151.2093});
+    final PolylineBuilder builder = new PolylineBuilder(1);
+
+    Convert.interpretPolylineOptions(data, builder);
+
+    final List<LatLng> points = builder.getPoints();
+    assertEquals(2, points.size());
+    assertEquals(48.858370123456, points.get(0).latitude);
+    assertEquals(2.294481987654, points.get(0).longitude);
+    assertEquals(151.2093, points.get(1).longitude);
+  }
+
+  @Test
+  public void interpretPolygonOptions_DecodesPackedHoles() {
+    final Map<String, Object> data = new HashMap<>();
+    data.put("polygonId", "area");
+    data.put("points", new double[] {0, 0, 0, 10, 10, 10, 10, 0});
+    data.put("holes", Collections.singletonList(new double[] {2, 2, 2, 3, 3, 3}));
+    final PolygonBuilder builder = new PolygonBuilder(1);
+
+    Convert.interpretPolygonOptions(data, builder);
+
+    final PolygonOptions options = builder.build();
+    assertEquals(4, options.getPoints().size());
+    assertEquals(1, options.getHoles().size());
+    assertEquals(new LatLng(3, 3), options.getHoles().get(0).get(2));
+  }
+
+  @Test
+  public void interpretPolylineOptions_KeepsDoublePrecisionOfListPoints() {
+    final Map<String, Object> data = new HashMap<>();
+    data.put("polylineId", "track");
+    data.put("points", Collections.singletonList(Arrays.asList(48.858370123456, 2.294481987654)));
+    final PolylineBuilder builder = new PolylineBuilder(1);
+
+    Convert.interpretPolylineOptions(data, builder);
+
+    assertEquals(48.858370123456, builder.getPoints().get(0).latitude);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void interpretPolylineOptions_RejectsOddPackedPoints() {
+    final Map<String, Object> data = new HashMap<>();
+    data.put("polylineId", "track");
+    data.put("points", new double[] {1, 2, 3});
+
+    Convert.interpretPolylineOptions(data, new PolylineBuilder(1));
+  }
+}
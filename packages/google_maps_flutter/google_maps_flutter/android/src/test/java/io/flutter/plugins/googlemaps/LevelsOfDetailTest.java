@@ -0,0 +1,75 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertSame;
+import static junit.framework.TestCase.assertTrue;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class LevelsOfDetailTest {
+
+  @Test
+  public void getPoints_DropsCollinearPoints() {
+    final List<LatLng> points = new ArrayList<>();
+    for (int i = 0; i <= 100; i++) {
+      points.add(new LatLng(0, i * 0.01));
+    }
+
+    final List<LatLng> simplified = new LevelsOfDetail(points).getPoints(21);
+
+    assertEquals(2, simplified.size());
+    assertEquals(points.get(0), simplified.get(0));
+    assertEquals(points.get(100), simplified.get(1));
+  }
+
+  @Test
+  public void getPoints_KeepsMoreDetailWhenZoomedIn() {
+    final List<LatLng> points = new ArrayList<>();
+    for (int i = 0; i <= 1000; i++) {
+      // A zigzag about 10 meters wide.
+      points.add(new LatLng(i % 2 == 0 ? 0 : 0.0001, i * 0.001));
+    }
+    final LevelsOfDetail levelsOfDetail = new LevelsOfDetail(points);
+
+    final List<LatLng> zoomedOut = levelsOfDetail.getPoints(5);
+    final List<LatLng> zoomedIn = levelsOfDetail.getPoints(20);
+
+    assertEquals(2, zoomedOut.size());
+    assertSame(points, zoomedIn);
+  }
+
+  @Test
+  public void getPoints_ReturnsSameListWithinLevel() {
+    final List<LatLng> points = new ArrayList<>();
+    for (int i = 0; i <= 100; i++) {
+      points.add(new LatLng(Math.sin(i / 10.0), i * 0.1));
+    }
+    final LevelsOfDetail levelsOfDetail = new LevelsOfDetail(points);
+
+    assertSame(levelsOfDetail.getPoints(7.2f), levelsOfDetail.getPoints(7.9f));
+    assertTrue(levelsOfDetail.getPoints(3).size() <= levelsOfDetail.getPoints(8).size());
+  }
+
+  @Test
+  public void computeTolerances_NestsLevels() {
+    final List<LatLng> points = new ArrayList<>();
+    for (int i = 0; i <= 200; i++) {
+      points.add(new LatLng(Math.sin(i / 7.0) * Math.cos(i / 3.0), i * 0.05));
+    }
+    final double[] tolerances = LevelsOfDetail.computeTolerances(points);
+
+    // Every point of a coarse level must also be in every finer level.
+    final List<LatLng> coarse = new LevelsOfDetail(points).getPoints(4);
+    final List<LatLng> fine = new LevelsOfDetail(points).getPoints(9);
+    assertTrue(fine.containsAll(coarse));
+    assertEquals(Double.POSITIVE_INFINITY, tolerances[0]);
+    assertEquals(Double.POSITIVE_INFINITY, tolerances[200]);
+  }
+}
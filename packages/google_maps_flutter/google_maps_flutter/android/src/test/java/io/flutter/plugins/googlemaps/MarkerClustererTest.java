@@ -0,0 +1,70 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static junit.framework.TestCase.assertEquals;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class MarkerClustererTest {
+  private static final LatLngBounds WORLD =
+      new LatLngBounds(new LatLng(-85, -179.9), new LatLng(85, 179.9));
+
+  @Test
+  public void cluster_GroupsNearbyMarkers() {
+    final Map<String, LatLng> positions = new HashMap<>();
+    positions.put("a", new LatLng(48.8566, 2.3522));
+    positions.put("b", new LatLng(48.8570, 2.3530));
+    positions.put("c", new LatLng(-33.8688, 151.2093));
+
+    final List<MarkerClusterer.Cluster> clusters =
+        new MarkerClusterer(60).cluster(positions, 5.5f, WORLD);
+
+    assertEquals(2, clusters.size());
+    final MarkerClusterer.Cluster paris =
+        clusters.get(0).size() == 2 ? clusters.get(0) : clusters.get(1);
+    assertEquals(2, paris.size());
+    assertEquals(48.8568, paris.getPosition().latitude, 1e-9);
+  }
+
+  @Test
+  public void cluster_SplitsClustersWhenZoomingIn() {
+    final Map<String, LatLng> positions = new HashMap<>();
+    positions.put("a", new LatLng(48.8566, 2.3522));
+    positions.put("b", new LatLng(48.8570, 2.3530));
+
+    final List<MarkerClusterer.Cluster> clusters =
+        new MarkerClusterer(60).cluster(positions, 19, WORLD);
+
+    assertEquals(2, clusters.size());
+  }
+
+  @Test
+  public void cluster_SkipsMarkersOutsideVisibleRegion() {
+    final Map<String, LatLng> positions = new HashMap<>();
+    positions.put("a", new LatLng(48.8566, 2.3522));
+    positions.put("b", new LatLng(-33.8688, 151.2093));
+    final LatLngBounds europe = new LatLngBounds(new LatLng(35, -10), new LatLng(60, 30));
+
+    final List<MarkerClusterer.Cluster> clusters =
+        new MarkerClusterer(60).cluster(positions, 3, europe);
+
+    assertEquals(1, clusters.size());
+    assertEquals("a", clusters.get(0).markerIds.get(0));
+  }
+
+  @Test
+  public void getLabel_RoundsLargeCountsDown() {
+    assertEquals("7", MarkerClusterIcons.getLabel(7));
+    assertEquals("40+", MarkerClusterIcons.getLabel(47));
+    assertEquals("300+", MarkerClusterIcons.getLabel(321));
+    assertEquals("12k+", MarkerClusterIcons.getLabel(12345));
+  }
+}
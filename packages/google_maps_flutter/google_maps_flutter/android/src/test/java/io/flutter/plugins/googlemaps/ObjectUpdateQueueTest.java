@@ -0,0 +1,255 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+import android.view.Choreographer;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ObjectUpdateQueueTest {
+  private final List<String> events = new ArrayList<>();
+  private FakeExecutor executor;
+  private FakeMainThread mainThread;
+  private ObjectUpdateQueue queue;
+
+  /** Runs the parsers only when {@link #runAll()} is called. */
+  private static class FakeExecutor extends AbstractExecutorService {
+    final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    boolean shutdown;
+
+    void runAll() {
+      while (!tasks.isEmpty()) {
+        tasks.poll().run();
+      }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      tasks.add(command);
+    }
+
+    @Override
+    public void shutdown() {
+      shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+      shutdown = true;
+      final List<Runnable> pending = new ArrayList<>(tasks);
+      tasks.clear();
+      return pending;
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return shutdown && tasks.isEmpty();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+      return isTerminated();
+    }
+  }
+
+  /** Runs posted messages and frames only when asked to, with a clock advanced by operations. */
+  private static class FakeMainThread implements ObjectUpdateQueue.MainThread {
+    final ArrayDeque<Runnable> messages = new ArrayDeque<>();
+    Choreographer.FrameCallback frameCallback;
+    long nanos;
+
+    void runMessages() {
+      while (!messages.isEmpty()) {
+        messages.poll().run();
+      }
+    }
+
+    /** Returns whether a frame callback was posted, and runs it. */
+    boolean runFrame() {
+      final Choreographer.FrameCallback callback = frameCallback;
+      if (callback == null) {
+        return false;
+      }
+      frameCallback = null;
+      callback.doFrame(nanos);
+      return true;
+    }
+
+    @Override
+    public void post(Runnable runnable) {
+      messages.add(runnable);
+    }
+
+    @Override
+    public void postFrameCallback(Choreographer.FrameCallback callback) {
+      frameCallback = callback;
+    }
+
+    @Override
+    public void removeFrameCallback(Choreographer.FrameCallback callback) {
+      if (frameCallback == callback) {
+        frameCallback = null;
+      }
+    }
+
+    @Override
+    public long nanoTime() {
+      return nanos;
+    }
+  }
+
+  private class FakeResult implements MethodChannel.Result {
+    final String name;
+
+    FakeResult(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public void success(Object result) {
+      events.add(name + " success");
+    }
+
+    @Override
+    public void error(String errorCode, String errorMessage, Object errorDetails) {
+      events.add(name + " error " + errorCode);
+    }
+
+    @Override
+    public void notImplemented() {
+      events.add(name + " notImplemented");
+    }
+  }
+
+  @Before
+  public void setUp() {
+    executor = new FakeExecutor();
+    mainThread = new FakeMainThread();
+    queue = new ObjectUpdateQueue(executor, mainThread);
+  }
+
+  @Test
+  public void update_AppliesUpdatesInOrder() {
+    queue.update(operations("a1", "a2"), new FakeResult("a"));
+    queue.update(operations("b1"), new FakeResult("b"));
+
+    runAll();
+
+    assertEquals(Arrays.asList("a1", "a2", "a success", "b1", "b success"), events);
+  }
+
+  @Test
+  public void update_SpreadsOperationsOverFrames() {
+    final List<Runnable> slowOperations = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      final String name = "op" + i;
+      slowOperations.add(
+          () -> {
+            events.add(name);
+            // Each operation takes half of the frame budget.
+            mainThread.nanos += 4_000_000;
+          });
+    }
+    queue.update(operations -> operations.addAll(slowOperations), new FakeResult("a"));
+    executor.runAll();
+    mainThread.runMessages();
+
+    assertTrue(mainThread.runFrame());
+    assertEquals(Arrays.asList("op0", "op1"), events);
+    assertTrue(mainThread.runFrame());
+    assertEquals(Arrays.asList("op0", "op1", "op2", "op3"), events);
+    // The result is only sent once every operation of the update ran.
+    assertTrue(mainThread.runFrame());
+    assertEquals(Arrays.asList("op0", "op1", "op2", "op3", "a success"), events);
+  }
+
+  @Test
+  public void update_AppliesNothingOfUpdateThatCannotBeParsed() {
+    queue.update(
+        operations -> {
+          operations.add(() -> events.add("a1"));
+          throw new IllegalArgumentException("Invalid icon");
+        },
+        new FakeResult("a"));
+    queue.update(operations("b1"), new FakeResult("b"));
+
+    runAll();
+
+    assertEquals(Arrays.asList("a error Invalid update", "b1", "b success"), events);
+  }
+
+  @Test
+  public void update_SkipsRestOfUpdateAfterFailedOperation() {
+    queue.update(
+        operations ->
+            operations.addAll(
+                Arrays.<Runnable>asList(
+                    () -> events.add("a1"),
+                    () -> {
+                      throw new IllegalStateException("Unknown marker");
+                    },
+                    () -> events.add("a3"))),
+        new FakeResult("a"));
+    queue.update(operations("b1"), new FakeResult("b"));
+
+    runAll();
+
+    assertEquals(Arrays.asList("a1", "a error Invalid update", "b1", "b success"), events);
+  }
+
+  @Test
+  public void dispose_FailsPendingUpdates() {
+    queue.update(operations("a1"), new FakeResult("a"));
+    executor.runAll();
+    mainThread.runMessages();
+    queue.update(operations("b1"), new FakeResult("b"));
+
+    queue.dispose();
+    runAll();
+
+    assertEquals(Arrays.asList("a error Map disposed", "b error Map disposed"), events);
+    assertTrue(executor.isShutdown());
+  }
+
+  @Test
+  public void update_FailsAfterDispose() {
+    queue.dispose();
+
+    queue.update(operations("a1"), new FakeResult("a"));
+    runAll();
+
+    assertEquals(Collections.singletonList("a error Map disposed"), events);
+  }
+
+  private ObjectUpdateQueue.Parser operations(final String... names) {
+    return operations -> {
+      for (final String name : names) {
+        operations.add(() -> events.add(name));
+      }
+    };
+  }
+
+  private void runAll() {
+    executor.runAll();
+    mainThread.runMessages();
+    while (mainThread.runFrame()) {}
+  }
+}
@@ -0,0 +1,56 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static junit.framework.TestCase.assertEquals;
+
+import com.google.android.gms.maps.model.MarkerOptions;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class PackedMarkersTest {
+
+  @Test
+  public void toPackedMarkers_DecodesParallelArrays() {
+    final Map<String, Object> data = new HashMap<>();
+    data.put("markerIds", Arrays.asList("a", "b"));
+    data.put("positions", new double[] {1.5, 2.5, -33.868820123, 151.209295987});
+    data.put("rotations", new double[] {0, 90});
+    data.put("zIndices", new double[] {1, 2});
+
+    final PackedMarkers packedMarkers = Convert.toPackedMarkers(data, null);
+    final MarkerBuilder builder = new MarkerBuilder();
+    packedMarkers.interpretMarker(1, builder);
+    final MarkerOptions options = builder.build();
+
+    assertEquals(2, packedMarkers.size());
+    assertEquals("b", packedMarkers.getMarkerId(1));
+    assertEquals(-33.868820123, options.getPosition().latitude);
+    assertEquals(151.209295987, options.getPosition().longitude);
+    assertEquals(90f, options.getRotation());
+    assertEquals(2f, options.getZIndex());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void toPackedMarkers_RejectsMismatchedPositions() {
+    final Map<String, Object> data = new HashMap<>();
+    data.put("markerIds", Arrays.asList("a", "b"));
+    data.put("positions", new double[] {1.5, 2.5});
+
+    Convert.toPackedMarkers(data, null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void toPackedMarkers_RejectsIconIndexWithoutIcons() {
+    final Map<String, Object> data = new HashMap<>();
+    data.put("markerIds", Arrays.asList("a"));
+    data.put("positions", new double[] {1.5, 2.5});
+    data.put("iconIndices", new int[] {0});
+
+    Convert.toPackedMarkers(data, null);
+  }
+}
@@ -8,7 +8,10 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 
 import com.google.android.gms.internal.maps.zzz;
+import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Polyline;
+import java.util.Arrays;
+import java.util.List;
 import org.junit.Test;
 import org.mockito.Mockito;
 
@@ -26,4 +29,23 @@ public class PolylineControllerTest {
 
     Mockito.verify(polyline).setWidth(density * strokeWidth);
   }
+
+  @Test
+  public void update_ReplacesOptionsWithScaledWidth() {
+    final zzz z = mock(zzz.class);
+    final Polyline polyline = spy(new Polyline(z));
+
+    final float density = 5;
+    final PolylineController controller = new PolylineController(polyline, false, density);
+    final PolylineBuilder builder = new PolylineBuilder(density);
+    final List<LatLng> points = Arrays.asList(new LatLng(1, 2), new LatLng(3, 4));
+    builder.setWidth(3);
+    builder.setPoints(points);
+    builder.setConsumeTapEvents(true);
+    controller.update(builder);
+
+    Mockito.verify(polyline).setWidth(density * 3);
+    Mockito.verify(polyline).setPoints(points);
+    Mockito.verify(polyline).setClickable(true);
+  }
 }
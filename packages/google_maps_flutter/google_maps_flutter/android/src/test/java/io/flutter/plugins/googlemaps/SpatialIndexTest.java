@@ -0,0 +1,70 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+
+public class SpatialIndexTest {
+  @Test
+  public void query_ReturnsItemsIntersectingArea() {
+    final SpatialIndex<String> index = new SpatialIndex<>();
+    for (int i = 0; i < 100; i++) {
+      index.put("p" + i, SpatialIndex.Bounds.ofPoint(new LatLng(i * 0.5, i * 0.5)));
+    }
+    index.put("line", new SpatialIndex.Bounds(-10, -100, 10, 100));
+
+    final Set<String> result = new HashSet<>();
+    index.query(new SpatialIndex.Bounds(0.9, 0.9, 2.1, 2.1), result);
+
+    assertEquals(new HashSet<>(Arrays.asList("p2", "p3", "p4", "line")), result);
+  }
+
+  @Test
+  public void put_MovesExistingItem() {
+    final SpatialIndex<String> index = new SpatialIndex<>();
+    index.put("a", SpatialIndex.Bounds.ofPoint(new LatLng(10, 10)));
+    index.put("a", SpatialIndex.Bounds.ofPoint(new LatLng(-10, -10)));
+
+    final List<String> result = new ArrayList<>();
+    index.query(new SpatialIndex.Bounds(0, 0, 20, 20), result);
+    assertTrue(result.isEmpty());
+    index.query(new SpatialIndex.Bounds(-20, -20, 0, 0), result);
+    assertEquals(Arrays.asList("a"), result);
+    assertEquals(1, index.getItems().size());
+  }
+
+  @Test
+  public void ofRegion_SplitsAtAntimeridian() {
+    final LatLngBounds visible = new LatLngBounds(new LatLng(-10, 170), new LatLng(10, -170));
+
+    final List<SpatialIndex.Bounds> region = SpatialIndex.Bounds.ofRegion(visible, 0.5);
+
+    assertEquals(2, region.size());
+    assertEquals(160, region.get(0).west, 1e-9);
+    assertEquals(180, region.get(0).east, 1e-9);
+    assertEquals(-180, region.get(1).west, 1e-9);
+    assertEquals(-160, region.get(1).east, 1e-9);
+    assertEquals(-20, region.get(0).south, 1e-9);
+  }
+
+  @Test
+  public void ofCircle_CoversRadius() {
+    final SpatialIndex.Bounds bounds = SpatialIndex.Bounds.ofCircle(new LatLng(0, 0), 111320);
+
+    assertTrue(bounds.contains(SpatialIndex.Bounds.ofPoint(new LatLng(0.99, 0.99))));
+    assertFalse(bounds.contains(SpatialIndex.Bounds.ofPoint(new LatLng(1.01, 0))));
+  }
+}
@@ -0,0 +1,109 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertNull;
+
+import com.google.android.gms.maps.model.Tile;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TileCacheTest {
+  private File directory;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("tiles").toFile();
+  }
+
+  @After
+  public void tearDown() {
+    new TileCache(directory).close();
+  }
+
+  @Test
+  public void get_ReadsTilesEvictedFromMemoryFromDisk() {
+    final TileCache cache = new TileCache(directory, 150, 1024);
+    final TileCache.TileKey first = new TileCache.TileKey("overlay", 1, 2, 3);
+    cache.put(first, newTile(100), cache.getGeneration());
+    cache.put(new TileCache.TileKey("overlay", 2, 2, 3), newTile(100), cache.getGeneration());
+
+    final Tile tile = cache.get(first);
+
+    assertNotNull(tile);
+    assertEquals(256, tile.width);
+    assertEquals(100, tile.data.length);
+  }
+
+  @Test
+  public void clear_RemovesTilesOfOverlayOnly() {
+    final TileCache cache = new TileCache(directory, 1024, 1024);
+    final TileCache.TileKey a = new TileCache.TileKey("a", 0, 0, 0);
+    final TileCache.TileKey b = new TileCache.TileKey("b", 0, 0, 0);
+    cache.put(a, newTile(10), cache.getGeneration());
+    cache.put(b, newTile(10), cache.getGeneration());
+
+    cache.clear("a");
+
+    assertNull(cache.get(a));
+    assertNotNull(cache.get(b));
+  }
+
+  @Test
+  public void clear_KeepsCachingTilesOfOverlayOnDisk() {
+    final TileCache cache = new TileCache(directory, 1, 1024);
+    final TileCache.TileKey key = new TileCache.TileKey("a", 0, 0, 0);
+    cache.put(key, newTile(10), cache.getGeneration());
+
+    cache.clear("a");
+    cache.put(key, newTile(20), cache.getGeneration());
+
+    final Tile tile = cache.get(key);
+    assertNotNull(tile);
+    assertEquals(20, tile.data.length);
+  }
+
+  @Test
+  public void put_IgnoresTilesRequestedBeforeClear() {
+    final TileCache cache = new TileCache(directory, 1024, 1024);
+    final TileCache.TileKey key = new TileCache.TileKey("a", 0, 0, 0);
+    final int generation = cache.getGeneration();
+
+    cache.clear("a");
+    cache.put(key, newTile(10), generation);
+
+    assertNull(cache.get(key));
+  }
+
+  @Test
+  public void put_TrimsDiskToBudget() {
+    final TileCache cache = new TileCache(directory, 1, 400);
+    for (int x = 0; x < 4; x++) {
+      cache.put(new TileCache.TileKey("a", x, 0, 0), newTile(100), cache.getGeneration());
+    }
+
+    int cachedTiles = 0;
+    for (int x = 0; x < 4; x++) {
+      if (cache.get(new TileCache.TileKey("a", x, 0, 0)) != null) {
+        cachedTiles++;
+      }
+    }
+    // Each file holds 112 bytes, and the directory is trimmed to 300 bytes.
+    assertEquals(2, cachedTiles);
+  }
+
+  private static Tile newTile(int size) {
+    final byte[] data = new byte[size];
+    Arrays.fill(data, (byte) 7);
+    return new Tile(256, 256, data);
+  }
+}
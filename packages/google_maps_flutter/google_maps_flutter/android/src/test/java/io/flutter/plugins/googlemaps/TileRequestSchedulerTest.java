@@ -0,0 +1,151 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+public class TileRequestSchedulerTest {
+  private final List<String> events = new ArrayList<>();
+
+  private class FakeRequest implements TileRequestScheduler.Request {
+    final int x;
+    final int y;
+    final int zoom;
+    final TileRequestScheduler.Completion completion = new TileRequestScheduler.Completion();
+
+    FakeRequest(int x, int y, int zoom) {
+      this.x = x;
+      this.y = y;
+      this.zoom = zoom;
+    }
+
+    @Override
+    public int getX() {
+      return x;
+    }
+
+    @Override
+    public int getY() {
+      return y;
+    }
+
+    @Override
+    public int getZoom() {
+      return zoom;
+    }
+
+    @Override
+    public void send() {
+      events.add("send " + x + "," + y + "," + zoom);
+      completion.onSent();
+    }
+
+    @Override
+    public void cancel() {
+      events.add("cancel " + x + "," + y + "," + zoom);
+      completion.onCompleted();
+    }
+  }
+
+  @Test
+  public void schedule_LimitsRunningRequests() {
+    final TileRequestScheduler scheduler = new TileRequestScheduler(1);
+    final FakeRequest first = new FakeRequest(0, 0, 1);
+    scheduler.schedule(first);
+    scheduler.schedule(new FakeRequest(1, 0, 1));
+    assertEquals(Arrays.asList("send 0,0,1"), events);
+
+    scheduler.finish(first);
+
+    assertEquals(Arrays.asList("send 0,0,1", "send 1,0,1"), events);
+  }
+
+  @Test
+  public void schedule_SendsClosestTileFirst() {
+    final TileRequestScheduler scheduler = new TileRequestScheduler(1);
+    final FakeRequest running = new FakeRequest(0, 0, 2);
+    scheduler.schedule(running);
+    scheduler.setCamera(
+        new LatLngBounds(new LatLng(-80, -179), new LatLng(80, 179)), new LatLng(-40, 100), 2);
+    scheduler.schedule(new FakeRequest(0, 1, 2));
+    scheduler.schedule(new FakeRequest(3, 2, 2));
+    events.clear();
+
+    scheduler.finish(running);
+
+    assertEquals(Arrays.asList("send 3,2,2"), events);
+  }
+
+  @Test
+  public void setCamera_CancelsQueuedRequestsOutOfView() {
+    final TileRequestScheduler scheduler = new TileRequestScheduler(1);
+    scheduler.schedule(new FakeRequest(0, 0, 2));
+    scheduler.schedule(new FakeRequest(1, 1, 2));
+    scheduler.schedule(new FakeRequest(3, 1, 2));
+    scheduler.schedule(new FakeRequest(0, 2, 2));
+    scheduler.schedule(new FakeRequest(6, 3, 3));
+    events.clear();
+
+    // Looking at the Pacific, across the antimeridian, at zoom 2.
+    scheduler.setCamera(
+        new LatLngBounds(new LatLng(0, 170), new LatLng(60, -170)), new LatLng(30, 180), 2);
+
+    assertEquals(Arrays.asList("cancel 1,1,2", "cancel 6,3,3"), events);
+  }
+
+  @Test
+  public void completion_StartsTimeoutWhenQueuedRequestIsSent() throws Exception {
+    final TileRequestScheduler scheduler = new TileRequestScheduler(1);
+    final FakeRequest slow = new FakeRequest(0, 0, 1);
+    final FakeRequest queued = new FakeRequest(1, 0, 1);
+    scheduler.schedule(slow);
+    scheduler.schedule(queued);
+    final AtomicBoolean completedInTime = new AtomicBoolean();
+    final Thread tileThread =
+        new Thread(
+            () -> {
+              try {
+                completedInTime.set(queued.completion.await(100));
+              } catch (InterruptedException ignored) {
+              }
+            });
+    tileThread.start();
+
+    // The request at the head of the queue takes longer than the timeout to be answered.
+    Thread.sleep(300);
+    slow.completion.onCompleted();
+    scheduler.finish(slow);
+    queued.completion.onCompleted();
+    tileThread.join();
+
+    assertTrue(completedInTime.get());
+  }
+
+  @Test
+  public void completion_TimesOutOnceSent() throws Exception {
+    final TileRequestScheduler scheduler = new TileRequestScheduler(1);
+    final FakeRequest request = new FakeRequest(0, 0, 1);
+    scheduler.schedule(request);
+
+    assertFalse(request.completion.await(10));
+  }
+
+  @Test
+  public void getDistance_WrapsAroundAntimeridian() {
+    final FakeRequest westmost = new FakeRequest(0, 0, 1);
+
+    assertEquals(0.5, TileRequestScheduler.getDistance(westmost, new LatLng(66.51326, 180)), 1e-3);
+  }
+}
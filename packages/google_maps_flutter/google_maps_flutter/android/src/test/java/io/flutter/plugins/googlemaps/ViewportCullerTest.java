@@ -0,0 +1,79 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class ViewportCullerTest {
+  private final List<String> events = new ArrayList<>();
+  private final ViewportCuller culler =
+      new ViewportCuller(
+          new ViewportCuller.Listener() {
+            @Override
+            public void onEnterRegion(String id) {
+              events.add("enter " + id);
+            }
+
+            @Override
+            public void onLeaveRegion(String id) {
+              events.add("leave " + id);
+            }
+          });
+
+  @Test
+  public void put_HidesObjectsUntilRegionIsSet() {
+    culler.put("a", SpatialIndex.Bounds.ofPoint(new LatLng(1, 1)));
+    assertFalse(culler.isShown("a"));
+    assertTrue(events.isEmpty());
+
+    culler.setRegion(Collections.singletonList(new SpatialIndex.Bounds(0, 0, 2, 2)));
+
+    assertTrue(culler.isShown("a"));
+    assertEquals(Arrays.asList("enter a"), events);
+  }
+
+  @Test
+  public void setRegion_ReportsObjectsEnteringAndLeaving() {
+    culler.setRegion(Collections.singletonList(new SpatialIndex.Bounds(0, 0, 2, 2)));
+    culler.put("a", SpatialIndex.Bounds.ofPoint(new LatLng(1, 1)));
+    culler.put("b", SpatialIndex.Bounds.ofPoint(new LatLng(5, 5)));
+    events.clear();
+
+    culler.setRegion(Collections.singletonList(new SpatialIndex.Bounds(4, 4, 6, 6)));
+
+    assertEquals(Arrays.asList("leave a", "enter b"), events);
+  }
+
+  @Test
+  public void put_ReportsMovedObjectLeaving() {
+    culler.setRegion(Collections.singletonList(new SpatialIndex.Bounds(0, 0, 2, 2)));
+    culler.put("a", SpatialIndex.Bounds.ofPoint(new LatLng(1, 1)));
+    events.clear();
+
+    culler.put("a", SpatialIndex.Bounds.ofPoint(new LatLng(5, 5)));
+
+    assertFalse(culler.isShown("a"));
+    assertEquals(Arrays.asList("leave a"), events);
+  }
+
+  @Test
+  public void showAll_ShowsCulledObjects() {
+    culler.put("a", SpatialIndex.Bounds.ofPoint(new LatLng(1, 1)));
+
+    culler.showAll();
+
+    assertTrue(culler.isShown("a"));
+    assertEquals(Arrays.asList("enter a"), events);
+  }
+}